@@ -0,0 +1,253 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+import org.stjs.generator.ClassWithJavascript;
+import org.stjs.generator.GenerationDirectory;
+import org.stjs.generator.Generator;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+
+import com.google.common.io.Files;
+import com.sun.tools.javac.api.JavacTool;
+
+/**
+ * This class builds a synthetic project of the given number of classes, compiled in a temporary folder, that the benchmarks generate.
+ * The classes are grouped by 10 in packages. In a package each class extends the previous one, and each class uses the class with the
+ * same index of the previous package, so the classes have both "extends" and "other" dependencies. Each class has fields, loops, a
+ * for-each over a map, an anonymous callback and a nested class.
+ */
+public final class Corpus {
+	public static final String BASE_PACKAGE = "org.stjs.benchmarks.corpus";
+
+	private static final int CLASSES_PER_PACKAGE = 10;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final File baseFolder;
+	private final File sourceFolder;
+	private final File classesFolder;
+	private final File generationFolder;
+	private final List<String> classNames = new ArrayList<String>();
+	private final ClassLoader classLoader;
+
+	private Corpus(int size) throws IOException {
+		baseFolder = Files.createTempDir();
+		sourceFolder = mkdir(new File(baseFolder, "src"));
+		classesFolder = mkdir(new File(baseFolder, "classes"));
+		generationFolder = mkdir(new File(baseFolder, "generated-js"));
+
+		List<File> sources = new ArrayList<File>();
+		for (int i = 0; i < size; ++i) {
+			String className = packageName(i / CLASSES_PER_PACKAGE) + "." + simpleName(i % CLASSES_PER_PACKAGE);
+			File source = getSourceFile(className);
+			mkdir(source.getParentFile());
+			Files.write(source(i), source, UTF8);
+			classNames.add(className);
+			sources.add(source);
+		}
+		compile(sources);
+		classLoader = new URLClassLoader(new URL[] { classesFolder.toURI().toURL() }, Thread.currentThread().getContextClassLoader());
+	}
+
+	/**
+	 * creates and compiles a corpus of the given number of classes
+	 */
+	public static Corpus create(int size) throws IOException {
+		return new Corpus(size);
+	}
+
+	private static File mkdir(File folder) throws IOException {
+		if (!folder.exists() && !folder.mkdirs()) {
+			throw new IOException("Cannot create the directory " + folder);
+		}
+		return folder;
+	}
+
+	private static String packageName(int p) {
+		return BASE_PACKAGE + ".p" + p;
+	}
+
+	private static String simpleName(int c) {
+		return "Class" + c;
+	}
+
+	private static String source(int i) {
+		int p = i / CLASSES_PER_PACKAGE;
+		int c = i % CLASSES_PER_PACKAGE;
+		StringBuilder s = new StringBuilder();
+		s.append("package ").append(packageName(p)).append(";\n\n");
+		s.append("import static org.stjs.javascript.JSCollections.$array;\n");
+		s.append("import static org.stjs.javascript.JSCollections.$map;\n\n");
+		s.append("import org.stjs.javascript.Array;\n");
+		s.append("import org.stjs.javascript.Map;\n");
+		s.append("import org.stjs.javascript.functions.Callback1;\n\n");
+		s.append("public class ").append(simpleName(c));
+		if (c > 0) {
+			s.append(" extends ").append(simpleName(c - 1));
+		}
+		s.append(" {\n");
+		s.append("\tprivate int count").append(c).append(";\n");
+		s.append("\tprivate final String name").append(c).append(" = \"").append(simpleName(c)).append("\";\n");
+		s.append("\tprivate final Array<Integer> values").append(c).append(";\n");
+		s.append("\tprivate final Map<String, Integer> index").append(c).append(";\n\n");
+
+		s.append("\tpublic ").append(simpleName(c)).append("() {\n");
+		s.append("\t\tvalues").append(c).append(" = $array(1, 2, 3);\n");
+		s.append("\t\tindex").append(c).append(" = $map(\"a\", 1, \"b\", 2);\n");
+		s.append("\t}\n\n");
+
+		s.append("\tpublic int sum").append(c).append("(int max) {\n");
+		s.append("\t\tint s = 0;\n");
+		s.append("\t\tfor (int k = 0; k < max; ++k) {\n");
+		s.append("\t\t\tif (k % 2 == 0) {\n");
+		s.append("\t\t\t\ts += k;\n");
+		s.append("\t\t\t} else {\n");
+		s.append("\t\t\t\ts -= count").append(c).append(";\n");
+		s.append("\t\t\t}\n");
+		s.append("\t\t}\n");
+		s.append("\t\treturn s;\n");
+		s.append("\t}\n\n");
+
+		s.append("\tpublic String describe").append(c).append("() {\n");
+		s.append("\t\tfor (String key : index").append(c).append(") {\n");
+		s.append("\t\t\tcount").append(c).append(" += index").append(c).append(".$get(key);\n");
+		s.append("\t\t}\n");
+		s.append("\t\treturn name").append(c).append(" + \":\" + count").append(c).append(" + \":\" + values").append(c)
+				.append(".$length();\n");
+		s.append("\t}\n\n");
+
+		s.append("\tpublic Array<Integer> doubled").append(c).append("() {\n");
+		s.append("\t\tfinal Array<Integer> result = new Array<Integer>();\n");
+		s.append("\t\tvalues").append(c).append(".forEach(new Callback1<Integer>() {\n");
+		s.append("\t\t\t@Override\n");
+		s.append("\t\t\tpublic void $invoke(Integer v) {\n");
+		s.append("\t\t\t\tresult.push(v * 2);\n");
+		s.append("\t\t\t}\n");
+		s.append("\t\t});\n");
+		s.append("\t\treturn result;\n");
+		s.append("\t}\n\n");
+
+		if (p > 0) {
+			String other = packageName(p - 1) + "." + simpleName(c);
+			s.append("\tpublic ").append(other).append(" other").append(c).append("() {\n");
+			s.append("\t\treturn new ").append(other).append("();\n");
+			s.append("\t}\n\n");
+		}
+
+		s.append("\tpublic static class Entry").append(c).append(" {\n");
+		s.append("\t\tpublic int value;\n");
+		s.append("\t\tpublic String label;\n");
+		s.append("\t}\n");
+		s.append("}\n");
+		return s.toString();
+	}
+
+	private void compile(List<File> sources) throws IOException {
+		JavaCompiler compiler = JavacTool.create();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, UTF8);
+		try {
+			DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+			List<String> options =
+					Arrays.asList("-proc:none", "-classpath", System.getProperty("java.class.path"), "-d", classesFolder.getAbsolutePath());
+			boolean compiled =
+					compiler.getTask(null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjectsFromFiles(sources)).call();
+			if (!compiled) {
+				throw new IllegalStateException("Cannot compile the corpus: " + diagnostics.getDiagnostics());
+			}
+		}
+		finally {
+			fileManager.close();
+		}
+	}
+
+	/**
+	 * @return the configuration generating the corpus, as the maven plugin would
+	 */
+	public GeneratorConfiguration getConfiguration() {
+		return new GeneratorConfigurationBuilder() //
+				.allowedPackage(BASE_PACKAGE) //
+				.allowedPackage("org.stjs.javascript") //
+				.stjsClassLoader(classLoader) //
+				.targetFolder(classesFolder) //
+				.generationFolder(new GenerationDirectory(generationFolder, new File("generated-js"), generationFolder.toURI())) //
+				.build();
+	}
+
+	/**
+	 * generates all the classes of the corpus, in the order of their dependencies
+	 */
+	public List<ClassWithJavascript> generate(Generator generator) {
+		List<ClassWithJavascript> classes = new ArrayList<ClassWithJavascript>(classNames.size());
+		for (String className : classNames) {
+			classes.add(generator.generateJavascript(className, sourceFolder));
+		}
+		return classes;
+	}
+
+	/**
+	 * @return the names of the classes, in the order of their dependencies
+	 */
+	public List<String> getClassNames() {
+		return Collections.unmodifiableList(classNames);
+	}
+
+	public File getSourceFile(String className) {
+		return new File(sourceFolder, className.replace('.', File.separatorChar) + ".java");
+	}
+
+	public File getSourceFolder() {
+		return sourceFolder;
+	}
+
+	public File getGenerationFolder() {
+		return generationFolder;
+	}
+
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	public void delete() throws IOException {
+		deleteRecursively(baseFolder);
+	}
+
+	private static void deleteRecursively(File file) throws IOException {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		if (!file.delete()) {
+			throw new IOException("Cannot delete " + file);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.generator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.generator.ClassWithJavascript;
+import org.stjs.generator.DependencyCollector;
+import org.stjs.generator.Generator;
+
+/**
+ * The ordering of the dependencies of the generated classes, used to build the list of the scripts of a page (from a single class) and
+ * the pack file (from all the classes of the project).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class DependencyCollectorBenchmark {
+	@Param({ "10", "100", "300" })
+	private int corpusSize;
+
+	private Corpus corpus;
+	private List<ClassWithJavascript> classes;
+
+	@Setup
+	public void setup() throws IOException {
+		corpus = Corpus.create(corpusSize);
+		Generator generator = new Generator(corpus.getConfiguration());
+		try {
+			classes = corpus.generate(generator);
+		}
+		finally {
+			generator.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		corpus.delete();
+	}
+
+	@Benchmark
+	public List<ClassWithJavascript> orderDependenciesOfClass() {
+		return new DependencyCollector().orderAllDependencies(classes.get(classes.size() - 1));
+	}
+
+	@Benchmark
+	public List<ClassWithJavascript> orderDependenciesOfProject() {
+		return new DependencyCollector().orderAllDependencies(classes);
+	}
+}
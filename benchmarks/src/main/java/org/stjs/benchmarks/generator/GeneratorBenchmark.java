@@ -0,0 +1,76 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.generator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.generator.ClassWithJavascript;
+import org.stjs.generator.Generator;
+import org.stjs.generator.GeneratorConfiguration;
+
+/**
+ * The generation of a whole project, from the Java sources to the JavaScript files, as the maven plugin does it: a single generator for
+ * all the classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class GeneratorBenchmark {
+	@Param({ "10", "100" })
+	private int corpusSize;
+
+	private Corpus corpus;
+	private GeneratorConfiguration configuration;
+
+	@Setup
+	public void setup() throws IOException {
+		corpus = Corpus.create(corpusSize);
+		configuration = corpus.getConfiguration();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		corpus.delete();
+	}
+
+	@Benchmark
+	public List<ClassWithJavascript> generateJavascript() {
+		Generator generator = new Generator(configuration);
+		try {
+			return corpus.generate(generator);
+		}
+		finally {
+			generator.close();
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.stjs.generator.GenerationContext;
+import org.stjs.generator.GenerationContext.AnnotationCacheKey;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.javac.CustomClassloaderJavaFileManager;
+import org.stjs.generator.javascript.JavaScriptBuilder;
+import org.stjs.generator.javascript.rhino.RhinoJavaScriptBuilder;
+import org.stjs.generator.name.DefaultJavaScriptNameProvider;
+import org.stjs.generator.plugin.GenerationPlugins;
+
+import com.google.common.collect.Maps;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Trees;
+import com.sun.tools.javac.api.JavacTool;
+
+/**
+ * The phases of the generation of a project, measured in isolation as the Generator runs them in sequence: the parsing and the analysis
+ * of the Java code by javac, the check, the writing of the JavaScript AST and its dump to text. Each phase gets the result of the
+ * previous phases, computed outside the measure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class GeneratorPhasesBenchmark {
+	private static final List<String> JAVAC_OPTIONS = Collections.singletonList("-proc:none");
+
+	@Param({ "10", "50" })
+	private int corpusSize;
+
+	private Corpus corpus;
+	private GeneratorConfiguration configuration;
+	private GenerationPlugins<Object> plugins;
+	private JavaCompiler compiler;
+	private StandardJavaFileManager standardFileManager;
+	private JavaFileManager fileManager;
+	private final Map<AnnotationCacheKey, Object> cacheAnnotations = Maps.newHashMap();
+	private final List<ParsedClass> parsedClasses = new ArrayList<ParsedClass>();
+
+	/**
+	 * a class of the corpus, parsed and analyzed by javac
+	 */
+	private static final class ParsedClass {
+		private final File source;
+		private final GenerationPlugins<Object> plugins;
+		private final JavacTask task;
+		private final CompilationUnitTree compilationUnit;
+
+		public ParsedClass(File source, GenerationPlugins<Object> plugins, JavacTask task, CompilationUnitTree compilationUnit) {
+			this.source = source;
+			this.plugins = plugins;
+			this.task = task;
+			this.compilationUnit = compilationUnit;
+		}
+	}
+
+	/**
+	 * the contexts of the classes, after the check, that the writers need
+	 */
+	@State(Scope.Thread)
+	public static class CheckedClasses {
+		private final List<GenerationContext<Object>> contexts = new ArrayList<GenerationContext<Object>>();
+
+		@Setup(Level.Invocation)
+		public void setup(GeneratorPhasesBenchmark benchmark) {
+			contexts.clear();
+			for (ParsedClass parsedClass : benchmark.parsedClasses) {
+				contexts.add(benchmark.check(parsedClass));
+			}
+		}
+	}
+
+	/**
+	 * the JavaScript AST of the classes, that is dumped
+	 */
+	@State(Scope.Thread)
+	public static class WrittenClasses {
+		private final List<GenerationContext<Object>> contexts = new ArrayList<GenerationContext<Object>>();
+		private final List<Object> javascriptRoots = new ArrayList<Object>();
+
+		@Setup(Level.Trial)
+		public void setup(GeneratorPhasesBenchmark benchmark) {
+			for (ParsedClass parsedClass : benchmark.parsedClasses) {
+				GenerationContext<Object> context = benchmark.check(parsedClass);
+				javascriptRoots.add(benchmark.write(parsedClass, context));
+				contexts.add(context);
+			}
+		}
+	}
+
+	@Setup
+	public void setup() throws IOException, ClassNotFoundException {
+		corpus = Corpus.create(corpusSize);
+		configuration = corpus.getConfiguration();
+		plugins = new GenerationPlugins<Object>();
+		compiler = JavacTool.create();
+		standardFileManager = compiler.getStandardFileManager(null, null, Charset.forName(configuration.getSourceEncoding()));
+		fileManager = new CustomClassloaderJavaFileManager(corpus.getClassLoader(), standardFileManager);
+		for (String className : corpus.getClassNames()) {
+			File source = corpus.getSourceFile(className);
+			JavacTask task = newTask(source);
+			CompilationUnitTree compilationUnit = task.parse().iterator().next();
+			task.analyze();
+			Class<?> clazz = corpus.getClassLoader().loadClass(className);
+			parsedClasses.add(new ParsedClass(source, plugins.forClass(clazz), task, compilationUnit));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		standardFileManager.close();
+		corpus.delete();
+	}
+
+	private JavacTask newTask(File source) {
+		return (JavacTask) compiler.getTask(null, fileManager, null, JAVAC_OPTIONS, null,
+				standardFileManager.getJavaFileObjectsFromFiles(Collections.singleton(source)));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private GenerationContext<Object> newContext(ParsedClass parsedClass) {
+		GenerationContext<Object> context = new GenerationContext<Object>(parsedClass.source, configuration,
+				new DefaultJavaScriptNameProvider(), null, cacheAnnotations, (JavaScriptBuilder) new RhinoJavaScriptBuilder());
+		context.setTrees(Trees.instance(parsedClass.task));
+		context.setElements(parsedClass.task.getElements());
+		context.setTypes(parsedClass.task.getTypes());
+		context.setCompilationUnit(parsedClass.compilationUnit);
+		return context;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private GenerationContext<Object> check(ParsedClass parsedClass) {
+		GenerationContext<Object> context = newContext(parsedClass);
+		parsedClass.plugins.getCheckVisitor().scan(parsedClass.compilationUnit, (GenerationContext) context);
+		context.getChecks().check();
+		return context;
+	}
+
+	private Object write(ParsedClass parsedClass, GenerationContext<Object> context) {
+		Object javascriptRoot = parsedClass.plugins.getWriterVisitor().scan(parsedClass.compilationUnit, context);
+		context.getChecks().check();
+		return javascriptRoot;
+	}
+
+	@Benchmark
+	public void parseAndAnalyze(Blackhole blackhole) {
+		for (ParsedClass parsedClass : parsedClasses) {
+			JavacTask task = newTask(parsedClass.source);
+			try {
+				blackhole.consume(task.parse());
+				blackhole.consume(task.analyze());
+			}
+			catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	@Benchmark
+	public void check(Blackhole blackhole) {
+		for (ParsedClass parsedClass : parsedClasses) {
+			blackhole.consume(check(parsedClass));
+		}
+	}
+
+	@Benchmark
+	public void write(CheckedClasses checkedClasses, Blackhole blackhole) {
+		for (int i = 0; i < parsedClasses.size(); ++i) {
+			blackhole.consume(write(parsedClasses.get(i), checkedClasses.contexts.get(i)));
+		}
+	}
+
+	@Benchmark
+	public void dump(WrittenClasses writtenClasses, Blackhole blackhole) {
+		for (int i = 0; i < writtenClasses.contexts.size(); ++i) {
+			StringWriter writer = new StringWriter();
+			writtenClasses.contexts.get(i).writeJavaScript(writtenClasses.javascriptRoots.get(i), writer);
+			blackhole.consume(writer.toString());
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.traverse.TopologicalOrderIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.generator.ClassWithJavascript;
+import org.stjs.generator.Generator;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.STJSClass;
+import org.stjs.generator.name.DependencyType;
+import org.stjs.maven.PackChunker;
+import org.stjs.maven.PackTreeShaker;
+import org.stjs.maven.SourceMapUtils;
+
+import com.google.common.io.Files;
+import com.google.debugging.sourcemap.SourceMapFormat;
+import com.google.debugging.sourcemap.SourceMapGeneratorFactory;
+import com.google.debugging.sourcemap.SourceMapGeneratorV3;
+import com.google.debugging.sourcemap.SourceMapParseException;
+
+/**
+ * The pack step of the maven plugin, on the generated corpus: the order of the classes computed from their dependencies, the
+ * concatenation of their files in the pack file (merging their source maps, if generateSourceMap is true), the tree shaking and the
+ * split in chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class PackBenchmark {
+	@Param({ "10", "100" })
+	private int corpusSize;
+
+	@Param({ "false", "true" })
+	private boolean generateSourceMap;
+
+	private Corpus corpus;
+	private GeneratorConfiguration configuration;
+	private File packFile;
+	private final Map<String, File> files = new HashMap<String, File>();
+	private final Map<String, Map<String, DependencyType>> dependencies = new HashMap<String, Map<String, DependencyType>>();
+
+	@Setup
+	public void setup() throws IOException {
+		corpus = Corpus.create(corpusSize);
+		configuration = new GeneratorConfigurationBuilder(corpus.getConfiguration()).generateSourceMap(generateSourceMap).build();
+		Generator generator = new Generator(configuration);
+		try {
+			for (ClassWithJavascript stjsClass : corpus.generate(generator)) {
+				String className = stjsClass.getJavaClassName();
+				files.put(className, generator.getOutputFile(corpus.getGenerationFolder(), className, false));
+				Map<String, DependencyType> classDependencies = new HashMap<String, DependencyType>();
+				for (Map.Entry<ClassWithJavascript, DependencyType> dep : stjsClass.getDirectDependencyMap().entrySet()) {
+					if (dep.getKey() instanceof STJSClass) {
+						classDependencies.put(dep.getKey().getJavaClassName(), dep.getValue());
+					}
+				}
+				dependencies.put(className, classDependencies);
+			}
+		}
+		finally {
+			generator.close();
+		}
+		packFile = new File(corpus.getGenerationFolder(), "pack.js");
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		corpus.delete();
+	}
+
+	/**
+	 * @return the classes in the order they must be loaded, as the maven plugin computes it
+	 */
+	@Benchmark
+	public List<String> orderClasses() {
+		DirectedGraph<String, DefaultEdge> dependencyGraph = new DefaultDirectedGraph<String, DefaultEdge>(DefaultEdge.class);
+		for (Map.Entry<String, Map<String, DependencyType>> entry : dependencies.entrySet()) {
+			dependencyGraph.addVertex(entry.getKey());
+			for (Map.Entry<String, DependencyType> dep : entry.getValue().entrySet()) {
+				dependencyGraph.addVertex(dep.getKey());
+				if (dep.getValue() != DependencyType.OTHER) {
+					dependencyGraph.addEdge(dep.getKey(), entry.getKey());
+				}
+			}
+		}
+		List<String> packedClasses = new ArrayList<String>();
+		for (Iterator<String> it = new TopologicalOrderIterator<String, DefaultEdge>(dependencyGraph); it.hasNext();) {
+			String className = it.next();
+			if (files.containsKey(className)) {
+				packedClasses.add(className);
+			}
+		}
+		return packedClasses;
+	}
+
+	@Benchmark
+	public String writePackFile() throws IOException, SourceMapParseException {
+		SourceMapGeneratorV3 packSourceMap = (SourceMapGeneratorV3) SourceMapGeneratorFactory.getInstance(SourceMapFormat.V3);
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(packFile));
+		try {
+			int currentLine = 0;
+			for (String className : corpus.getClassNames()) {
+				File file = files.get(className);
+				if (generateSourceMap) {
+					currentLine = SourceMapUtils.appendFileSkipSourceMap(corpus.getGenerationFolder(), out, file, currentLine, packSourceMap,
+							configuration.getSourceEncoding());
+				} else {
+					Files.copy(file, out);
+				}
+			}
+		}
+		finally {
+			out.close();
+		}
+		if (!generateSourceMap) {
+			return null;
+		}
+		StringWriter sourceMap = new StringWriter();
+		packSourceMap.appendTo(sourceMap, packFile.getName());
+		return sourceMap.toString();
+	}
+
+	/**
+	 * the tree shaking from the last class of each package
+	 */
+	@Benchmark
+	public PackTreeShaker shakeTree() {
+		PackTreeShaker treeShaker = new PackTreeShaker(dependencies, false);
+		TreeSet<String> entryPoints = new TreeSet<String>();
+		for (String className : corpus.getClassNames()) {
+			entryPoints.add(className.substring(0, className.lastIndexOf('.')) + ".Class9");
+		}
+		treeShaker.shake(entryPoints);
+		return treeShaker;
+	}
+
+	@Benchmark
+	public PackChunker splitChunks() {
+		PackChunker chunker = new PackChunker(dependencies, new ArrayList<String>());
+		chunker.split(corpus.getClassNames());
+		return chunker;
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.generator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.JavaFileObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.generator.javac.PackageInternalsFinder;
+
+/**
+ * The lookup of the classes of a package by the file manager that javac uses during the generation. The first lookup of a package
+ * lists the entries of the jars or the folders containing it, the next ones are cached. The packages are in the benchmarks jar
+ * (org.stjs.javascript, com.google.common.collect), in the JDK (java.util) and in the folder of the compiled corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class PackageInternalsFinderBenchmark {
+	@Param({ "org.stjs.javascript", "com.google.common.collect", "java.util", Corpus.BASE_PACKAGE })
+	private String packageName;
+
+	@Param({ "false", "true" })
+	private boolean recursive;
+
+	private Corpus corpus;
+	private PackageInternalsFinder cachedFinder;
+
+	@Setup
+	public void setup() throws IOException {
+		corpus = Corpus.create(100);
+		cachedFinder = new PackageInternalsFinder(corpus.getClassLoader());
+		cachedFinder.find(packageName, recursive);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		corpus.delete();
+	}
+
+	@Benchmark
+	public List<JavaFileObject> firstLookup() throws IOException {
+		return new PackageInternalsFinder(corpus.getClassLoader()).find(packageName, recursive);
+	}
+
+	@Benchmark
+	public List<JavaFileObject> cachedLookup() throws IOException {
+		return cachedFinder.find(packageName, recursive);
+	}
+}
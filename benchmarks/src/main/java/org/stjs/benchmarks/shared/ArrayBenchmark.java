@@ -0,0 +1,149 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.shared;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.javascript.Array;
+import org.stjs.javascript.SortFunction;
+import org.stjs.javascript.functions.Callback1;
+
+/**
+ * The common operations of {@link Array}, on both of its stores. A "packed" array has an element at each index, a "sparse" array has an
+ * element every 10 indexes, so it keeps the sparse store (its length is 10 times its number of elements). The operations that modify the
+ * array undo their change, so the array keeps its size and its store from one invocation to the other.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ArrayBenchmark {
+	private static final int SPARSE_STEP = 10;
+
+	@Param({ "100", "10000" })
+	private int size;
+
+	@Param({ "packed", "sparse" })
+	private String store;
+
+	private Array<Integer> array;
+	private int middle;
+	private int sum;
+
+	private final SortFunction<Integer> descending = new SortFunction<Integer>() {
+		@Override
+		public int $invoke(Integer a, Integer b) {
+			return b - a;
+		}
+	};
+
+	private final Callback1<Integer> adder = new Callback1<Integer>() {
+		@Override
+		public void $invoke(Integer value) {
+			sum += value;
+		}
+	};
+
+	@Setup
+	public void setup() {
+		int step = "sparse".equals(store) ? SPARSE_STEP : 1;
+		array = new Array<Integer>();
+		for (int i = 0; i < size; ++i) {
+			array.$set(i * step, i);
+		}
+		middle = size / 2 * step;
+	}
+
+	@Benchmark
+	public Integer pushPop() {
+		array.push(size);
+		return array.pop();
+	}
+
+	/**
+	 * removes the element in the middle of the array, then inserts it back. It is an element of the sparse array, not a hole, so the
+	 * array keeps its number of elements.
+	 */
+	@Benchmark
+	public Array<Integer> spliceRemoveInsert() {
+		Array<Integer> removed = array.splice(middle, 1);
+		array.splice(middle, 0, removed.$get(0));
+		return removed;
+	}
+
+	@Benchmark
+	public Array<Integer> slice() {
+		int length = array.$length();
+		return array.slice(length / 4, length * 3 / 4);
+	}
+
+	/**
+	 * sorts a copy of the array, so the sort never runs on an already sorted array. {@link #copy()} measures the copy alone.
+	 */
+	@Benchmark
+	public Array<Integer> sortCopy() {
+		return array.slice(0).sort(descending);
+	}
+
+	@Benchmark
+	public Array<Integer> copy() {
+		return array.slice(0);
+	}
+
+	@Benchmark
+	public int forEach() {
+		sum = 0;
+		array.forEach(adder);
+		return sum;
+	}
+
+	@Benchmark
+	public int getByIndex() {
+		int s = 0;
+		for (int i = 0, length = array.$length(); i < length; ++i) {
+			Integer value = array.$get(i);
+			if (value != null) {
+				s += value;
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * the for-in loop of the generated code, over the indexes of the elements as strings
+	 */
+	@Benchmark
+	public int forIn() {
+		int count = 0;
+		for (String index : array) {
+			count += index.length();
+		}
+		return count;
+	}
+}
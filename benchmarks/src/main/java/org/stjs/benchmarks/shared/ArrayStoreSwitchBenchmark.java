@@ -0,0 +1,96 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.shared;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.javascript.Array;
+
+/**
+ * The switch of an {@link Array} between its packed and its sparse store, that copies all its elements. Setting an element far beyond
+ * the end of a packed array switches it to the sparse store, truncating it back to its elements switches it to the packed store. The
+ * other benchmarks build an array from scratch, going through the stores its intermediate lengths select.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ArrayStoreSwitchBenchmark {
+	private static final int SPARSE_STEP = 10;
+
+	@Param({ "120", "1000", "10000" })
+	private int size;
+
+	private Array<Integer> array;
+
+	@Setup
+	public void setup() {
+		array = new Array<Integer>();
+		for (int i = 0; i < size; ++i) {
+			array.push(i);
+		}
+	}
+
+	@Benchmark
+	public int switchToSparseAndBack() {
+		array.$set(size * SPARSE_STEP, size);
+		array.$length(size);
+		return array.$length();
+	}
+
+	@Benchmark
+	public Array<Integer> buildPackedWithPush() {
+		Array<Integer> a = new Array<Integer>();
+		for (int i = 0; i < size; ++i) {
+			a.push(i);
+		}
+		return a;
+	}
+
+	@Benchmark
+	public Array<Integer> buildSparseWithSet() {
+		Array<Integer> a = new Array<Integer>();
+		for (int i = 0; i < size; ++i) {
+			a.$set(i * SPARSE_STEP, i);
+		}
+		return a;
+	}
+
+	/**
+	 * an array built backwards starts sparse (its first element is set at its last index) and switches to packed when it fills up
+	 */
+	@Benchmark
+	public Array<Integer> buildBackwards() {
+		Array<Integer> a = new Array<Integer>();
+		for (int i = size - 1; i >= 0; --i) {
+			a.$set(i, i);
+		}
+		return a;
+	}
+}
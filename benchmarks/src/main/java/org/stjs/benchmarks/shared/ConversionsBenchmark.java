@@ -0,0 +1,80 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.shared;
+
+import static org.stjs.javascript.JSCollections.$array;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.stjs.javascript.Array;
+import org.stjs.javascript.JSGlobal;
+
+/**
+ * The conversions between strings, numbers and booleans of {@link JSGlobal} (the ToNumber, ToString and ToBoolean operations of the
+ * specification), and the conversion of the string indexes of an {@link Array}. Each invocation converts all the values of the sample,
+ * that mixes the common cases with the special ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ConversionsBenchmark {
+	private final Object[] strings = { "42", "-3.14159", " 1e21 ", "0x1F", "", "abc" };
+	private final Object[] numbers = { 42, -3.14159, 1e21, 1.0 / 3, Double.NaN, Double.POSITIVE_INFINITY };
+	private final Object[] values = { "", "false", 0, 0.5, Double.NaN, null, numbers };
+	private final String[] indexes = { "0", "5", "9", "10", "-1", "length" };
+	private final Array<Integer> array = $array(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+	@Benchmark
+	public void stringToNumber(Blackhole blackhole) {
+		for (Object s : strings) {
+			blackhole.consume(JSGlobal.Number(s));
+		}
+	}
+
+	@Benchmark
+	public void numberToString(Blackhole blackhole) {
+		for (Object n : numbers) {
+			blackhole.consume(JSGlobal.String(n));
+		}
+	}
+
+	@Benchmark
+	public void toBoolean(Blackhole blackhole) {
+		for (Object v : values) {
+			blackhole.consume(JSGlobal.Boolean(v));
+		}
+	}
+
+	@Benchmark
+	public void arrayStringIndex(Blackhole blackhole) {
+		for (String index : indexes) {
+			blackhole.consume(array.$get(index));
+		}
+	}
+}
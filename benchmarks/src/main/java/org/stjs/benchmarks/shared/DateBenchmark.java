@@ -0,0 +1,95 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.shared;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.javascript.Date;
+
+/**
+ * The construction of a {@link Date} and the access to its fields, in the local time zone and in UTC.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class DateBenchmark {
+	private static final String DATE_STRING = "2015-06-12 10:30:15";
+
+	private Date date;
+	private double time;
+	private int day;
+
+	@Setup
+	public void setup() {
+		date = new Date(2015, 5, 12, 10, 30, 15, 500);
+		time = date.getTime();
+	}
+
+	@Benchmark
+	public Date createFromFields() {
+		return new Date(2015, 5, 12, 10, 30, 15, 500);
+	}
+
+	@Benchmark
+	public Date createFromTime() {
+		return new Date(time);
+	}
+
+	@Benchmark
+	public double parse() {
+		return Date.parse(DATE_STRING);
+	}
+
+	@Benchmark
+	public double getLocalFields() {
+		return date.getFullYear() + date.getMonth() + date.getDate() + date.getHours() + date.getMinutes() + date.getSeconds()
+				+ date.getMilliseconds() + date.getDay();
+	}
+
+	@Benchmark
+	public double getUTCFields() {
+		return date.getUTCFullYear() + date.getUTCMonth() + date.getUTCDate() + date.getUTCHours() + date.getUTCMinutes()
+				+ date.getUTCSeconds() + date.getUTCMilliseconds() + date.getUTCDay();
+	}
+
+	/**
+	 * sets the day of month to a different day at each invocation, then reads the time it gives
+	 */
+	@Benchmark
+	public double setField() {
+		day = day % 28 + 1;
+		date.setDate(day);
+		return date.getTime();
+	}
+
+	@Benchmark
+	public String formatToString() {
+		return date.toString();
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.benchmarks.shared;
+
+import static org.stjs.javascript.JSCollections.$array;
+import static org.stjs.javascript.JSCollections.$map;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stjs.javascript.Array;
+import org.stjs.javascript.Map;
+
+/**
+ * The operations of {@link Map}, and the literals of {@link org.stjs.javascript.JSCollections}. The single key operations go through the
+ * keys of the map one after the other, so they do not always hit the same entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class MapBenchmark {
+	@Param({ "10", "1000", "100000" })
+	private int size;
+
+	private Map<String, Integer> map;
+	private String[] keys;
+	private int next;
+
+	@Setup
+	public void setup() {
+		map = $map();
+		keys = new String[size];
+		for (int i = 0; i < size; ++i) {
+			keys[i] = "key" + i;
+			map.$put(keys[i], i);
+		}
+	}
+
+	private String nextKey() {
+		if (next == keys.length) {
+			next = 0;
+		}
+		return keys[next++];
+	}
+
+	@Benchmark
+	public Integer get() {
+		return map.$get(nextKey());
+	}
+
+	@Benchmark
+	public Map<String, Integer> putExisting() {
+		String key = nextKey();
+		map.$put(key, key.length());
+		return map;
+	}
+
+	@Benchmark
+	public Map<String, Integer> putNewAndDelete() {
+		map.$put("newKey", size);
+		map.$delete("newKey");
+		return map;
+	}
+
+	/**
+	 * the for-in loop of the generated code, reading the value of each key
+	 */
+	@Benchmark
+	public int iterate() {
+		int sum = 0;
+		for (String key : map) {
+			sum += map.$get(key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public Map<String, Integer> mapLiteral() {
+		return $map("a", 1, "b", 2, "c", 3);
+	}
+
+	@Benchmark
+	public Array<Integer> arrayLiteral() {
+		return $array(1, 2, 3);
+	}
+}
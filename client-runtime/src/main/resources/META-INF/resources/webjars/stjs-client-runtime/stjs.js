@@ -260,7 +260,7 @@ Boolean.valueOf=function(value){
 
 /************* STJS helper functions ***************/
 stjs.global=this;
-stjs.skipCopy = {"prototype":true, "constructor": true, "$typeDescription":true, "$inherit" : true};
+stjs.skipCopy = {"prototype":true, "constructor": true, "$typeDescription":true, "$inherit" : true, "$ancestors" : true, "$typeId" : true, "$hydrate" : true};
 
 stjs.ns=function(path){
 	var p = path.split(".");
@@ -325,6 +325,9 @@ stjs.extend=function(_constructor, _super, _implements, _initializer, _typeDescr
 		_constructor.$inherit.push(_implements[a]);
 	}
 
+	// the flattened set of all the super classes and interfaces, used by stjs.isInstanceOf
+	_constructor.$ancestors = stjs.buildAncestors(_constructor.$inherit);
+
 	// remember the correct constructor
 	_constructor.prototype.constructor	= _constructor;
 
@@ -401,14 +404,51 @@ stjs.getParameterAnnotation = function(clz, methodName, idx, annType) {
 	return ann ? ann[annType]: null;
 };
 
+stjs.lastTypeId = 0;
+
+/**
+ * returns the unique id of the given type (constructor), used as key in the $ancestors sets
+ */
+stjs.typeId=function(type){
+	if (type.$typeId === undefined)
+		type.$typeId = ++stjs.lastTypeId;
+	return type.$typeId;
+};
+
 /**
- * checks if the child is an instanceof parent. it checks recursively if "parent" is the child itself or it's found somewhere in the $inherit array
+ * builds the set (type id -> true) of all the ancestors of a type, from its direct parents. The parents built with stjs.extend
+ * have their own ancestors that are only copied, for the others (the types declared by hand) their $inherit array is walked.
+ */
+stjs.buildAncestors=function(parents, ancestors){
+	ancestors = ancestors || {};
+	for(var i = 0; i < parents.length; ++i){
+		var id = stjs.typeId(parents[i]);
+		if (ancestors[id] === true)
+			continue;
+		ancestors[id] = true;
+		var parentAncestors = parents[i].$ancestors;
+		if (parentAncestors) {
+			for(var ancestorId in parentAncestors){
+				ancestors[ancestorId] = true;
+			}
+		} else if (parents[i].$inherit) {
+			stjs.buildAncestors(parents[i].$inherit, ancestors);
+		}
+	}
+	return ancestors;
+};
+
+/**
+ * checks if the child is an instanceof parent, i.e. if "parent" is the child itself or one of its ancestors. For the types that were not
+ * built with stjs.extend it checks recursively if "parent" is found somewhere in the $inherit array
  */
 stjs.isInstanceOf=function(child, parent){
 	if (child == null)
 		return false;
 	if (child === parent)
 		return true;
+	if (child.$ancestors)
+		return parent != null && parent.$typeId !== undefined && child.$ancestors[parent.$typeId] === true;
 	if (!child.$inherit)
 		return false;
 	for(var i = 0; i < child.$inherit.length; ++i){
@@ -767,11 +807,21 @@ stjs.isArray=function( obj ) {
 stjs.typefy=function(obj, cls){
 	if (stjs.isArray(obj)){
 		var result = [];
+		if (obj.length == 0)
+			// the element type is not resolved, its class may not be loaded (yet)
+			return result;
+		var type = elementType(cls);
 		for(var idx = 0; idx < obj.length; idx++){
-			result.push(stjs.typefy(obj[idx], elementType(cls)));
+			result.push(stjs.typefy(obj[idx], type));
 		}
 		return result;
 	}
+	if (obj == null)
+		return null;
+	if (cls.$hydrate)
+		// the hydrator generated for the class (see the generateHydrators option)
+		return cls.$hydrate(obj);
+
 	 var constructors = {};
 	 function constr(name, param){
 		  var c = constructors[name];
@@ -817,9 +867,6 @@ stjs.typefy=function(obj, cls){
 			return constr(type);
 	  }
 
-	  if (obj == null)
-		  return null;
-
 	  var ret = new cls();
 	  for(var key in obj){
 		  var prop = obj[key];
@@ -843,6 +890,33 @@ stjs.typefy=function(obj, cls){
 };
 stjs.hydrate=stjs.typefy
 
+/**
+ * copies the non-null properties of the JSON object that have no type description. Used by the generated $hydrate functions.
+ */
+stjs.hydrateUntyped=function(json, ret, typeDescription){
+	for(var key in json){
+		var value = json[key];
+		if (value != null && !typeDescription[key])
+			ret[key] = value;
+	}
+	return ret;
+};
+
+/**
+ * converts the JSON value of a field, like stjs.typefy does. Used by the generated $hydrate functions, that give directly the
+ * constructor of the field's type when it is a class, instead of letting it being found from the type description.
+ */
+stjs.hydrateField=function(ret, key, value, td, type){
+	if (value == null)
+		return;
+	if (typeof value == "string") {
+		var cv = stjs.converters[td.name || td];
+		ret[key] = cv ? cv(value, td) : new (type || eval(td))(value);
+	} else if (typeof value == "object") {
+		ret[key] = stjs.typefy(value, type || (typeof td == "string" ? eval(td) : td));
+	}
+};
+
 stjs.stringify=function(obj, cls){
 	 if (obj == null)
 		  return null;
@@ -999,3 +1073,102 @@ stjs.getField=function(obj, field){
 	return obj[field];
 };
 
+/** stjs chunk loading (see the packChunks option of the maven plugin) */
+stjs.chunkManifest = null;
+stjs.chunkBaseUrl = "";
+// chunk name -> true when loaded, or the array of the callbacks waiting for it while loading
+stjs.chunkStates = {};
+
+/**
+ * sets the manifest generated with the chunks. The files of the chunks are loaded relative to baseUrl
+ */
+stjs.setChunkManifest=function(manifest, baseUrl){
+	stjs.chunkManifest = manifest;
+	stjs.chunkBaseUrl = baseUrl || "";
+};
+
+/**
+ * called at the end of each chunk file
+ */
+stjs.chunkLoaded=function(name){
+	if (!stjs.chunkStates[name])
+		stjs.chunkStates[name] = true;
+};
+
+/**
+ * loads the script at the given url and calls the callback, with an error if the script could not be loaded.
+ * This function can be replaced when the code does not run in a browser
+ */
+stjs.loadScript=function(url, callback){
+	var script = document.createElement("script");
+	script.src = url;
+	script.onload = function(){ callback(); };
+	script.onerror = function(){ callback(new Error("Cannot load " + url)); };
+	document.getElementsByTagName("head")[0].appendChild(script);
+};
+
+/**
+ * loads the script of the given chunk, after the chunks it depends on, if it's not already loaded.
+ * The callback is called when the script is loaded, with an error if the script could not be loaded
+ */
+stjs.loadChunkScript=function(name, callback){
+	var state = stjs.chunkStates[name];
+	if (state === true) {
+		callback();
+		return;
+	}
+	if (state) {
+		state.push(callback);
+		return;
+	}
+	var chunk = stjs.chunkManifest && stjs.chunkManifest.chunks[name];
+	if (!chunk) {
+		callback(new Error("Unknown chunk " + name));
+		return;
+	}
+	var callbacks = stjs.chunkStates[name] = [callback];
+	var done = function(err){
+		stjs.chunkStates[name] = err ? undefined : true;
+		for (var i = 0; i < callbacks.length; ++i)
+			callbacks[i](err);
+	};
+	var deps = chunk.dependencies, d = 0;
+	var next = function(err){
+		if (err)
+			done(err);
+		else if (d < deps.length)
+			stjs.loadChunkScript(deps[d++], next);
+		else
+			stjs.loadScript(stjs.chunkBaseUrl + chunk.file, done);
+	};
+	next();
+};
+
+/**
+ * loads the given chunk, after the chunks it depends on, and then the chunks its classes need at run time, if they're not already
+ * loaded. The callback is called when all of them are loaded, with an error if one of them could not be loaded
+ */
+stjs.loadChunk=function(name, callback){
+	var chunk = stjs.chunkManifest && stjs.chunkManifest.chunks[name];
+	var names = [name].concat(chunk && chunk.runtimeDependencies || []), n = 0;
+	var next = function(err){
+		if (err || n === names.length)
+			callback(err);
+		else
+			stjs.loadChunkScript(names[n++], next);
+	};
+	next();
+};
+
+/**
+ * loads the chunk containing the given class (the Java name of the class). The callback is called directly if the class is not part of
+ * any chunk.
+ */
+stjs.loadClass=function(className, callback){
+	var chunk = stjs.chunkManifest && stjs.chunkManifest.classes[className];
+	if (chunk)
+		stjs.loadChunk(chunk, callback);
+	else
+		callback();
+};
+
@@ -3,29 +3,17 @@ package org.stjs.generator.plugin.java8.writer.expression;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
-
-import javax.lang.model.element.Element;
 
 import org.stjs.generator.GenerationContext;
-import org.stjs.generator.GeneratorConstants;
-import org.stjs.generator.check.expression.IdentifierAccessOuterScopeCheck;
-import org.stjs.generator.javac.TreeUtils;
 import org.stjs.generator.javascript.JavaScriptBuilder;
 import org.stjs.generator.javascript.Keyword;
-import org.stjs.generator.utils.JavaNodes;
 import org.stjs.generator.writer.WriterContributor;
 import org.stjs.generator.writer.WriterVisitor;
 import org.stjs.generator.writer.declaration.MethodWriter;
-import org.stjs.generator.writer.expression.MethodInvocationWriter;
 
 import com.sun.source.tree.BlockTree;
-import com.sun.source.tree.ClassTree;
-import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.LambdaExpressionTree;
 import com.sun.source.tree.LambdaExpressionTree.BodyKind;
-import com.sun.source.tree.MethodInvocationTree;
-import com.sun.source.util.TreeScanner;
 
 /**
  * generates the code for Lambda expressions.
@@ -46,61 +34,6 @@ import com.sun.source.util.TreeScanner;
  */
 public class LambdaExpressionWriter<JS> implements WriterContributor<LambdaExpressionTree, JS> {
 
-	private boolean accessOuterScope(LambdaExpressionTree lambda) {
-		AtomicBoolean outerScopeAccess = new AtomicBoolean(false);
-
-		lambda.accept(new TreeScanner<Void, Void>() {
-			private boolean checkStopped;
-
-			@Override
-			public Void visitIdentifier(IdentifierTree tree, Void arg1) {
-				if (checkStopped) {
-					return super.visitIdentifier(tree, arg1);
-				}
-				Element fieldElement = TreeUtils.elementFromUse(tree);
-				if (IdentifierAccessOuterScopeCheck.isRegularInstanceField(fieldElement, tree)
-						|| GeneratorConstants.THIS.equals(tree.getName().toString())) {
-					outerScopeAccess.set(true);
-				}
-				return super.visitIdentifier(tree, arg1);
-			}
-
-			@Override
-			public Void visitClass(ClassTree arg0, Void arg1) {
-				// stop the checks if a new type is encountered
-				checkStopped = true;
-				return super.visitClass(arg0, arg1);
-			}
-
-			@Override
-			public Void visitMethodInvocation(MethodInvocationTree tree, Void arg1) {
-				if (checkStopped) {
-					return super.visitMethodInvocation(tree, arg1);
-				}
-				Element methodElement = TreeUtils.elementFromUse(tree);
-				if (JavaNodes.isStatic(methodElement)) {
-					// only instance methods
-					return super.visitMethodInvocation(tree, arg1);
-				}
-				String name = MethodInvocationWriter.buildMethodName(tree);
-
-				if (GeneratorConstants.THIS.equals(name) || GeneratorConstants.SUPER.equals(name)) {
-					// this and super call are ok
-					return super.visitMethodInvocation(tree, arg1);
-				}
-
-				if (!(tree.getMethodSelect() instanceof IdentifierTree)) {
-					// check for Outer.this check
-					return super.visitMethodInvocation(tree, arg1);
-				}
-				outerScopeAccess.set(true);
-				return super.visitMethodInvocation(tree, arg1);
-			}
-		}, null);
-
-		return outerScopeAccess.get();
-	}
-
 	@Override
 	public JS visit(WriterVisitor<JS> visitor, LambdaExpressionTree tree, GenerationContext<JS> context) {
 		List<JS> params = MethodWriter.getParams(tree.getParameters(), context);
@@ -117,9 +50,13 @@ public class LambdaExpressionWriter<JS> implements WriterContributor<LambdaExpre
 		JS lambdaFunc = js.function(null, params, body);
 		int specialThisParamPos = MethodWriter.getTHISParamPos(tree.getParameters());
 
-		if (accessOuterScope(tree) || specialThisParamPos >= 0) {
+		if (context.getScopeIndex().accessOuterScope(tree) || specialThisParamPos >= 0) {
 			// bind for lamdas accessing the outher scope
 			JS target = js.keyword(Keyword.THIS);
+			if (specialThisParamPos < 0 && context.getConfiguration().isLightweightBind()) {
+				// function(x){...}.bind(this)
+				return js.functionCall(js.property(lambdaFunc, "bind"), Collections.singleton(target));
+			}
 			JS stjsBind = js.property(context.js().name("stjs"), "bind");
 			if (specialThisParamPos < 0) {
 				return js.functionCall(stjsBind, Arrays.asList(target, lambdaFunc));
@@ -10,13 +10,17 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 
 import org.stjs.generator.GenerationContext;
+import org.stjs.generator.GeneratorConstants;
 import org.stjs.generator.javascript.JavaScriptBuilder;
+import org.stjs.generator.javascript.Keyword;
 import org.stjs.generator.name.DependencyType;
 import org.stjs.generator.utils.JavaNodes;
 import org.stjs.generator.writer.JavascriptKeywords;
 import org.stjs.generator.writer.WriterContributor;
 import org.stjs.generator.writer.WriterVisitor;
 
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.MemberReferenceTree;
 import com.sun.source.tree.MemberReferenceTree.ReferenceMode;
 import com.sun.source.util.TreePath;
@@ -40,6 +44,18 @@ public class MemberReferenceWriter<JS> implements WriterContributor<MemberRefere
 		return args;
 	}
 
+	/**
+	 * the parameters of the functions with a fixed number of parameters: arg0, arg1, ...
+	 */
+	private List<JS> generateParams(GenerationContext<JS> context, int n) {
+		JavaScriptBuilder<JS> js = context.js();
+		List<JS> params = new ArrayList<>();
+		for (int i = 0; i < n; ++i) {
+			params.add(js.name("arg" + i));
+		}
+		return params;
+	}
+
 	/**
 	 * Type::method -> generate Type.method
 	 */
@@ -51,41 +67,88 @@ public class MemberReferenceWriter<JS> implements WriterContributor<MemberRefere
 	}
 
 	/**
-	 * Type::method -> stjs.bind("method")
+	 * Type::method -> stjs.bind("method"), or function(target, arg0){return target.method(arg0);} with lightweightBind. A
+	 * varargs method takes any number of arguments, so it's always bound with stjs.bind, that forwards all of them.
 	 */
 	private JS generateInstanceRef(MemberReferenceTree tree, GenerationContext<JS> context, ExecutableElement methodElement) {
 		JavaScriptBuilder<JS> js = context.js();
 		Element type = methodElement.getEnclosingElement();
 		context.getNames().getTypeName(context, type, DependencyType.STATIC); // Make sure that we record the dependency on the type
+		if (context.getConfiguration().isLightweightBind() && !methodElement.isVarArgs()) {
+			int n = methodElement.getParameters().size();
+			List<JS> args = generateParams(context, n);
+			List<JS> params = new ArrayList<>();
+			params.add(js.name("target"));
+			params.addAll(generateParams(context, n));
+			JS call = js.functionCall(js.property(js.name("target"), tree.getName()), args);
+			return js.function(null, params, js.block(Collections.singleton(js.returnStatement(call))));
+		}
 		JS stjsBind = context.js().property(context.js().name("stjs"), "bind");
 		JS methodName = js.string(tree.getName().toString());
 		return js.functionCall(stjsBind, Collections.singletonList(methodName));
 	}
 
 	/**
-	 * x::method -> stjs.bind(x, "method")
+	 * x::method -> stjs.bind(x, "method"), or x.method.bind(x) with lightweightBind when x is a variable or this
 	 */
 	private JS generateCapturingRef(WriterVisitor<JS> visitor, MemberReferenceTree tree, GenerationContext<JS> context,
 			ExecutableElement methodElement) {
 		JavaScriptBuilder<JS> js = context.js();
 		JS target = visitor.scan(tree.getQualifierExpression(), context);
+		if (context.getConfiguration().isLightweightBind() && isVariableOrThis(tree.getQualifierExpression())) {
+			// the target is evaluated twice, so it must not have side effects
+			JS method = js.property(target, tree.getName());
+			return js.functionCall(js.property(method, "bind"), Collections.singleton(visitor.scan(tree.getQualifierExpression(), context)));
+		}
 		JS methodName = js.string(tree.getName().toString());
 		JS stjsBind = context.js().property(context.js().name("stjs"), "bind");
 		return js.functionCall(stjsBind, Arrays.asList(target, methodName));
 	}
 
+	private static boolean isVariableOrThis(ExpressionTree tree) {
+		return tree instanceof IdentifierTree && !GeneratorConstants.SUPER.equals(((IdentifierTree) tree).getName().toString());
+	}
+
 	/**
-	 * Type::new -> function() {new Type(arguments[0], arguments[1]);}
+	 * Type::new -> function() {new Type(arguments[0], arguments[1]);}, or function(arg0, arg1) {new Type(arg0, arg1);} with
+	 * lightweightBind. The varargs constructors forward all the arguments instead.
 	 */
 	private JS generateConstructorRef(GenerationContext<JS> context, ExecutableElement methodElement) {
 		JavaScriptBuilder<JS> js = context.js();
 		Element type = methodElement.getEnclosingElement();
 
-		JS typeName = js.name(context.getNames().getTypeName(context, type, DependencyType.STATIC));
+		String typeNameString = context.getNames().getTypeName(context, type, DependencyType.STATIC);
+		if (methodElement.isVarArgs()) {
+			return generateVarArgsConstructorRef(context, typeNameString);
+		}
+		JS typeName = js.name(typeNameString);
+		if (context.getConfiguration().isLightweightBind()) {
+			int n = methodElement.getParameters().size();
+			JS newExpr = js.newExpression(typeName, generateParams(context, n));
+			return js.function(null, generateParams(context, n), js.returnStatement(newExpr));
+		}
 		JS newExpr = context.js().newExpression(typeName, generateArguments(context, methodElement.getParameters().size()));
 		return js.function(null, Collections.emptyList(), js.returnStatement(newExpr));
 	}
 
+	/**
+	 * Type::new for a varargs constructor, that takes any number of arguments -> function() {return new
+	 * (Function.prototype.bind.apply(Type, [null].concat(Array.prototype.slice.call(arguments))));}. JavaScript cannot apply the
+	 * arguments to new (without ES6), so they are bound to the constructor first. Unlike applying the constructor to an object created
+	 * with its prototype, this also builds the instances of the native types, like Array.
+	 */
+	private JS generateVarArgsConstructorRef(GenerationContext<JS> context, String typeName) {
+		JavaScriptBuilder<JS> js = context.js();
+		JS slice = js.property(js.property(js.property(js.name("Array"), JavascriptKeywords.PROTOTYPE), "slice"), "call");
+		JS args = js.functionCall(slice, Collections.singleton(js.name(GeneratorConstants.ARGUMENTS_PARAMETER)));
+		JS bindArgs = js.functionCall(js.property(js.array(Collections.singleton(js.keyword(Keyword.NULL))), "concat"),
+				Collections.singleton(args));
+		JS bind = js.property(js.property(js.property(js.name("Function"), JavascriptKeywords.PROTOTYPE), "bind"), "apply");
+		JS boundConstructor = js.functionCall(bind, Arrays.asList(js.name(typeName), bindArgs));
+		JS newExpr = js.newExpression(js.paren(boundConstructor), Collections.emptyList());
+		return js.function(null, Collections.emptyList(), js.returnStatement(newExpr));
+	}
+
 	@Override
 	public JS visit(WriterVisitor<JS> visitor, MemberReferenceTree tree, GenerationContext<JS> context) {
 		ExecutableElement methodElement = (ExecutableElement) context.getTrees().getElement(context.getCurrentPath());
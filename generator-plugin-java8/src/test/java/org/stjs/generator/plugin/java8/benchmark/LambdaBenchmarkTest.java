@@ -0,0 +1,28 @@
+package org.stjs.generator.plugin.java8.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.utils.GeneratedCodeBenchmark;
+import org.stjs.generator.utils.GeneratedCodeBenchmark.KernelResult;
+
+/**
+ * Runs the lambda kernel with and without lightweightBind, see GeneratedCodeBenchmarkTest in the generator.
+ */
+public class LambdaBenchmarkTest {
+	@Test
+	public void testLightweightBind() throws IOException {
+		GeneratedCodeBenchmark benchmark = new GeneratedCodeBenchmark() //
+				.option("lightweightBind", new GeneratorConfigurationBuilder().lightweightBind(true).build());
+
+		KernelResult result = benchmark.run(LambdaKernel.class);
+
+		assertEquals(496503, result.getMeasure(GeneratedCodeBenchmark.DEFAULT_OPTION).getResult(), 0);
+		assertEquals(496503, result.getMeasure("lightweightBind").getResult(), 0);
+		benchmark.writeReport(Collections.singletonList(result));
+	}
+}
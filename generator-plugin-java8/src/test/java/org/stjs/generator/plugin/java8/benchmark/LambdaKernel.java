@@ -0,0 +1,32 @@
+package org.stjs.generator.plugin.java8.benchmark;
+
+import static org.stjs.javascript.JSCollections.$array;
+
+import org.stjs.javascript.Array;
+
+/**
+ * lambdas using the outer this: bound with stjs.bind by default, with the native Function.bind with lightweightBind
+ */
+public class LambdaKernel {
+	private static final int SIZE = 1000;
+
+	private static Array<Integer> values;
+
+	private double total;
+
+	private double sum() {
+		values.$forEach(v -> total += v);
+		values.$forEach(v -> total -= v % 7);
+		return total;
+	}
+
+	public static double run() {
+		if (values == null) {
+			values = $array();
+			for (int i = 0; i < SIZE; i++) {
+				values.push(i);
+			}
+		}
+		return new LambdaKernel().sum();
+	}
+}
@@ -0,0 +1,12 @@
+package org.stjs.generator.plugin.java8.writer.lambda;
+
+import org.stjs.javascript.functions.Function0;
+
+public class Lambda15 {
+	private int field;
+
+	public void method() {
+		Function0<Function0<Integer>> c = () -> () -> field + 1;
+	}
+
+}
@@ -0,0 +1,21 @@
+package org.stjs.generator.plugin.java8.writer.lambda;
+
+import org.stjs.javascript.functions.Function0;
+
+public class Lambda16 {
+	public abstract static class Value {
+		protected int field;
+
+		public abstract int get();
+	}
+
+	public void method() {
+		Function0<Value> c = () -> new Value() {
+			@Override
+			public int get() {
+				return field + 1;
+			}
+		};
+	}
+
+}
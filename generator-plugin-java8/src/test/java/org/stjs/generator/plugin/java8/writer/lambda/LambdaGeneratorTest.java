@@ -3,6 +3,8 @@ package org.stjs.generator.plugin.java8.writer.lambda;
 import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
 import org.stjs.generator.JavascriptFileGenerationException;
 import org.stjs.generator.utils.AbstractStjsTest;
 
@@ -42,6 +44,16 @@ public class LambdaGeneratorTest extends AbstractStjsTest {
 		assertCodeContains(Lambda6.class, "var c = stjs.bind(this, function() {return this.outerMethod() + 1;});");
 	}
 
+	@Test
+	public void testNestedLambaAccessFieldOuterScope() {
+		assertCodeContains(Lambda15.class, "var c = stjs.bind(this, function() {return stjs.bind(this, function() {return this.field + 1;});});");
+	}
+
+	@Test
+	public void testLambaWithInnerClassAccessingItsField() {
+		assertCodeContains(Lambda16.class, "var c = function() {return");
+	}
+
 	@Test
 	public void testLambaAccessMethodOuterScopeExecute() {
 		assertEquals(4, ((Number)execute(Lambda6b.class)).intValue());
@@ -96,6 +108,18 @@ public class LambdaGeneratorTest extends AbstractStjsTest {
 		assertCodeDoesNotContain(Lambda13.class, "stjs.bind");
 	}
 
+	private static GeneratorConfiguration lightweightBind() {
+		return new GeneratorConfigurationBuilder().lightweightBind(true).build();
+	}
+
+	@Test
+	public void testLambaAccessOuterScopeLightweightBind() {
+		assertCodeContains(Lambda5.class, "var c = function() {return this.field + 1;}.bind(this);", lightweightBind());
+		assertEquals(4, executeAndReturnNumber(Lambda6b.class, lightweightBind()), 0);
+		// the special THIS parameter still needs stjs.bind
+		assertEquals(15.0, executeAndReturnNumber(Lambda14.class, lightweightBind()), 0);
+	}
+
 	@Test
 	public void testUsingTHISParamAndOuterScope() {
 		//		assertCodeContains(Lambda14.class, "method(function(){})");
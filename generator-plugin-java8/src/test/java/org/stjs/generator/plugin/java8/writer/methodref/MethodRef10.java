@@ -0,0 +1,22 @@
+package org.stjs.generator.plugin.java8.writer.methodref;
+
+import org.stjs.javascript.functions.Function3;
+
+public class MethodRef10 {
+
+	public int sum(int... arguments) {
+		int s = 0;
+		for (int i = 0; i < arguments.length; ++i) {
+			s += arguments[i];
+		}
+		return s;
+	}
+
+	private static int calculate(Function3<MethodRef10, Integer, Integer, Integer> f, MethodRef10 ref) {
+		return f.$invoke(ref, 1, 2);
+	}
+
+	public static int main(String[] args) {
+		return calculate(MethodRef10::sum, new MethodRef10());
+	}
+}
@@ -0,0 +1,25 @@
+package org.stjs.generator.plugin.java8.writer.methodref;
+
+import org.stjs.javascript.functions.Function2;
+
+public class MethodRef11 {
+	private int n;
+
+	public MethodRef11(int... arguments) {
+		for (int i = 0; i < arguments.length; ++i) {
+			n += arguments[i];
+		}
+	}
+
+	public int getN() {
+		return n;
+	}
+
+	private static MethodRef11 calculate(Function2<Integer, Integer, MethodRef11> f) {
+		return f.$invoke(1, 2);
+	}
+
+	public static int main(String[] args) {
+		return calculate(MethodRef11::new).getN();
+	}
+}
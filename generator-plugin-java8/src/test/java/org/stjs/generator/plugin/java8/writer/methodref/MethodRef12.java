@@ -0,0 +1,15 @@
+package org.stjs.generator.plugin.java8.writer.methodref;
+
+import org.stjs.javascript.Array;
+import org.stjs.javascript.functions.Function3;
+
+public class MethodRef12 {
+	private static Array<Integer> create(Function3<Integer, Integer, Integer, Array<Integer>> f) {
+		return f.$invoke(1, 2, 4);
+	}
+
+	public static int main(String[] args) {
+		Array<Integer> a = create(Array::new);
+		return a.$length() * 10 + a.$get(0) + a.$get(1) + a.$get(2);
+	}
+}
@@ -1,5 +1,7 @@
 package org.stjs.generator.plugin.java8.writer.methodref;
 
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
 import org.stjs.generator.utils.AbstractStjsTest;
 
 import static org.junit.Assert.assertEquals;
@@ -7,6 +9,10 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 
 public class MethodReferenceGeneratorTest extends AbstractStjsTest {
+	private static GeneratorConfiguration lightweightBind() {
+		return new GeneratorConfigurationBuilder().lightweightBind(true).build();
+	}
+
 	@Test
 	public void testStaticMethodRef() {
 		assertCodeContains(MethodRef1.class, "calculate(MethodRef1.inc)");
@@ -58,4 +64,49 @@ public class MethodReferenceGeneratorTest extends AbstractStjsTest {
 	public void testUsageOfChainMethodMethodRef() {
 		assertCodeContains(MethodRef8.class, "calculate(stjs.bind(this.x.x.method2(), \"method\"))");
 	}
+
+	@Test
+	public void testInstanceMethodRefLightweight() {
+		assertCodeContains(MethodRef2.class, "calculate(function(target, arg0){return target.inc2(arg0);}, new MethodRef2(), 1)",
+				lightweightBind());
+		assertEquals(3, executeAndReturnNumber(MethodRef2.class, lightweightBind()), 0);
+	}
+
+	@Test
+	public void testInstanceWithTargetMethodRefLightweight() {
+		assertCodeContains(MethodRef3.class, "calculate(ref.inc2.bind(ref), 1)", lightweightBind());
+		assertEquals(4, executeAndReturnNumber(MethodRef3.class, lightweightBind()), 0);
+		assertCodeContains(MethodRef5.class, "calculate(this.method.bind(this))", lightweightBind());
+		// the target would be evaluated twice
+		assertCodeContains(MethodRef7.class, "calculate(stjs.bind(this.method2(), \"method\"))", lightweightBind());
+	}
+
+	@Test
+	public void testNewMethodRefLightweight() {
+		assertCodeContains(MethodRef4.class, "calculate(function(arg0){return new MethodRef4(arg0);}, 1)", lightweightBind());
+		assertEquals(1, executeAndReturnNumber(MethodRef4.class, lightweightBind()), 0);
+	}
+
+	@Test
+	public void testVarArgsMethodRef() {
+		// a fixed number of parameters would drop the extra arguments
+		assertCodeContains(MethodRef10.class, "calculate(stjs.bind(\"sum\"), new MethodRef10())", lightweightBind());
+		assertEquals(3, executeAndReturnNumber(MethodRef10.class), 0);
+		assertEquals(3, executeAndReturnNumber(MethodRef10.class, lightweightBind()), 0);
+	}
+
+	@Test
+	public void testVarArgsNewMethodRef() {
+		assertCodeContains(MethodRef11.class, "calculate(function(){return new (Function.prototype.bind.apply(MethodRef11, "
+				+ "[null].concat(Array.prototype.slice.call(arguments))))();})");
+		assertEquals(3, executeAndReturnNumber(MethodRef11.class), 0);
+		assertEquals(3, executeAndReturnNumber(MethodRef11.class, lightweightBind()), 0);
+	}
+
+	@Test
+	public void testVarArgsNativeNewMethodRef() {
+		// a native constructor cannot be applied to an object created with its prototype
+		assertEquals(37, executeAndReturnNumber(MethodRef12.class), 0);
+		assertEquals(37, executeAndReturnNumber(MethodRef12.class, lightweightBind()), 0);
+	}
 }
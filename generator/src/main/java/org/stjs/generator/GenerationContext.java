@@ -22,6 +22,7 @@ import java.lang.annotation.Annotation;
 import java.util.Map;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
@@ -30,6 +31,8 @@ import org.stjs.generator.javac.AnnotationHelper;
 import org.stjs.generator.javac.TreeWrapper;
 import org.stjs.generator.javascript.JavaScriptBuilder;
 import org.stjs.generator.name.JavaScriptNameProvider;
+import org.stjs.generator.utils.MemberTable;
+import org.stjs.generator.utils.ScopeIndex;
 import org.stjs.generator.visitor.TreePathHolder;
 
 import com.google.common.collect.Maps;
@@ -66,6 +69,8 @@ public class GenerationContext<JS> implements TreePathHolder {
 
 	private CompilationUnitTree compilationUnit;
 
+	private ScopeIndex scopeIndex;
+
 	private final JavaScriptBuilder<JS> javaScriptBuilder;
 
 	private SourceMapGenerator sourceMapGenerator;
@@ -73,6 +78,7 @@ public class GenerationContext<JS> implements TreePathHolder {
 	private final Map<AnnotationCacheKey, Object> cacheAnnotations;
 	private final Map<Tree, TreeWrapper<?, JS>> cacheWrappers = Maps.newIdentityHashMap();
 	private final Map<Element, TreeWrapper<?, JS>> cacheWrappersByElement = Maps.newIdentityHashMap();
+	private final Map<TypeElement, MemberTable> cacheMemberTables = Maps.newIdentityHashMap();
 
 	public GenerationContext(File inputFile, GeneratorConfiguration configuration, JavaScriptNameProvider names, Trees trees,
 			Map<AnnotationCacheKey, Object> cacheAnnotations, JavaScriptBuilder<JS> javaScriptBuilder) {
@@ -141,6 +147,29 @@ public class GenerationContext<JS> implements TreePathHolder {
 
 	public void setCompilationUnit(CompilationUnitTree compilationUnit) {
 		this.compilationUnit = compilationUnit;
+		this.scopeIndex = null;
+	}
+
+	/**
+	 * @return the scope index of the compilation unit, built the first time it's needed
+	 */
+	public ScopeIndex getScopeIndex() {
+		if (scopeIndex == null) {
+			scopeIndex = ScopeIndex.build(compilationUnit);
+		}
+		return scopeIndex;
+	}
+
+	/**
+	 * @return the members of the given type, computed the first time they're needed
+	 */
+	public MemberTable getMemberTable(TypeElement type) {
+		MemberTable table = cacheMemberTables.get(type);
+		if (table == null) {
+			table = new MemberTable(elements, type);
+			cacheMemberTables.put(type, table);
+		}
+		return table;
 	}
 
 	public JavascriptFileGenerationException addError(Tree tree, String message) {
@@ -194,7 +223,8 @@ public class GenerationContext<JS> implements TreePathHolder {
 	}
 
 	public void writeJavaScript(JS astRoot, Writer writer) {
-		sourceMapGenerator = javaScriptBuilder.writeJavaScript(astRoot, inputFile, configuration.isGenerateSourceMap(), writer);
+		sourceMapGenerator = javaScriptBuilder.writeJavaScript(astRoot, inputFile, configuration.isGenerateSourceMap(),
+				configuration.isMinify(), writer);
 	}
 
 	public void writeSourceMap(Writer sourceMapWriter) throws IOException {
@@ -12,9 +12,9 @@
  */
 package org.stjs.generator;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
@@ -35,8 +35,6 @@ import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 
-import com.google.common.io.CharSink;
-import com.google.common.io.CharSource;
 import com.google.common.io.Resources;
 import org.stjs.generator.GenerationContext.AnnotationCacheKey;
 import org.stjs.generator.javac.CustomClassloaderJavaFileManager;
@@ -47,11 +45,12 @@ import org.stjs.generator.name.DependencyType;
 import org.stjs.generator.name.JavaScriptNameProvider;
 import org.stjs.generator.plugin.GenerationPlugins;
 import org.stjs.generator.utils.ClassUtils;
+import org.stjs.generator.utils.GenerationProfiler;
+import org.stjs.generator.utils.OutputFiles;
 import org.stjs.generator.utils.Timers;
 
 import com.google.common.collect.Maps;
 import com.google.common.io.Closeables;
-import com.google.common.io.Files;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.JavacTask;
 import com.sun.source.util.Trees;
@@ -73,11 +72,13 @@ public class Generator {
 	private final Map<AnnotationCacheKey, Object> cacheAnnotations = Maps.newHashMap();
 	private final Executor taskExecutor;
 	private final GeneratorConfiguration config;
+	private final GenerationProfiler profiler;
 
 	@SuppressWarnings("PMD.DoNotUseThreads")
 	public Generator(GeneratorConfiguration config) {
 		plugins = new GenerationPlugins<>();
 		this.config = config;
+		this.profiler = config.isProfile() ? new GenerationProfiler() : null;
 
 		// taskExecutor = Executors.newFixedThreadPool(4);
 		taskExecutor = new Executor() {
@@ -108,6 +109,27 @@ public class Generator {
 		}
 	}
 
+	/**
+	 * @return the measures of the classes generated so far, if the profiling is enabled in the configuration, null otherwise
+	 */
+	public GenerationProfiler getProfiler() {
+		return profiler;
+	}
+
+	private void startPhase(String phase) {
+		Timers.start(phase);
+		if (profiler != null) {
+			profiler.enterPhase(phase);
+		}
+	}
+
+	private void endPhase(String phase) {
+		Timers.end(phase);
+		if (profiler != null) {
+			profiler.exit();
+		}
+	}
+
 	public File getOutputFile(File generationFolder, String className) {
 		return getOutputFile(generationFolder, className, true);
 	}
@@ -140,18 +162,32 @@ public class Generator {
 	/**
 	 * @return the list of imports needed by the generated class
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public ClassWithJavascript generateJavascript(String className, File sourceFolder) throws JavascriptFileGenerationException {
 
 		Class<?> clazz = ClassUtils.getClazz(config.getStjsClassLoader(), className);
 		if (ClassUtils.isBridge(config.getStjsClassLoader(), clazz)) {
 			return new BridgeClass(config.getClassResolver(), clazz);
 		}
+		if (profiler == null) {
+			return generateJavascript(className, clazz, sourceFolder);
+		}
+		profiler.enterClass(className);
+		try {
+			return generateJavascript(className, clazz, sourceFolder);
+		}
+		finally {
+			profiler.exitClass();
+		}
+	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private ClassWithJavascript generateJavascript(String className, Class<?> clazz, File sourceFolder) {
 		File inputFile = getInputFile(sourceFolder, className);
 		File outputFile = getOutputFile(config.getGenerationFolder().getGeneratedSourcesAbsolutePath(), className);
 		JavaScriptNameProvider names = new DefaultJavaScriptNameProvider();
 		GenerationPlugins<Object> currentClassPlugins = plugins.forClass(clazz);
+		currentClassPlugins.getCheckVisitor().setProfiler(profiler);
+		currentClassPlugins.getWriterVisitor().setProfiler(profiler);
 
 		GenerationContext<Object> context =
 				new GenerationContext<Object>(inputFile, config, names, null, cacheAnnotations, getJavaScriptBuilder());
@@ -159,17 +195,17 @@ public class Generator {
 		CompilationUnitTree cu = parseAndResolve(inputFile, context, config.getStjsClassLoader(), config.getSourceEncoding());
 
 		// check the code
-		Timers.start("check-java");
+		startPhase("check-java");
 		currentClassPlugins.getCheckVisitor().scan(cu, (GenerationContext) context);
 		context.getChecks().check();
-		Timers.end("check-java");
+		endPhase("check-java");
 
 		// generate the javascript code
-		Timers.start("write-js-ast");
+		startPhase("write-js-ast");
 		Object javascriptRoot = currentClassPlugins.getWriterVisitor().scan(cu, context);
 		// check for any error arriving during writing
 		context.getChecks().check();
-		Timers.end("write-js-ast");
+		endPhase("write-js-ast");
 
 		Class<?> javaClass = config.getClassResolver().resolveJavaClass(className);
 		STJSClass stjsClass = new STJSClass(config.getClassResolver(), config.getTargetFolder(), javaClass);
@@ -222,13 +258,13 @@ public class Generator {
 			context.setElements(javacTask.getElements());
 			context.setTypes(javacTask.getTypes());
 
-			Timers.start("parse-java");
+			startPhase("parse-java");
 			CompilationUnitTree cu = javacTask.parse().iterator().next();
-			Timers.end("parse-java");
+			endPhase("parse-java");
 
-			Timers.start("analyze-java");
+			startPhase("analyze-java");
 			javacTask.analyze();
-			Timers.end("analyze-java");
+			endPhase("analyze-java");
 
 			context.setCompilationUnit(cu);
 
@@ -251,10 +287,9 @@ public class Generator {
 		}
 
 		try {
-			CharSource inputFileSource = Resources.asCharSource(resourceUrl, Charset.forName(config.getSourceEncoding()));
-			CharSink outputFileSink = Files.asCharSink(new File(folder, STJS_FILE), Charset.forName(config.getSourceEncoding()));
-
-			inputFileSource.copyTo(outputFileSink);
+			Charset charset = Charset.forName(config.getSourceEncoding());
+			String content = Resources.toString(resourceUrl, charset);
+			OutputFiles.writeIfChanged(new File(folder, STJS_FILE), content.getBytes(charset));
 		}
 		catch (IOException e) {
 			throw new STJSRuntimeException("Could not copy the " + STJS_PATH + " file to the folder " + folder + ":" + e.getMessage(), e);
@@ -289,50 +324,45 @@ public class Generator {
 			writeSourceMap();
 		}
 
+		/**
+		 * the files are written only if their content changed, so the unchanged classes keep their files untouched
+		 */
+		private void writeIfChanged(File file, String content) throws IOException {
+			OutputFiles.writeIfChanged(file, content.getBytes(Charset.forName(config.getSourceEncoding())));
+		}
+
 		private void writeJavaScript() {
-			BufferedWriter writer = null;
 			try {
-				Timers.start("dump-js");
-				writer = Files.newWriter(outputFile, Charset.forName(config.getSourceEncoding()));
+				startPhase("dump-js");
+				StringWriter writer = new StringWriter();
 				context.writeJavaScript(javascriptRoot, writer);
-				writer.flush();
-				Timers.end("dump-js");
+				writeIfChanged(outputFile, writer.toString());
+				endPhase("dump-js");
 			}
 			catch (IOException e) {
 				throw new STJSRuntimeException("Could not open output file " + outputFile + ":" + e, e);
 			}
-			finally {
-				try {
-					Closeables.close(writer, true);
-				}
-				catch (IOException e) {
-					LOG.log(Level.SEVERE, "IOException should not have been thrown.", e);
-				}
-			}
 		}
 
 		// write properties
 
 		private void writePropertiesFile() {
-			Timers.start("write-props");
+			startPhase("write-props");
 			stjsClass.store();
-			Timers.end("write-props");
+			endPhase("write-props");
 		}
 
 		private void writeSourceMap() {
 			if (config.isGenerateSourceMap()) {
-				BufferedWriter sourceMapWriter = null;
-
 				try {
 					// write the source map
-					sourceMapWriter =
-							Files.newWriter(getSourceMapFile(stjsClass.getJavaClassName()), Charset.forName(config.getSourceEncoding()));
+					StringWriter sourceMapWriter = new StringWriter();
 					context.writeSourceMap(sourceMapWriter);
-					sourceMapWriter.flush();
+					writeIfChanged(getSourceMapFile(stjsClass.getJavaClassName()), sourceMapWriter.toString());
 
 					// copy the source aside the generated js to be able to have it delivered to the browser for
 					// debugging
-					Files.copy(context.getInputFile(), new File(outputFile.getParentFile(), context.getInputFile().getName()));
+					OutputFiles.copyIfChanged(context.getInputFile(), new File(outputFile.getParentFile(), context.getInputFile().getName()));
 					// copy the STJS properties file in the same folder as the Javascript file (if this folder is
 					// different
 					// to be
@@ -341,22 +371,12 @@ public class Generator {
 					File copyStjsPropFile = new File(config.getGenerationFolder().getGeneratedSourcesAbsolutePath(),
 							ClassUtils.getPropertiesFileName(stjsClass.getJavaClassName()));
 					if (!stjsPropFile.equals(copyStjsPropFile)) {
-						Files.copy(stjsPropFile, copyStjsPropFile);
+						OutputFiles.copyIfChanged(stjsPropFile, copyStjsPropFile);
 					}
 				}
 				catch (IOException e) {
 					throw new STJSRuntimeException("Could generate source map:" + e, e);
 				}
-				finally {
-					if (sourceMapWriter != null) {
-						try {
-							Closeables.close(sourceMapWriter, true);
-						}
-						catch (IOException e) {
-							LOG.log(Level.SEVERE, "IOException should not have been thrown.", e);
-						}
-					}
-				}
 			}
 		}
 	}
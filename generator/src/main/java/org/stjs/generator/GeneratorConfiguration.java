@@ -21,6 +21,13 @@ public class GeneratorConfiguration {
 	private final Set<String> allowedJavaLangClasses;
 	private final boolean generateArrayHasOwnProperty;
 	private final boolean generateSourceMap;
+	private final boolean minify;
+	private final boolean inlineConstants;
+	private final Collection<String> directFieldAccessPackages;
+	private final boolean indexedArrayLoops;
+	private final boolean lightweightBind;
+	private final boolean generateHydrators;
+	private final boolean profile;
 	private final String sourceEncoding;
 	private final Set<String> annotations;
 	private final ClassLoader stjsClassLoader;
@@ -31,12 +38,21 @@ public class GeneratorConfiguration {
 	// We actually have a builder for that, so the number of parameters warning doesn't apply
 	@SuppressWarnings("PMD.ExcessiveParameterList")
 	GeneratorConfiguration(Collection<String> allowedPackages, Set<String> allowedJavaLangClasses, boolean generateArrayHasOwnProperty,
-			boolean generateSourceMap, String sourceEncoding, Set<String> annotations, ClassLoader stjsClassLoader, File targetFolder,
-			GenerationDirectory generationFolder, ClassResolver classResolver) {
+			boolean generateSourceMap, boolean minify, boolean inlineConstants, Collection<String> directFieldAccessPackages,
+			boolean indexedArrayLoops, boolean lightweightBind, boolean generateHydrators, boolean profile, String sourceEncoding,
+			Set<String> annotations, ClassLoader stjsClassLoader, File targetFolder, GenerationDirectory generationFolder,
+			ClassResolver classResolver) {
 		this.allowedPackages = allowedPackages;
 		this.allowedJavaLangClasses = allowedJavaLangClasses;
 		this.generateArrayHasOwnProperty = generateArrayHasOwnProperty;
 		this.generateSourceMap = generateSourceMap;
+		this.minify = minify;
+		this.inlineConstants = inlineConstants;
+		this.directFieldAccessPackages = directFieldAccessPackages;
+		this.indexedArrayLoops = indexedArrayLoops;
+		this.lightweightBind = lightweightBind;
+		this.generateHydrators = generateHydrators;
+		this.profile = profile;
 		this.sourceEncoding = sourceEncoding;
 		this.annotations = annotations;
 		this.stjsClassLoader = stjsClassLoader;
@@ -65,6 +81,62 @@ public class GeneratorConfiguration {
 		return generateSourceMap;
 	}
 
+	/**
+	 * @return true if the generated JavaScript code is minified: no whitespace, no comments and short names for the local variables and
+	 *         the parameters
+	 */
+	public boolean isMinify() {
+		return minify;
+	}
+
+	/**
+	 * @return true if the uses of the static final fields having a compile time constant value are replaced by the value, and the
+	 *         constant expressions by their result, as javac computes them
+	 */
+	public boolean isInlineConstants() {
+		return inlineConstants;
+	}
+
+	/**
+	 * @return the packages (including their sub-packages) whose code accesses the fields having the "gproperty" template directly,
+	 *         instead of calling stjs.getField and stjs.setField. The annotation DirectFieldAccess does the same for a type or a package.
+	 */
+	public Collection<String> getDirectFieldAccessPackages() {
+		return directFieldAccessPackages;
+	}
+
+	/**
+	 * @return true if the for-each loops on the org.stjs.javascript.Array objects are generated as indexed loops (for the dense arrays),
+	 *         instead of for-in loops
+	 */
+	public boolean isIndexedArrayLoops() {
+		return indexedArrayLoops;
+	}
+
+	/**
+	 * @return true if the lambdas and the method references are bound to their target with the native Function.bind (ES5) or with
+	 *         functions having a fixed number of parameters, instead of stjs.bind, that copies the arguments at each call
+	 */
+	public boolean isLightweightBind() {
+		return lightweightBind;
+	}
+
+	/**
+	 * @return true if each class gets a $hydrate function building its objects from JSON, that stjs.typefy calls instead of interpreting
+	 *         the type description of the class
+	 */
+	public boolean isGenerateHydrators() {
+		return generateHydrators;
+	}
+
+	/**
+	 * @return true if the generator records the wall time and the allocated memory of each class, of each phase and of each check and
+	 *         writer contributor, for the report built by {@link org.stjs.generator.utils.GenerationProfiler}
+	 */
+	public boolean isProfile() {
+		return profile;
+	}
+
 	public String getSourceEncoding() {
 		return sourceEncoding;
 	}
@@ -29,8 +29,15 @@ public class GeneratorConfigurationBuilder {
 	private final Collection<String> allowedPackages = new HashSet<String>();
 	private final Set<String> allowedJavaLangClasses = new HashSet<String>();
 	private final Set<String> annotations = new HashSet<String>();
+	private final Collection<String> directFieldAccessPackages = new HashSet<String>();
 	private boolean generateArrayHasOwnProperty = true;
 	private boolean generateSourceMap;
+	private boolean minify;
+	private boolean inlineConstants;
+	private boolean indexedArrayLoops;
+	private boolean lightweightBind;
+	private boolean generateHydrators;
+	private boolean profile;
 	private String sourceEncoding = Charset.defaultCharset().name();
 	private ClassLoader stjsClassLoader;
 	private File targetFolder;
@@ -50,6 +57,13 @@ public class GeneratorConfigurationBuilder {
 			annotations(baseConfig.getAnnotations());
 			generateArrayHasOwnProperty(baseConfig.isGenerateArrayHasOwnProperty());
 			generateSourceMap(baseConfig.isGenerateSourceMap());
+			minify(baseConfig.isMinify());
+			inlineConstants(baseConfig.isInlineConstants());
+			directFieldAccessPackages(baseConfig.getDirectFieldAccessPackages());
+			indexedArrayLoops(baseConfig.isIndexedArrayLoops());
+			lightweightBind(baseConfig.isLightweightBind());
+			generateHydrators(baseConfig.isGenerateHydrators());
+			profile(baseConfig.isProfile());
 			sourceEncoding(baseConfig.getSourceEncoding());
 			stjsClassLoader(baseConfig.getStjsClassLoader());
 			targetFolder(baseConfig.getTargetFolder());
@@ -88,6 +102,46 @@ public class GeneratorConfigurationBuilder {
 		return this;
 	}
 
+	public GeneratorConfigurationBuilder minify(boolean b) {
+		minify = b;
+		return this;
+	}
+
+	public GeneratorConfigurationBuilder inlineConstants(boolean b) {
+		inlineConstants = b;
+		return this;
+	}
+
+	public GeneratorConfigurationBuilder directFieldAccessPackage(String packageName) {
+		directFieldAccessPackages.add(packageName);
+		return this;
+	}
+
+	public GeneratorConfigurationBuilder directFieldAccessPackages(Collection<String> packageNames) {
+		directFieldAccessPackages.addAll(packageNames);
+		return this;
+	}
+
+	public GeneratorConfigurationBuilder indexedArrayLoops(boolean b) {
+		indexedArrayLoops = b;
+		return this;
+	}
+
+	public GeneratorConfigurationBuilder lightweightBind(boolean b) {
+		lightweightBind = b;
+		return this;
+	}
+
+	public GeneratorConfigurationBuilder generateHydrators(boolean b) {
+		generateHydrators = b;
+		return this;
+	}
+
+	public GeneratorConfigurationBuilder profile(boolean b) {
+		profile = b;
+		return this;
+	}
+
 	public GeneratorConfigurationBuilder sourceEncoding(String sourceEncoding) {
 		this.sourceEncoding = sourceEncoding;
 		return this;
@@ -154,6 +208,13 @@ public class GeneratorConfigurationBuilder {
 				allowedJavaLangClasses, //
 				generateArrayHasOwnProperty, //
 				generateSourceMap, //
+				minify, //
+				inlineConstants, //
+				directFieldAccessPackages, //
+				indexedArrayLoops, //
+				lightweightBind, //
+				generateHydrators, //
+				profile, //
 				sourceEncoding,  //
 				annotations,  //
 				stjsClassLoader,  //
@@ -15,10 +15,12 @@
  */
 package org.stjs.generator;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Writer;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -31,11 +33,11 @@ import java.util.logging.Logger;
 
 import org.stjs.generator.name.DependencyType;
 import org.stjs.generator.utils.ClassUtils;
+import org.stjs.generator.utils.OutputFiles;
 import org.stjs.generator.utils.PreConditions;
 
 import com.google.common.base.Charsets;
 import com.google.common.io.Closeables;
-import com.google.common.io.Files;
 
 /**
  * This class represents a class and the corresponding generated javascript file. The information about dependencies and
@@ -52,6 +54,7 @@ public class STJSClass implements ClassWithJavascript {
 	public static final String CLASS_PROP = "class";
 	private static final String GENERATED_JS_FILE_PROP = "js";
 	public static final String JS_NAMESPACE = "jsNamespace";
+	private static final String PROPERTIES_COMMENT = "#Generated by STJS ";
 
 	private final Properties properties;
 
@@ -202,26 +205,39 @@ public class STJSClass implements ClassWithJavascript {
 		if (targetFolder == null) {
 			throw new IllegalStateException("This properties file was open for read only");
 		}
-		Writer propertiesWriter = null;
 		try {
-			propertiesWriter = Files.newWriter(getStjsPropertiesFile(), Charsets.UTF_8);
 			properties.setProperty(CLASS_PROP, getJavaClassName());
-			properties.store(propertiesWriter, "Generated by STJS ");
+			// the incremental builds compare the time of this file with the time of the .class file, so it's touched even if unchanged
+			OutputFiles.writeOrTouch(getStjsPropertiesFile(), getPropertiesContent().getBytes(Charsets.UTF_8));
 		}
 		catch (IOException e1) {
 			throw new JavascriptClassGenerationException(getJavaClassName(), "Could not open properties file " + getStjsPropertiesFile() + ":" + e1, e1);
 		}
-		finally {
-			try {
-				if (propertiesWriter != null) {
-					propertiesWriter.flush();
-					propertiesWriter.close();
-				}
-			}
-			catch (IOException e) {
-				throw new JavascriptClassGenerationException(getJavaClassName(), e);
+	}
+
+	/**
+	 * Properties.store writes the date as a comment and the properties in the order of their hash table, so its output is rewritten
+	 * without the date and with the properties sorted, to give the same file for the same class at each generation.
+	 */
+	private String getPropertiesContent() throws IOException {
+		StringWriter stored = new StringWriter();
+		properties.store(stored, null);
+
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new StringReader(stored.toString()));
+		for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+			// the escaped properties are on a single line, so the only comment is the date
+			if (!line.startsWith("#")) {
+				lines.add(line);
 			}
 		}
+		Collections.sort(lines);
+
+		StringBuilder content = new StringBuilder(PROPERTIES_COMMENT).append('\n');
+		for (String line : lines) {
+			content.append(line).append('\n');
+		}
+		return content.toString();
 	}
 
 	public void setJavascriptNamespace(String jsNamespace) {
@@ -17,6 +17,7 @@ import org.stjs.generator.check.CheckVisitor;
 import org.stjs.generator.javac.TreeUtils;
 import org.stjs.generator.javac.TreeWrapper;
 import org.stjs.generator.utils.JavaNodes;
+import org.stjs.generator.utils.MemberTable;
 import org.stjs.generator.writer.MemberWriters;
 
 import com.google.common.collect.LinkedListMultimap;
@@ -130,9 +131,9 @@ public class ClassDuplicateMemberNameCheck implements CheckContributor<ClassTree
 		if (superType.getKind() != TypeKind.NONE) {
 			// add the names from the super class
 			TypeElement superclassElement = (TypeElement) ((DeclaredType) superType).asElement();
-			for (Element memberElement : context.getElements().getAllMembers(superclassElement)) {
-				if (!JavaNodes.isNative(memberElement)) {
-					names.put(memberElement.getSimpleName().toString(), memberElement);
+			for (MemberTable.Member member : context.getMemberTable(superclassElement).getMembers()) {
+				if (!member.isNative()) {
+					names.put(member.getName(), member.getElement());
 				}
 			}
 		}
@@ -16,8 +16,8 @@ import org.stjs.generator.javac.InternalUtils;
 import org.stjs.generator.javac.TreeUtils;
 import org.stjs.generator.javac.TreeWrapper;
 import org.stjs.generator.utils.JavaNodes;
+import org.stjs.generator.utils.MemberTable;
 import org.stjs.generator.writer.MemberWriters;
-import org.stjs.javascript.annotation.ServerSide;
 
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
@@ -108,14 +108,15 @@ public class MethodOverloadCheck implements CheckContributor<MethodTree> {
 
 		TypeElement typeElement = (TypeElement) methodElement.getEnclosingElement();
 		// for constructors take only the class's other constructors. For regular methods, checks agains all the methods
-		// in the class' hierarchy
-		List<? extends Element> allMembers =
-				methodElement.getKind() == ElementKind.CONSTRUCTOR ? typeElement.getEnclosedElements() : context.getElements().getAllMembers(
-						typeElement);
+		// with the same name in the class' hierarchy
+		MemberTable memberTable = context.getMemberTable(typeElement);
+		List<MemberTable.Member> sameNameMembers =
+				methodElement.getKind() == ElementKind.CONSTRUCTOR ? memberTable.getConstructors() : memberTable.getMembers(methodElement
+						.getSimpleName().toString());
 
-		for (Element memberElement : allMembers) {
-			if (memberElement.getAnnotation(ServerSide.class) == null) {
-				checkMember(memberElement, methodElement, tree, context, hasVarArgs);
+		for (MemberTable.Member member : sameNameMembers) {
+			if (!member.isServerSide()) {
+				checkMember(member.getElement(), methodElement, tree, context, hasVarArgs);
 			}
 		}
 
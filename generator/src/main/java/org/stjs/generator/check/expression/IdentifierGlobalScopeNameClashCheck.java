@@ -10,13 +10,11 @@ import org.stjs.generator.check.CheckVisitor;
 import org.stjs.generator.javac.TreeUtils;
 import org.stjs.generator.javac.TreeWrapper;
 
-import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
-import com.sun.source.util.TreeScanner;
 
 /**
  * this class checks that you don't use in the same method variables or parameters with the same name as a global scoped
@@ -64,25 +62,11 @@ public class IdentifierGlobalScopeNameClashCheck implements CheckContributor<Ide
 			// don't see a reason why!?
 			return;
 		}
-		enclosingMethod.accept(new TreeScanner<Void, Void>() {
-			private boolean checkStopped;
-
-			@Override
-			public Void visitClass(ClassTree arg0, Void arg1) {
-				// stop the checks if a new type is encountered
-				checkStopped = true;
-				return super.visitClass(arg0, arg1);
-			}
-
-			@Override
-			public Void visitVariable(VariableTree var, Void arg1) {
-				if (!checkStopped && var.getName().toString().equals(name)) {
-					context.addError(var, "A variable with the same name as your global variable is already defined in this method's scope. "
-							+ "Please rename either the local variable/parameter or the global variable.");
-				}
-				return super.visitVariable(var, arg1);
-			}
-		}, null);
+		// the variables of the inner classes are not in the method's scope
+		for (VariableTree var : context.getScopeIndex().getVariables(enclosingMethod, name)) {
+			context.addError(var, "A variable with the same name as your global variable is already defined in this method's scope. "
+					+ "Please rename either the local variable/parameter or the global variable.");
+		}
 	}
 
 	public static Void checkGlobalScope(final ExpressionTree tree, final String name, final GenerationContext<Void> context) {
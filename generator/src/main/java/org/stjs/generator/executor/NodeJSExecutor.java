@@ -15,26 +15,46 @@
  */
 package org.stjs.generator.executor;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 
 import org.stjs.generator.STJSRuntimeException;
 
-import edu.umd.cs.findbugs.annotations.SuppressWarnings;
-
+/**
+ * This class executes JavaScript files with node.js. The files are executed by a pool of long-lived node processes (see
+ * {@link NodeJSWorkerPool}), so only the first executions pay for the startup of node. By default all the executors
+ * share the same pool, that can be configured with the following system properties:
+ * <ul>
+ * <li>stjs.node.workers - the number of node processes (default: the number of processors)</li>
+ * <li>stjs.node.timeout - the maximum time in milliseconds to execute a file (default: 60000)</li>
+ * <li>stjs.node.maxJobsPerWorker - the number of files executed by a node process before it's replaced by a new one
+ * (default: 500)</li>
+ * </ul>
+ */
 public class NodeJSExecutor {
+	public static final String WORKERS_PROPERTY = "stjs.node.workers";
+	public static final String TIMEOUT_PROPERTY = "stjs.node.timeout";
+	public static final String MAX_JOBS_PER_WORKER_PROPERTY = "stjs.node.maxJobsPerWorker";
+
 	private static final String NODE_JS = "node";
 
-	@SuppressWarnings(
-			value = "REC_CATCH_EXCEPTION")
+	private static final NodeJSWorkerPool SHARED_POOL = new NodeJSWorkerPool(NODE_JS, Integer.getInteger(WORKERS_PROPERTY,
+			Runtime.getRuntime().availableProcessors()), Long.getLong(TIMEOUT_PROPERTY, 60000L), Integer.getInteger(
+			MAX_JOBS_PER_WORKER_PROPERTY, 500));
+
+	private final NodeJSWorkerPool pool;
+
+	public NodeJSExecutor() {
+		this(SHARED_POOL);
+	}
+
+	public NodeJSExecutor(NodeJSWorkerPool pool) {
+		this.pool = pool;
+	}
+
 	public ExecutionResult run(File srcFile) {
 		try {
-			Process p = Runtime.getRuntime().exec(new String[]{ NODE_JS, srcFile.getAbsolutePath() });
-			int exitValue = p.waitFor();
-			return new ExecutionResult(null, readStream(p.getInputStream()), readStream(p.getErrorStream()), exitValue);
+			return pool.execute(srcFile);
 		}
 		catch (IOException e) {
 			// TODO : this is not really going to be working on all OS!
@@ -45,18 +65,8 @@ public class NodeJSExecutor {
 			throw new STJSRuntimeException(e);
 		}
 		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			throw new STJSRuntimeException(e);
 		}
 	}
-
-	private String readStream(InputStream errStream) throws IOException {
-		StringBuilder builder = new StringBuilder();
-		// XXX: here i may need to get the charset from configuration
-		BufferedReader in = new BufferedReader(new InputStreamReader(errStream, "UTF-8"));
-		for (String line = in.readLine(); line != null; line = in.readLine()) {
-			builder.append(line);
-			builder.append('\n');
-		}
-		return builder.toString();
-	}
 }
@@ -0,0 +1,212 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.executor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * A node.js process running node-worker.js. The worker executes the files one by one, and sends back what the scripts
+ * write as lines of text on its standard output. The standard output and the error output of the process are read by
+ * two daemon threads, so the process never blocks on a full pipe.
+ */
+public class NodeJSWorker {
+	/**
+	 * the exit value reported when the script did not finish in time
+	 */
+	public static final int TIMEOUT_EXIT_VALUE = -1;
+
+	// put in the queue by the reader thread when the process closed its output. The worker never sends empty lines.
+	private static final String END_OF_STREAM = "";
+
+	// the lines written by node itself on its error output are kept until the end of the current job, up to this limit
+	private static final int MAX_PROCESS_ERRORS = 1000;
+
+	private final Process process;
+	private final Writer input;
+	private final BlockingQueue<String> messages = new LinkedBlockingQueue<String>();
+	private final BlockingQueue<String> processErrors = new LinkedBlockingQueue<String>(MAX_PROCESS_ERRORS);
+	private final AtomicInteger droppedProcessErrors = new AtomicInteger();
+	private int executedJobs;
+	private volatile boolean alive = true;
+
+	public NodeJSWorker(String nodeCommand, File workerScript, int id) throws IOException {
+		process = new ProcessBuilder(nodeCommand, workerScript.getAbsolutePath()).start();
+		input = new OutputStreamWriter(process.getOutputStream(), Charsets.UTF_8);
+		startReader("nodeWorker-" + id + "-out", process.getInputStream(), new LineHandler() {
+			@Override
+			public void handle(String line) {
+				messages.add(line);
+			}
+
+			@Override
+			public void end() {
+				messages.add(END_OF_STREAM);
+			}
+		});
+		startReader("nodeWorker-" + id + "-err", process.getErrorStream(), new LineHandler() {
+			@Override
+			public void handle(String line) {
+				if (!processErrors.offer(line)) {
+					droppedProcessErrors.incrementAndGet();
+				}
+			}
+
+			@Override
+			public void end() {
+				// nothing to do
+			}
+		});
+	}
+
+	@SuppressWarnings("PMD.DoNotUseThreads")
+	private static void startReader(String name, final InputStream stream, final LineHandler handler) {
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					BufferedReader in = new BufferedReader(new InputStreamReader(stream, Charsets.UTF_8));
+					for (String line = in.readLine(); line != null; line = in.readLine()) {
+						handler.handle(line);
+					}
+				}
+				catch (IOException e) {
+					handler.handle("E " + BaseEncoding.base64().encode(e.toString().getBytes(Charsets.UTF_8)));
+				}
+				finally {
+					handler.end();
+				}
+			}
+		}, name);
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * executes the given file and waits at most timeoutMillis for it to finish. If the script does not finish in time,
+	 * or if the node process dies, the worker is destroyed.
+	 */
+	public ExecutionResult execute(File srcFile, long timeoutMillis) throws InterruptedException {
+		executedJobs++;
+		StringBuilder out = new StringBuilder();
+		StringBuilder err = new StringBuilder();
+		try {
+			input.write(srcFile.getAbsolutePath());
+			input.write('\n');
+			input.flush();
+		}
+		catch (IOException e) {
+			destroy();
+			appendProcessErrors(err).append(e.getMessage()).append('\n');
+			return new ExecutionResult(null, out.toString(), err.toString(), exitValue());
+		}
+		return awaitResult(srcFile, timeoutMillis, out, err);
+	}
+
+	private ExecutionResult awaitResult(File srcFile, long timeoutMillis, StringBuilder out, StringBuilder err)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (true) {
+			long remaining = deadline - System.currentTimeMillis();
+			String message = remaining > 0 ? messages.poll(remaining, TimeUnit.MILLISECONDS) : null;
+			if (message == null) {
+				destroy();
+				err.append("The execution of ").append(srcFile).append(" did not finish in ").append(timeoutMillis)
+						.append("ms\n");
+				return new ExecutionResult(null, out.toString(), err.toString(), TIMEOUT_EXIT_VALUE);
+			}
+			if (message.isEmpty()) {
+				// the node process died while executing the script
+				alive = false;
+				int exitValue = exitValue();
+				appendProcessErrors(err);
+				return new ExecutionResult(null, out.toString(), err.toString(), exitValue);
+			}
+			if (message.charAt(0) == 'X') {
+				// what node wrote itself while the script was executed (warnings ...) is reported with the script
+				appendProcessErrors(err);
+				return new ExecutionResult(null, out.toString(), err.toString(), Integer.parseInt(message.substring(2)
+						.trim()));
+			}
+			appendOutput(message, out, err);
+		}
+	}
+
+	private static void appendOutput(String message, StringBuilder out, StringBuilder err) {
+		String text = decode(message.substring(2));
+		if (message.charAt(0) == 'O') {
+			out.append(text);
+		} else {
+			err.append(text);
+		}
+	}
+
+	private StringBuilder appendProcessErrors(StringBuilder err) {
+		for (String line = processErrors.poll(); line != null; line = processErrors.poll()) {
+			err.append(line).append('\n');
+		}
+		int dropped = droppedProcessErrors.getAndSet(0);
+		if (dropped > 0) {
+			err.append("... ").append(dropped).append(" more lines\n");
+		}
+		return err;
+	}
+
+	private static String decode(String payload) {
+		return new String(BaseEncoding.base64().decode(payload), Charsets.UTF_8);
+	}
+
+	private int exitValue() {
+		try {
+			return process.waitFor();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return TIMEOUT_EXIT_VALUE;
+		}
+	}
+
+	public boolean isAlive() {
+		return alive;
+	}
+
+	public int getExecutedJobs() {
+		return executedJobs;
+	}
+
+	public void destroy() {
+		alive = false;
+		process.destroy();
+	}
+
+	private interface LineHandler {
+		void handle(String line);
+
+		void end();
+	}
+}
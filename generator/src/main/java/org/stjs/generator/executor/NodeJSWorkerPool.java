@@ -0,0 +1,147 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.executor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.stjs.generator.STJSRuntimeException;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+/**
+ * A pool of long-lived node.js processes used to execute JavaScript files. Starting node takes much longer than
+ * executing a small script, so the processes are started only once and each one executes many files, one after the
+ * other, each file in its own V8 context.<br>
+ * The workers are started lazily, up to the size of the pool. A worker is replaced by a new one after it executed
+ * maxJobsPerWorker files, when a script does not finish before the timeout, and when the node process dies.
+ */
+public class NodeJSWorkerPool {
+	private static final String WORKER_SCRIPT = "node-worker.js";
+
+	private final String nodeCommand;
+	private final long timeoutMillis;
+	private final int maxJobsPerWorker;
+
+	private final BlockingQueue<NodeJSWorker> idleWorkers = new LinkedBlockingQueue<NodeJSWorker>();
+	private final Semaphore permits;
+	private final AtomicInteger workerIds = new AtomicInteger();
+	private final Object workerScriptLock = new Object();
+	private File workerScript;
+	private volatile boolean closed;
+
+	public NodeJSWorkerPool(String nodeCommand, int size, long timeoutMillis, int maxJobsPerWorker) {
+		if (size < 1) {
+			throw new IllegalArgumentException("The pool needs at least one worker");
+		}
+		this.nodeCommand = nodeCommand;
+		this.permits = new Semaphore(size, true);
+		this.timeoutMillis = timeoutMillis;
+		this.maxJobsPerWorker = maxJobsPerWorker;
+	}
+
+	/**
+	 * executes the given file in one of the workers, blocking until a worker is available and the script is finished.
+	 *
+	 * @throws IOException
+	 *             if the node process cannot be started
+	 */
+	public ExecutionResult execute(File srcFile) throws IOException, InterruptedException {
+		NodeJSWorker worker = acquire();
+		boolean reusable = false;
+		try {
+			ExecutionResult result = worker.execute(srcFile, timeoutMillis);
+			reusable = worker.isAlive() && worker.getExecutedJobs() < maxJobsPerWorker;
+			return result;
+		}
+		finally {
+			release(worker, reusable);
+		}
+	}
+
+	private NodeJSWorker acquire() throws IOException, InterruptedException {
+		if (closed) {
+			throw new IllegalStateException("The pool of node.js workers was closed");
+		}
+		// each permit stands for a worker that is either idle or not started yet
+		permits.acquire();
+		NodeJSWorker worker = idleWorkers.poll();
+		if (worker != null) {
+			return worker;
+		}
+		boolean started = false;
+		try {
+			worker = new NodeJSWorker(nodeCommand, getWorkerScript(), workerIds.incrementAndGet());
+			started = true;
+			return worker;
+		}
+		finally {
+			if (!started) {
+				permits.release();
+			}
+		}
+	}
+
+	private void release(NodeJSWorker worker, boolean reusable) {
+		if (reusable && !closed) {
+			idleWorkers.add(worker);
+		} else {
+			worker.destroy();
+		}
+		permits.release();
+	}
+
+	/**
+	 * stops the idle workers. The workers that are executing a script are stopped as soon as they are released.
+	 */
+	public void close() {
+		closed = true;
+		for (NodeJSWorker worker = idleWorkers.poll(); worker != null; worker = idleWorkers.poll()) {
+			worker.destroy();
+		}
+	}
+
+	/**
+	 * node needs a file to execute, so the worker script is copied from the classpath to a temporary file
+	 */
+	private File getWorkerScript() throws IOException {
+		synchronized (workerScriptLock) {
+			if (workerScript != null) {
+				return workerScript;
+			}
+			InputStream in = NodeJSWorkerPool.class.getResourceAsStream(WORKER_SCRIPT);
+			if (in == null) {
+				throw new STJSRuntimeException("Cannot find " + WORKER_SCRIPT + " in the classpath");
+			}
+			try {
+				File file = File.createTempFile("stjs-node-worker", ".js");
+				file.deleteOnExit();
+				Files.write(ByteStreams.toByteArray(in), file);
+				workerScript = file;
+				return file;
+			}
+			finally {
+				in.close();
+			}
+		}
+	}
+}
@@ -16,60 +16,92 @@
 package org.stjs.generator.executor;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
 import java.util.Collection;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.Undefined;
+import org.mozilla.javascript.Wrapper;
 import org.stjs.generator.Generator;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.Closeables;
-import com.google.common.io.Files;
-
+/**
+ * Executes the generated JavaScript files with Rhino. The stjs.js runtime and the generated files are compiled only
+ * once and shared by all the executors (see {@link RhinoScriptCache}). Each execution has its own global scope, as
+ * stjs.js and the generated code store their state in the global scope.<br>
+ * The Rhino optimization level can be set with the system property {@value #OPTIMIZATION_LEVEL_PROPERTY}.
+ */
 public class RhinoExecutor {
-	private Object addScript(ScriptEngine engine, File scriptFile) throws ScriptException {
-		Reader input = null;
-		try {
-			// XXX: here i may need to get the charset from configuration
-			input = Files.newReader(scriptFile, Charsets.UTF_8);
-			return engine.eval(input);
-		}
-		catch (FileNotFoundException e) {
-			throw new ScriptException(e);
-		}
-		finally {
-			Closeables.closeQuietly(input);
-		}
+	public static final String OPTIMIZATION_LEVEL_PROPERTY = "stjs.rhino.optimizationLevel";
+
+	private static final String PRINT_FUNCTION = "function print(message) {java.lang.System.out.println(message);}";
+
+	private static final RhinoScriptCache SHARED_CACHE = new RhinoScriptCache(Integer.getInteger(OPTIMIZATION_LEVEL_PROPERTY,
+			RhinoScriptCache.DEFAULT_OPTIMIZATION_LEVEL));
+
+	private final RhinoScriptCache scriptCache;
+
+	public RhinoExecutor() {
+		this(SHARED_CACHE);
+	}
+
+	public RhinoExecutor(RhinoScriptCache scriptCache) {
+		this.scriptCache = scriptCache;
 	}
 
 	public ExecutionResult run(Collection<File> srcFiles, boolean mainClassDisabled) throws ScriptException {
-		ScriptEngineManager factory = new ScriptEngineManager();
-		ScriptEngine engine = factory.getEngineByName("JavaScript");
-		Reader reader = null;
+		Context cx = ContextFactory.getGlobal().enterContext();
 		try {
-			reader = new InputStreamReader(Thread.currentThread().getContextClassLoader().getResourceAsStream(Generator.STJS_PATH), "UTF-8");
-			engine.eval(reader);
+			cx.setOptimizationLevel(scriptCache.getOptimizationLevel());
+			cx.setLanguageVersion(Context.VERSION_1_8);
+			ScriptableObject scope = cx.initStandardObjects();
+			cx.evaluateString(scope, PRINT_FUNCTION, "print", 1, null);
+
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+			scriptCache.getResourceScript(cx, classLoader, Generator.STJS_PATH).exec(cx, scope);
 			if (mainClassDisabled) {
-				engine.eval("stjs.mainCallDisabled=true;");
+				Scriptable stjs = (Scriptable) ScriptableObject.getProperty(scope, "stjs");
+				ScriptableObject.putProperty(stjs, "mainCallDisabled", true);
 			}
 			Object result = null;
 			for (File srcFile : srcFiles) {
 				// keep the result of last evaluation
-				result = addScript(engine, srcFile);
+				result = scriptCache.getScript(cx, srcFile).exec(cx, scope);
 			}
-			return new ExecutionResult(result, null, null, 0);
+			return new ExecutionResult(toJava(result), null, null, 0);
+		}
+		catch (RhinoException e) {
+			ScriptException ex = new ScriptException(e.getMessage(), e.sourceName(), e.lineNumber());
+			ex.initCause(e);
+			throw ex;
 		}
-		catch (UnsupportedEncodingException e) {
+		catch (IOException e) {
 			throw new ScriptException(e);
 		}
 		finally {
-			Closeables.closeQuietly(reader);
+			Context.exit();
+		}
+	}
+
+	/**
+	 * converts the JavaScript primitive values to their Java counterpart. Objects, arrays and dates are returned as they
+	 * are.
+	 */
+	private Object toJava(Object result) {
+		if (result == null || result instanceof Undefined) {
+			return null;
+		}
+		if (result instanceof Wrapper) {
+			return ((Wrapper) result).unwrap();
+		}
+		if (result instanceof CharSequence) {
+			return result.toString();
 		}
+		return result;
 	}
 }
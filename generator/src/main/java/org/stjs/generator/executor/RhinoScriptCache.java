@@ -0,0 +1,129 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.executor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+/**
+ * This class compiles JavaScript files with Rhino and keeps the compiled {@link Script}s, so that a file that is
+ * executed many times is parsed and compiled only once. The scripts are keyed by file and checked against the hash of
+ * the content of the file, read at each call: the modification date and the size are not enough, as a file rewritten
+ * within the resolution of the file system's clock with a content of the same size would keep its old script. Reading
+ * and hashing a file is much cheaper than compiling it, and a file rewritten with the same content (as it happens when
+ * a class is generated again) keeps its compiled script.<br>
+ * The compiled scripts do not hold any state, they can be executed concurrently in different scopes.
+ */
+public class RhinoScriptCache {
+	/**
+	 * the default Rhino optimization level: -1 interprets the scripts, 0 to 9 compile them to bytecode.
+	 */
+	public static final int DEFAULT_OPTIMIZATION_LEVEL = -1;
+
+	private final int optimizationLevel;
+	private final ConcurrentMap<String, CachedScript> scripts = new ConcurrentHashMap<String, CachedScript>();
+
+	public RhinoScriptCache(int optimizationLevel) {
+		this.optimizationLevel = optimizationLevel;
+	}
+
+	public int getOptimizationLevel() {
+		return optimizationLevel;
+	}
+
+	/**
+	 * @return the compiled script for the given file, compiling it if it's not in the cache or if it has changed.
+	 */
+	public Script getScript(Context cx, File file) throws IOException {
+		// XXX: here i may need to get the charset from configuration
+		String source = Files.toString(file, Charsets.UTF_8);
+		return getScript(cx, file.getAbsolutePath(), file.getPath(), source);
+	}
+
+	/**
+	 * @return the compiled script for the given class path resource, compiling it if it's not in the cache or if it has
+	 *         changed.
+	 */
+	public Script getResourceScript(Context cx, ClassLoader classLoader, String resourceName) throws IOException {
+		URL url = classLoader.getResource(resourceName);
+		if (url == null) {
+			throw new IOException("Cannot find " + resourceName + " in the classpath");
+		}
+		if ("file".equals(url.getProtocol())) {
+			try {
+				return getScript(cx, new File(url.toURI()));
+			}
+			catch (URISyntaxException e) {
+				throw new IOException(e);
+			}
+		}
+
+		InputStream in = url.openStream();
+		try {
+			String source = new String(ByteStreams.toByteArray(in), Charsets.UTF_8);
+			return getScript(cx, url.toString(), resourceName, source);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private Script getScript(Context cx, String key, String sourceName, String source) {
+		HashCode hash = Hashing.murmur3_128().hashString(source, Charsets.UTF_8);
+		CachedScript cached = scripts.get(key);
+		if (cached != null && cached.hash.equals(hash)) {
+			return cached.script;
+		}
+		Script script = compile(cx, source, sourceName);
+		scripts.put(key, new CachedScript(script, hash));
+		return script;
+	}
+
+	private Script compile(Context cx, String source, String sourceName) {
+		int previousLevel = cx.getOptimizationLevel();
+		cx.setOptimizationLevel(optimizationLevel);
+		try {
+			return cx.compileString(source, sourceName, 1, null);
+		}
+		finally {
+			cx.setOptimizationLevel(previousLevel);
+		}
+	}
+
+	private static final class CachedScript {
+		private final Script script;
+		private final HashCode hash;
+
+		CachedScript(Script script, HashCode hash) {
+			this.script = script;
+			this.hash = hash;
+		}
+	}
+}
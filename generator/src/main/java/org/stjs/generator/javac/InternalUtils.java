@@ -30,6 +30,7 @@ import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
 import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
 import com.sun.tools.javac.tree.JCTree.JCNewClass;
 import com.sun.tools.javac.tree.TreeInfo;
+import com.sun.tools.javac.util.Constants;
 import com.sun.tools.javac.util.Context;
 
 //import com.sun.source.tree.AnnotatedTypeTree;
@@ -219,6 +220,18 @@ public final class InternalUtils {
 		return ((JCTree) tree).type;
 	}
 
+	/**
+	 * @return the value javac computed for a compile time constant expression (with the Java type of the expression, i.e. Boolean or
+	 *         Character too), or null if the expression is not constant
+	 */
+	public static Object constantValue(ExpressionTree tree) {
+		Type type = ((JCTree) tree).type;
+		if (type == null || type.constValue() == null) {
+			return null;
+		}
+		return Constants.decode(type.constValue(), type);
+	}
+
 	/**
 	 * Returns whether a TypeVariable represents a captured type.
 	 */
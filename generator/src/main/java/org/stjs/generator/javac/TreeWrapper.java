@@ -15,6 +15,7 @@ import org.stjs.generator.GeneratorConstants;
 import org.stjs.generator.NamespaceUtil;
 import org.stjs.generator.name.DependencyType;
 import org.stjs.javascript.annotation.DataType;
+import org.stjs.javascript.annotation.DirectFieldAccess;
 import org.stjs.javascript.annotation.GlobalScope;
 import org.stjs.javascript.annotation.JavascriptFunction;
 import org.stjs.javascript.annotation.Namespace;
@@ -35,6 +36,8 @@ import com.sun.source.util.TreePath;
  * @author acraciun
  */
 public class TreeWrapper<T extends Tree, JS> {
+	private static final String GLOBAL_PROPERTY_TEMPLATE = "gproperty";
+
 	private final TreePath path;
 	private final GenerationContext<JS> context;
 	private final Element element;
@@ -262,7 +265,40 @@ public class TreeWrapper<T extends Tree, JS> {
 		if (element == null || element.getKind() != ElementKind.FIELD) {
 			return null;
 		}
-		return stripParameters(getTemplateValue());
+		String template = stripParameters(getTemplateValue());
+		if (GLOBAL_PROPERTY_TEMPLATE.equals(template) && isDirectFieldAccess()) {
+			// plain property access instead of stjs.getField/setField
+			return null;
+		}
+		return template;
+	}
+
+	/**
+	 * @return true if the code containing this tree accesses the "gproperty" fields directly (see {@link DirectFieldAccess})
+	 */
+	private boolean isDirectFieldAccess() {
+		ClassTree enclosingClass = TreeUtils.enclosingClass(path);
+		if (enclosingClass == null) {
+			return false;
+		}
+		for (Element e = TreeUtils.elementFromDeclaration(enclosingClass); e != null; e = e.getEnclosingElement()) {
+			if (context.getAnnotation(e, DirectFieldAccess.class) != null) {
+				return true;
+			}
+			if (e.getKind() == ElementKind.PACKAGE) {
+				return isDirectFieldAccessPackage(((PackageElement) e).getQualifiedName().toString());
+			}
+		}
+		return false;
+	}
+
+	private boolean isDirectFieldAccessPackage(String packageName) {
+		for (String directPackage : context.getConfiguration().getDirectFieldAccessPackages()) {
+			if (packageName.equals(directPackage) || packageName.startsWith(directPackage + ".")) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public String[] getFieldTemplateParameters() {
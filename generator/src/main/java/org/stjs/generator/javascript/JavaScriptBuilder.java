@@ -104,7 +104,7 @@ public interface JavaScriptBuilder<T> {
 
 	T statements(@Nonnull Iterable<T> stmts);
 
-	SourceMapGenerator writeJavaScript(T javascriptRoot, File inputFile, boolean generateSourceMap, Writer writer);
+	SourceMapGenerator writeJavaScript(T javascriptRoot, File inputFile, boolean generateSourceMap, boolean minify, Writer writer);
 
 	T comment(@Nullable T node, @Nullable String comment);
 
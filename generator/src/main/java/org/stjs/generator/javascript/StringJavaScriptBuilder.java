@@ -273,7 +273,8 @@ public class StringJavaScriptBuilder implements JavaScriptBuilder<String> {
 	}
 
 	@Override
-	public SourceMapGenerator writeJavaScript(String javascriptRoot, File inputFile, boolean generateSourceMap, Writer writer) {
+	public SourceMapGenerator writeJavaScript(String javascriptRoot, File inputFile, boolean generateSourceMap, boolean minify,
+			Writer writer) {
 		// TODO Auto-generated method stub
 		return null;
 	}
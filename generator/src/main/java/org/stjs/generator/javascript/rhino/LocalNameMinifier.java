@@ -0,0 +1,505 @@
+package org.stjs.generator.javascript.rhino;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mozilla.javascript.Node;
+import org.mozilla.javascript.ast.ArrayLiteral;
+import org.mozilla.javascript.ast.Assignment;
+import org.mozilla.javascript.ast.AstNode;
+import org.mozilla.javascript.ast.AstRoot;
+import org.mozilla.javascript.ast.Block;
+import org.mozilla.javascript.ast.BreakStatement;
+import org.mozilla.javascript.ast.CatchClause;
+import org.mozilla.javascript.ast.ConditionalExpression;
+import org.mozilla.javascript.ast.ContinueStatement;
+import org.mozilla.javascript.ast.DoLoop;
+import org.mozilla.javascript.ast.ElementGet;
+import org.mozilla.javascript.ast.EmptyExpression;
+import org.mozilla.javascript.ast.EmptyStatement;
+import org.mozilla.javascript.ast.ExpressionStatement;
+import org.mozilla.javascript.ast.ForInLoop;
+import org.mozilla.javascript.ast.ForLoop;
+import org.mozilla.javascript.ast.FunctionCall;
+import org.mozilla.javascript.ast.FunctionNode;
+import org.mozilla.javascript.ast.IfStatement;
+import org.mozilla.javascript.ast.InfixExpression;
+import org.mozilla.javascript.ast.KeywordLiteral;
+import org.mozilla.javascript.ast.Label;
+import org.mozilla.javascript.ast.LabeledStatement;
+import org.mozilla.javascript.ast.Name;
+import org.mozilla.javascript.ast.NewExpression;
+import org.mozilla.javascript.ast.NumberLiteral;
+import org.mozilla.javascript.ast.ObjectLiteral;
+import org.mozilla.javascript.ast.ObjectProperty;
+import org.mozilla.javascript.ast.ParenthesizedExpression;
+import org.mozilla.javascript.ast.PropertyGet;
+import org.mozilla.javascript.ast.ReturnStatement;
+import org.mozilla.javascript.ast.StringLiteral;
+import org.mozilla.javascript.ast.SwitchCase;
+import org.mozilla.javascript.ast.SwitchStatement;
+import org.mozilla.javascript.ast.ThrowStatement;
+import org.mozilla.javascript.ast.TryStatement;
+import org.mozilla.javascript.ast.UnaryExpression;
+import org.mozilla.javascript.ast.VariableDeclaration;
+import org.mozilla.javascript.ast.VariableInitializer;
+import org.mozilla.javascript.ast.WhileLoop;
+
+/**
+ * This class computes short names for the local variables and the parameters of the functions of a JavaScript AST, for the minified
+ * output. The global names, the properties and the labels are never renamed.<br>
+ * The AST is visited once to build the tree of function scopes, with the names declared by each function and the names referenced in
+ * each function. The variable of a catch clause is visible only in its block, so each catch clause has its own scope, declaring only this
+ * variable. The new names are then chosen from the outermost function to the innermost ones: the new name of a local variable must
+ * be different from all the names, used inside the function, that point to a variable declared outside the function.<br>
+ * The functions containing JavaScript code fragments (coming from the $js template) or calls to eval, and the functions enclosing them,
+ * are not renamed, as this code may refer to any visible variable by its name.
+ */
+@SuppressWarnings("PMD.ExcessivePublicCount")
+public class LocalNameMinifier implements AstVisitor<LocalNameMinifier.Scope> {
+	private static final Set<String> RESERVED_WORDS = new HashSet<String>(Arrays.asList("break", "case", "catch", "class", "const",
+			"continue", "debugger", "default", "delete", "do", "else", "enum", "export", "extends", "false", "finally", "for", "function",
+			"if", "implements", "import", "in", "instanceof", "interface", "let", "new", "null", "package", "private", "protected",
+			"public", "return", "static", "super", "switch", "this", "throw", "true", "try", "typeof", "var", "void", "while", "with",
+			"yield", "arguments", "eval", "undefined", "NaN", "Infinity", "int", "byte", "char", "goto", "long", "final", "float", "short",
+			"double", "native", "throws", "boolean", "abstract", "volatile", "transient", "synchronized"));
+
+	private static final String NAME_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	private static final String NAME_PART_CHARS = NAME_CHARS + "0123456789_$";
+
+	private final RhinoNodeVisitorSupport visitorSupport = new RhinoNodeVisitorSupport();
+	private final Map<Name, Scope> references = new IdentityHashMap<Name, Scope>();
+
+	/**
+	 * the scope of a function, of the variable of a catch clause, or of the script itself for the root scope
+	 */
+	static final class Scope {
+		private final Scope parent;
+		private final List<Scope> children = new ArrayList<Scope>();
+		// original name -> new name. The new name is null until it's computed
+		private final Map<String, String> declaredNames = new LinkedHashMap<String, String>();
+		private final Set<String> referencedNames = new HashSet<String>();
+		private final boolean catchClause;
+		private boolean renamable;
+
+		Scope(Scope parent, boolean renamable, boolean catchClause) {
+			this.parent = parent;
+			this.renamable = renamable;
+			this.catchClause = catchClause;
+			if (parent != null) {
+				parent.children.add(this);
+			}
+		}
+
+		/**
+		 * @return the scope where the variables declared in this scope go: the enclosing function, as a catch clause declares only its
+		 *         variable
+		 */
+		private Scope getVariableScope() {
+			Scope s = this;
+			while (s.catchClause) {
+				s = s.parent;
+			}
+			return s;
+		}
+
+		private void markNotRenamable() {
+			for (Scope s = this; s != null; s = s.parent) {
+				s.renamable = false;
+			}
+		}
+
+		/**
+		 * @return the scope declaring the given name, or null for the global names
+		 */
+		private Scope getDeclaringScope(String name) {
+			for (Scope s = this; s != null; s = s.parent) {
+				if (s.declaredNames.containsKey(name)) {
+					return s;
+				}
+			}
+			return null;
+		}
+
+		private String getFinalName(String name) {
+			Scope declaringScope = getDeclaringScope(name);
+			if (declaringScope == null || !declaringScope.renamable) {
+				return name;
+			}
+			return declaringScope.declaredNames.get(name);
+		}
+	}
+
+	/**
+	 * @return the new name of each Name node that must be renamed
+	 */
+	public Map<Name, String> minify(AstRoot root) {
+		Scope rootScope = new Scope(null, false, false);
+		visitAstRoot(root, rootScope);
+		for (Scope child : rootScope.children) {
+			chooseNames(child);
+		}
+
+		Map<Name, String> newNames = new IdentityHashMap<Name, String>();
+		for (Map.Entry<Name, Scope> entry : references.entrySet()) {
+			String identifier = entry.getKey().getIdentifier();
+			String baseName = getBaseName(identifier);
+			String finalName = entry.getValue().getFinalName(baseName);
+			if (!finalName.equals(baseName)) {
+				newNames.put(entry.getKey(), finalName + identifier.substring(baseName.length()));
+			}
+		}
+		return newNames;
+	}
+
+	private void chooseNames(Scope scope) {
+		if (scope.renamable) {
+			Set<String> usedNames = new HashSet<String>();
+			collectOuterNames(scope, scope, usedNames);
+			int index = 0;
+			for (Map.Entry<String, String> entry : scope.declaredNames.entrySet()) {
+				String newName;
+				do {
+					newName = generateName(index++);
+				} while (usedNames.contains(newName) || RESERVED_WORDS.contains(newName));
+				entry.setValue(newName);
+			}
+		}
+		for (Scope child : scope.children) {
+			chooseNames(child);
+		}
+	}
+
+	/**
+	 * collects the final names of all the names used in the given scope (or in its children) pointing to a variable declared outside the
+	 * renamed scope
+	 */
+	private void collectOuterNames(Scope renamedScope, Scope scope, Set<String> usedNames) {
+		for (String name : scope.referencedNames) {
+			Scope declaringScope = scope.getDeclaringScope(name);
+			if (declaringScope == null || isOutside(declaringScope, renamedScope)) {
+				usedNames.add(scope.getFinalName(name));
+			}
+		}
+		for (Scope child : scope.children) {
+			collectOuterNames(renamedScope, child, usedNames);
+		}
+	}
+
+	private boolean isOutside(Scope declaringScope, Scope renamedScope) {
+		for (Scope s = renamedScope; s != null; s = s.parent) {
+			if (s.equals(declaringScope)) {
+				return !s.equals(renamedScope);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return a, b, ..., Z, aa, ab, ...
+	 */
+	private static String generateName(int index) {
+		StringBuilder name = new StringBuilder();
+		name.append(NAME_CHARS.charAt(index % NAME_CHARS.length()));
+		for (int i = index / NAME_CHARS.length(); i > 0; i = i / NAME_PART_CHARS.length()) {
+			name.append(NAME_PART_CHARS.charAt((i - 1) % NAME_PART_CHARS.length()));
+		}
+		return name.toString();
+	}
+
+	/**
+	 * the generator uses sometimes a single Name node for a qualified name (a.b.c), only the first part can be a local variable
+	 */
+	private static String getBaseName(String identifier) {
+		int pos = identifier.indexOf('.');
+		return pos < 0 ? identifier : identifier.substring(0, pos);
+	}
+
+	private void accept(Node node, Scope scope) {
+		if (node != null) {
+			visitorSupport.accept(node, this, scope);
+		}
+	}
+
+	private void acceptAll(List<? extends AstNode> nodes, Scope scope) {
+		if (nodes != null) {
+			for (AstNode node : nodes) {
+				accept(node, scope);
+			}
+		}
+	}
+
+	private void declare(Name name, Scope scope) {
+		scope.declaredNames.put(name.getIdentifier(), null);
+		references.put(name, scope);
+	}
+
+	@Override
+	public void visitName(Name name, Scope scope) {
+		String baseName = getBaseName(name.getIdentifier());
+		if ("eval".equals(baseName)) {
+			scope.markNotRenamable();
+		}
+		scope.referencedNames.add(baseName);
+		references.put(name, scope);
+	}
+
+	@Override
+	public void visitFunctionNode(FunctionNode f, Scope scope) {
+		if (f.getFunctionName() != null) {
+			// the name of a function is visible both inside and outside the function. It's never renamed
+			scope.referencedNames.add(f.getFunctionName().getIdentifier());
+		}
+		Scope functionScope = new Scope(scope, true, false);
+		if (f.getParams() != null) {
+			for (AstNode param : f.getParams()) {
+				if (param instanceof Name) {
+					declare((Name) param, functionScope);
+				} else {
+					functionScope.markNotRenamable();
+				}
+			}
+		}
+		accept(f.getBody(), functionScope);
+	}
+
+	@Override
+	public void visitVariableInitializer(VariableInitializer v, Scope scope) {
+		if (v.getTarget() instanceof Name) {
+			declare((Name) v.getTarget(), scope.getVariableScope());
+		} else {
+			scope.markNotRenamable();
+		}
+		accept(v.getInitializer(), scope);
+	}
+
+	@Override
+	public void visitCatchClause(CatchClause c, Scope scope) {
+		// the catch variable is visible only in the catch block, where it hides the variables with the same name of the function and of
+		// the outer scopes
+		Scope catchScope = new Scope(scope, true, true);
+		declare(c.getVarName(), catchScope);
+		accept(c.getCatchCondition(), catchScope);
+		accept(c.getBody(), catchScope);
+	}
+
+	@Override
+	public void visitCodeFragment(CodeFragment c, Scope scope) {
+		scope.markNotRenamable();
+	}
+
+	@Override
+	public void visitPropertyGet(PropertyGet p, Scope scope) {
+		// the property name is not a variable
+		accept(p.getLeft(), scope);
+	}
+
+	@Override
+	public void visitObjectProperty(ObjectProperty p, Scope scope) {
+		// the property name is not a variable
+		accept(p.getRight(), scope);
+	}
+
+	@Override
+	public void visitBreakStatemen(BreakStatement b, Scope scope) {
+		// labels are not variables
+	}
+
+	@Override
+	public void visitContinueStatement(ContinueStatement c, Scope scope) {
+		// labels are not variables
+	}
+
+	@Override
+	public void visitLabel(Label label, Scope scope) {
+		// labels are not variables
+	}
+
+	@Override
+	public void visitLabeledStatement(LabeledStatement label, Scope scope) {
+		accept(label.getStatement(), scope);
+	}
+
+	@Override
+	public void visitAstRoot(AstRoot r, Scope scope) {
+		for (Node child : r) {
+			accept(child, scope);
+		}
+	}
+
+	@Override
+	public void visitStatements(Statements s, Scope scope) {
+		for (Node child : s) {
+			accept(child, scope);
+		}
+	}
+
+	@Override
+	public void visitBlock(Block block, Scope scope) {
+		for (Node child : block) {
+			accept(child, scope);
+		}
+	}
+
+	@Override
+	public void visitElementGet(ElementGet eg, Scope scope) {
+		accept(eg.getTarget(), scope);
+		accept(eg.getElement(), scope);
+	}
+
+	@Override
+	public void visitNewExpression(NewExpression ne, Scope scope) {
+		accept(ne.getTarget(), scope);
+		acceptAll(ne.getArguments(), scope);
+		accept(ne.getInitializer(), scope);
+	}
+
+	@Override
+	public void visitArrayLiteral(ArrayLiteral a, Scope scope) {
+		acceptAll(a.getElements(), scope);
+	}
+
+	@Override
+	public void visitStringLiteral(StringLiteral expr, Scope scope) {
+		// nothing to rename
+	}
+
+	@Override
+	public void visitParenthesizedExpression(ParenthesizedExpression p, Scope scope) {
+		accept(p.getExpression(), scope);
+	}
+
+	@Override
+	public void visitSwitchCase(SwitchCase s, Scope scope) {
+		accept(s.getExpression(), scope);
+		acceptAll(s.getStatements(), scope);
+	}
+
+	@Override
+	public void visitObjectLiteral(ObjectLiteral p, Scope scope) {
+		acceptAll(p.getElements(), scope);
+	}
+
+	@Override
+	public void visitDoLoop(DoLoop d, Scope scope) {
+		accept(d.getBody(), scope);
+		accept(d.getCondition(), scope);
+	}
+
+	@Override
+	public void visitEmptyStatement(EmptyStatement s, Scope scope) {
+		// nothing to rename
+	}
+
+	@Override
+	public void visitEmptyExpression(EmptyExpression s, Scope scope) {
+		// nothing to rename
+	}
+
+	@Override
+	public void visitForInLoop(ForInLoop f, Scope scope) {
+		accept(f.getIterator(), scope);
+		accept(f.getIteratedObject(), scope);
+		accept(f.getBody(), scope);
+	}
+
+	@Override
+	public void visitForLoop(ForLoop f, Scope scope) {
+		accept(f.getInitializer(), scope);
+		accept(f.getCondition(), scope);
+		accept(f.getIncrement(), scope);
+		accept(f.getBody(), scope);
+	}
+
+	@Override
+	public void visitIfStatement(IfStatement ifs, Scope scope) {
+		accept(ifs.getCondition(), scope);
+		accept(ifs.getThenPart(), scope);
+		accept(ifs.getElsePart(), scope);
+	}
+
+	@Override
+	public void visitReturnStatement(ReturnStatement r, Scope scope) {
+		accept(r.getReturnValue(), scope);
+	}
+
+	@Override
+	public void visitSwitchStatement(SwitchStatement s, Scope scope) {
+		accept(s.getExpression(), scope);
+		acceptAll(s.getCases(), scope);
+	}
+
+	@Override
+	public void visitFunctionCall(FunctionCall fc, Scope scope) {
+		accept(fc.getTarget(), scope);
+		acceptAll(fc.getArguments(), scope);
+	}
+
+	@Override
+	public void visitVariableDeclaration(VariableDeclaration v, Scope scope) {
+		acceptAll(v.getVariables(), scope);
+	}
+
+	@Override
+	public void visitTryStatement(TryStatement t, Scope scope) {
+		accept(t.getTryBlock(), scope);
+		acceptAll(t.getCatchClauses(), scope);
+		accept(t.getFinallyBlock(), scope);
+	}
+
+	@Override
+	public void visitWhileLoop(WhileLoop w, Scope scope) {
+		accept(w.getCondition(), scope);
+		accept(w.getBody(), scope);
+	}
+
+	@Override
+	public void visitConditionalExpression(ConditionalExpression c, Scope scope) {
+		accept(c.getTestExpression(), scope);
+		accept(c.getTrueExpression(), scope);
+		accept(c.getFalseExpression(), scope);
+	}
+
+	@Override
+	public void visitNumberLitera(NumberLiteral n, Scope scope) {
+		// nothing to rename
+	}
+
+	@Override
+	public void visitAssignment(Assignment a, Scope scope) {
+		accept(a.getLeft(), scope);
+		accept(a.getRight(), scope);
+	}
+
+	@Override
+	public void visitInfixExpression(InfixExpression ie, Scope scope) {
+		accept(ie.getLeft(), scope);
+		accept(ie.getRight(), scope);
+	}
+
+	@Override
+	public void visitKeywordLiteral(KeywordLiteral k, Scope scope) {
+		// nothing to rename
+	}
+
+	@Override
+	public void visitUnaryExpression(UnaryExpression u, Scope scope) {
+		accept(u.getOperand(), scope);
+	}
+
+	@Override
+	public void visitExpressionStatement(ExpressionStatement e, Scope scope) {
+		accept(e.getExpression(), scope);
+	}
+
+	@Override
+	public void visitThrowStatement(ThrowStatement e, Scope scope) {
+		accept(e.getExpression(), scope);
+	}
+}
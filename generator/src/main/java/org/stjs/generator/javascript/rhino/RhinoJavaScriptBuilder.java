@@ -550,10 +550,15 @@ public class RhinoJavaScriptBuilder implements JavaScriptBuilder<AstNode> {
 	}
 
 	@Override
-	public SourceMapGenerator writeJavaScript(AstNode javascriptRoot, File inputFile, boolean generateSourceMap, Writer writer) {
+	public SourceMapGenerator writeJavaScript(AstNode javascriptRoot, File inputFile, boolean generateSourceMap, boolean minify,
+			Writer writer) {
+		AstRoot root = cast(javascriptRoot, AstRoot.class);
 		RhinoJavaScriptWriter jsw = new RhinoJavaScriptWriter(writer, inputFile, generateSourceMap);
+		if (minify) {
+			jsw.minify(new LocalNameMinifier().minify(root));
+		}
 
-		jsw.visitAstRoot(cast(javascriptRoot, AstRoot.class), null);
+		jsw.visitAstRoot(root, null);
 
 		return jsw.getSourceMapGenerator();
 	}
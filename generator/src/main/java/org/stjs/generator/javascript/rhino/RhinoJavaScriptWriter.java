@@ -3,7 +3,9 @@ package org.stjs.generator.javascript.rhino;
 import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.mozilla.javascript.Node;
 import org.mozilla.javascript.ScriptRuntime;
@@ -83,6 +85,12 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 	private FilePosition javaPosition;
 	private FilePosition javaScriptPosition;
 
+	private boolean minify;
+	private Map<Name, String> newNames = Collections.emptyMap();
+	// the last character written in the minified output
+	private char lastChar = '\n';
+	private boolean afterNumber;
+
 	public RhinoJavaScriptWriter(Writer writer, File inputFile, boolean generateSourceMap) {
 		this.writer = writer;
 		this.inputFile = inputFile;
@@ -90,6 +98,15 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 		this.sourceMapGenerator = generateSourceMap ? SourceMapGeneratorFactory.getInstance(SourceMapFormat.V3) : null;
 	}
 
+	/**
+	 * switches to the minified output: the whitespace, the newlines and the comments are dropped and the given Name nodes are renamed.
+	 * The source map stays accurate as the positions are tracked on the single output line.
+	 */
+	public void minify(Map<Name, String> renamedNames) {
+		this.minify = true;
+		this.newNames = renamedNames;
+	}
+
 	protected RhinoJavaScriptWriter indent() {
 		level++;
 		return this;
@@ -101,36 +118,82 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 	}
 
 	protected void makeIndent() {
+		if (minify) {
+			return;
+		}
 		for (int i = 0; i < level; i++) {
-			try {
-				writer.append(INDENT);
-			}
-			catch (IOException e) {
-				throw new STJSRuntimeException("Writing problem:" + e, e);
-			}
-			currentColumn += INDENT.length();
+			write(INDENT);
 		}
 	}
 
 	protected RhinoJavaScriptWriter print(String arg) {
+		if (minify) {
+			// the writer prints tokens like "for (" or ") {"
+			for (String token : arg.trim().split("\\s+")) {
+				printMinified(token);
+			}
+			return this;
+		}
 		if (!indented) {
 			makeIndent();
 			indented = true;
 		}
+		// TODO check for newlines in the string
+		write(arg);
+		return this;
+	}
+
+	/**
+	 * prints a token of the minified output, adding a space only if it's needed to separate it from the previous token
+	 */
+	private RhinoJavaScriptWriter printMinified(String token) {
+		if (token.isEmpty()) {
+			return this;
+		}
+		if (needsSeparator(token.charAt(0))) {
+			write(" ");
+		}
+		write(token);
+		lastChar = token.charAt(token.length() - 1);
+		afterNumber = false;
+		return this;
+	}
+
+	private boolean needsSeparator(char nextChar) {
+		// a b, return a
+		boolean identifiers = Character.isJavaIdentifierPart(lastChar) && Character.isJavaIdentifierPart(nextChar);
+		// a + +b, a - --b
+		boolean operators = nextChar == lastChar && (nextChar == '+' || nextChar == '-');
+		// a / /x/ must not start a comment
+		boolean comment = lastChar == '/' && (nextChar == '/' || nextChar == '*');
+		// 1 .toString()
+		boolean number = afterNumber && nextChar == '.';
+		return identifiers || operators || comment || number;
+	}
+
+	private void write(String s) {
 		try {
-			writer.append(arg);
+			writer.append(s);
 		}
 		catch (IOException e) {
 			throw new STJSRuntimeException("Writing problem:" + e, e);
 		}
-		// TODO check for newlines in the string
-		currentColumn += arg.length();
-		return this;
+		currentColumn += s.length();
+	}
+
+	/**
+	 * a real newline, even in the minified output
+	 */
+	private void newLine() {
+		write("\n");
+		currentLine++;
+		currentColumn = 0;
+		lastChar = '\n';
 	}
 
 	protected RhinoJavaScriptWriter printComments(AstNode node) {
 		String comment = node.getJsDoc();
-		if (comment != null) {
+		if (comment != null && !minify) {
 			println(START_JAVA_DOC);
 			String[] lines = comment.split("\n");
 			for (String line : lines) {
@@ -148,6 +211,11 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 	}
 
 	public RhinoJavaScriptWriter println() {
+		if (minify) {
+			// the statement ends here on the same line
+			addMapping();
+			return this;
+		}
 		try {
 			writer.append('\n');
 		}
@@ -169,13 +237,15 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 	}
 
 	/**
-	 * this is only for statements on several lines to be able to catch end of inline function defintions
+	 * this is only for statements on several lines to be able to catch end of inline function defintions. In the minified output all the
+	 * code is on a single line, so the end of an inline function is found by its column, once its statements consumed the start position
 	 *
 	 * @param node
 	 */
 	protected void endPosition(AstNode node) {
 		if (generateSourceMap) {
-			boolean hasPosition = javaScriptPosition != null && javaScriptPosition.getLine() != currentLine;
+			boolean hasPosition = javaScriptPosition != null
+					&& (javaScriptPosition.getLine() != currentLine || javaPosition == null && javaScriptPosition.getColumn() != currentColumn);
 			if (hasPosition) {
 				javaPosition = new FilePosition(RhinoJavaScriptBuilder.getEndLineNumber(node) - 1,
 						RhinoJavaScriptBuilder.getEndColumnNumber(node) - 1);
@@ -476,7 +546,8 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 
 	@Override
 	public void visitName(Name name, Boolean param) {
-		print(name.getIdentifier());
+		String newName = newNames.get(name);
+		print(newName == null ? name.getIdentifier() : newName);
 	}
 
 	@Override
@@ -497,6 +568,7 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 	@Override
 	public void visitNumberLitera(NumberLiteral n, Boolean param) {
 		print(n.getValue());
+		afterNumber = true;
 	}
 
 	@Override
@@ -553,6 +625,12 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 
 	@Override
 	public void visitStringLiteral(StringLiteral expr, Boolean param) {
+		if (minify) {
+			// printed as a single token, the spaces inside the string must be kept
+			String quote = Character.toString(expr.getQuoteCharacter());
+			printMinified(quote + ScriptRuntime.escapeString(expr.getValue(), expr.getQuoteCharacter()) + quote);
+			return;
+		}
 		print(Character.toString(expr.getQuoteCharacter()));
 		print(ScriptRuntime.escapeString(expr.getValue(), expr.getQuoteCharacter()));
 		print(Character.toString(expr.getQuoteCharacter()));
@@ -667,7 +745,14 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 	public void addSourceMapURL() {
 		if (generateSourceMap) {
 			addMapping();
-			print("//# sourceMappingURL=").print(inputFile.getName().replaceAll("\\.java$", ".map"));
+			String comment = "//# sourceMappingURL=" + inputFile.getName().replaceAll("\\.java$", ".map");
+			if (minify) {
+				// written as is, as the minified printing would remove the space of the comment
+				newLine();
+				write(comment);
+			} else {
+				print(comment);
+			}
 		}
 	}
 
@@ -677,7 +762,17 @@ public class RhinoJavaScriptWriter implements AstVisitor<Boolean> {
 
 	@Override
 	public void visitCodeFragment(CodeFragment c, Boolean param) {
-		if (c.getCode() != null) {
+		if (c.getCode() == null) {
+			return;
+		}
+		if (minify) {
+			// the code is written as is, it may contain strings or comments
+			printMinified(c.getCode());
+			if (c.getCode().contains("//")) {
+				// it may end with a line comment
+				newLine();
+			}
+		} else {
 			print(c.getCode());
 		}
 	}
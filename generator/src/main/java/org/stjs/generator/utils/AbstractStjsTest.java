@@ -8,8 +8,6 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -17,10 +15,14 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 import javax.script.ScriptException;
 
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.NativeArray;
+import org.mozilla.javascript.ScriptRuntime;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.Undefined;
 import org.stjs.generator.BridgeClass;
 import org.stjs.generator.ClassWithJavascript;
 import org.stjs.generator.DependencyCollector;
@@ -71,6 +73,13 @@ public abstract class AbstractStjsTest {
 		return (String) executeOrGenerate(clazz, false, true);
 	}
 
+	/**
+	 * @return the javascript code generator from the given class
+	 */
+	public String generateWithSourcemap(Class<?> clazz, GeneratorConfiguration config) {
+		return (String) executeOrGenerate(clazz, false, true, config);
+	}
+
 	/**
 	 * @return the javascript code generator from the given class
 	 */
@@ -105,92 +114,65 @@ public abstract class AbstractStjsTest {
 	}
 
 	private Object convert(Object result) {
-		if (result == null) {
+		if (result == null || result instanceof Undefined) {
 			return null;
 		}
-		if (result.getClass().getName().contains("NativeObject")) {
-			return convertToMap(result);
+		if (result instanceof CharSequence) {
+			return result.toString();
+		}
+		if (result instanceof Double) {
+			return convertToNumber((Double) result);
 		}
-		if (result.getClass().getName().contains("NativeArray")) {
-			return convertToArray(result);
+		if (result instanceof NativeArray) {
+			return convertToArray((NativeArray) result);
 		}
-		if (result.getClass().getName().contains("NativeDate")) {
+		if (result instanceof ScriptableObject && "Date".equals(((ScriptableObject) result).getClassName())) {
 			return convertToDate(result);
 		}
-		if (result.getClass().getName().contains("ScriptObjectMirror")) {
-			// java 8 specific
-			return convertScriptObject(result);
+		if (result instanceof ScriptableObject) {
+			return convertToMap((ScriptableObject) result);
 		}
 		return result;
 	}
 
-	private Object invoke(Object obj, String method, int argCount, Object... args) {
-		try {
-			for (Method m : obj.getClass().getMethods()) {
-				if (m.getName().equals(method) && m.getParameterTypes().length == argCount) {
-					return m.invoke(obj, args);
-				}
-			}
-			throw new STJSRuntimeException("Method " + method + " not found in class " + obj.getClass());
-		}
-		catch (InvocationTargetException e) {
-			throw new STJSRuntimeException(e);
-		}
-		catch (IllegalArgumentException e) {
-			throw new STJSRuntimeException(e);
-		}
-		catch (IllegalAccessException e) {
-			throw new STJSRuntimeException(e);
+	private Number convertToNumber(Double result) {
+		// Rhino returns all the numbers as doubles, the integers are returned as Integer like the JDK script engine did
+		int intValue = result.intValue();
+		if (Double.compare(result, intValue) == 0) {
+			return intValue;
 		}
+		return result;
 	}
 
-	private static final int CALL_METHOD_ARG_COUNT = 3;
-
-	private Object convertToDate(Object result) {
-		Double time = (Double) invoke(result, "callMethod", CALL_METHOD_ARG_COUNT, result, "getTime", null);
-		return new Date(time.longValue());
+	private Date convertToDate(Object result) {
+		// the value of a Date can only be computed inside a Rhino context
+		Context.enter();
+		try {
+			return new Date((long) ScriptRuntime.toNumber(result));
+		}
+		finally {
+			Context.exit();
+		}
 	}
 
-	private static final int ARRAY_GET_METHOD_ARG_COUNT = 2;
-
-	private Array<Object> convertToArray(Object result) {
+	private Array<Object> convertToArray(NativeArray result) {
 		Array<Object> js = $array();
-		long length = (Long) invoke(result, "getLength", 0);
+		long length = result.getLength();
 		for (int i = 0; i < length; ++i) {
-			Object value = invoke(result, "get", ARRAY_GET_METHOD_ARG_COUNT, i, null);
-			js.push(convert(value));
+			js.push(convert(result.get(i, result)));
 		}
 		return js;
 	}
 
-	private Map<String, Object> convertToMap(Object result) {
+	private Map<String, Object> convertToMap(ScriptableObject result) {
 		Map<String, Object> js = $map();
-		Object[] ids = (Object[]) invoke(result, "getIds", 0);
-		for (Object key : ids) {
-			Object value = invoke(result, "get", 2, key.toString(), null);
+		for (Object key : result.getIds()) {
+			Object value = key instanceof Integer ? result.get((Integer) key, result) : result.get(key.toString(), result);
 			js.$put(key.toString(), convert(value));
 		}
 		return js;
 	}
 
-	private static final int CALL_MEMBER_METHOD_ARG_COUNT = 2;
-
-	@SuppressWarnings("unchecked")
-	private Object convertScriptObject(Object result) {
-		String cls = (String) invoke(result, "getClassName", 0);
-		if ("Date".equals(cls)) {
-			Double time = (Double) invoke(result, "callMember", CALL_MEMBER_METHOD_ARG_COUNT, "getTime", null);
-			return new Date(time.longValue());
-		}
-		Map<String, Object> js = $map();
-		Set<String> ids = (Set<String>) invoke(result, "keySet", 0);
-		for (String key : ids) {
-			Object value = invoke(result, "get", 1, key);
-			js.$put(key, convert(value));
-		}
-		return js;
-	}
-
 	private Object executeOrGenerate(Class<?> clazz, boolean execute, boolean withSourceMap) {
 		return executeOrGenerate(clazz, execute, withSourceMap, null);
 	}
@@ -269,6 +251,13 @@ public abstract class AbstractStjsTest {
 		}
 	}
 
+	/**
+	 * @return the generator used by the last generation
+	 */
+	public Generator getGenerator() {
+		return generator;
+	}
+
 	public ClassWithJavascript stjsClass(Class<?> clazz) {
 		return this.generator.getExistingStjsClass(Thread.currentThread().getContextClassLoader(), clazz);
 	}
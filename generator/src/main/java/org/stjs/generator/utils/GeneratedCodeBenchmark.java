@@ -0,0 +1,327 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.script.ScriptException;
+
+import org.mozilla.javascript.NativeArray;
+import org.stjs.generator.BridgeClass;
+import org.stjs.generator.ClassWithJavascript;
+import org.stjs.generator.DependencyCollector;
+import org.stjs.generator.GenerationDirectory;
+import org.stjs.generator.Generator;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.STJSRuntimeException;
+import org.stjs.generator.executor.RhinoExecutor;
+import org.stjs.generator.executor.RhinoScriptCache;
+import org.stjs.generator.utils.LazyGenerationClassResolver.LazyGenerator;
+
+import com.google.common.io.Files;
+
+/**
+ * This class measures the speed of the JavaScript code generated with different generation options. It generates benchmark kernels
+ * from the test sources, as {@link AbstractStjsTest} does, and runs them with a {@link RhinoExecutor}, so it needs nothing outside of the
+ * JVM.<br>
+ * A kernel is a class without namespace having a static method <tt>run()</tt> that returns a number. For each option, the kernel is
+ * generated in its own folder, with a driver script calling <tt>run()</tt> in a loop for a fixed time and counting the calls per second.
+ * The options are run one after the other in each iteration, so none of them pays alone for the warm-up of Rhino and of the JVM. The
+ * first iterations are not measured. The value returned by the last call is kept, so the callers can check that the options do not
+ * change the result of the kernel.<br>
+ * The iterations and the Rhino optimization level can be changed with the system properties {@value #WARMUP_ITERATIONS_PROPERTY},
+ * {@value #ITERATIONS_PROPERTY}, {@value #ITERATION_MILLIS_PROPERTY} and {@value #OPTIMIZATION_LEVEL_PROPERTY}.
+ */
+public class GeneratedCodeBenchmark {
+	public static final String DEFAULT_OPTION = "default";
+
+	public static final String WARMUP_ITERATIONS_PROPERTY = "stjs.benchmark.warmupIterations";
+	public static final String ITERATIONS_PROPERTY = "stjs.benchmark.iterations";
+	public static final String ITERATION_MILLIS_PROPERTY = "stjs.benchmark.iterationMillis";
+	public static final String OPTIMIZATION_LEVEL_PROPERTY = "stjs.benchmark.optimizationLevel";
+
+	private static final int DEFAULT_WARMUP_ITERATIONS = 2;
+	private static final int DEFAULT_ITERATIONS = 3;
+	private static final int DEFAULT_ITERATION_MILLIS = 50;
+	private static final int DEFAULT_OPTIMIZATION_LEVEL = 9;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	private static final String GENERATION_PATH = "generated-code-benchmark";
+	private static final String REPORT_FILE = "report.txt";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final File sourcePath = new File("src/test/java");
+	private final File resourcePath = new File("src/test/resources");
+	private final File generationPath = new File("target", GENERATION_PATH);
+
+	private final int warmupIterations = Integer.getInteger(WARMUP_ITERATIONS_PROPERTY, DEFAULT_WARMUP_ITERATIONS);
+	private final int iterations = Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS);
+	private final int iterationMillis = Integer.getInteger(ITERATION_MILLIS_PROPERTY, DEFAULT_ITERATION_MILLIS);
+	private final RhinoExecutor executor = new RhinoExecutor(new RhinoScriptCache(Integer.getInteger(OPTIMIZATION_LEVEL_PROPERTY,
+			DEFAULT_OPTIMIZATION_LEVEL)));
+
+	private final Map<String, GeneratorConfiguration> options = new LinkedHashMap<String, GeneratorConfiguration>();
+
+	private Generator generator;
+
+	public GeneratedCodeBenchmark() {
+		options.put(DEFAULT_OPTION, null);
+	}
+
+	/**
+	 * adds an option to compare with the default one. The given configuration is merged into the one used to generate the kernels.
+	 */
+	public GeneratedCodeBenchmark option(String name, GeneratorConfiguration config) {
+		options.put(name, config);
+		return this;
+	}
+
+	/**
+	 * @return the folder where the kernels are generated, in a sub-folder for each option, and where the report is written
+	 */
+	public File getGenerationPath() {
+		return generationPath;
+	}
+
+	/**
+	 * runs each kernel with each option
+	 */
+	public List<KernelResult> run(Class<?>... kernels) {
+		List<KernelResult> results = new ArrayList<KernelResult>();
+		for (Class<?> kernel : kernels) {
+			results.add(run(kernel));
+		}
+		return results;
+	}
+
+	public KernelResult run(Class<?> kernel) {
+		Map<String, List<File>> javascriptFiles = new LinkedHashMap<String, List<File>>();
+		Map<String, double[]> opsPerSecond = new LinkedHashMap<String, double[]>();
+		for (Map.Entry<String, GeneratorConfiguration> option : options.entrySet()) {
+			javascriptFiles.put(option.getKey(), generateWithDriver(kernel, option.getKey(), option.getValue()));
+			opsPerSecond.put(option.getKey(), new double[iterations]);
+		}
+
+		Map<String, Double> results = new LinkedHashMap<String, Double>();
+		for (int iteration = 0; iteration < warmupIterations + iterations; ++iteration) {
+			for (Map.Entry<String, List<File>> option : javascriptFiles.entrySet()) {
+				double[] driverResult = execute(kernel, option.getValue());
+				results.put(option.getKey(), driverResult[0]);
+				if (iteration >= warmupIterations) {
+					opsPerSecond.get(option.getKey())[iteration - warmupIterations] = driverResult[1];
+				}
+			}
+		}
+
+		KernelResult kernelResult = new KernelResult(kernel.getSimpleName());
+		for (String option : javascriptFiles.keySet()) {
+			kernelResult.measures.put(option, new Measure(results.get(option), opsPerSecond.get(option)));
+		}
+		return kernelResult;
+	}
+
+	private List<File> generateWithDriver(Class<?> kernel, String option, GeneratorConfiguration extraConfig) {
+		File folder = new File(generationPath, option);
+		if (!folder.exists() && !folder.mkdirs()) {
+			throw new STJSRuntimeException("Unable to create generation directory " + folder);
+		}
+		List<File> javascriptFiles = generate(kernel, folder, option, extraConfig);
+		try {
+			javascriptFiles.add(writeDriver(kernel, folder));
+		}
+		catch (IOException e) {
+			throw new STJSRuntimeException(e);
+		}
+		return javascriptFiles;
+	}
+
+	/**
+	 * @return the generated files of the kernel and of its dependencies, in the order they must be executed
+	 */
+	private List<File> generate(Class<?> kernel, File folder, String option, GeneratorConfiguration extraConfig) {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		GeneratorConfiguration config = new GeneratorConfigurationBuilder(extraConfig) //
+				.allowedPackage("org.stjs.javascript") //
+				.allowedPackage("org.stjs.generator") //
+				.allowedPackage(kernel.getPackage().getName()) //
+				.stjsClassLoader(classLoader) //
+				.generationFolder(new GenerationDirectory(folder, new File(GENERATION_PATH, option), folder.toURI())) //
+				.targetFolder(new File("target", "test-classes")) //
+				.classResolver(new LazyGenerationClassResolver(classLoader, new LazyGenerator() {
+					@Override
+					public ClassWithJavascript generateJavaScript(String className) {
+						return generator.generateJavascript(className, sourcePath);
+					}
+				})) //
+				.build();
+
+		generator = new Generator(config);
+		try {
+			ClassWithJavascript stjsClass = generator.generateJavascript(kernel.getName(), sourcePath);
+			List<File> javascriptFiles = new ArrayList<File>();
+			for (ClassWithJavascript dep : new DependencyCollector().orderAllDependencies(stjsClass)) {
+				for (URI js : dep.getJavascriptFiles()) {
+					javascriptFiles.add(dep instanceof BridgeClass ? new File(resourcePath, js.getPath()) : new File(js.getPath()));
+				}
+			}
+			return javascriptFiles;
+		}
+		finally {
+			generator.close();
+		}
+	}
+
+	/**
+	 * writes the script calling the kernel during one iteration. It returns an array with the value returned by the last call of the
+	 * kernel and the calls per second.
+	 */
+	private File writeDriver(Class<?> kernel, File folder) throws IOException {
+		StringBuilder s = new StringBuilder();
+		s.append("(function() {\n");
+		s.append("\tvar result, calls = 0, now, start = java.lang.System.nanoTime(), end = start + ").append(iterationMillis * NANOS_PER_MILLI)
+				.append(";\n");
+		s.append("\tdo {\n");
+		s.append("\t\tresult = ").append(kernel.getSimpleName()).append(".run();\n");
+		s.append("\t\tcalls++;\n");
+		s.append("\t\tnow = java.lang.System.nanoTime();\n");
+		s.append("\t} while (now < end);\n");
+		s.append("\treturn [result, calls * 1e9 / (now - start)];\n");
+		s.append("})();\n");
+
+		File driver = new File(folder, kernel.getSimpleName() + "-benchmark.js");
+		Files.write(s.toString(), driver, UTF8);
+		return driver;
+	}
+
+	/**
+	 * @return the value returned by the kernel and its calls per second
+	 */
+	private double[] execute(Class<?> kernel, List<File> javascriptFiles) {
+		NativeArray values;
+		try {
+			values = (NativeArray) executor.run(javascriptFiles, true).getResult();
+		}
+		catch (ScriptException e) {
+			throw new STJSRuntimeException(e);
+		}
+		Object result = values.get(0, values);
+		if (!(result instanceof Number)) {
+			throw new STJSRuntimeException("The method run() of the kernel " + kernel.getName() + " must return a number, not:" + result);
+		}
+		return new double[] { ((Number) result).doubleValue(), ((Number) values.get(1, values)).doubleValue() };
+	}
+
+	/**
+	 * writes the report of the given results in the generation folder
+	 *
+	 * @return the report
+	 */
+	public String writeReport(Collection<KernelResult> results) throws IOException {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format(Locale.ROOT, "%-30s %-20s %14s %14s %14s %10s%n", "kernel", "option", "ops/s", "min", "max",
+				"vs " + DEFAULT_OPTION));
+		for (KernelResult result : results) {
+			double reference = result.getMeasure(DEFAULT_OPTION).getOpsPerSecond();
+			for (String option : result.getOptions()) {
+				Measure measure = result.getMeasure(option);
+				report.append(String.format(Locale.ROOT, "%-30s %-20s %14.1f %14.1f %14.1f %9.2fx%n", result.getKernelName(), option,
+						measure.getOpsPerSecond(), measure.getMinOpsPerSecond(), measure.getMaxOpsPerSecond(), measure.getOpsPerSecond()
+								/ reference));
+			}
+		}
+		Files.write(report, new File(generationPath, REPORT_FILE), UTF8);
+		return report.toString();
+	}
+
+	/**
+	 * the measures of a kernel, for each option
+	 */
+	public static final class KernelResult {
+		private final String kernelName;
+		private final Map<String, Measure> measures = new LinkedHashMap<String, Measure>();
+
+		KernelResult(String kernelName) {
+			this.kernelName = kernelName;
+		}
+
+		public String getKernelName() {
+			return kernelName;
+		}
+
+		/**
+		 * @return the options, starting with the default one
+		 */
+		public Collection<String> getOptions() {
+			return Collections.unmodifiableSet(measures.keySet());
+		}
+
+		public Measure getMeasure(String option) {
+			return measures.get(option);
+		}
+	}
+
+	/**
+	 * the calls per second of a kernel generated with an option, in each of the measured iterations
+	 */
+	public static final class Measure {
+		private final double result;
+		private final double[] opsPerSecond;
+
+		Measure(double result, double[] opsPerSecond) {
+			this.result = result;
+			this.opsPerSecond = opsPerSecond.clone();
+			Arrays.sort(this.opsPerSecond);
+		}
+
+		/**
+		 * @return the value returned by the kernel
+		 */
+		public double getResult() {
+			return result;
+		}
+
+		/**
+		 * @return the average of the calls per second of the iterations
+		 */
+		public double getOpsPerSecond() {
+			double sum = 0;
+			for (double ops : opsPerSecond) {
+				sum += ops;
+			}
+			return sum / opsPerSecond.length;
+		}
+
+		public double getMinOpsPerSecond() {
+			return opsPerSecond[0];
+		}
+
+		public double getMaxOpsPerSecond() {
+			return opsPerSecond[opsPerSecond.length - 1];
+		}
+	}
+}
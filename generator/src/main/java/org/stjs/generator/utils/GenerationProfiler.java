@@ -0,0 +1,471 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * This class records the wall time and the memory allocated by the generation of each class, by each phase of the generation (parsing,
+ * checking, writing ...) and by each check and writer contributor. The measures are organized as a stack: class, phase, then the
+ * contributors, each contributor being called by the scan of its parent. The time and the memory of a frame are split between the frame
+ * itself ("self") and the frames it calls, so a contributor that scans the children of its node is not charged for the contributors of
+ * the children.<br>
+ * The allocated memory is measured only if the JVM supports it (HotSpot does), otherwise it's reported as 0.<br>
+ * The bookkeeping of the profiler itself (finding the stack of a frame, updating the measures) is done outside the measured sections, so
+ * it's not charged to the frames.<br>
+ * The profiler is not thread safe, it must be used by the thread generating the classes.
+ */
+public final class GenerationProfiler {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String STACK_SEPARATOR = ";";
+	private static final double NANOS_PER_MILLI = 1000000.0;
+	private static final long NANOS_PER_MICRO = 1000L;
+	private static final double BYTES_PER_KB = 1024.0;
+
+	private final com.sun.management.ThreadMXBean allocationBean;
+
+	private final Deque<Frame> frames = new ArrayDeque<Frame>();
+	private final Map<String, Measure> classes = new LinkedHashMap<String, Measure>();
+	private final Map<String, Measure> phases = new LinkedHashMap<String, Measure>();
+	private final Map<String, Measure> contributors = new LinkedHashMap<String, Measure>();
+	private final StackNode rootStack = new StackNode(null, null);
+	private final List<StackNode> stacks = new ArrayList<StackNode>();
+
+	public GenerationProfiler() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			allocationBean = (com.sun.management.ThreadMXBean) bean;
+			allocationBean.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			allocationBean = null;
+		}
+	}
+
+	private enum FrameKind {
+		CLASS, PHASE, CONTRIBUTOR
+	}
+
+	/**
+	 * the total and the self time (and allocated memory) of a class, a phase, a contributor or a stack
+	 */
+	public static final class Measure {
+		private final String name;
+		private long calls;
+		private long time;
+		private long allocated;
+		private long selfTime;
+		private long selfAllocated;
+		private final Map<String, Measure> phases = new LinkedHashMap<String, Measure>();
+
+		public Measure(String name) {
+			this.name = name;
+		}
+
+		private void add(Frame frame, long frameTime, long frameAllocated) {
+			calls++;
+			time += frameTime;
+			allocated += frameAllocated;
+			selfTime += frameTime - frame.getChildrenTime();
+			selfAllocated += frameAllocated - frame.getChildrenAllocated();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCalls() {
+			return calls;
+		}
+
+		/**
+		 * @return the wall time in nanoseconds, including the called frames
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * @return the allocated memory in bytes, including the called frames
+		 */
+		public long getAllocated() {
+			return allocated;
+		}
+
+		/**
+		 * @return the wall time in nanoseconds, without the called frames
+		 */
+		public long getSelfTime() {
+			return selfTime;
+		}
+
+		/**
+		 * @return the allocated memory in bytes, without the called frames
+		 */
+		public long getSelfAllocated() {
+			return selfAllocated;
+		}
+
+		/**
+		 * @return for a class, the measure of each phase of its generation
+		 */
+		public Map<String, Measure> getPhases() {
+			return Collections.unmodifiableMap(phases);
+		}
+	}
+
+	/**
+	 * a node of the tree of the stacks met so far. The frames point to their node, so the stack of a new frame is found with a lookup in
+	 * the children of its parent's node, the stack as text being built only when the report is written.
+	 */
+	private static final class StackNode {
+		private final StackNode parent;
+		private final Measure measure;
+		private final Map<String, StackNode> children = new HashMap<String, StackNode>();
+
+		public StackNode(StackNode parent, String name) {
+			this.parent = parent;
+			this.measure = new Measure(name);
+		}
+
+		public String getPath() {
+			if (parent == null || parent.parent == null) {
+				return measure.name;
+			}
+			return parent.getPath() + STACK_SEPARATOR + measure.name;
+		}
+	}
+
+	private static final class Frame {
+		private final FrameKind kind;
+		private final String name;
+		private final StackNode stack;
+		private long startTime;
+		private long startAllocated;
+		private long childrenTime;
+		private long childrenAllocated;
+
+		public Frame(FrameKind kind, String name, StackNode stack) {
+			this.kind = kind;
+			this.name = name;
+			this.stack = stack;
+		}
+
+		public long getChildrenTime() {
+			return childrenTime;
+		}
+
+		public long getChildrenAllocated() {
+			return childrenAllocated;
+		}
+	}
+
+	private long currentAllocated() {
+		return allocationBean == null ? 0 : allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private void enter(FrameKind kind, String name) {
+		long enterTime = System.nanoTime();
+		long enterAllocated = currentAllocated();
+		Frame parent = frames.peek();
+		Frame frame = new Frame(kind, name, stack(parent == null ? rootStack : parent.stack, name));
+		frames.push(frame);
+		frame.startAllocated = currentAllocated();
+		frame.startTime = System.nanoTime();
+		excludeBookkeeping(parent, frame.startTime - enterTime, frame.startAllocated - enterAllocated);
+	}
+
+	private StackNode stack(StackNode parent, String name) {
+		StackNode stack = parent.children.get(name);
+		if (stack == null) {
+			stack = new StackNode(parent, name);
+			parent.children.put(name, stack);
+			stacks.add(stack);
+		}
+		return stack;
+	}
+
+	/**
+	 * the time and the memory spent by the profiler are charged to nobody: they are removed from the self measures of the parent frame
+	 */
+	private static void excludeBookkeeping(Frame parent, long time, long allocated) {
+		if (parent != null) {
+			parent.childrenTime += time;
+			parent.childrenAllocated += allocated;
+		}
+	}
+
+	/**
+	 * starts the generation of the given class. A class generated while generating another one (when its dependencies are generated on
+	 * demand) is a frame of the other class.
+	 */
+	public void enterClass(String className) {
+		enter(FrameKind.CLASS, className);
+	}
+
+	/**
+	 * ends the generation of the current class, closing the frames left open by an error, if any
+	 */
+	public void exitClass() {
+		while (!frames.isEmpty() && frames.peek().kind != FrameKind.CLASS) {
+			exit();
+		}
+		if (!frames.isEmpty()) {
+			exit();
+		}
+	}
+
+	public void enterPhase(String phase) {
+		enter(FrameKind.PHASE, phase);
+	}
+
+	public void enterContributor(Class<?> contributorClass) {
+		enter(FrameKind.CONTRIBUTOR, contributorClass.getName());
+	}
+
+	/**
+	 * ends the current phase or contributor
+	 */
+	public void exit() {
+		long endTime = System.nanoTime();
+		long endAllocated = currentAllocated();
+		Frame frame = frames.pop();
+		long time = endTime - frame.startTime;
+		long allocated = endAllocated - frame.startAllocated;
+
+		frame.stack.measure.add(frame, time, allocated);
+		switch (frame.kind) {
+		case CLASS:
+			measure(classes, frame.name).add(frame, time, allocated);
+			break;
+		case PHASE:
+			measure(phases, frame.name).add(frame, time, allocated);
+			Frame classFrame = getClassFrame();
+			if (classFrame != null) {
+				measure(measure(classes, classFrame.name).phases, frame.name).add(frame, time, allocated);
+			}
+			break;
+		default:
+			measure(contributors, frame.name).add(frame, time, allocated);
+		}
+
+		// the called frame and the bookkeeping above are both excluded from the self measures of the parent
+		excludeBookkeeping(frames.peek(), System.nanoTime() - frame.startTime, currentAllocated() - frame.startAllocated);
+	}
+
+	private Frame getClassFrame() {
+		for (Frame frame : frames) {
+			if (frame.kind == FrameKind.CLASS) {
+				return frame;
+			}
+		}
+		return null;
+	}
+
+	private static Measure measure(Map<String, Measure> measures, String name) {
+		Measure measure = measures.get(name);
+		if (measure == null) {
+			measure = new Measure(name);
+			measures.put(name, measure);
+		}
+		return measure;
+	}
+
+	/**
+	 * @return the measure of each class, the slowest first
+	 */
+	public List<Measure> getClasses() {
+		return sortByTime(classes, false);
+	}
+
+	/**
+	 * @return the measure of each phase (for all the classes), the slowest first
+	 */
+	public List<Measure> getPhases() {
+		return sortByTime(phases, false);
+	}
+
+	/**
+	 * @return the measure of each contributor class (for all the classes), the one with the largest self time first
+	 */
+	public List<Measure> getContributors() {
+		return sortByTime(contributors, true);
+	}
+
+	private static List<Measure> sortByTime(Map<String, Measure> measures, final boolean self) {
+		List<Measure> sorted = new ArrayList<Measure>(measures.values());
+		Collections.sort(sorted, new Comparator<Measure>() {
+			@Override
+			public int compare(Measure m1, Measure m2) {
+				return Long.compare(self ? m2.selfTime : m2.time, self ? m1.selfTime : m1.time);
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * writes the report in the given folder:
+	 * <ul>
+	 * <li>profile.json and profile.html: the classes, the phases and the contributors, the slowest first</li>
+	 * <li>profile-time.collapsed and profile-alloc.collapsed: the self time (in microseconds) and the self allocated memory (in bytes) of
+	 * each stack, in the "collapsed stack" format read by the flame graph tools (flamegraph.pl, speedscope ...)</li>
+	 * </ul>
+	 */
+	public void writeReport(File folder) throws IOException {
+		if (!folder.exists() && !folder.mkdirs()) {
+			throw new IOException("Cannot create the directory " + folder);
+		}
+		Writer writer = Files.newWriter(new File(folder, "profile.json"), UTF8);
+		try {
+			writeJson(writer);
+		}
+		finally {
+			Closeables.close(writer, true);
+		}
+		writer = Files.newWriter(new File(folder, "profile.html"), UTF8);
+		try {
+			writeHtml(writer);
+		}
+		finally {
+			Closeables.close(writer, true);
+		}
+		writer = Files.newWriter(new File(folder, "profile-time.collapsed"), UTF8);
+		try {
+			writeCollapsedStacks(writer, false);
+		}
+		finally {
+			Closeables.close(writer, true);
+		}
+		writer = Files.newWriter(new File(folder, "profile-alloc.collapsed"), UTF8);
+		try {
+			writeCollapsedStacks(writer, true);
+		}
+		finally {
+			Closeables.close(writer, true);
+		}
+	}
+
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\n  \"classes\": [");
+		String separator = "\n";
+		for (Measure measure : getClasses()) {
+			writer.write(separator + "    {" + jsonMeasure(measure, false) + ", \"phases\": {");
+			String phaseSeparator = "";
+			for (Measure phase : measure.phases.values()) {
+				writer.write(phaseSeparator + quote(phase.name) + ": {" + jsonMeasure(phase, false) + "}");
+				phaseSeparator = ", ";
+			}
+			writer.write("}}");
+			separator = ",\n";
+		}
+		writer.write("\n  ],\n  \"phases\": [");
+		writeJsonMeasures(writer, getPhases(), false);
+		writer.write("\n  ],\n  \"contributors\": [");
+		writeJsonMeasures(writer, getContributors(), true);
+		writer.write("\n  ]\n}\n");
+	}
+
+	private static void writeJsonMeasures(Writer writer, List<Measure> measures, boolean self) throws IOException {
+		String separator = "\n";
+		for (Measure measure : measures) {
+			writer.write(separator + "    {" + jsonMeasure(measure, self) + "}");
+			separator = ",\n";
+		}
+	}
+
+	private static String jsonMeasure(Measure measure, boolean self) {
+		String json = "\"name\": " + quote(measure.name) + ", \"calls\": " + measure.calls + ", \"timeNanos\": " + measure.time
+				+ ", \"allocatedBytes\": " + measure.allocated;
+		if (self) {
+			json += ", \"selfTimeNanos\": " + measure.selfTime + ", \"selfAllocatedBytes\": " + measure.selfAllocated;
+		}
+		return json;
+	}
+
+	private static String quote(String s) {
+		return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	public void writeHtml(Writer writer) throws IOException {
+		writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>ST-JS generation profile</title>\n");
+		writer.write("<style>table{border-collapse:collapse}td,th{border:1px solid #ccc;padding:2px 6px}td.n{text-align:right}</style>\n");
+		writer.write("</head>\n<body>\n");
+		writeHtmlTable(writer, "Classes", getClasses(), false);
+		writeHtmlTable(writer, "Phases", getPhases(), false);
+		writeHtmlTable(writer, "Contributors", getContributors(), true);
+		writer.write("</body>\n</html>\n");
+	}
+
+	private static void writeHtmlTable(Writer writer, String title, List<Measure> measures, boolean self) throws IOException {
+		writer.write("<h2>" + title + "</h2>\n<table>\n<tr><th>Name</th><th>Calls</th><th>Time (ms)</th><th>Allocated (KB)</th>");
+		writer.write(self ? "<th>Self time (ms)</th><th>Self allocated (KB)</th></tr>\n" : "</tr>\n");
+		for (Measure measure : measures) {
+			writer.write("<tr><td>" + escapeHtml(measure.name) + "</td><td class=\"n\">" + measure.calls + "</td>" + htmlCell(millis(measure.time))
+					+ htmlCell(kilobytes(measure.allocated)));
+			if (self) {
+				writer.write(htmlCell(millis(measure.selfTime)) + htmlCell(kilobytes(measure.selfAllocated)));
+			}
+			writer.write("</tr>\n");
+		}
+		writer.write("</table>\n");
+	}
+
+	private static String htmlCell(String value) {
+		return "<td class=\"n\">" + value + "</td>";
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+	}
+
+	private static String kilobytes(long bytes) {
+		return String.format(Locale.ROOT, "%.1f", bytes / BYTES_PER_KB);
+	}
+
+	private static String escapeHtml(String s) {
+		return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+
+	/**
+	 * writes a line for each stack: the frames separated by ';', then the self time in microseconds (or the self allocated bytes)
+	 */
+	public void writeCollapsedStacks(Writer writer, boolean allocation) throws IOException {
+		for (StackNode stack : stacks) {
+			long value = allocation ? stack.measure.selfAllocated : stack.measure.selfTime / NANOS_PER_MICRO;
+			if (value > 0) {
+				writer.write(stack.getPath() + " " + value + "\n");
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+import org.stjs.javascript.annotation.ServerSide;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+/**
+ * This class holds the members of a type (declared or inherited), grouped by their simple name, with the flags the checks need for each
+ * member. It's computed once for each type and shared by the checks, so the hierarchy of the type is not walked again for each member
+ * that is checked.
+ */
+public final class MemberTable {
+	private final List<Member> members = new ArrayList<Member>();
+	private final ListMultimap<String, Member> membersByName = ArrayListMultimap.create();
+	private final List<Member> constructors = new ArrayList<Member>();
+
+	/**
+	 * a member of the type, with its precomputed flags
+	 */
+	public static final class Member {
+		private final Element element;
+		private final boolean nativeMember;
+		private final boolean serverSide;
+
+		public Member(Element element) {
+			this.element = element;
+			this.nativeMember = JavaNodes.isNative(element);
+			this.serverSide = element.getAnnotation(ServerSide.class) != null;
+		}
+
+		public Element getElement() {
+			return element;
+		}
+
+		public String getName() {
+			return element.getSimpleName().toString();
+		}
+
+		/**
+		 * @return true if the member is native or marked with @Native, so it has no generated code
+		 */
+		public boolean isNative() {
+			return nativeMember;
+		}
+
+		/**
+		 * @return true if the member is marked with @ServerSide, so it's skipped by the generation
+		 */
+		public boolean isServerSide() {
+			return serverSide;
+		}
+	}
+
+	public MemberTable(Elements elements, TypeElement type) {
+		for (Element element : elements.getAllMembers(type)) {
+			Member member = new Member(element);
+			members.add(member);
+			membersByName.put(member.getName(), member);
+		}
+		for (Element element : type.getEnclosedElements()) {
+			if (element.getKind() == ElementKind.CONSTRUCTOR) {
+				constructors.add(new Member(element));
+			}
+		}
+	}
+
+	/**
+	 * @return all the members of the type, declared or inherited, in the order given by {@link Elements#getAllMembers(TypeElement)}
+	 */
+	public List<Member> getMembers() {
+		return Collections.unmodifiableList(members);
+	}
+
+	/**
+	 * @return the members of the type, declared or inherited, with the given simple name
+	 */
+	public List<Member> getMembers(String name) {
+		return Collections.unmodifiableList(membersByName.get(name));
+	}
+
+	/**
+	 * @return the constructors declared by the type
+	 */
+	public List<Member> getConstructors() {
+		return Collections.unmodifiableList(constructors);
+	}
+}
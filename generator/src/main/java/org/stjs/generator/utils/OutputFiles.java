@@ -0,0 +1,92 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * This class writes the generated files only when their content changed, so the regeneration of an unchanged class does not touch the
+ * file system and keeps the modification time of its files (the file watchers and the incremental builds downstream rely on it).<br>
+ * A changed file is written to a temporary file of the same folder, that is then renamed, so the readers never see a half written file.
+ */
+public final class OutputFiles {
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private OutputFiles() {
+		//
+	}
+
+	/**
+	 * writes the content to the file, unless the file already has this content.
+	 *
+	 * @return true if the file was written, false if it was left unchanged
+	 */
+	public static boolean writeIfChanged(File file, byte[] content) throws IOException {
+		if (hasContent(file, content)) {
+			return false;
+		}
+		Path target = file.toPath();
+		Path temp = File.createTempFile(file.getName(), TEMP_SUFFIX, file.getAbsoluteFile().getParentFile()).toPath();
+		try {
+			Files.write(temp, content);
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+		return true;
+	}
+
+	/**
+	 * writes the content to the file if it changed, otherwise only sets its modification time to now. It is used for the marker files
+	 * whose modification time tells the incremental builds when their class was last generated, and that no one else watches.
+	 */
+	public static void writeOrTouch(File file, byte[] content) throws IOException {
+		if (!writeIfChanged(file, content) && !file.setLastModified(System.currentTimeMillis())) {
+			throw new IOException("Cannot set the modification time of " + file);
+		}
+	}
+
+	/**
+	 * copies the source file to the target file, unless the target file already has the same content
+	 *
+	 * @return true if the file was written, false if it was left unchanged
+	 */
+	public static boolean copyIfChanged(File source, File target) throws IOException {
+		return writeIfChanged(target, Files.readAllBytes(source.toPath()));
+	}
+
+	/**
+	 * the length of the file is checked first, so most of the changed files are detected without reading them
+	 */
+	private static boolean hasContent(File file, byte[] content) throws IOException {
+		if (!file.isFile() || file.length() != content.length) {
+			return false;
+		}
+		return Arrays.equals(content, Files.readAllBytes(file.toPath()));
+	}
+}
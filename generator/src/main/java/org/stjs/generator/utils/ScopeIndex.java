@@ -0,0 +1,193 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.generator.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+
+import org.stjs.generator.GeneratorConstants;
+import org.stjs.generator.check.expression.IdentifierAccessOuterScopeCheck;
+import org.stjs.generator.javac.TreeUtils;
+import org.stjs.generator.writer.expression.MethodInvocationWriter;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreeScanner;
+
+/**
+ * This class indexes, in a single pass over a compilation unit, the scope information needed by the checks and the writers:
+ * <ul>
+ * <li>the variables and parameters declared in each method (without the ones of the inner classes)</li>
+ * <li>the lambdas accessing the outer scope, i.e. using an instance field or calling an instance method of the enclosing object
+ * (directly or in a nested lambda)</li>
+ * </ul>
+ * It replaces the scan of the whole enclosing method (or lambda) done for each identifier.
+ */
+public final class ScopeIndex {
+	// the lambdas are not known by the Java 7 API, they are recognized by the name of their kind
+	private static final String LAMBDA_KIND = "LAMBDA_EXPRESSION";
+
+	private final Map<MethodTree, ListMultimap<String, VariableTree>> methodVariables = Maps.newIdentityHashMap();
+	private final Set<Tree> outerScopeLambdas = Sets.newIdentityHashSet();
+
+	private ScopeIndex() {
+		//
+	}
+
+	public static ScopeIndex build(CompilationUnitTree compilationUnit) {
+		ScopeIndex index = new ScopeIndex();
+		compilationUnit.accept(index.new IndexScanner(), null);
+		return index;
+	}
+
+	/**
+	 * @return the variables and parameters with the given name declared in the method (without the ones of its inner classes)
+	 */
+	public List<VariableTree> getVariables(MethodTree method, String name) {
+		ListMultimap<String, VariableTree> variables = methodVariables.get(method);
+		if (variables == null) {
+			return Collections.emptyList();
+		}
+		return variables.get(name);
+	}
+
+	/**
+	 * @return true if the lambda uses an instance field or calls an instance method of the enclosing object, so it has to be bound to
+	 *         "this"
+	 */
+	public boolean accessOuterScope(Tree lambda) {
+		return outerScopeLambdas.contains(lambda);
+	}
+
+	/**
+	 * the lambdas and the method being scanned, for the innermost class
+	 */
+	private static class ClassScope {
+		private final List<Tree> lambdas = new ArrayList<Tree>();
+		private ListMultimap<String, VariableTree> variables;
+
+		public List<Tree> getLambdas() {
+			return lambdas;
+		}
+	}
+
+	private class IndexScanner extends TreeScanner<Void, Void> {
+		private final Deque<ClassScope> scopes = new ArrayDeque<ClassScope>();
+
+		public IndexScanner() {
+			super();
+			scopes.push(new ClassScope());
+		}
+
+		@Override
+		public Void scan(Tree tree, Void p) {
+			if (tree == null || !LAMBDA_KIND.equals(tree.getKind().name())) {
+				return super.scan(tree, p);
+			}
+			List<Tree> lambdas = scopes.peek().getLambdas();
+			lambdas.add(tree);
+			try {
+				return super.scan(tree, p);
+			}
+			finally {
+				lambdas.remove(lambdas.size() - 1);
+			}
+		}
+
+		@Override
+		public Void visitClass(ClassTree tree, Void p) {
+			scopes.push(new ClassScope());
+			try {
+				return super.visitClass(tree, p);
+			}
+			finally {
+				scopes.pop();
+			}
+		}
+
+		@Override
+		public Void visitMethod(MethodTree tree, Void p) {
+			ClassScope scope = scopes.peek();
+			ListMultimap<String, VariableTree> previous = scope.variables;
+			scope.variables = ArrayListMultimap.create();
+			methodVariables.put(tree, scope.variables);
+			try {
+				return super.visitMethod(tree, p);
+			}
+			finally {
+				scope.variables = previous;
+			}
+		}
+
+		@Override
+		public Void visitVariable(VariableTree tree, Void p) {
+			ListMultimap<String, VariableTree> variables = scopes.peek().variables;
+			if (variables != null) {
+				variables.put(tree.getName().toString(), tree);
+			}
+			return super.visitVariable(tree, p);
+		}
+
+		@Override
+		public Void visitIdentifier(IdentifierTree tree, Void p) {
+			Collection<Tree> lambdas = scopes.peek().getLambdas();
+			if (!lambdas.isEmpty() && !outerScopeLambdas.containsAll(lambdas)) {
+				Element fieldElement = TreeUtils.elementFromUse(tree);
+				if (IdentifierAccessOuterScopeCheck.isRegularInstanceField(fieldElement, tree)
+						|| GeneratorConstants.THIS.equals(tree.getName().toString())) {
+					outerScopeLambdas.addAll(lambdas);
+				}
+			}
+			return super.visitIdentifier(tree, p);
+		}
+
+		@Override
+		public Void visitMethodInvocation(MethodInvocationTree tree, Void p) {
+			Collection<Tree> lambdas = scopes.peek().getLambdas();
+			if (!lambdas.isEmpty() && tree.getMethodSelect() instanceof IdentifierTree && isInstanceMethodCall(tree)) {
+				outerScopeLambdas.addAll(lambdas);
+			}
+			return super.visitMethodInvocation(tree, p);
+		}
+
+		private boolean isInstanceMethodCall(MethodInvocationTree tree) {
+			Element methodElement = TreeUtils.elementFromUse(tree);
+			if (JavaNodes.isStatic(methodElement)) {
+				return false;
+			}
+			// this and super call are ok
+			String name = MethodInvocationWriter.buildMethodName(tree);
+			return !GeneratorConstants.THIS.equals(name) && !GeneratorConstants.SUPER.equals(name);
+		}
+	}
+}
@@ -9,6 +9,7 @@ import java.util.logging.Logger;
 import javax.annotation.Nonnull;
 
 import org.stjs.generator.STJSRuntimeException;
+import org.stjs.generator.utils.GenerationProfiler;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -29,6 +30,8 @@ public class TreePathScannerContributors<R, P extends TreePathHolder, V extends
 
 	private boolean onlyOneFinalContributor;
 
+	private GenerationProfiler profiler;
+
 	public TreePathScannerContributors() {
 		super();
 	}
@@ -49,6 +52,7 @@ public class TreePathScannerContributors<R, P extends TreePathHolder, V extends
 
 		continueScanning = copy.continueScanning;
 		onlyOneFinalContributor = copy.continueScanning;
+		profiler = copy.profiler;
 	}
 
 	public boolean isContinueScanning() {
@@ -67,6 +71,18 @@ public class TreePathScannerContributors<R, P extends TreePathHolder, V extends
 		this.onlyOneFinalContributor = onlyOneFinalContributor;
 	}
 
+	public GenerationProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * @param profiler
+	 *            if not null, it records the time and the memory spent in each contributor and filter
+	 */
+	public void setProfiler(GenerationProfiler profiler) {
+		this.profiler = profiler;
+	}
+
 	@SuppressWarnings("unchecked")
 	private <T extends Tree> ContributorHolder<T> getHolder(Class<?> contributorClass) {
 		Class<?> treeNodeClass = getTreeNodeClass(contributorClass);
@@ -183,6 +199,33 @@ public class TreePathScannerContributors<R, P extends TreePathHolder, V extends
 		return null;
 	}
 
+	private <T extends Tree> R visitContributor(VisitorContributor<T, R, P, V> contributor, V visitor, T node, P p) {
+		if (profiler == null) {
+			return contributor.visit(visitor, node, p);
+		}
+		profiler.enterContributor(contributor.getClass());
+		try {
+			return contributor.visit(visitor, node, p);
+		}
+		finally {
+			profiler.exit();
+		}
+	}
+
+	private <T extends Tree> R visitFilter(VisitorFilterContributor<T, R, P, V> filter, V visitor, T node, P p,
+			VisitorContributor<T, R, P, V> chain) {
+		if (profiler == null) {
+			return filter.visit(visitor, node, p, chain);
+		}
+		profiler.enterContributor(filter.getClass());
+		try {
+			return filter.visit(visitor, node, p, chain);
+		}
+		finally {
+			profiler.exit();
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	protected <T extends Tree> R visit(T node, P p, R r) {
 		if (node == null) {
@@ -260,7 +303,7 @@ public class TreePathScannerContributors<R, P extends TreePathHolder, V extends
 			// the contributors are called at the end, but only the result of the last one will be kept
 			R lastR = null;
 			for (VisitorContributor<T, R, P, V> vc : contributors) {
-				lastR = vc.visit(visitor, tree, p);
+				lastR = visitContributor(vc, visitor, tree, p);
 			}
 			return lastR;
 		}
@@ -287,7 +330,7 @@ public class TreePathScannerContributors<R, P extends TreePathHolder, V extends
 			if (nextFilter < holder.getFilters().size()) {
 				VisitorFilterContributor<T, R, P, V> next = holder.getFilters().get(nextFilter);
 				nextFilter++;
-				return next.visit(visitor, tree, p, this);
+				return visitFilter(next, visitor, tree, p, this);
 			}
 			return holder.visitContributors(visitor, tree, p);
 		}
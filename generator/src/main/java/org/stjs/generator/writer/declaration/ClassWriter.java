@@ -48,6 +48,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 
 public class ClassWriter<JS> implements WriterContributor<ClassTree, JS> {
+	private static final String JSON_PARAM = "json";
 
 	/**
 	 * generate the namespace declaration stjs.ns("namespace") if needed
@@ -258,6 +259,17 @@ public class ClassWriter<JS> implements WriterContributor<ClassTree, JS> {
 		TypeElement type = TreeUtils.elementFromDeclaration(tree);
 
 		List<NameValue<JS>> props = new ArrayList<NameValue<JS>>();
+		for (Element member : getTypeDescFields(type)) {
+			props.add(NameValue.of(member.getSimpleName(), getFieldTypeDesc(ElementUtils.getType(member), context)));
+		}
+		return context.js().object(props);
+	}
+
+	/**
+	 * @return the fields that appear in the type description of the class
+	 */
+	private List<Element> getTypeDescFields(TypeElement type) {
+		List<Element> fields = new ArrayList<Element>();
 		for (Element member : ElementUtils.getAllFieldsIn(type)) {
 			TypeMirror memberType = ElementUtils.getType(member);
 			if (JavaNodes.isJavaScriptPrimitive(memberType)) {
@@ -271,10 +283,55 @@ public class ClassWriter<JS> implements WriterContributor<ClassTree, JS> {
 				continue;
 			}
 			if (!skipTypeDescForField(member)) {
-				props.add(NameValue.of(member.getSimpleName(), getFieldTypeDesc(memberType, context)));
+				fields.add(member);
 			}
 		}
-		return context.js().object(props);
+		return fields;
+	}
+
+	/**
+	 * @return the constructor to use for the JSON value of a field of the given type, or null if it must be found from the type
+	 *         description of the field (enums and parameterized types)
+	 */
+	private JS getFieldConstructor(TypeMirror type, GenerationContext<JS> context) {
+		if (!(type instanceof DeclaredType)) {
+			return context.js().keyword(Keyword.NULL);
+		}
+		DeclaredType declaredType = (DeclaredType) type;
+		if (declaredType.asElement().getKind() == ElementKind.ENUM || !declaredType.getTypeArguments().isEmpty()) {
+			return context.js().keyword(Keyword.NULL);
+		}
+		return context.js().name(context.getNames().getTypeName(context, type, DependencyType.OTHER));
+	}
+
+	/**
+	 * generates the function building an object of the class from JSON, that stjs.typefy calls instead of interpreting the type
+	 * description:<br>
+	 * Cls.$hydrate = function(json) { var td = Cls.$typeDescription; var ret = stjs.hydrateUntyped(json, new Cls(), td);
+	 * stjs.hydrateField(ret, "f", json.f, td.f, FieldType); ...; return ret; }
+	 */
+	private void addHydrator(ClassTree tree, GenerationContext<JS> context, List<JS> stmts) {
+		if (!context.getConfiguration().isGenerateHydrators() || tree.getKind() == Tree.Kind.INTERFACE) {
+			return;
+		}
+		JavaScriptBuilder<JS> js = context.js();
+		List<JS> body = new ArrayList<JS>();
+		body.add(js.variableDeclaration(true, "td", js.property(getClassName(tree, context), "$typeDescription")));
+		JS untyped = js.functionCall(js.property(js.name(GeneratorConstants.STJS), "hydrateUntyped"),
+				Arrays.asList(js.name(JSON_PARAM), js.newExpression(getClassName(tree, context), Collections.<JS> emptyList()), js.name("td")));
+		body.add(js.variableDeclaration(true, "ret", untyped));
+
+		for (Element member : getTypeDescFields(TreeUtils.elementFromDeclaration(tree))) {
+			String fieldName = member.getSimpleName().toString();
+			JS fieldCall = js.functionCall(js.property(js.name(GeneratorConstants.STJS), "hydrateField"), Arrays.asList(js.name("ret"),
+					js.string(fieldName), js.property(js.name(JSON_PARAM), fieldName), js.property(js.name("td"), fieldName),
+					getFieldConstructor(ElementUtils.getType(member), context)));
+			body.add(js.expressionStatement(fieldCall));
+		}
+		body.add(js.returnStatement(js.name("ret")));
+
+		JS hydrator = js.function(null, Collections.singleton(js.name(JSON_PARAM)), js.block(body));
+		stmts.add(js.expressionStatement(js.assignment(AssignOperator.ASSIGN, js.property(getClassName(tree, context), "$hydrate"), hydrator)));
 	}
 
 	private boolean skipTypeDescForField(Element member) {
@@ -532,6 +589,7 @@ public class ClassWriter<JS> implements WriterContributor<ClassTree, JS> {
 			stmts.add(extendsCall);
 		} else {
 			stmts.add(context.withPosition(tree, js.expressionStatement(js.assignment(AssignOperator.ASSIGN, name, extendsCall))));
+			addHydrator(tree, context, stmts);
 		}
 		addStaticInitializers(visitor, tree, context, stmts);
 		addMainMethodCall(tree, stmts, context);
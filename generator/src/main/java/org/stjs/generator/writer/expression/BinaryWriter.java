@@ -18,6 +18,12 @@ import com.sun.source.util.TreePath;
 public class BinaryWriter<JS> implements WriterContributor<BinaryTree, JS> {
 	@Override
 	public JS visit(WriterVisitor<JS> visitor, BinaryTree tree, GenerationContext<JS> context) {
+		if (context.getConfiguration().isInlineConstants()) {
+			JS constant = ConstantWriters.fold(context, tree);
+			if (constant != null) {
+				return constant;
+			}
+		}
 		JS left = visitor.scan(tree.getLeftOperand(), context);
 		JS right = visitor.scan(tree.getRightOperand(), context);
 		BinaryOperator op = BinaryOperator.valueOf(tree.getKind());
@@ -0,0 +1,316 @@
+package org.stjs.generator.writer.expression;
+
+import java.util.Set;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import org.stjs.generator.GenerationContext;
+import org.stjs.generator.javac.InternalUtils;
+import org.stjs.generator.javac.TypesUtils;
+import org.stjs.generator.javascript.Keyword;
+import org.stjs.javascript.annotation.STJSBridge;
+
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.Tree.Kind;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.util.TreeScanner;
+
+/**
+ * helper methods to write the compile time constants (the static final fields initialized with a constant expression and the
+ * expressions built only with literals and such fields) directly as their value, as computed by javac.<br>
+ * A constant is written as its value only if the JavaScript code would compute the same value: the chars are strings of one character in
+ * JavaScript, the float operations are done in double precision and the floating point numbers are converted to string without their
+ * ".0", so the constants involving them are left to JavaScript. JavaScript computes the int and long operations in double precision too
+ * (and the bitwise ones on 32 bits), so they are folded only if they give the same value in double precision, i.e. if they do not
+ * overflow, and the long values are concatenated only if they are exact doubles.
+ */
+public final class ConstantWriters {
+	private static final int SHIFT_MASK = 0x1F;
+	private static final long UINT32_MASK = 0xFFFFFFFFL;
+
+	private ConstantWriters() {
+		//
+	}
+
+	/**
+	 * @return the value of the given field reference, or null if the field is not a constant that can be inlined
+	 */
+	public static <JS> JS inlineField(GenerationContext<JS> context, ExpressionTree tree, Element element) {
+		Object value = InternalUtils.constantValue(tree);
+		if (value == null || !isInlinable(element)) {
+			return null;
+		}
+		return toJavaScript(context, value);
+	}
+
+	/**
+	 * @return the value of the given expression, or null if the expression is not constant or uses a constant that cannot be inlined
+	 */
+	public static <JS> JS fold(GenerationContext<JS> context, ExpressionTree tree) {
+		Object value = InternalUtils.constantValue(tree);
+		if (value == null || Boolean.FALSE.equals(tree.accept(new InlinableScanner(), null))) {
+			return null;
+		}
+		return toJavaScript(context, value);
+	}
+
+	/**
+	 * the constants of the bridges are not inlined, as their Java value may only be a placeholder for the value the
+	 * JavaScript library has. The char constants are not inlined either, as their JavaScript value is the one of their initializer,
+	 * i.e. "a1" for 'a' + 1.
+	 */
+	private static boolean isInlinable(Element element) {
+		if (!isConstantField(element) || element.asType().getKind() == TypeKind.CHAR) {
+			return false;
+		}
+		for (Element e = element.getEnclosingElement(); e != null; e = e.getEnclosingElement()) {
+			if (isBridge(e)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isConstantField(Element element) {
+		if (element == null || element.getKind() != ElementKind.FIELD) {
+			return false;
+		}
+		Set<Modifier> modifiers = element.getModifiers();
+		boolean staticFinal = modifiers.contains(Modifier.STATIC) && modifiers.contains(Modifier.FINAL);
+		return staticFinal && ((VariableElement) element).getConstantValue() != null;
+	}
+
+	private static boolean isBridge(Element element) {
+		for (AnnotationMirror a : element.getAnnotationMirrors()) {
+			if (a.getAnnotationType().toString().equals(STJSBridge.class.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static <JS> JS toJavaScript(GenerationContext<JS> context, Object value) {
+		if (value instanceof String) {
+			return context.js().string((String) value);
+		}
+		if (value instanceof Character) {
+			return context.js().character(value.toString());
+		}
+		if (value instanceof Boolean) {
+			return context.js().keyword((Boolean) value ? Keyword.TRUE : Keyword.FALSE);
+		}
+		return number(context, (Number) value);
+	}
+
+	private static <JS> JS number(GenerationContext<JS> context, Number value) {
+		JS number = context.js().number(value);
+		// keep the sign with the number, as in x - (-1)
+		return value.toString().startsWith("-") ? context.js().paren(number) : number;
+	}
+
+	/**
+	 * @return true if the JavaScript code of the given operation computes the same value as Java: the chars are only strings to
+	 *         concatenate, the floating point numbers are not concatenated, the long values are concatenated only if they are exact
+	 *         doubles, the float operations are not computed, and the other operations give the same value in double precision
+	 */
+	private static boolean isFoldable(BinaryTree tree) {
+		TypeMirror left = InternalUtils.typeOf(tree.getLeftOperand());
+		TypeMirror right = InternalUtils.typeOf(tree.getRightOperand());
+		if (TypesUtils.isString(InternalUtils.typeOf(tree))) {
+			return !TypesUtils.isFloating(left) && !TypesUtils.isFloating(right)
+					&& isExactDouble(InternalUtils.constantValue(tree.getLeftOperand()))
+					&& isExactDouble(InternalUtils.constantValue(tree.getRightOperand()));
+		}
+		if (isCharOrFloat(left) || isCharOrFloat(right)) {
+			return false;
+		}
+		return isSameInJavaScript(tree, TypesUtils.isIntegral(left) && TypesUtils.isIntegral(right));
+	}
+
+	private static boolean isCharOrFloat(TypeMirror type) {
+		return isKind(type, TypeKind.CHAR) || isKind(type, TypeKind.FLOAT);
+	}
+
+	/**
+	 * @return true if the given operation, whose operands are not chars nor floats, gives the same value in double precision
+	 */
+	private static boolean isSameInJavaScript(BinaryTree tree, boolean integral) {
+		Object left = InternalUtils.constantValue(tree.getLeftOperand());
+		if (left instanceof Boolean) {
+			return true;
+		}
+		Object right = InternalUtils.constantValue(tree.getRightOperand());
+		if (!isExactNumber(left) || !isExactNumber(right)) {
+			return false;
+		}
+		Object jsValue = evaluate(tree.getKind(), ((Number) left).doubleValue(), ((Number) right).doubleValue(), integral);
+		return jsValue != null && jsValue.equals(toDouble(InternalUtils.constantValue(tree)));
+	}
+
+	/**
+	 * @return true if the JavaScript code of the given unary operation computes the same value as Java, i.e. in double precision
+	 */
+	private static boolean isFoldable(UnaryTree tree) {
+		Object value = InternalUtils.constantValue(tree.getExpression());
+		if (!(value instanceof Number)) {
+			return true;
+		}
+		if (isKind(InternalUtils.typeOf(tree.getExpression()), TypeKind.FLOAT) || !isExactDouble(value)) {
+			return false;
+		}
+		Object jsValue = evaluate(tree.getKind(), ((Number) value).doubleValue());
+		return jsValue != null && jsValue.equals(toDouble(InternalUtils.constantValue(tree)));
+	}
+
+	/**
+	 * @return true if the value is not a long, or a long that is exactly represented by a double, as in JavaScript
+	 */
+	private static boolean isExactDouble(Object value) {
+		if (!(value instanceof Long)) {
+			return true;
+		}
+		long longValue = (Long) value;
+		return (long) (double) longValue == longValue;
+	}
+
+	private static boolean isExactNumber(Object value) {
+		return value instanceof Number && isExactDouble(value);
+	}
+
+	private static Object toDouble(Object value) {
+		return value instanceof Number ? (Object) ((Number) value).doubleValue() : value;
+	}
+
+	/**
+	 * @return the value computed by JavaScript for the given unary operation, or null if the operation is not known
+	 */
+	private static Object evaluate(Kind kind, double operand) {
+		switch (kind) {
+		case UNARY_PLUS:
+			return operand;
+		case UNARY_MINUS:
+			return -operand;
+		case BITWISE_COMPLEMENT:
+			return (double) ~toInt32(operand);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @return the value computed by JavaScript for the given operation, or null if the operation is not known
+	 */
+	@SuppressWarnings("PMD.CyclomaticComplexity")
+	private static Object evaluate(Kind kind, double left, double right, boolean integral) {
+		switch (kind) {
+		case PLUS:
+			return left + right;
+		case MINUS:
+			return left - right;
+		case MULTIPLY:
+			return left * right;
+		case DIVIDE:
+			// the integer division is written with stjs.trunc
+			return integral ? trunc(left / right) : left / right;
+		case REMAINDER:
+			return left % right;
+		case LEFT_SHIFT:
+			return (double) (toInt32(left) << shiftCount(right));
+		case RIGHT_SHIFT:
+			return (double) (toInt32(left) >> shiftCount(right));
+		case UNSIGNED_RIGHT_SHIFT:
+			return (double) (toUint32(left) >>> shiftCount(right));
+		case AND:
+			return (double) (toInt32(left) & toInt32(right));
+		case OR:
+			return (double) (toInt32(left) | toInt32(right));
+		case XOR:
+			return (double) (toInt32(left) ^ toInt32(right));
+		case LESS_THAN:
+			return left < right;
+		case LESS_THAN_EQUAL:
+			return left <= right;
+		case GREATER_THAN:
+			return left > right;
+		case GREATER_THAN_EQUAL:
+			return left >= right;
+		case EQUAL_TO:
+			return left == right;
+		case NOT_EQUAL_TO:
+			return left != right;
+		default:
+			return null;
+		}
+	}
+
+	private static double trunc(double value) {
+		return value >= 0 ? Math.floor(value) : Math.ceil(value);
+	}
+
+	/**
+	 * the conversion of the operands of the bitwise operations in JavaScript: the low 32 bits of the integer value
+	 */
+	private static int toInt32(double value) {
+		return (int) (long) value;
+	}
+
+	private static long toUint32(double value) {
+		return toInt32(value) & UINT32_MASK;
+	}
+
+	/**
+	 * JavaScript shifts the 32 bits values by the 5 low bits of the count
+	 */
+	private static int shiftCount(double value) {
+		return toInt32(value) & SHIFT_MASK;
+	}
+
+	private static boolean isKind(TypeMirror type, TypeKind kind) {
+		return type != null && type.getKind() == kind;
+	}
+
+	/**
+	 * checks that all the fields used by a constant expression can be inlined, and that all its operations can be folded
+	 */
+	private static class InlinableScanner extends TreeScanner<Boolean, Void> {
+		@Override
+		public Boolean reduce(Boolean r1, Boolean r2) {
+			return !Boolean.FALSE.equals(r1) && !Boolean.FALSE.equals(r2);
+		}
+
+		@Override
+		public Boolean visitBinary(BinaryTree tree, Void p) {
+			if (!isFoldable(tree)) {
+				return false;
+			}
+			return super.visitBinary(tree, p);
+		}
+
+		@Override
+		public Boolean visitUnary(UnaryTree tree, Void p) {
+			if (!isFoldable(tree)) {
+				return false;
+			}
+			return super.visitUnary(tree, p);
+		}
+
+		@Override
+		public Boolean visitIdentifier(IdentifierTree tree, Void p) {
+			return isInlinable(InternalUtils.symbol(tree));
+		}
+
+		@Override
+		public Boolean visitMemberSelect(MemberSelectTree tree, Void p) {
+			return isInlinable(InternalUtils.symbol(tree));
+		}
+	}
+}
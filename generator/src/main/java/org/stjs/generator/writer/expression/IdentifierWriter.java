@@ -21,6 +21,13 @@ public class IdentifierWriter<JS> implements WriterContributor<IdentifierTree, J
 
 	@Override
 	public JS visit(WriterVisitor<JS> visitor, IdentifierTree tree, GenerationContext<JS> context) {
+		if (context.getConfiguration().isInlineConstants()) {
+			TreeWrapper<IdentifierTree, JS> tw = context.getCurrentWrapper();
+			JS constant = ConstantWriters.inlineField(context, tree, tw.getElement());
+			if (constant != null) {
+				return constant;
+			}
+		}
 		String templateName = buildTemplateName(tree, context);
 
 		return visitor.forward(DiscriminatorKey.of(IdentifierWriter.class.getSimpleName(), templateName), tree, context);
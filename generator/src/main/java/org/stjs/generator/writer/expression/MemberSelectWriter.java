@@ -22,6 +22,13 @@ public class MemberSelectWriter<JS> implements WriterContributor<MemberSelectTre
 
 	@Override
 	public JS visit(WriterVisitor<JS> visitor, MemberSelectTree tree, GenerationContext<JS> context) {
+		if (context.getConfiguration().isInlineConstants()) {
+			TreeWrapper<MemberSelectTree, JS> tw = context.getCurrentWrapper();
+			JS constant = ConstantWriters.inlineField(context, tree, tw.getElement());
+			if (constant != null) {
+				return constant;
+			}
+		}
 		String templateName = buildTemplateName(context);
 
 		return visitor.forward(DiscriminatorKey.of(MemberSelectWriter.class.getSimpleName(), templateName), tree, context);
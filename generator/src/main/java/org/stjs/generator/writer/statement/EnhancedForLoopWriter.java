@@ -1,11 +1,15 @@
 package org.stjs.generator.writer.statement;
 
+import javax.lang.model.element.Element;
 import javax.lang.model.type.TypeMirror;
 
 import org.stjs.generator.GenerationContext;
 import org.stjs.generator.javac.InternalUtils;
+import org.stjs.generator.javac.TreeUtils;
 import org.stjs.generator.javac.TypesUtils;
+import org.stjs.generator.javascript.BinaryOperator;
 import org.stjs.generator.javascript.JavaScriptBuilder;
+import org.stjs.generator.javascript.NameValue;
 import org.stjs.generator.javascript.UnaryOperator;
 import org.stjs.generator.writer.WriterContributor;
 import org.stjs.generator.writer.WriterVisitor;
@@ -13,8 +17,15 @@ import org.stjs.javascript.Array;
 import org.stjs.javascript.Map;
 
 import com.sun.source.tree.EnhancedForLoopTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreeScanner;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * generates from
@@ -29,7 +40,16 @@ import java.util.Collections;
  * }
  * </pre>
  * 
- * Warning: the iteration is on indexes as in JavaScript, not on values as in Java!
+ * Warning: the iteration is on indexes as in JavaScript, not on values as in Java!<br>
+ * With the indexedArrayLoops option, the loops on an {@link Array} generate instead
+ *
+ * <pre>
+ * for(var x = 0, length$x = list.length; x &lt; length$x; x++) {
+ * }
+ * </pre>
+ *
+ * If the body uses the index other than to access the array elements, the index is also copied to a string variable, as
+ * the for-in loop would give it.
  * @author acraciun
  */
 public class EnhancedForLoopWriter<JS> implements WriterContributor<EnhancedForLoopTree, JS> {
@@ -71,7 +91,10 @@ public class EnhancedForLoopWriter<JS> implements WriterContributor<EnhancedForL
 
 		TypeMirror iteratedType = InternalUtils.typeOf(tree.getExpression());
 
-		if (TypesUtils.isDeclaredOfName(iteratedType, Array.class.getName())
+		if (context.getConfiguration().isIndexedArrayLoops() && TypesUtils.isDeclaredOfName(iteratedType, Array.class.getName())) {
+			return generateIndexedLoop(tree, context, iterated, body);
+
+		} else if (TypesUtils.isDeclaredOfName(iteratedType, Array.class.getName())
 				|| TypesUtils.isDeclaredOfName(iteratedType, Map.class.getName())) {
 			return generateForEachInObject(tree, context, iterator, iterated, body);
 
@@ -95,6 +118,85 @@ public class EnhancedForLoopWriter<JS> implements WriterContributor<EnhancedForL
 		return context.withPosition(tree, context.js().forInLoop(iterator, iterated, newBody));
 	}
 
+	private JS generateIndexedLoop(EnhancedForLoopTree tree, GenerationContext<JS> context, JS iterated, JS body) {
+		JavaScriptBuilder<JS> js = context.js();
+
+		String variableName = tree.getVariable().getName().toString();
+		IndexUsageScanner usage = new IndexUsageScanner(TreeUtils.elementFromDeclaration(tree.getVariable()));
+		tree.getStatement().accept(usage, null);
+
+		String indexName = usage.isUsedAsString() ? "index$" + variableName : variableName;
+		String lengthName = "length$" + variableName;
+		JS array = isSimpleExpression(tree.getExpression()) ? iterated : js.paren(iterated);
+
+		@SuppressWarnings("unchecked")
+		List<NameValue<JS>> vars = Arrays.asList(NameValue.of(indexName, js.number(0)), NameValue.of(lengthName, js.property(array, "length")));
+		JS init = js.variableDeclaration(false, vars);
+		@SuppressWarnings("unchecked")
+		JS condition = js.binary(BinaryOperator.LESS_THAN, Arrays.asList(js.name(indexName), js.name(lengthName)));
+		JS update = js.unary(UnaryOperator.POSTFIX_INCREMENT, js.name(indexName));
+
+		JS newBody = body;
+		if (usage.isUsedAsString()) {
+			// var x = String(index$x);
+			JS stringIndex = js.functionCall(js.name("String"), Collections.singleton(js.name(indexName)));
+			newBody = js.addStatementBeginning(body, js.variableDeclaration(true, variableName, stringIndex));
+		}
+		return context.withPosition(tree, js.forLoop(init, condition, update, newBody));
+	}
+
+	private static boolean isSimpleExpression(ExpressionTree tree) {
+		Tree.Kind kind = tree.getKind();
+		return kind == Tree.Kind.IDENTIFIER || kind == Tree.Kind.MEMBER_SELECT || kind == Tree.Kind.METHOD_INVOCATION;
+	}
+
+	/**
+	 * finds out if the loop variable is used other than as the index of the Array methods $get, $set and $delete, that accept a
+	 * number as well as a string.
+	 */
+	private static class IndexUsageScanner extends TreeScanner<Void, Void> {
+		private final Element variable;
+		private boolean usedAsString;
+
+		public IndexUsageScanner(Element variable) {
+			super();
+			this.variable = variable;
+		}
+
+		public boolean isUsedAsString() {
+			return usedAsString;
+		}
+
+		@Override
+		public Void visitMethodInvocation(MethodInvocationTree tree, Void p) {
+			List<? extends ExpressionTree> args = tree.getArguments();
+			if (!args.isEmpty() && isArrayIndexMethod(TreeUtils.elementFromUse(tree)) && isVariable(TreeUtils.skipParens(args.get(0)))) {
+				scan(tree.getMethodSelect(), p);
+				scan(args.subList(1, args.size()), p);
+				return null;
+			}
+			return super.visitMethodInvocation(tree, p);
+		}
+
+		@Override
+		public Void visitIdentifier(IdentifierTree tree, Void p) {
+			if (isVariable(tree)) {
+				usedAsString = true;
+			}
+			return null;
+		}
+
+		private boolean isVariable(ExpressionTree tree) {
+			return tree.getKind() == Tree.Kind.IDENTIFIER && variable.equals(InternalUtils.symbol(tree));
+		}
+
+		private static boolean isArrayIndexMethod(Element method) {
+			String name = method.getSimpleName().toString();
+			boolean indexMethod = "$get".equals(name) || "$set".equals(name) || "$delete".equals(name);
+			return indexMethod && method.getEnclosingElement().toString().equals(Array.class.getName());
+		}
+	}
+
 	private JS generateForEachWithIterable(EnhancedForLoopTree tree, GenerationContext<JS> context, JS iterated, JS body) {
 		JavaScriptBuilder<JS> js = context.js();
 
@@ -0,0 +1,271 @@
+/*
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+/**
+ * Long-lived node.js worker used by NodeJSWorkerPool.
+ *
+ * The worker reads from stdin one absolute file path per line and executes each file in a new V8 context, so that
+ * the changes a script makes to the global object or to the builtin prototypes are not visible to the next script.
+ * Everything the script writes is sent back on stdout, one message per line:
+ *   O <base64 text>  - text written by the script to its standard output
+ *   E <base64 text>  - text written by the script to its error output
+ *   X <exit code>    - the script is finished: its code was executed and all its timers were executed or cleared
+ * The worker executes one script at a time and exits when its stdin is closed and all the scripts were executed.
+ */
+var vm = require("vm");
+var fs = require("fs");
+var path = require("path");
+var util = require("util");
+var readline = require("readline");
+
+var currentJob = null;
+var queuedFiles = [];
+var inputClosed = false;
+
+function toBase64(text) {
+	var buffer = Buffer.from ? Buffer.from(String(text), "utf8") : new Buffer(String(text), "utf8");
+	return buffer.toString("base64");
+}
+
+function send(kind, text) {
+	process.stdout.write(kind + " " + text + "\n");
+}
+
+function Job(file) {
+	this.file = file;
+	this.pending = 0;
+	this.finished = false;
+	this.timers = [];
+}
+
+Job.prototype.out = function(text) {
+	if (!this.finished && text.length > 0) {
+		send("O", toBase64(text));
+	}
+};
+
+Job.prototype.err = function(text) {
+	if (!this.finished && text.length > 0) {
+		send("E", toBase64(text));
+	}
+};
+
+Job.prototype.done = function(exitCode) {
+	if (this.finished) {
+		return;
+	}
+	this.finished = true;
+	for (var i = 0; i < this.timers.length; ++i) {
+		this.timers[i].cancel();
+	}
+	currentJob = null;
+	send("X", exitCode);
+	runNextJob();
+};
+
+Job.prototype.fail = function(e) {
+	if (e instanceof ExitSignal) {
+		this.done(e.code);
+		return;
+	}
+	this.err((e && e.stack ? e.stack : String(e)) + "\n");
+	this.done(1);
+};
+
+/**
+ * runs the given function, reporting the exceptions and ending the job once nothing is pending anymore
+ */
+Job.prototype.guard = function(fn) {
+	try {
+		fn();
+	} catch (e) {
+		this.fail(e);
+		return;
+	}
+	this.checkDone();
+};
+
+Job.prototype.checkDone = function() {
+	var job = this;
+	if (job.pending === 0 && !job.finished) {
+		setImmediate(function() {
+			if (job.pending === 0) {
+				job.done(0);
+			}
+		});
+	}
+};
+
+/**
+ * builds a replacement for setTimeout/setInterval/setImmediate that keeps track of the callbacks that are still to be
+ * executed
+ */
+Job.prototype.timer = function(set, clear, repeat) {
+	var job = this;
+	return function(fn, delay) {
+		var args = Array.prototype.slice.call(arguments, 2);
+		var active = true;
+		var token = {
+			cancel : function() {
+				if (active) {
+					active = false;
+					job.pending--;
+					clear(token.handle);
+				}
+			}
+		};
+		job.pending++;
+		job.timers.push(token);
+		var callback = function() {
+			if (job.finished) {
+				return;
+			}
+			if (!repeat) {
+				active = false;
+				job.pending--;
+			}
+			job.guard(function() {
+				fn.apply(null, args);
+			});
+		};
+		token.handle = set === setImmediate ? set(callback) : set(callback, delay);
+		return token;
+	};
+};
+
+Job.prototype.clearTimer = function() {
+	var job = this;
+	return function(token) {
+		if (token && token.cancel) {
+			token.cancel();
+			job.checkDone();
+		}
+	};
+};
+
+function ExitSignal(code) {
+	this.code = code || 0;
+}
+
+Job.prototype.createSandbox = function() {
+	var job = this;
+	var file = job.file;
+	var log = function() {
+		job.out(util.format.apply(util, arguments) + "\n");
+	};
+	var error = function() {
+		job.err(util.format.apply(util, arguments) + "\n");
+	};
+	var sandboxProcess = Object.create(process);
+	Object.defineProperty(sandboxProcess, "stdout", {
+		value : {
+			write : function(text) {
+				job.out(String(text));
+				return true;
+			}
+		}
+	});
+	Object.defineProperty(sandboxProcess, "stderr", {
+		value : {
+			write : function(text) {
+				job.err(String(text));
+				return true;
+			}
+		}
+	});
+	Object.defineProperty(sandboxProcess, "exit", {
+		value : function(code) {
+			throw new ExitSignal(code);
+		}
+	});
+	var module = {
+		exports : {},
+		filename : file,
+		id : file
+	};
+	var sandbox = {
+		console : {
+			log : log,
+			info : log,
+			debug : log,
+			warn : error,
+			error : error,
+			trace : error
+		},
+		process : sandboxProcess,
+		Buffer : Buffer,
+		module : module,
+		exports : module.exports,
+		__filename : file,
+		__dirname : path.dirname(file),
+		require : function(id) {
+			return require(id.charAt(0) === "." ? path.resolve(path.dirname(file), id) : id);
+		},
+		setTimeout : job.timer(setTimeout, clearTimeout, false),
+		setInterval : job.timer(setInterval, clearInterval, true),
+		setImmediate : job.timer(setImmediate, clearImmediate, false)
+	};
+	sandbox.clearTimeout = sandbox.clearInterval = sandbox.clearImmediate = job.clearTimer();
+	sandbox.global = sandbox;
+	return sandbox;
+};
+
+Job.prototype.run = function() {
+	var job = this;
+	job.guard(function() {
+		var source = fs.readFileSync(job.file, "utf8").replace(/^#!.*/, "");
+		var context = vm.createContext(job.createSandbox());
+		vm.runInContext(source, context, {
+			filename : job.file
+		});
+	});
+};
+
+process.on("uncaughtException", function(e) {
+	if (currentJob) {
+		currentJob.fail(e);
+	} else {
+		process.stderr.write((e && e.stack ? e.stack : String(e)) + "\n");
+	}
+});
+
+var input = readline.createInterface({
+	input : process.stdin,
+	terminal : false
+});
+
+function runNextJob() {
+	if (currentJob) {
+		return;
+	}
+	if (queuedFiles.length > 0) {
+		currentJob = new Job(queuedFiles.shift());
+		currentJob.run();
+	} else if (inputClosed) {
+		process.exit(0);
+	}
+}
+
+input.on("line", function(line) {
+	if (line.length > 0) {
+		queuedFiles.push(line);
+		runNextJob();
+	}
+});
+
+input.on("close", function() {
+	inputClosed = true;
+	runNextJob();
+});
@@ -0,0 +1,28 @@
+package org.stjs.generator.benchmark;
+
+import static org.stjs.javascript.JSCollections.$array;
+
+import org.stjs.javascript.Array;
+
+/**
+ * a for-each loop over an array: a for-in loop by default, an indexed loop with indexedArrayLoops
+ */
+public class ArrayLoopKernel {
+	private static final int SIZE = 1000;
+
+	private static Array<Integer> values;
+
+	public static double run() {
+		if (values == null) {
+			values = $array();
+			for (int i = 0; i < SIZE; i++) {
+				values.push(i);
+			}
+		}
+		double sum = 0;
+		for (String i : values) {
+			sum += values.$get(i);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,19 @@
+package org.stjs.generator.benchmark;
+
+/**
+ * the use of constants: reads of static fields by default, literal values with inlineConstants
+ */
+public class ConstantsKernel {
+	private static final int COUNT = 1000;
+	private static final int SECOND = 1000;
+	private static final int MINUTE = 60 * SECOND;
+	private static final int HOUR = 60 * MINUTE;
+
+	public static double run() {
+		double total = 0;
+		for (int i = 0; i < COUNT; i++) {
+			total += (i * HOUR + i * MINUTE + i * SECOND) / MINUTE;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,26 @@
+package org.stjs.generator.benchmark;
+
+import org.stjs.javascript.annotation.Template;
+
+/**
+ * the access to "gproperty" fields: calls of stjs.getField and stjs.setField by default, direct accesses with
+ * directFieldAccessPackages
+ */
+public class FieldAccessKernel {
+	private static final int COUNT = 1000;
+
+	@Template("gproperty")
+	public int count;
+
+	@Template("gproperty")
+	public int total;
+
+	public static double run() {
+		FieldAccessKernel kernel = new FieldAccessKernel();
+		for (int i = 0; i < COUNT; i++) {
+			kernel.count++;
+			kernel.total += kernel.count;
+		}
+		return kernel.total;
+	}
+}
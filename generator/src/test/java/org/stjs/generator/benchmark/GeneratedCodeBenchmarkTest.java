@@ -0,0 +1,44 @@
+package org.stjs.generator.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.utils.GeneratedCodeBenchmark;
+import org.stjs.generator.utils.GeneratedCodeBenchmark.KernelResult;
+import org.stjs.generator.utils.GeneratedCodeBenchmark.Measure;
+
+/**
+ * Runs the kernels with each generation option changing their code. The iterations are short by default, so this test only checks that
+ * the options do not change the results; longer iterations can be set with the system properties of {@link GeneratedCodeBenchmark} to
+ * compare the speed of the options, in target/generated-code-benchmark/report.txt.
+ */
+public class GeneratedCodeBenchmarkTest {
+	@Test
+	public void testOptions() throws IOException {
+		GeneratedCodeBenchmark benchmark = new GeneratedCodeBenchmark() //
+				.option("indexedArrayLoops", new GeneratorConfigurationBuilder().indexedArrayLoops(true).build()) //
+				.option("directFieldAccess", new GeneratorConfigurationBuilder().directFieldAccessPackage(getClass().getPackage().getName())
+						.build()) //
+				.option("inlineConstants", new GeneratorConfigurationBuilder().inlineConstants(true).build()) //
+				.option("minify", new GeneratorConfigurationBuilder().minify(true).build());
+
+		List<KernelResult> results = benchmark.run(ArrayLoopKernel.class, FieldAccessKernel.class, ConstantsKernel.class);
+
+		assertEquals(499500, results.get(0).getMeasure(GeneratedCodeBenchmark.DEFAULT_OPTION).getResult(), 0);
+		assertEquals(500500, results.get(1).getMeasure(GeneratedCodeBenchmark.DEFAULT_OPTION).getResult(), 0);
+		for (KernelResult result : results) {
+			double expected = result.getMeasure(GeneratedCodeBenchmark.DEFAULT_OPTION).getResult();
+			for (String option : result.getOptions()) {
+				Measure measure = result.getMeasure(option);
+				assertEquals(result.getKernelName() + " with " + option, expected, measure.getResult(), 0);
+				assertTrue(measure.getOpsPerSecond() > 0);
+			}
+		}
+		benchmark.writeReport(results);
+	}
+}
@@ -0,0 +1,17 @@
+package org.stjs.generator.exec.json;
+
+import org.stjs.javascript.Array;
+import org.stjs.javascript.Date;
+
+public class Class7 {
+	public String type;
+	public Class1.Inner child;
+	public Array<Class1.Inner> children;
+	public Date date;
+	public Class5.MyEnum e;
+	public Class5 other;
+
+	public Class7() {
+		this.type = "Class7";
+	}
+}
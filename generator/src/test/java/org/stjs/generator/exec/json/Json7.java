@@ -0,0 +1,23 @@
+package org.stjs.generator.exec.json;
+
+import static org.stjs.javascript.JSCollections.$array;
+import static org.stjs.javascript.JSCollections.$map;
+import static org.stjs.javascript.JSGlobal.stjs;
+
+import org.stjs.javascript.Map;
+
+public class Json7 {
+	public static double main(String[] args) {
+		Map<String, Object> json = $map("child", (Object) $map("i", 1), "children", $array($map("i", 2), $map("i", 3)), "date",
+				"2011-12-21 18:56:00", "e", "b", "other", $map("number", 5), "extra", 6);
+		Class7 obj = stjs.typefy(json, Class7.class);
+
+		double check = obj.child.i + obj.children.$get(0).i + obj.children.$get(1).i + obj.date.getMonth() + obj.e.ordinal()
+				+ obj.other.number;
+		if (obj.type == "Class7" && obj.child.type == "Inner" && obj.children.$get(1).type == "Inner" && obj.other.type == "Class5"
+				&& obj.other.child == null) {
+			check += 1000;
+		}
+		return check;
+	}
+}
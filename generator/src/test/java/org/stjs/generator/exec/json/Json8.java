@@ -0,0 +1,13 @@
+package org.stjs.generator.exec.json;
+
+import static org.stjs.javascript.JSObjectAdapter.$js;
+
+import org.stjs.javascript.Array;
+
+public class Json8 {
+	public static double main(String[] args) {
+		// the element type of an empty array is never needed, so the class it names doesn't have to be loaded
+		Array<Object> empty = $js("stjs.typefy([], {name: 'Array', arguments: ['NotLoadedClass']})");
+		return empty.$length() + 1;
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
 import org.junit.Test;
+import org.stjs.generator.GeneratorConfigurationBuilder;
 import org.stjs.generator.utils.AbstractStjsTest;
 import org.stjs.javascript.Array;
 import org.stjs.javascript.Date;
@@ -116,4 +117,19 @@ public class ParseJsonTest extends AbstractStjsTest {
 		assertProperty(3.0, result, "child", "i");
 		assertProperty("Inner", result, "child", "type");
 	}
+
+	@Test
+	public void testTypefy() {
+		assertEquals(1023, executeAndReturnNumber(Json7.class), 0);
+	}
+
+	@Test
+	public void testTypefyWithHydrators() {
+		assertEquals(1023, executeAndReturnNumber(Json7.class, new GeneratorConfigurationBuilder().generateHydrators(true).build()), 0);
+	}
+
+	@Test
+	public void testTypefyEmptyArrayOfUnknownType() {
+		assertEquals(1, executeAndReturnNumber(Json8.class), 0);
+	}
 }
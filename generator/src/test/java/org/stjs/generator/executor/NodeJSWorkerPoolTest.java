@@ -0,0 +1,116 @@
+package org.stjs.generator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class NodeJSWorkerPoolTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private NodeJSWorkerPool pool;
+
+	@Before
+	public void setUp() {
+		Assume.assumeTrue(isNodeInstalled());
+		pool = new NodeJSWorkerPool("node", 1, 5000, 3);
+	}
+
+	@After
+	public void tearDown() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	private static boolean isNodeInstalled() {
+		try {
+			return new ProcessBuilder("node", "--version").start().waitFor() == 0;
+		}
+		catch (IOException e) {
+			return false;
+		}
+		catch (InterruptedException e) {
+			return false;
+		}
+	}
+
+	private File script(String name, String content) throws IOException {
+		File file = new File(folder.getRoot(), name);
+		Files.write(content, file, Charsets.UTF_8);
+		return file;
+	}
+
+	@Test
+	public void testOutputAndExitValue() throws Exception {
+		ExecutionResult result = pool.execute(script("a.js", "console.log('hello', 1); console.error('oops');"
+				+ "setTimeout(function(){ console.log('later'); process.exit(2); }, 10);"));
+		assertEquals("hello 1\nlater\n", result.getStdOut());
+		assertEquals("oops\n", result.getStdErr());
+		assertEquals(2, result.getExitValue());
+	}
+
+	@Test
+	public void testUncaughtException() throws Exception {
+		ExecutionResult result = pool.execute(script("a.js", "throw new Error('boom');"));
+		assertEquals(1, result.getExitValue());
+		assertTrue(result.getStdErr().contains("boom"));
+	}
+
+	@Test
+	public void testProcessErrorsAreReportedWithTheScript() throws Exception {
+		// the warning is written by node itself, the delay lets it reach the worker before the end of the script
+		ExecutionResult result = pool.execute(script("a.js", "process.emitWarning('careful'); setTimeout(function(){}, 300);"));
+		assertTrue(result.getStdErr(), result.getStdErr().contains("careful"));
+
+		result = pool.execute(script("b.js", "console.log('next');"));
+		assertEquals("", result.getStdErr());
+	}
+
+	@Test
+	public void testScriptsAreIsolated() throws Exception {
+		pool.execute(script("a.js", "var x = 1; Array.prototype.foo = 2;"));
+		ExecutionResult result = pool.execute(script("b.js", "console.log(typeof x, typeof [].foo);"));
+		assertEquals("undefined undefined\n", result.getStdOut());
+	}
+
+	@Test
+	public void testLargeOutput() throws Exception {
+		ExecutionResult result = pool.execute(script("a.js",
+				"for (var i = 0; i < 20000; ++i) { console.log('0123456789012345678901234567890123456789'); }"));
+		assertEquals(0, result.getExitValue());
+		assertEquals(20000 * 41, result.getStdOut().length());
+	}
+
+	@Test
+	public void testTimeoutReplacesTheWorker() throws Exception {
+		pool.close();
+		pool = new NodeJSWorkerPool("node", 1, 500, 3);
+		ExecutionResult result = pool.execute(script("a.js", "while (true) {}"));
+		assertEquals(NodeJSWorker.TIMEOUT_EXIT_VALUE, result.getExitValue());
+
+		result = pool.execute(script("b.js", "console.log('alive');"));
+		assertEquals("alive\n", result.getStdOut());
+	}
+
+	@Test
+	public void testWorkerRecycling() throws Exception {
+		File file = script("a.js", "console.log(process.pid);");
+		String firstPid = pool.execute(file).getStdOut();
+		assertEquals(firstPid, pool.execute(file).getStdOut());
+		assertEquals(firstPid, pool.execute(file).getStdOut());
+		assertTrue(!firstPid.equals(pool.execute(file).getStdOut()));
+	}
+}
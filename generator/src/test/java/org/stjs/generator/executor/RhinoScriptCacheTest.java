@@ -0,0 +1,91 @@
+package org.stjs.generator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class RhinoScriptCacheTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final RhinoScriptCache cache = new RhinoScriptCache(RhinoScriptCache.DEFAULT_OPTIMIZATION_LEVEL);
+	private Context cx;
+
+	@Before
+	public void setUp() {
+		cx = Context.enter();
+	}
+
+	@After
+	public void tearDown() {
+		Context.exit();
+	}
+
+	private Object exec(Script script) {
+		return Context.toString(script.exec(cx, cx.initStandardObjects()));
+	}
+
+	@Test
+	public void testUnchangedFileIsCompiledOnce() throws IOException {
+		File file = folder.newFile("a.js");
+		Files.write("'a' + 1", file, Charsets.UTF_8);
+
+		Script script = cache.getScript(cx, file);
+		assertSame(script, cache.getScript(cx, file));
+		assertEquals("a1", exec(script));
+	}
+
+	@Test
+	public void testFileRewrittenWithTheSameContentKeepsItsScript() throws IOException {
+		File file = folder.newFile("a.js");
+		Files.write("'a' + 1", file, Charsets.UTF_8);
+		Script script = cache.getScript(cx, file);
+
+		Files.write("'a' + 1", file, Charsets.UTF_8);
+		assertSame(script, cache.getScript(cx, file));
+	}
+
+	@Test
+	public void testChangedFileWithTheSameSizeAndDateIsCompiledAgain() throws IOException {
+		File file = folder.newFile("a.js");
+		Files.write("'a' + 1", file, Charsets.UTF_8);
+		long lastModified = file.lastModified();
+		Script script = cache.getScript(cx, file);
+
+		// a rewrite within the resolution of the clock of the file system
+		Files.write("'b' + 2", file, Charsets.UTF_8);
+		file.setLastModified(lastModified);
+
+		Script changed = cache.getScript(cx, file);
+		assertNotSame(script, changed);
+		assertEquals("b2", exec(changed));
+	}
+
+	@Test
+	public void testChangedResourceIsCompiledAgain() throws IOException {
+		File file = folder.newFile("a.js");
+		Files.write("'a' + 1", file, Charsets.UTF_8);
+		ClassLoader classLoader = new URLClassLoader(new URL[] { folder.getRoot().toURI().toURL() }, null);
+		Script script = cache.getResourceScript(cx, classLoader, "a.js");
+		assertSame(script, cache.getResourceScript(cx, classLoader, "a.js"));
+
+		Files.write("'b' + 2", file, Charsets.UTF_8);
+		assertEquals("b2", exec(cache.getResourceScript(cx, classLoader, "a.js")));
+	}
+}
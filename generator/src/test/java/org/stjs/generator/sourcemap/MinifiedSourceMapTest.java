@@ -0,0 +1,43 @@
+package org.stjs.generator.sourcemap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.utils.AbstractStjsTest;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.debugging.sourcemap.SourceMapConsumerFactory;
+import com.google.debugging.sourcemap.SourceMapParseException;
+import com.google.debugging.sourcemap.SourceMapping;
+
+public class MinifiedSourceMapTest extends AbstractStjsTest {
+	/**
+	 * @return the Java line of the JavaScript code starting with the given snippet, in the single line of the minified code
+	 */
+	private static int javaLine(String js, SourceMapping mapping, String snippet) {
+		int pos = js.indexOf(snippet);
+		assertTrue(snippet + " not in " + js, pos >= 0);
+		return mapping.getMappingForLine(1, pos + 1).getLineNumber();
+	}
+
+	@Test
+	public void testMappingsAfterInlineFunction() throws IOException, SourceMapParseException {
+		String js = generateWithSourcemap(Sourcemap3.class, new GeneratorConfigurationBuilder().minify(true).build());
+		File mapFile = new File("target/temp-generated-js", Sourcemap3.class.getName().replace('.', File.separatorChar) + ".map");
+		SourceMapping mapping = SourceMapConsumerFactory.parse(Files.toString(mapFile, Charsets.UTF_8));
+
+		assertEquals(10, javaLine(js, mapping, "var b=this;"));
+		assertEquals(11, javaLine(js, mapping, "a.forEach("));
+		assertEquals(14, javaLine(js, mapping, "b.total+=a;"));
+		// the end of the statement, after the inline function, on the same line
+		assertEquals(16, javaLine(js, mapping, ";return"));
+		assertEquals(17, javaLine(js, mapping, "return this.total;"));
+		assertTrue(js, js.endsWith("\n//# sourceMappingURL=Sourcemap3.map"));
+	}
+}
@@ -0,0 +1,19 @@
+package org.stjs.generator.sourcemap;
+
+import org.stjs.javascript.Array;
+import org.stjs.javascript.functions.Callback1;
+
+public class Sourcemap3 {
+	private int total;
+
+	public int method(Array<Integer> values) {
+		final Sourcemap3 that = this;
+		values.forEach(new Callback1<Integer>() {
+			@Override
+			public void $invoke(Integer value) {
+				that.total += value;
+			}
+		});
+		return total;
+	}
+}
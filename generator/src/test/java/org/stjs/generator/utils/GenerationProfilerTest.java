@@ -0,0 +1,107 @@
+package org.stjs.generator.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.utils.GenerationProfiler.Measure;
+import org.stjs.generator.writer.declaration.ClassWriter;
+import org.stjs.generator.writer.declaration.MethodWriter;
+import org.stjs.generator.writer.inheritance.Inheritance10;
+
+import com.google.common.io.Files;
+
+public class GenerationProfilerTest extends AbstractStjsTest {
+	private static GeneratorConfiguration profile() {
+		return new GeneratorConfigurationBuilder().profile(true).build();
+	}
+
+	private static Map<String, Measure> byName(List<Measure> measures) {
+		Map<String, Measure> map = new HashMap<String, Measure>();
+		for (Measure measure : measures) {
+			map.put(measure.getName(), measure);
+		}
+		return map;
+	}
+
+	private static void assertSortedByTime(List<Measure> measures, boolean self) {
+		for (int i = 1; i < measures.size(); ++i) {
+			Measure previous = measures.get(i - 1);
+			Measure current = measures.get(i);
+			assertTrue(self ? previous.getSelfTime() >= current.getSelfTime() : previous.getTime() >= current.getTime());
+		}
+	}
+
+	@Test
+	public void testNoProfilerByDefault() {
+		generate(Inheritance10.class);
+		assertNull(getGenerator().getProfiler());
+	}
+
+	@Test
+	public void testProfile() {
+		generate(Inheritance10.class, profile());
+		GenerationProfiler profiler = getGenerator().getProfiler();
+
+		Measure classMeasure = byName(profiler.getClasses()).get(Inheritance10.class.getName());
+		assertNotNull(classMeasure);
+		assertEquals(1, classMeasure.getCalls());
+		assertTrue(classMeasure.getPhases().containsKey("parse-java"));
+		assertTrue(classMeasure.getPhases().containsKey("check-java"));
+		assertTrue(classMeasure.getPhases().containsKey("write-js-ast"));
+		assertTrue(classMeasure.getPhases().containsKey("dump-js"));
+		assertTrue(classMeasure.getTime() >= classMeasure.getPhases().get("write-js-ast").getTime());
+
+		Map<String, Measure> contributors = byName(profiler.getContributors());
+		assertTrue(contributors.containsKey(ClassWriter.class.getName()));
+		assertTrue(contributors.containsKey(MethodWriter.class.getName()));
+		Measure classWriter = contributors.get(ClassWriter.class.getName());
+		// the class writer scans the methods, but their writers are not charged to it
+		assertTrue(classWriter.getSelfTime() <= classWriter.getTime());
+
+		assertSortedByTime(profiler.getClasses(), false);
+		assertSortedByTime(profiler.getPhases(), false);
+		assertSortedByTime(profiler.getContributors(), true);
+	}
+
+	@Test
+	public void testCollapsedStacks() throws IOException {
+		generate(Inheritance10.class, profile());
+		StringWriter writer = new StringWriter();
+		getGenerator().getProfiler().writeCollapsedStacks(writer, false);
+		String prefix = Inheritance10.class.getName() + ";write-js-ast;";
+		boolean found = false;
+		for (String line : writer.toString().split("\n")) {
+			assertTrue(line, line.matches("[^ ]+ [0-9]+"));
+			found |= line.startsWith(prefix) && line.contains(";" + ClassWriter.class.getName() + ";");
+		}
+		assertTrue(writer.toString(), found);
+	}
+
+	@Test
+	public void testWriteReport() throws IOException {
+		generate(Inheritance10.class, profile());
+		File folder = new File("target", "stjs-profile-test");
+		getGenerator().getProfiler().writeReport(folder);
+
+		String json = Files.toString(new File(folder, "profile.json"), Charset.forName("UTF-8"));
+		assertTrue(json, json.contains("\"name\": \"" + Inheritance10.class.getName() + "\""));
+		assertTrue(json, json.contains("\"selfTimeNanos\": "));
+		String html = Files.toString(new File(folder, "profile.html"), Charset.forName("UTF-8"));
+		assertTrue(html, html.contains("<td>" + MethodWriter.class.getName() + "</td>"));
+		assertTrue(new File(folder, "profile-time.collapsed").exists());
+		assertTrue(new File(folder, "profile-alloc.collapsed").exists());
+	}
+}
@@ -0,0 +1,94 @@
+package org.stjs.generator.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stjs.generator.writer.inheritance.Inheritance10;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+public class OutputFilesTest extends AbstractStjsTest {
+	private static final long OLD_TIME = 1000000000000L;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWriteNewFile() throws IOException {
+		File file = new File(folder.getRoot(), "a.js");
+		assertTrue(OutputFiles.writeIfChanged(file, "var a;".getBytes(Charsets.UTF_8)));
+		assertEquals("var a;", Files.toString(file, Charsets.UTF_8));
+	}
+
+	@Test
+	public void testSkipUnchangedFile() throws IOException {
+		File file = folder.newFile("a.js");
+		Files.write("var a;", file, Charsets.UTF_8);
+		assertTrue(file.setLastModified(OLD_TIME));
+
+		assertFalse(OutputFiles.writeIfChanged(file, "var a;".getBytes(Charsets.UTF_8)));
+		assertEquals(OLD_TIME, file.lastModified());
+	}
+
+	@Test
+	public void testRewriteChangedFile() throws IOException {
+		File file = folder.newFile("a.js");
+		Files.write("var a;", file, Charsets.UTF_8);
+
+		// same length, different content
+		assertTrue(OutputFiles.writeIfChanged(file, "var b;".getBytes(Charsets.UTF_8)));
+		assertEquals("var b;", Files.toString(file, Charsets.UTF_8));
+		assertTrue(OutputFiles.writeIfChanged(file, "var bc;".getBytes(Charsets.UTF_8)));
+		assertEquals("var bc;", Files.toString(file, Charsets.UTF_8));
+		// no temporary file left behind
+		assertArrayEquals(new String[] { "a.js" }, folder.getRoot().list());
+	}
+
+	@Test
+	public void testRegenerationKeepsTheFiles() throws IOException {
+		generateWithSourcemap(Inheritance10.class);
+
+		String path = Inheritance10.class.getName().replace('.', File.separatorChar);
+		File generationFolder = new File("target", "temp-generated-js");
+		List<File> files = Arrays.asList(new File(generationFolder, path + ".js"), new File(generationFolder, path + ".map"), //
+				new File(generationFolder, path + ".java"), new File(generationFolder, path + ".stjs"));
+		File stjsMarker = new File(new File("target", "test-classes"), path + ".stjs");
+		for (File file : files) {
+			assertTrue(file.getPath(), file.setLastModified(OLD_TIME));
+		}
+		assertTrue(stjsMarker.setLastModified(OLD_TIME));
+
+		generateWithSourcemap(Inheritance10.class);
+		for (File file : files) {
+			assertEquals(file.getPath(), OLD_TIME, file.lastModified());
+		}
+		// the .stjs file next to the .class file is always touched, as the incremental builds compare their times
+		assertTrue(stjsMarker.lastModified() > OLD_TIME);
+	}
+
+	@Test
+	public void testPropertiesFileWithoutDate() throws IOException {
+		generate(Inheritance10.class);
+
+		String path = Inheritance10.class.getName().replace('.', File.separatorChar);
+		List<String> lines = Files.readLines(new File(new File("target", "test-classes"), path + ".stjs"), Charsets.UTF_8);
+		assertEquals("#Generated by STJS ", lines.get(0));
+		for (int i = 1; i < lines.size(); ++i) {
+			assertFalse(lines.get(i).startsWith("#"));
+			if (i > 1) {
+				assertTrue(lines.get(i - 1).compareTo(lines.get(i)) < 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package org.stjs.generator.writer.constants;
+
+public class Constants1 {
+	public static final int HOUR = 60 * 60 * 1000;
+	public static final int NEGATIVE = -2;
+	public static final String PREFIX = "id-";
+
+	public int hours(int millis) {
+		return (millis - NEGATIVE) / HOUR;
+	}
+
+	public static int main(String[] args) {
+		int delta = 10 - NEGATIVE;
+		String id = PREFIX + 7 / 2;
+		return new Constants1().hours(2 * HOUR) + delta + id.length();
+	}
+}
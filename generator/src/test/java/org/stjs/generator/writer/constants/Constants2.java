@@ -0,0 +1,11 @@
+package org.stjs.generator.writer.constants;
+
+public class Constants2 {
+	public static final boolean ENABLED = Constants1.HOUR > 0;
+
+	public double method() {
+		char c = 'a' + 1;
+		String s = "x" + 'b' + 1.5;
+		return Constants1.HOUR + ConstantsBridge.VALUE + Short.MAX_VALUE + c + s.length();
+	}
+}
@@ -0,0 +1,37 @@
+package org.stjs.generator.writer.constants;
+
+public class Constants3 {
+	public static final char NEXT = 'a' + 1;
+	public static final long BIG = 9007199254740993L;
+
+	public static int main(String[] args) {
+		char c = 'a' + 1;
+		String v = "v" + 1.0;
+		String n = "n" + NEXT;
+		float f = 0.1f + 0.2f;
+		int overflow = 2147483647 + 1;
+		int product = 100000 * 100000;
+		long shift = 1L << 40;
+		String big = "b" + BIG;
+		int result = v.length() + n.length();
+		if (c == 98) {
+			result += 10;
+		}
+		if (f * 10 == 3) {
+			result += 100;
+		}
+		if (overflow > 0) {
+			result += 1000;
+		}
+		if (product > 2147483647) {
+			result += 10000;
+		}
+		if (shift == 256) {
+			result += 100000;
+		}
+		if (big.indexOf("0992") > 0) {
+			result += 1000000;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,8 @@
+package org.stjs.generator.writer.constants;
+
+import org.stjs.javascript.annotation.STJSBridge;
+
+@STJSBridge
+public class ConstantsBridge {
+	public static final int VALUE = 1;
+}
@@ -0,0 +1,64 @@
+package org.stjs.generator.writer.constants;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.utils.AbstractStjsTest;
+
+public class ConstantsGeneratorTest extends AbstractStjsTest {
+	private static GeneratorConfiguration inlineConstants() {
+		return new GeneratorConfigurationBuilder().inlineConstants(true).build();
+	}
+
+	@Test
+	public void testNotInlinedByDefault() {
+		assertCodeContains(Constants1.class, "return stjs.trunc((millis - Constants1.NEGATIVE) / Constants1.HOUR);");
+	}
+
+	@Test
+	public void testFieldInlined() {
+		assertCodeContains(Constants1.class, "return stjs.trunc((millis - (-2)) / 3600000);", inlineConstants());
+		// the declaration of the constant is kept for the other JavaScript code
+		assertCodeContains(Constants1.class, "constructor.HOUR = 3600000;", inlineConstants());
+	}
+
+	@Test
+	public void testExpressionFolded() {
+		// the integer division is folded as in Java
+		assertCodeContains(Constants1.class, "var delta = 12;", inlineConstants());
+		assertCodeContains(Constants1.class, "var id = \"id-3\";", inlineConstants());
+		assertCodeContains(Constants2.class, "constructor.ENABLED = true;", inlineConstants());
+	}
+
+	@Test
+	public void testExpressionNotFoldedIfJavaScriptDiffers() {
+		// the chars are strings in JavaScript
+		assertCodeContains(Constants2.class, "var c = 'a' + 1;", inlineConstants());
+		assertCodeContains(Constants3.class, "constructor.NEXT = 'a' + 1;", inlineConstants());
+		assertCodeContains(Constants3.class, "var n = \"n\" + Constants3.NEXT;", inlineConstants());
+		// JavaScript writes 1.0 as "1"
+		assertCodeContains(Constants2.class, "var s = \"xb\" + 1.5;", inlineConstants());
+		assertCodeContains(Constants3.class, "var v = \"v\" + 1.0;", inlineConstants());
+		// JavaScript computes the float operations in double precision
+		assertCodeContains(Constants3.class, "var f = 0.1 + 0.2;", inlineConstants());
+		// JavaScript computes the int and long operations in double precision, and the shifts on 32 bits
+		assertCodeContains(Constants3.class, "var overflow = 2147483647 + 1;", inlineConstants());
+		assertCodeContains(Constants3.class, "var product = 100000 * 100000;", inlineConstants());
+		assertCodeContains(Constants3.class, "var shift = 1 << 40;", inlineConstants());
+		// JavaScript rounds the long values beyond 2^53, so the field is inlined but not concatenated
+		assertCodeContains(Constants3.class, "var big = \"b\" + 9007199254740993;", inlineConstants());
+	}
+
+	@Test
+	public void testBridgeConstantNotInlined() {
+		assertCodeContains(Constants2.class, "return 3600000 + ConstantsBridge.VALUE + 32767 + c + s.length;", inlineConstants());
+	}
+
+	@Test
+	public void testExecuteInlined() {
+		assertEquals(executeAndReturnNumber(Constants1.class), executeAndReturnNumber(Constants1.class, inlineConstants()), 0);
+		assertEquals(executeAndReturnNumber(Constants3.class), executeAndReturnNumber(Constants3.class, inlineConstants()), 0);
+	}
+}
@@ -0,0 +1,16 @@
+package org.stjs.generator.writer.fields;
+
+import org.stjs.javascript.annotation.DirectFieldAccess;
+
+@DirectFieldAccess
+public class Fields26 {
+
+	public int method(Fields21 f, String n) {
+		Fields17 other = new Fields17();
+		other.field = n;
+		f.field++;
+		f.field /= 2;
+		return f.field;
+	}
+
+}
@@ -4,8 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import org.junit.Test;
+import org.stjs.generator.GeneratorConfigurationBuilder;
 import org.stjs.generator.utils.AbstractStjsTest;
 import org.stjs.generator.JavascriptFileGenerationException;
+import org.stjs.generator.writer.fields.direct.DirectFields1;
 
 public class FieldsGeneratorTest extends AbstractStjsTest {
 	@Test
@@ -149,4 +151,25 @@ public class FieldsGeneratorTest extends AbstractStjsTest {
 	public void testTemplateMemberSelect() {
 		assertCodeContains(Fields25.class, "obj.get(\"field\")");
 	}
+
+	@Test
+	public void testDirectFieldAccessAnnotation() {
+		assertCodeContains(Fields26.class, "other.field = n;");
+		assertCodeContains(Fields26.class, "f.field++;");
+		assertCodeContains(Fields26.class, "f.field = stjs.trunc(f.field / (2));");
+		assertCodeContains(Fields26.class, "return f.field;");
+	}
+
+	@Test
+	public void testDirectFieldAccessPackageAnnotation() {
+		assertCodeContains(DirectFields1.class, "f.field = n; return f.field;");
+	}
+
+	@Test
+	public void testDirectFieldAccessPackageConfiguration() {
+		assertCodeContains(Fields21.class, "return this.field++;",
+				new GeneratorConfigurationBuilder().directFieldAccessPackage("org.stjs.generator.writer").build());
+		assertCodeContains(Fields21.class, "stjs.setField(this, \"field\", stjs.getField(this, \"field\") + 1, true)",
+				new GeneratorConfigurationBuilder().directFieldAccessPackage("org.stjs.generator.writer.field").build());
+	}
 }
@@ -0,0 +1,12 @@
+package org.stjs.generator.writer.fields.direct;
+
+import org.stjs.generator.writer.fields.Fields17;
+
+public class DirectFields1 {
+
+	public String method(Fields17 f, String n) {
+		f.field = n;
+		return f.field;
+	}
+
+}
@@ -0,0 +1,5 @@
+@DirectFieldAccess
+package org.stjs.generator.writer.fields.direct;
+
+import org.stjs.javascript.annotation.DirectFieldAccess;
+
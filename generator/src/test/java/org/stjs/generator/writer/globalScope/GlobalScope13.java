@@ -0,0 +1,11 @@
+package org.stjs.generator.writer.globalScope;
+
+public class GlobalScope13 {
+	@SuppressWarnings("unused")
+	public void test() {
+		if (true) {
+			int field = 0;
+		}
+		String s = Globals.field;
+	}
+}
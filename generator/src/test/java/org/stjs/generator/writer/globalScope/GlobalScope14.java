@@ -0,0 +1,16 @@
+package org.stjs.generator.writer.globalScope;
+
+import org.stjs.javascript.functions.Callback0;
+
+public class GlobalScope14 {
+	@SuppressWarnings("unused")
+	public void test() {
+		Callback0 r = new Callback0() {
+			@Override
+			public void $invoke() {
+				int field = 0;
+			}
+		};
+		String s = Globals.field;
+	}
+}
@@ -0,0 +1,17 @@
+package org.stjs.generator.writer.globalScope;
+
+import org.stjs.javascript.functions.Callback0;
+
+public class GlobalScope15 {
+	@SuppressWarnings("unused")
+	public void test() {
+		Callback0 r = new Callback0() {
+			@Override
+			public void $invoke() {
+				//
+			}
+		};
+		String field = "";
+		String s = Globals.field;
+	}
+}
@@ -78,4 +78,21 @@ public class GlobalScopeGeneratorTest extends AbstractStjsTest {
 	public void testInner() {
 		generate(GlobalScope12.class);
 	}
+
+	@Test(
+			expected = JavascriptFileGenerationException.class)
+	public void testLocalVariableHidingGlobal() {
+		generate(GlobalScope13.class);
+	}
+
+	@Test
+	public void testInnerClassVariableNotHidingGlobal() {
+		assertCodeContains(GlobalScope14.class, "s = field");
+	}
+
+	@Test(
+			expected = JavascriptFileGenerationException.class)
+	public void testLocalVariableAfterInnerClassHidingGlobal() {
+		generate(GlobalScope15.class);
+	}
 }
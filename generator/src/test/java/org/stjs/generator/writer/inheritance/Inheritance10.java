@@ -0,0 +1,44 @@
+package org.stjs.generator.writer.inheritance;
+
+import static org.stjs.javascript.JSCollections.$array;
+
+import org.stjs.javascript.Array;
+
+public class Inheritance10 {
+	public interface Level1 {
+	}
+
+	public interface Level2 extends Level1 {
+	}
+
+	public interface Level3 extends Level2 {
+	}
+
+	public interface Other {
+	}
+
+	public static class Base implements Level3 {
+	}
+
+	public static class Child extends Base implements Other {
+	}
+
+	public static int main(String[] args) {
+		Array<Object> objects = $array(new Base(), new Child(), "x", new Object());
+		int count = 0;
+		// enough iterations to be used as a micro-benchmark of instanceof
+		for (int i = 0; i < 20000; ++i) {
+			Object o = objects.$get(i % 4);
+			if (o instanceof Level1) {
+				count++;
+			}
+			if (o instanceof Other) {
+				count += 10;
+			}
+			if (o instanceof Base) {
+				count += 100;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,15 @@
+package org.stjs.generator.writer.inheritance;
+
+import static org.stjs.javascript.JSObjectAdapter.$js;
+
+public class Inheritance11 {
+	public interface Level1 {
+	}
+
+	public static int main(String[] args) {
+		// a type declared by hand has an $inherit array, but no $ancestors
+		Object handMade = $js("(function(){ var T = function(){}; T.$inherit = [Inheritance11.Level1]; return T; })()");
+		Object child = $js("stjs.extend(function(){}, handMade, [], null, {}, {})");
+		return $js("stjs.isInstanceOf(child, Inheritance11.Level1) ? 1 : 0");
+	}
+}
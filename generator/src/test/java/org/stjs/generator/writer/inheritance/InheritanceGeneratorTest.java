@@ -1,5 +1,7 @@
 package org.stjs.generator.writer.inheritance;
 
+import static org.junit.Assert.assertEquals;
+
 import org.junit.Test;
 import org.stjs.generator.utils.AbstractStjsTest;
 
@@ -51,4 +53,15 @@ public class InheritanceGeneratorTest extends AbstractStjsTest {
 	public void testExtendsInnerClass() {
 		assertCodeContains(Inheritance8.class, "stjs.extend(Inheritance8, MyClass1.MyInnerClass, [],");
 	}
+
+	@Test
+	public void testInstanceOfAncestors() {
+		// per 4 objects: Base and Child are Level1 and Base, Child is Other, the string and the Object are nothing
+		assertEquals(5000 * (2 + 10 + 200), executeAndReturnNumber(Inheritance10.class), 0);
+	}
+
+	@Test
+	public void testInstanceOfAncestorsOfHandMadeParent() {
+		assertEquals(1, executeAndReturnNumber(Inheritance11.class), 0);
+	}
 }
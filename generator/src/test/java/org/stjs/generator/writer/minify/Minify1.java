@@ -0,0 +1,37 @@
+package org.stjs.generator.writer.minify;
+
+import static org.stjs.javascript.JSCollections.$array;
+
+import org.stjs.javascript.Array;
+import org.stjs.javascript.functions.Function1;
+
+public class Minify1 {
+	private int total;
+
+	public int sum(Array<Integer> values, int offset) {
+		int result = offset;
+		for (int index = 0; index < values.$length(); index++) {
+			result += values.$get(index) - -values.$get(index);
+		}
+		return result;
+	}
+
+	public int apply(final int factor) {
+		final Minify1 that = this;
+		Function1<Integer, Integer> multiply = new Function1<Integer, Integer>() {
+			@Override
+			public Integer $invoke(Integer value) {
+				int product = value * factor;
+				that.total += product;
+				return product;
+			}
+		};
+		return multiply.$invoke(2) + total;
+	}
+
+	public static int main(String[] args) {
+		Minify1 minify = new Minify1();
+		String text = "a  b";
+		return minify.sum($array(1, 2, 3), text.length()) + minify.apply(5);
+	}
+}
@@ -0,0 +1,14 @@
+package org.stjs.generator.writer.minify;
+
+import static org.stjs.javascript.JSObjectAdapter.$js;
+
+public class Minify2 {
+	public int method(int first) {
+		int second = 2;
+		return $js("first + second");
+	}
+
+	public static int main(String[] args) {
+		return new Minify2().method(1);
+	}
+}
@@ -0,0 +1,24 @@
+package org.stjs.generator.writer.minify;
+
+import org.stjs.javascript.functions.Function1;
+
+public class Minify3 {
+	public static int main(String[] args) {
+		final int e = 40;
+		Function1<Integer, Integer> add = new Function1<Integer, Integer>() {
+			@Override
+			public Integer $invoke(Integer value) {
+				try {
+					if (value < 0) {
+						throw new RuntimeException("negative");
+					}
+				}
+				catch (RuntimeException e) {
+					return -1;
+				}
+				return value + e;
+			}
+		};
+		return add.$invoke(2) + add.$invoke(-1);
+	}
+}
@@ -0,0 +1,56 @@
+package org.stjs.generator.writer.minify;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
+import org.stjs.generator.utils.AbstractStjsTest;
+
+public class MinifyGeneratorTest extends AbstractStjsTest {
+	private static GeneratorConfiguration minify() {
+		return new GeneratorConfigurationBuilder().minify(true).build();
+	}
+
+	@Test
+	public void testWhitespaceRemoved() {
+		assertCodeContains(Minify1.class, "b.sum=function(a,b){var c=b;for(var d=0;d<a.length;d++){c+=a[d]- -a[d];}return c;};",
+				minify());
+		// assertCodeContains ignores the whitespace
+		String code = generate(Minify1.class, minify());
+		assertFalse(code, code.trim().contains("\n"));
+		assertTrue(code, code.contains("c+=a[d]- -a[d];"));
+		assertTrue(code, code.contains("var c=\"a  b\";"));
+	}
+
+	@Test
+	public void testLocalNamesShortened() {
+		// the constructor and the prototype are parameters too
+		assertCodeContains(Minify1.class, "stjs.extend(Minify1,null,[],function(a,b){b.total=0;", minify());
+		// the parameter of the inner function cannot be named a or b, as it uses the outer variables
+		assertCodeContains(Minify1.class, "b.apply=function(a){var b=this;var c=function(c){var d=c*a;b.total+=d;return d;};", minify());
+		assertCodeContains(Minify1.class, "var b=new Minify1();var c=\"a  b\";", minify());
+	}
+
+	@Test
+	public void testNamesKeptWithCodeFragment() {
+		assertCodeContains(Minify2.class, "function(first){var second=2;return first + second;}", minify());
+	}
+
+	@Test
+	public void testCatchVariableHidesOuterVariable() {
+		// the catch variable hides the parameter in its block only, the outer e read after the block keeps its own name
+		assertCodeContains(Minify3.class, "var b=40;var c=function(a){try{if(a<0){", minify());
+		assertCodeContains(Minify3.class, "catch(a){return-1;}return a+b;};", minify());
+		assertEquals(41, executeAndReturnNumber(Minify3.class), 0);
+		assertEquals(41, executeAndReturnNumber(Minify3.class, minify()), 0);
+	}
+
+	@Test
+	public void testExecuteMinified() {
+		assertEquals(executeAndReturnNumber(Minify1.class), executeAndReturnNumber(Minify1.class, minify()), 0);
+		assertEquals(3, executeAndReturnNumber(Minify2.class, minify()), 0);
+	}
+}
@@ -0,0 +1,36 @@
+package org.stjs.generator.writer.statements;
+
+import static org.stjs.javascript.JSCollections.$array;
+
+import org.stjs.javascript.Array;
+
+public class Statements23 {
+
+	public static int sum(Array<Integer> a) {
+		int s = 0;
+		for (String i : a) {
+			s += a.$get(i);
+		}
+		return s;
+	}
+
+	public static String keys(Array<Integer> a) {
+		String s = "";
+		for (String i : a) {
+			s += i + ":" + a.$get(i) + ";";
+		}
+		return s;
+	}
+
+	public static int main(String[] args) {
+		Array<Integer> a = $array();
+		for (int n = 0; n < 1000; n++) {
+			a.push(n % 7);
+		}
+		Array<Integer> copy = $array();
+		for (String i : a) {
+			copy.$set(i, a.$get(i) * 2);
+		}
+		return sum(a) + sum(copy) + keys($array(4, 5, 6)).length();
+	}
+}
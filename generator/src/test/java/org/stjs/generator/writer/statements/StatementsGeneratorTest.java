@@ -4,6 +4,8 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
 import org.stjs.generator.utils.AbstractStjsTest;
 import org.stjs.generator.JavascriptFileGenerationException;
 
@@ -159,6 +161,35 @@ public class StatementsGeneratorTest extends AbstractStjsTest {
 		assertCodeContains(Statements20c.class, "for(; i < 10; ++i){}");
 	}
 
+	private static GeneratorConfiguration indexedArrayLoops() {
+		return new GeneratorConfigurationBuilder().indexedArrayLoops(true).build();
+	}
+
+	@Test
+	public void testForEachArrayIndexed() {
+		assertCodeContains(Statements11.class, "for (var i = 0, length$i = a.length; i < length$i; i++) {parseInt(a[i]);}",
+				indexedArrayLoops());
+		assertCodeDoesNotContain(Statements11.class, "hasOwnProperty", indexedArrayLoops());
+		assertCodeContains(Statements12b.class, "for (var i = 0, length$i = (a).length; i < length$i; i++) {}", indexedArrayLoops());
+	}
+
+	@Test
+	public void testForEachArrayIndexedUsedAsString() {
+		assertCodeContains(Statements23.class, "for (var index$i = 0, length$i = a.length; index$i < length$i; index$i++) {"
+				+ "var i = String(index$i); s += i + \":\" + a[i] + \";\";}", indexedArrayLoops());
+	}
+
+	@Test
+	public void testForEachMapNotIndexed() {
+		assertCodeContains(Statements13.class, "for (var i in a) {", indexedArrayLoops());
+	}
+
+	@Test
+	public void testExecuteForEachArrayIndexed() {
+		assertEquals(executeAndReturnNumber(Statements23.class),
+				executeAndReturnNumber(Statements23.class, indexedArrayLoops()), 0);
+	}
+
 	@Test
 	public void testStaticBlock() {
 		assertCodeContains(Statements21.class, "new (stjs.extend(function Statements21$1(){}");
@@ -0,0 +1,12 @@
+package org.stjs.generator.writer.typeDesc;
+
+import org.stjs.javascript.Array;
+import org.stjs.javascript.Date;
+
+public class TypeDesc8 {
+	public int x;
+	public Date date;
+	public Array<Date> dates;
+	public TypeDesc6.Type type;
+	public TypeDesc3 other;
+}
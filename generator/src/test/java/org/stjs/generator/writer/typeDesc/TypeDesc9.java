@@ -0,0 +1,5 @@
+package org.stjs.generator.writer.typeDesc;
+
+public interface TypeDesc9 {
+	void method();
+}
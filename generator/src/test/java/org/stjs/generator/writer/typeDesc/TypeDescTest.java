@@ -1,6 +1,8 @@
 package org.stjs.generator.writer.typeDesc;
 
 import org.junit.Test;
+import org.stjs.generator.GeneratorConfiguration;
+import org.stjs.generator.GeneratorConfigurationBuilder;
 import org.stjs.generator.utils.AbstractStjsTest;
 
 public class TypeDescTest extends AbstractStjsTest {
@@ -34,6 +36,32 @@ public class TypeDescTest extends AbstractStjsTest {
 		assertCodeContains(TypeDesc6.class, "{x:{name:\"Enum\", arguments:[\"TypeDesc6.Type\"]}}");
 	}
 
+	private static GeneratorConfiguration generateHydrators() {
+		return new GeneratorConfigurationBuilder().generateHydrators(true).build();
+	}
+
+	@Test
+	public void testHydrator() {
+		assertCodeContains(TypeDesc8.class, "TypeDesc8.$hydrate = function(json) {" //
+				+ "var td = TypeDesc8.$typeDescription;" //
+				+ "var ret = stjs.hydrateUntyped(json, new TypeDesc8(), td);" //
+				+ "stjs.hydrateField(ret, \"date\", json.date, td.date, Date);" //
+				+ "stjs.hydrateField(ret, \"dates\", json.dates, td.dates, null);" //
+				+ "stjs.hydrateField(ret, \"type\", json.type, td.type, null);" //
+				+ "stjs.hydrateField(ret, \"other\", json.other, td.other, TypeDesc3);" //
+				+ "return ret;};", generateHydrators());
+	}
+
+	@Test
+	public void testNoHydratorByDefault() {
+		assertCodeDoesNotContain(TypeDesc8.class, "$hydrate");
+	}
+
+	@Test
+	public void testNoHydratorForInterface() {
+		assertCodeDoesNotContain(TypeDesc9.class, "$hydrate", generateHydrators());
+	}
+
 	@Test
 	public void testWildcards() {
 		assertCodeContains(TypeDesc7.class, "{field:{name:\"MyType1\", arguments:[\"Object\"]}}");
@@ -0,0 +1,72 @@
+package org.stjs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.maven.it.Verifier;
+import org.apache.maven.it.util.ResourceExtractor;
+import org.junit.Test;
+
+/**
+ * This integration test checks that a compressed copy of each generated file is written when the files are not packed
+ */
+public class GzipGeneratedFilesTest {
+
+	private static String read(File file) throws Exception {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private static String gunzip(File file) throws Exception {
+		InputStream in = new GZIPInputStream(new FileInputStream(file));
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+				out.write(buffer, 0, n);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testGzipIt() throws Exception {
+		File testDir = ResourceExtractor.simpleExtractResources(getClass(), "/gzip-classes");
+
+		Verifier verifier = new Verifier(testDir.getAbsolutePath());
+		verifier.deleteArtifact("org.st-js", "gzip-classes", "1.0.0-SNAPSHOT", "jar");
+
+		// coming from the configuration of surefire plugin outside
+		verifier.getCliOptions().add("-Dstjs.version=" + System.getProperty("stjs.version"));
+
+		verifier.executeGoals(Arrays.asList("clean", "install"));
+
+		verifier.verifyErrorFreeLog();
+
+		File dir = new File(testDir, "target/classes/org/stjs/example/gzip");
+		String js = read(new File(dir, "Greeter.js"));
+		assertEquals(js, gunzip(new File(dir, "Greeter.js.gz")));
+		assertEquals(read(new File(dir, "Greeter.map")), gunzip(new File(dir, "Greeter.map.gz")));
+
+		String assets = read(new File(testDir, "target/classes/gzip-classes-assets.json"));
+		assertTrue(assets, assets.contains("\"org/stjs/example/gzip/Greeter.js\": {\"file\": \"org/stjs/example/gzip/Greeter.js\", "
+				+ "\"gzip\": \"org/stjs/example/gzip/Greeter.js.gz\", \"size\": " + js.length() + ", "));
+		// no hashed copies
+		assertFalse(assets, assets.contains("Greeter.js\", \"gzip\": \"org/stjs/example/gzip/Greeter.0"));
+
+		verifier.resetStreams();
+	}
+}
@@ -0,0 +1,64 @@
+package org.stjs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.maven.it.Verifier;
+import org.apache.maven.it.util.ResourceExtractor;
+import org.junit.Test;
+
+/**
+ * This integration test checks that a class recompiled without changes is generated again once, and not at each following build
+ */
+public class IncrementalGenerationTest {
+	private static final long MINUTE = 60000L;
+
+	private static Verifier build(File testDir, String logFileName) throws Exception {
+		Verifier verifier = new Verifier(testDir.getAbsolutePath());
+		verifier.setLogFileName(logFileName);
+		// the builds must keep the files of the previous ones
+		verifier.setAutoclean(false);
+		// coming from the configuration of surefire plugin outside
+		verifier.getCliOptions().add("-Dstjs.version=" + System.getProperty("stjs.version"));
+		return verifier;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRecompiledClassIsGeneratedOnce() throws Exception {
+		File testDir = ResourceExtractor.simpleExtractResources(getClass(), "/incremental-generation");
+		File dir = new File(testDir, "target/classes/org/stjs/example/incremental");
+		File jsFile = new File(dir, "Greeter.js");
+		File stjsFile = new File(dir, "Greeter.stjs");
+		File classFile = new File(dir, "Greeter.class");
+
+		Verifier verifier = build(testDir, "log-first.txt");
+		verifier.executeGoals(Arrays.asList("clean", "process-classes"));
+		verifier.verifyErrorFreeLog();
+		verifier.verifyTextInLog("Generated 1 JavaScript files");
+		verifier.resetStreams();
+
+		// the compiler recompiled the class after its generation
+		long now = System.currentTimeMillis();
+		assertTrue(jsFile.setLastModified(now - 2 * MINUTE));
+		assertTrue(stjsFile.setLastModified(now - 2 * MINUTE));
+		assertTrue(classFile.setLastModified(now - MINUTE));
+
+		verifier = build(testDir, "log-recompiled.txt");
+		verifier.executeGoals(Arrays.asList("process-classes"));
+		verifier.verifyErrorFreeLog();
+		verifier.verifyTextInLog("Generated 1 JavaScript files");
+		verifier.resetStreams();
+		// the unchanged JavaScript file is not rewritten
+		assertEquals(now - 2 * MINUTE, jsFile.lastModified());
+
+		verifier = build(testDir, "log-unchanged.txt");
+		verifier.executeGoals(Arrays.asList("process-classes"));
+		verifier.verifyErrorFreeLog();
+		verifier.verifyTextInLog("Generated 0 JavaScript files");
+		verifier.resetStreams();
+	}
+}
@@ -0,0 +1,100 @@
+package org.stjs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.maven.it.Verifier;
+import org.apache.maven.it.util.ResourceExtractor;
+import org.junit.Test;
+
+/**
+ * This integration test checks that the packed classes are split in chunks, with the manifest used to load them
+ */
+public class PackChunksTest {
+
+	private static String read(File file) throws Exception {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private static String gunzip(File file) throws Exception {
+		InputStream in = new GZIPInputStream(new FileInputStream(file));
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+				out.write(buffer, 0, n);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testPackIt() throws Exception {
+		File testDir = ResourceExtractor.simpleExtractResources(getClass(), "/pack-chunks");
+
+		Verifier verifier = new Verifier(testDir.getAbsolutePath());
+		verifier.deleteArtifact("org.st-js", "pack-chunks", "1.0.0-SNAPSHOT", "jar");
+
+		// coming from the configuration of surefire plugin outside
+		verifier.getCliOptions().add("-Dstjs.version=" + System.getProperty("stjs.version"));
+
+		verifier.executeGoals(Arrays.asList("clean", "install"));
+
+		verifier.verifyErrorFreeLog();
+
+		File classes = new File(testDir, "target/classes");
+		// the chunks replace the single pack file
+		assertFalse(new File(classes, "pack-chunks.js").exists());
+
+		String main = read(new File(classes, "pack-chunks-main.js"));
+		assertTrue(main, main.contains("var Model = function()"));
+		assertTrue(main, main.contains("var Main = function()"));
+		assertFalse(main, main.contains("var View = function()"));
+		assertTrue(main, main.contains("stjs.chunkLoaded(\"main\");"));
+
+		String ui = read(new File(classes, "pack-chunks-org.stjs.example.chunks.ui.js"));
+		assertTrue(ui, ui.contains("var View = function()"));
+		assertFalse(ui, ui.contains("var AdminView = function()"));
+
+		String admin = read(new File(classes, "pack-chunks-org.stjs.example.chunks.ui.admin.js"));
+		assertTrue(admin, admin.contains("var AdminView = function()"));
+
+		String manifest = read(new File(classes, "pack-chunks-chunks.json"));
+		// the chunks are loaded by the name containing the hash of their content
+		assertTrue(manifest, manifest.matches("(?s).*\"org.stjs.example.chunks.ui\": \\{\"file\": \"pack-chunks-org.stjs.example.chunks.ui"
+				+ "\\.[0-9a-f]{10}\\.js\", \"dependencies\": \\[\"main\"\\], \"runtimeDependencies\": \\[\\]\\}.*"));
+		assertTrue(manifest, manifest.matches("(?s).*\"org.stjs.example.chunks.ui.admin\": \\{\"file\": \"pack-chunks-org.stjs.example.chunks.ui.admin"
+				+ "\\.[0-9a-f]{10}\\.js\", \"dependencies\": \\[\"org.stjs.example.chunks.ui\"\\], \"runtimeDependencies\": \\[\\]\\}.*"));
+		assertTrue(manifest, manifest.contains("\"org.stjs.example.chunks.ui.admin.AdminView\": \"org.stjs.example.chunks.ui.admin\""));
+		// the cycle package needs the main chunk that needs it in turn, so they are merged
+		assertTrue(manifest, manifest.contains("\"org.stjs.example.chunks.cycle.Left\": \"main\""));
+		assertFalse(new File(classes, "pack-chunks-org.stjs.example.chunks.cycle.js").exists());
+
+		// the compressed and the hashed copies
+		assertEquals(main, gunzip(new File(classes, "pack-chunks-main.js.gz")));
+		String assets = read(new File(classes, "pack-chunks-assets.json"));
+		Matcher matcher = Pattern.compile("\"pack-chunks-main.js\": \\{\"file\": \"(pack-chunks-main\\.[0-9a-f]{10}\\.js)\", "
+				+ "\"gzip\": \"\\1.gz\", \"size\": " + main.length() + ", ").matcher(assets);
+		assertTrue(assets, matcher.find());
+		assertEquals(main, read(new File(classes, matcher.group(1))));
+		assertEquals(main, gunzip(new File(classes, matcher.group(1) + ".gz")));
+
+		verifier.resetStreams();
+	}
+}
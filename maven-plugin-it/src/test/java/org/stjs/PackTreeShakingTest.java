@@ -0,0 +1,57 @@
+package org.stjs;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.maven.it.Verifier;
+import org.apache.maven.it.util.ResourceExtractor;
+import org.junit.Test;
+
+/**
+ * This integration test checks that only the classes reachable from the entry points are packed
+ */
+public class PackTreeShakingTest {
+
+	private static String read(File file) throws Exception {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testPackIt() throws Exception {
+		File testDir = ResourceExtractor.simpleExtractResources(getClass(), "/pack-tree-shaking");
+
+		Verifier verifier = new Verifier(testDir.getAbsolutePath());
+		verifier.deleteArtifact("org.st-js", "pack-tree-shaking", "1.0.0-SNAPSHOT", "jar");
+
+		// coming from the configuration of surefire plugin outside
+		verifier.getCliOptions().add("-Dstjs.version=" + System.getProperty("stjs.version"));
+
+		verifier.executeGoals(Arrays.asList("clean", "install"));
+
+		verifier.verifyErrorFreeLog();
+
+		String pack = read(new File(testDir, "target/classes/pack-tree-shaking.js"));
+		// the main class, the class carrying the configured entry point and their dependencies
+		assertTrue(pack, pack.contains("var Main = function()"));
+		assertTrue(pack, pack.contains("var Plugin = function()"));
+		assertTrue(pack, pack.contains("var Lib = function()"));
+		assertTrue(pack, pack.contains("var Base = function()"));
+		// used only as the type of a field
+		assertFalse(pack, pack.contains("var Model = function()"));
+		assertFalse(pack, pack.contains("var Unused = function()"));
+
+		String report = read(new File(testDir, "target/pack-tree-shaking-pack-report.txt"));
+		assertTrue(report, report.contains("org.stjs.example.shaking.Base - EXTENDS dependency of org.stjs.example.shaking.Lib"));
+		assertTrue(report, report.contains("org.stjs.example.shaking.Model - used only as a type (OTHER dependency) by "
+				+ "[org.stjs.example.shaking.Main]"));
+		assertTrue(report, report.contains("org.stjs.example.shaking.Unused - not reachable from any entry point"));
+
+		verifier.resetStreams();
+	}
+}
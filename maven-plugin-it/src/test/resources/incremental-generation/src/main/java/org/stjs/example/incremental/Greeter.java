@@ -0,0 +1,7 @@
+package org.stjs.example.incremental;
+
+public class Greeter {
+	public String greet(String name) {
+		return "Hello " + name;
+	}
+}
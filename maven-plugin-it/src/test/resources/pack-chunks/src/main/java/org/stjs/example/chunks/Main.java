@@ -0,0 +1,9 @@
+package org.stjs.example.chunks;
+
+import org.stjs.example.chunks.model.Model;
+
+public class Main {
+	public static void main(String[] args) {
+		new Model();
+	}
+}
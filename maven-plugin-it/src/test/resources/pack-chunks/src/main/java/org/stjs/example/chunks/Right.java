@@ -0,0 +1,9 @@
+package org.stjs.example.chunks;
+
+import org.stjs.example.chunks.cycle.Helper;
+
+public class Right {
+	public Helper helper() {
+		return new Helper();
+	}
+}
@@ -0,0 +1,5 @@
+package org.stjs.example.chunks.cycle;
+
+public class Helper {
+	public int value;
+}
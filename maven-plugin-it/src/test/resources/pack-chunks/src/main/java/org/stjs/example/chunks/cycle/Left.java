@@ -0,0 +1,9 @@
+package org.stjs.example.chunks.cycle;
+
+import org.stjs.example.chunks.Right;
+
+public class Left {
+	public Right right() {
+		return new Right();
+	}
+}
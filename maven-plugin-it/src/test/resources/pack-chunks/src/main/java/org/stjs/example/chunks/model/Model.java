@@ -0,0 +1,5 @@
+package org.stjs.example.chunks.model;
+
+public class Model {
+	public String name;
+}
@@ -0,0 +1,9 @@
+package org.stjs.example.chunks.ui;
+
+import org.stjs.example.chunks.model.Model;
+
+public class View {
+	public Model createModel() {
+		return new Model();
+	}
+}
@@ -0,0 +1,6 @@
+package org.stjs.example.chunks.ui.admin;
+
+import org.stjs.example.chunks.ui.View;
+
+public class AdminView extends View {
+}
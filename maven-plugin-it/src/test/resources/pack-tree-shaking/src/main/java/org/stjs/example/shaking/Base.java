@@ -0,0 +1,7 @@
+package org.stjs.example.shaking;
+
+public class Base {
+	public int base() {
+		return 1;
+	}
+}
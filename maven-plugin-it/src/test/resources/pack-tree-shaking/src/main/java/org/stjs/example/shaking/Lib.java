@@ -0,0 +1,7 @@
+package org.stjs.example.shaking;
+
+public class Lib extends Base {
+	public static int helper(Object o) {
+		return o == null ? 0 : 1;
+	}
+}
@@ -0,0 +1,13 @@
+package org.stjs.example.shaking;
+
+public class Main {
+	private Model model;
+
+	public static void main(String[] args) {
+		new Main().run();
+	}
+
+	public void run() {
+		Lib.helper(model);
+	}
+}
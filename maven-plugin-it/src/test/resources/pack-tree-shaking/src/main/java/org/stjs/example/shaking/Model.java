@@ -0,0 +1,5 @@
+package org.stjs.example.shaking;
+
+public class Model {
+	public String name;
+}
@@ -0,0 +1,7 @@
+package org.stjs.example.shaking;
+
+public class Plugin {
+	public int plugin() {
+		return 2;
+	}
+}
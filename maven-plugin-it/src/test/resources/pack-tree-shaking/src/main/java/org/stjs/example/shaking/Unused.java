@@ -0,0 +1,7 @@
+package org.stjs.example.shaking;
+
+public class Unused {
+	public int unused() {
+		return new Base().base();
+	}
+}
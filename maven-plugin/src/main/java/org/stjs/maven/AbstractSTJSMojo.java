@@ -15,19 +15,19 @@ package org.stjs.maven;
 import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,15 +35,14 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.compiler.util.scan.InclusionScanException;
-import org.codehaus.plexus.compiler.util.scan.SourceInclusionScanner;
 import org.codehaus.plexus.compiler.util.scan.mapping.SourceMapping;
 import org.codehaus.plexus.compiler.util.scan.mapping.SuffixMapping;
-import org.codehaus.plexus.util.DirectoryScanner;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.alg.StrongConnectivityInspector;
 import org.jgrapht.graph.DefaultDirectedGraph;
@@ -60,12 +59,15 @@ import org.stjs.generator.JavascriptFileGenerationException;
 import org.stjs.generator.MultipleFileGenerationException;
 import org.stjs.generator.STJSClass;
 import org.stjs.generator.name.DependencyType;
+import org.stjs.generator.utils.GenerationProfiler;
+import org.stjs.maven.GeneratorCache.ModuleClasspath;
 
 import com.google.common.io.Closeables;
 import com.google.common.io.Files;
 import com.google.debugging.sourcemap.SourceMapFormat;
 import com.google.debugging.sourcemap.SourceMapGeneratorFactory;
 import com.google.debugging.sourcemap.SourceMapGeneratorV3;
+import com.google.debugging.sourcemap.SourceMapParseException;
 
 /**
  * This is the Maven plugin that launches the Javascript generator. The plugin needs a list of packages containing the Java classes that will
@@ -84,6 +86,13 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 	 */
 	protected MavenProject project;
 
+	/**
+	 * @parameter expression="${session}"
+	 * @required
+	 * @readonly
+	 */
+	protected MavenSession session;
+
 	/**
 	 * @component
 	 */
@@ -125,6 +134,58 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 	 */
 	protected boolean generateSourceMap;
 
+	/**
+	 * If true, the generated JavaScript code is minified: the whitespace and the comments are removed and the local variables and the
+	 * parameters get short names. The source maps, if generated, point to the right positions in the minified code.
+	 * @parameter expression="${minify}" default-value="false"
+	 */
+	protected boolean minify;
+
+	/**
+	 * If true, the references to the static final fields initialized with a constant (other than the fields of the bridges) are replaced
+	 * by the value of the constant, and the constant expressions are replaced by their value, as computed by javac.
+	 * @parameter expression="${inlineConstants}" default-value="false"
+	 */
+	protected boolean inlineConstants;
+
+	/**
+	 * The packages (and their sub-packages) whose code accesses the fields having the "gproperty" template as plain JavaScript
+	 * properties, instead of calling stjs.getField and stjs.setField. Use it only if stjs.getFieldHandler and stjs.setFieldHandler are not
+	 * needed for this code.
+	 * @parameter
+	 */
+	protected List<String> directFieldAccessPackages;
+
+	/**
+	 * If true, the for-each loops on org.stjs.javascript.Array are generated as indexed loops (for (var i = 0, n = a.length; i &lt; n;
+	 * i++)) instead of for-in loops. Use it only if the arrays of the project are dense, as the indexed loop visits the missing
+	 * elements too.
+	 * @parameter expression="${indexedArrayLoops}" default-value="false"
+	 */
+	protected boolean indexedArrayLoops;
+
+	/**
+	 * If true, the lambdas and the method references (Java 8 plugin) are bound with the native Function.bind or with functions having a
+	 * fixed number of parameters, instead of stjs.bind. The generated code needs an ES5 browser.
+	 * @parameter expression="${lightweightBind}" default-value="false"
+	 */
+	protected boolean lightweightBind;
+
+	/**
+	 * If true, each class gets a $hydrate function building its objects from JSON with direct references to the constructors of its
+	 * fields. stjs.typefy calls it instead of interpreting the type description of the class.
+	 * @parameter expression="${generateHydrators}" default-value="false"
+	 */
+	protected boolean generateHydrators;
+
+	/**
+	 * If true, the wall time and the memory allocated by each class, by each phase of the generation and by each check and writer are
+	 * recorded. The report is written in ${project.build.directory}/stjs-profile: profile.html and profile.json (the slowest first) and
+	 * the collapsed stacks (profile-time.collapsed and profile-alloc.collapsed) that the flame graph tools read.
+	 * @parameter expression="${profile}" default-value="false"
+	 */
+	protected boolean profile;
+
 	/**
 	 * If true, it packs all the generated Javascript file (using the correct dependency order) into a single file named
 	 * ${project.artifactName}.js
@@ -132,6 +193,80 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 	 */
 	protected boolean pack;
 
+	/**
+	 * If true, the pack file contains only the classes that are reachable from the entry points (see packEntryPoints,
+	 * packEntryPointAnnotations and packMainClasses), following the dependencies between the generated classes. The
+	 * classes that were left out, and why, are listed in ${project.build.directory}/${project.artifactId}-pack-report.txt
+	 * @parameter expression="${packTreeShaking}" default-value="false"
+	 */
+	protected boolean packTreeShaking;
+
+	/**
+	 * The entry points of the pack file when packTreeShaking is true. Each entry is either a class name, a package name followed by ".*"
+	 * (all the classes of the package) or a package name followed by ".**" (all the classes of the package and of its sub-packages).
+	 * @parameter
+	 */
+	protected Set<String> packEntryPoints = new HashSet<String>();
+
+	/**
+	 * When packTreeShaking is true, the classes carrying one of these annotations are entry points of the pack file. The
+	 * annotations must have the RUNTIME retention.
+	 * @parameter
+	 */
+	protected Set<String> packEntryPointAnnotations = new HashSet<String>();
+
+	/**
+	 * When packTreeShaking is true, the classes having a main method are entry points of the pack file.
+	 * @parameter expression="${packMainClasses}" default-value="true"
+	 */
+	protected boolean packMainClasses;
+
+	/**
+	 * When packTreeShaking is true, the classes used only as the type of a field or of a variable are kept as well. They are needed when
+	 * the objects are built from JSON with stjs.typefy. Set this to false to leave them out.
+	 * @parameter expression="${packFollowTypeReferences}" default-value="true"
+	 */
+	protected boolean packFollowTypeReferences;
+
+	/**
+	 * If true, the packed classes are split in several files (chunks) instead of a single file, so that the browser can load
+	 * only the code it needs at first and the rest on demand. Each chunk is written in ${project.artifactId}-${chunk}.js and
+	 * ${project.artifactId}-chunks.json lists the file, the load and the run-time dependencies of each chunk and the chunk of
+	 * each class. Pass this manifest to stjs.setChunkManifest and load the classes with stjs.loadClass or stjs.loadChunk.
+	 * @parameter expression="${packChunks}" default-value="false"
+	 */
+	protected boolean packChunks;
+
+	/**
+	 * When packChunks is true, the package or class names starting a new chunk. A class goes in the chunk of the longest split point
+	 * matching its name or its package (a package matches also its sub-packages), or in the "main" chunk if no split point matches.
+	 * Without split points there is a chunk for each package.
+	 * @parameter
+	 */
+	protected Set<String> packSplitPoints = new HashSet<String>();
+
+	/**
+	 * If true, a gzip compressed copy (.js.gz, .map.gz) is written next to each pack file, chunk file and source map, or next to each
+	 * generated file when pack is false. The copies are written at the same time as the files. The files and their variants are listed
+	 * in ${project.artifactId}-assets.json
+	 * @parameter expression="${gzip}" default-value="false"
+	 */
+	protected boolean gzip;
+
+	/**
+	 * The compression level of the gzip copies, from 1 (fastest) to 9 (smallest)
+	 * @parameter expression="${gzipLevel}" default-value="9"
+	 */
+	protected int gzipLevel;
+
+	/**
+	 * If true, a copy whose name contains the hash of its content (file.[hash].js) is written for the same files as gzip, so that they
+	 * can be served with immutable caching. The chunk manifest refers to these names. The files and their variants are listed in
+	 * ${project.artifactId}-assets.json
+	 * @parameter expression="${contentHash}" default-value="false"
+	 */
+	protected boolean contentHash;
+
 	/**
 	 * @parameter expression="${sourceEncoding}" default-value="${project.build.sourceEncoding}"
 	 */
@@ -143,6 +278,13 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 	 */
 	protected Set<String> annotations = new HashSet<String>();
 
+	/**
+	 * the source folders walked by this execution: their sources do not change while the generator runs, only their generated files
+	 */
+	private final Map<File, SourceTree> sourceTrees = new HashMap<File, SourceTree>();
+
+	private ModuleClasspath moduleClasspath;
+
 	abstract protected List<String> getCompileSourceRoots();
 
 	abstract protected GenerationDirectory getGeneratedSourcesDirectory() throws MojoExecutionException;
@@ -153,16 +295,25 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 
 	abstract protected boolean getCopyStjsSupportFile();
 
-	private ClassLoader getBuiltProjectClassLoader() throws MojoExecutionException {
+	/**
+	 * the classes of the external jars, and the generator's information about them, are shared with the other modules of the reactor
+	 */
+	private ModuleClasspath getModuleClasspath() throws MojoExecutionException {
+		if (moduleClasspath != null) {
+			return moduleClasspath;
+		}
 		try {
 			List<String> runtimeClasspathElements = getClasspathElements();
-			URL[] runtimeUrls = new URL[runtimeClasspathElements.size()];
-			for (int i = 0; i < runtimeClasspathElements.size(); i++) {
-				String element = runtimeClasspathElements.get(i);
+			for (String element : runtimeClasspathElements) {
 				getLog().debug("Classpath:" + element);
-				runtimeUrls[i] = new File(element).toURI().toURL();
 			}
-			return new URLClassLoader(runtimeUrls, Thread.currentThread().getContextClassLoader().getParent());
+			List<File> reactorFolders = new ArrayList<File>();
+			for (MavenProject reactorProject : session.getProjects()) {
+				reactorFolders.add(reactorProject.getBasedir());
+			}
+			moduleClasspath = GeneratorCache.getModuleClasspath(runtimeClasspathElements, reactorFolders,
+					Thread.currentThread().getContextClassLoader().getParent());
+			return moduleClasspath;
 		}
 		catch (Exception ex) {
 			throw new MojoExecutionException("Cannot get builtProjectClassLoader " + ex, ex);
@@ -171,16 +322,44 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 
 	@Override
 	public void execute() throws MojoExecutionException, MojoFailureException {
+		try {
+			generate();
+		}
+		finally {
+			closeModuleClasspath();
+		}
+	}
+
+	private void closeModuleClasspath() {
+		if (moduleClasspath == null) {
+			return;
+		}
+		try {
+			moduleClasspath.close();
+		}
+		catch (IOException e) {
+			getLog().warn("Cannot close the class loader of the module: " + e);
+		}
+		moduleClasspath = null;
+	}
+
+	private void generate() throws MojoExecutionException, MojoFailureException {
 		GenerationDirectory gendir = getGeneratedSourcesDirectory();
 
 		long t1 = System.currentTimeMillis();
 		getLog().info("Generating JavaScript files to " + gendir.getGeneratedSourcesAbsolutePath());
 
-		ClassLoader builtProjectClassLoader = getBuiltProjectClassLoader();
+		ModuleClasspath classpath = getModuleClasspath();
 
 		GeneratorConfigurationBuilder configBuilder = new GeneratorConfigurationBuilder();
 		configBuilder.generateArrayHasOwnProperty(generateArrayHasOwnProperty);
 		configBuilder.generateSourceMap(generateSourceMap);
+		configBuilder.minify(minify);
+		configBuilder.inlineConstants(inlineConstants);
+		configBuilder.indexedArrayLoops(indexedArrayLoops);
+		configBuilder.lightweightBind(lightweightBind);
+		configBuilder.generateHydrators(generateHydrators);
+		configBuilder.profile(profile);
 		if (sourceEncoding != null) {
 			configBuilder.sourceEncoding(sourceEncoding);
 		}
@@ -195,6 +374,9 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 		if (annotations != null) {
 			configBuilder.annotations(annotations);
 		}
+		if (directFieldAccessPackages != null) {
+			configBuilder.directFieldAccessPackages(directFieldAccessPackages);
+		}
 
 		// scan all the packages
 		for (String sourceRoot : getCompileSourceRoots()) {
@@ -202,7 +384,8 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 			Collection<String> packages = accumulatePackages(sourceDir);
 			configBuilder.allowedPackages(packages);
 		}
-		configBuilder.stjsClassLoader(builtProjectClassLoader);
+		configBuilder.stjsClassLoader(classpath.getClassLoader());
+		configBuilder.classResolver(classpath.getClassResolver());
 		configBuilder.targetFolder(getBuildOutputDirectory());
 		configBuilder.generationFolder(gendir);
 
@@ -215,9 +398,8 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 		for (String sourceRoot : getCompileSourceRoots()) {
 			File sourceDir = new File(sourceRoot);
 			SourceMapping mapping = new SuffixMapping(".java", ".js");
-			SourceMapping stjsMapping = new SuffixMapping(".java", ".stjs");
 
-			List<File> sources = accumulateSources(gendir, sourceDir, mapping, stjsMapping, staleMillis);
+			List<File> sources = accumulateStaleSources(gendir, sourceDir);
 			for (File source : sources) {
 				if (source.getName().equals(PACKAGE_INFO_JAVA)) {
 					getLog().debug("Skipping " + source);
@@ -271,6 +453,9 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 		generator.close();
 		long t2 = System.currentTimeMillis();
 		getLog().info("Generated " + generatedFiles + " JavaScript files in " + (t2 - t1) + " ms");
+		if (generator.getProfiler() != null) {
+			writeProfile(generator.getProfiler());
+		}
 		if (generatedFiles > 0) {
 			filesGenerated(generator, gendir);
 		}
@@ -280,6 +465,17 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 		}
 	}
 
+	private void writeProfile(GenerationProfiler profiler) throws MojoExecutionException {
+		File profileFolder = new File(project.getBuild().getDirectory(), "stjs-profile");
+		try {
+			profiler.writeReport(profileFolder);
+		}
+		catch (IOException e) {
+			throw new MojoExecutionException("Cannot write the generation profile:" + e, e);
+		}
+		getLog().info("The generation profile was written to " + profileFolder);
+	}
+
 	private void detectCycles(DirectedGraph<String, DefaultEdge> dependencyGraph) throws Exception {
 		StrongConnectivityInspector<String, DefaultEdge> inspector = new StrongConnectivityInspector<String, DefaultEdge>(dependencyGraph);
 		List<Set<String>> components = inspector.stronglyConnectedSets();
@@ -298,34 +494,29 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 	}
 
 	/**
-	 * packs all the files in a single file
+	 * packs all the files in a single file, or in several chunks if packChunks is true
 	 * @param generator
 	 * @param gendir
 	 * @throws MojoFailureException
 	 * @throws MojoExecutionException
 	 */
-	protected void packFiles(Generator generator, GenerationDirectory gendir) throws MojoFailureException, MojoExecutionException {
+	protected void packFiles(Generator generator, GenerationDirectory gendir, PackAssets assets) throws MojoFailureException, MojoExecutionException {
 		if (!pack) {
 			return;
 		}
-		OutputStream allSourcesFile = null;
-		Writer packMapStream = null;
-		ClassLoader builtProjectClassLoader = getBuiltProjectClassLoader();
+		ClassLoader builtProjectClassLoader = getModuleClasspath().getClassLoader();
 		Map<String, File> currentProjectsFiles = new HashMap<String, File>();
+		Map<String, Map<String, DependencyType>> currentProjectsDependencies = new HashMap<String, Map<String, DependencyType>>();
 
 		// pack the files
 		try {
 			DirectedGraph<String, DefaultEdge> dependencyGraph = new DefaultDirectedGraph<String, DefaultEdge>(DefaultEdge.class);
-			File outputFile = new File(gendir.getGeneratedSourcesAbsolutePath(), project.getArtifactId() + ".js");
-			allSourcesFile = new BufferedOutputStream(new FileOutputStream(outputFile));
 			for (String sourceRoot : getCompileSourceRoots()) {
 				File sourceDir = new File(sourceRoot);
-				List<File> sources = new ArrayList<File>();
 				SourceMapping mapping = new SuffixMapping(".java", ".js");
-				SourceMapping stjsMapping = new SuffixMapping(".java", ".stjs");
 
 				// take all the files
-				sources = accumulateSources(gendir, sourceDir, mapping, stjsMapping, Integer.MIN_VALUE);
+				List<File> sources = accumulateSources(sourceDir);
 				for (File source : sources) {
 
 					File absoluteTarget =
@@ -344,8 +535,11 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 					ClassWithJavascript cjs =
 							generator.getExistingStjsClass(builtProjectClassLoader, builtProjectClassLoader.loadClass(className));
 					dependencyGraph.addVertex(className);
+					Map<String, DependencyType> classDependencies = new HashMap<String, DependencyType>();
+					currentProjectsDependencies.put(className, classDependencies);
 					for (Map.Entry<ClassWithJavascript, DependencyType> dep : cjs.getDirectDependencyMap().entrySet()) {
 						if (dep.getKey() instanceof STJSClass) {
+							classDependencies.put(dep.getKey().getJavaClassName(), dep.getValue());
 							dependencyGraph.addVertex(dep.getKey().getJavaClassName());
 							if (dep.getValue() != DependencyType.OTHER) {
 								dependencyGraph.addEdge(dep.getKey().getJavaClassName(), className);
@@ -359,40 +553,73 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 			// check for cycles
 			detectCycles(dependencyGraph);
 
-			// dump all the files in the dependency order in the pack file
-			SourceMapGeneratorV3 packSourceMap = (SourceMapGeneratorV3) SourceMapGeneratorFactory.getInstance(SourceMapFormat.V3);
+			PackTreeShaker treeShaker = null;
+			if (packTreeShaking) {
+				treeShaker = shakeTree(currentProjectsDependencies, builtProjectClassLoader);
+			}
 
-			int currentLine = 0;
+			// the classes to pack, in the dependency order
+			List<String> packedClasses = new ArrayList<String>();
 			Iterator<String> it = new TopologicalOrderIterator<String, DefaultEdge>(dependencyGraph);
 			while (it.hasNext()) {
-				File targetFile = currentProjectsFiles.get(it.next());
-				// target file is absolute
-				if (targetFile != null) {
-					// for this project's files
-					if (generateSourceMap) {
-						currentLine = SourceMapUtils
-								.appendFileSkipSourceMap(gendir.getGeneratedSourcesAbsolutePath(), allSourcesFile, targetFile, currentLine,
-										packSourceMap, sourceEncoding);
-					} else {
-						Files.copy(targetFile, allSourcesFile);
-					}
-					allSourcesFile.flush();
+				String className = it.next();
+				// only this project's files
+				if (currentProjectsFiles.containsKey(className) && (treeShaker == null || treeShaker.isKept(className))) {
+					packedClasses.add(className);
 				}
 			}
 
-			if (generateSourceMap) {
-				File packMapFile = new File(gendir.getGeneratedSourcesAbsolutePath(), project.getArtifactId() + ".map");
-				packMapStream = new BufferedWriter(new FileWriter(packMapFile));
-				packSourceMap.appendTo(packMapStream, project.getArtifactId() + ".js");
-
-				allSourcesFile.write(("//# sourceMappingURL=" + project.getArtifactId() + ".map\n").getBytes());
-				allSourcesFile.flush();
+			if (packChunks) {
+				writeChunks(gendir, packedClasses, currentProjectsFiles, currentProjectsDependencies, assets);
+			} else {
+				writePackFile(gendir, packedClasses, currentProjectsFiles, project.getArtifactId(), "", assets);
 			}
-
 		}
 		catch (Exception ex) {
 			throw new MojoFailureException("Error when packing files:" + ex.getMessage(), ex);
 		}
+	}
+
+	/**
+	 * dumps the given files, in the given order, in a single file named baseName.js, with its source map if needed.
+	 * @param footer
+	 *            code added after the dumped files
+	 */
+	private void writePackFile(GenerationDirectory gendir, List<String> classNames, Map<String, File> files, String baseName,
+			String footer, PackAssets assets) throws IOException, SourceMapParseException {
+		OutputStream allSourcesFile = null;
+		Writer packMapStream = null;
+		try {
+			File outputFile = new File(gendir.getGeneratedSourcesAbsolutePath(), baseName + ".js");
+			allSourcesFile = new BufferedOutputStream(assets.open(outputFile));
+			SourceMapGeneratorV3 packSourceMap = (SourceMapGeneratorV3) SourceMapGeneratorFactory.getInstance(SourceMapFormat.V3);
+
+			int currentLine = 0;
+			for (String className : classNames) {
+				// target file is absolute
+				File targetFile = files.get(className);
+				if (generateSourceMap) {
+					currentLine = SourceMapUtils
+							.appendFileSkipSourceMap(gendir.getGeneratedSourcesAbsolutePath(), allSourcesFile, targetFile, currentLine,
+									packSourceMap, sourceEncoding);
+				} else {
+					Files.copy(targetFile, allSourcesFile);
+				}
+				allSourcesFile.flush();
+			}
+			allSourcesFile.write(footer.getBytes());
+
+			if (generateSourceMap) {
+				File packMapFile = new File(gendir.getGeneratedSourcesAbsolutePath(), baseName + ".map");
+				packMapStream = new BufferedWriter(new OutputStreamWriter(assets.open(packMapFile)));
+				packSourceMap.appendTo(packMapStream, baseName + ".js");
+				// the map is closed first to know its hashed name, so the pack refers to a map that cannot change under it
+				packMapStream.close();
+
+				allSourcesFile.write(("//# sourceMappingURL=" + assets.getFileName(baseName + ".map") + "\n").getBytes());
+			}
+			allSourcesFile.flush();
+		}
 		finally {
 
 			try {
@@ -409,7 +636,96 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 				LOG.log(Level.SEVERE, "IOException should not have been thrown.", e);
 			}
 		}
+	}
+
+	/**
+	 * splits the packed classes in chunks, writes a pack file for each chunk and the manifest used by stjs.js to load the chunks
+	 */
+	private void writeChunks(GenerationDirectory gendir, List<String> packedClasses, Map<String, File> files,
+			Map<String, Map<String, DependencyType>> dependencies, PackAssets assets) throws IOException, SourceMapParseException {
+		PackChunker chunker = new PackChunker(dependencies, packSplitPoints);
+		chunker.split(packedClasses);
+
+		Map<String, String> chunkFiles = new HashMap<String, String>();
+		for (String chunk : chunker.getChunks()) {
+			String baseName = project.getArtifactId() + "-" + chunk;
+			// tells the loader the chunk is there, even if it's loaded with a script tag
+			writePackFile(gendir, chunker.getClasses(chunk), files, baseName, "stjs.chunkLoaded(\"" + chunk + "\");\n", assets);
+			chunkFiles.put(chunk, assets.getFileName(baseName + ".js"));
+		}
+
+		File manifestFile = new File(gendir.getGeneratedSourcesAbsolutePath(), project.getArtifactId() + "-chunks.json");
+		Writer manifestWriter = new BufferedWriter(new FileWriter(manifestFile));
+		try {
+			chunker.writeManifest(manifestWriter, chunkFiles);
+		}
+		finally {
+			Closeables.close(manifestWriter, true);
+		}
+		getLog().info("Packed " + packedClasses.size() + " classes in " + chunker.getChunks().size() + " chunks. See " + manifestFile);
+	}
+
+	/**
+	 * computes the classes that are reachable from the entry points and writes the report of the tree shaking
+	 */
+	private PackTreeShaker shakeTree(Map<String, Map<String, DependencyType>> dependencies, ClassLoader builtProjectClassLoader)
+			throws Exception {
+		Set<String> entryPoints = new HashSet<String>();
+		for (String className : dependencies.keySet()) {
+			if (isPackEntryPoint(builtProjectClassLoader.loadClass(className))) {
+				entryPoints.add(className);
+			}
+		}
+		if (entryPoints.isEmpty()) {
+			throw new Exception("No entry point was found for the tree shaking of the pack file. Please configure packEntryPoints, "
+					+ "packEntryPointAnnotations or packMainClasses, or disable packTreeShaking");
+		}
 
+		PackTreeShaker treeShaker = new PackTreeShaker(dependencies, packFollowTypeReferences);
+		treeShaker.shake(entryPoints);
+
+		File reportFile = new File(project.getBuild().getDirectory(), project.getArtifactId() + "-pack-report.txt");
+		if (!reportFile.getParentFile().exists() && !reportFile.getParentFile().mkdirs()) {
+			throw new IOException("Cannot create the directory " + reportFile.getParentFile());
+		}
+		Writer reportWriter = new BufferedWriter(new FileWriter(reportFile));
+		try {
+			treeShaker.writeReport(reportWriter);
+		}
+		finally {
+			Closeables.close(reportWriter, true);
+		}
+		getLog().info(
+				"Tree shaking removed " + treeShaker.getDroppedClasses().size() + " of " + dependencies.size()
+						+ " classes from the pack file. See " + reportFile);
+		return treeShaker;
+	}
+
+	private boolean isPackEntryPoint(Class<?> clazz) {
+		String className = clazz.getName();
+		String packageName = className.lastIndexOf('.') < 0 ? "" : className.substring(0, className.lastIndexOf('.'));
+		for (String entryPoint : packEntryPoints) {
+			if (entryPoint.equals(className) || entryPoint.equals(packageName + ".*") || entryPoint.endsWith(".**")
+					&& (packageName + ".").startsWith(entryPoint.substring(0, entryPoint.length() - 2))) {
+				return true;
+			}
+		}
+		for (Annotation annotation : clazz.getAnnotations()) {
+			if (packEntryPointAnnotations.contains(annotation.annotationType().getName())) {
+				return true;
+			}
+		}
+		return packMainClasses && hasMainMethod(clazz);
+	}
+
+	private boolean hasMainMethod(Class<?> clazz) {
+		try {
+			Method main = clazz.getDeclaredMethod("main", String[].class);
+			return Modifier.isStatic(main.getModifiers()) && Modifier.isPublic(main.getModifiers());
+		}
+		catch (NoSuchMethodException e) {
+			return false;
+		}
 	}
 
 	protected void filesGenerated(Generator generator, GenerationDirectory gendir) throws MojoFailureException, MojoExecutionException {
@@ -423,38 +739,54 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 			throw new MojoFailureException("Error when copying support files:" + ex.getMessage(), ex);
 		}
 
-		packFiles(generator, gendir);
+		PackAssets assets = new PackAssets(gendir.getGeneratedSourcesAbsolutePath(), gzip, gzipLevel, contentHash);
+		packFiles(generator, gendir, assets);
+		writeAssets(gendir, assets);
+	}
+
+	/**
+	 * when the files are not packed, produces the variants of each generated file, then writes the manifest of the variants
+	 */
+	private void writeAssets(GenerationDirectory gendir, PackAssets assets) throws MojoFailureException {
+		if (!assets.isEnabled()) {
+			return;
+		}
+		try {
+			if (!pack) {
+				for (String sourceRoot : getCompileSourceRoots()) {
+					addGeneratedFiles(gendir, new File(sourceRoot), assets);
+				}
+			}
+			assets.writeManifest(new File(gendir.getGeneratedSourcesAbsolutePath(), project.getArtifactId() + "-assets.json"));
+		}
+		catch (Exception ex) {
+			throw new MojoFailureException("Error when compressing files:" + ex.getMessage(), ex);
+		}
+	}
+
+	private void addGeneratedFiles(GenerationDirectory gendir, File sourceDir, PackAssets assets) throws Exception {
+		SourceMapping mapping = new SuffixMapping(".java", ".js");
+		SourceMapping mapMapping = new SuffixMapping(".java", ".map");
+		for (File source : accumulateSources(sourceDir)) {
+			File js = (File) mapping.getTargetFiles(gendir.getGeneratedSourcesAbsolutePath(), source.getPath()).iterator().next();
+			File map = (File) mapMapping.getTargetFiles(gendir.getGeneratedSourcesAbsolutePath(), source.getPath()).iterator().next();
+			// the map is added first, so the hashed copy of the JavaScript file refers to the hashed copy of the map
+			if (generateSourceMap && map.exists()) {
+				assets.add(map);
+			}
+			// the bridges have no JavaScript file
+			if (js.exists()) {
+				assets.add(js);
+			}
+		}
 
 	}
 
 	/**
-	 * @return the list of Java source files to processed (those which are older than the corresponding Javascript file). The returned files are
-	 *         relative to the given source directory.
+	 * @return the packages of the Java files of the given source directory
 	 */
 	private Collection<String> accumulatePackages(File sourceDir) throws MojoExecutionException {
-		final Collection<String> result = new HashSet<String>();
-		if (sourceDir == null || !sourceDir.exists()) {
-			return result;
-		}
-
-		DirectoryScanner ds = new DirectoryScanner();
-		ds.setFollowSymlinks(true);
-		ds.addDefaultExcludes();
-		ds.setBasedir(sourceDir);
-		ds.setIncludes(new String[] {"**/*.java"});
-		ds.scan();
-		for (String fileName : ds.getIncludedFiles()) {
-			File file = new File(fileName);
-			// Supports classes without packages
-			result.add(file.getParent() == null ? "" : file.getParent().replace(File.separatorChar, '.'));
-		}
-
-		/*
-		 * // Trim root path from file paths for (File file : staleFiles) { String filePath = file.getPath(); String
-		 * basePath = sourceDir.getAbsoluteFile().toString(); result.add(new File(filePath.substring(basePath.length() +
-		 * 1))); }
-		 */
-		return result;
+		return getSourceTree(sourceDir).getPackages();
 	}
 
 	private String getClassNameForSource(String sourcePath) {
@@ -466,58 +798,38 @@ abstract public class AbstractSTJSMojo extends AbstractMojo {
 	 * @return the list of Java source files to processed (those which are older than the corresponding Javascript file). The returned files are
 	 *         relative to the given source directory.
 	 */
-	@SuppressWarnings("unchecked")
-	private List<File> accumulateSources(GenerationDirectory gendir, File sourceDir, SourceMapping jsMapping, SourceMapping stjsMapping,
-			int stale) throws MojoExecutionException {
-		final List<File> result = new ArrayList<File>();
-		if (sourceDir == null || !sourceDir.exists()) {
-			return result;
-		}
-		SourceInclusionScanner jsScanner = getSourceInclusionScanner(stale);
-		jsScanner.addSourceMapping(jsMapping);
-
-		SourceInclusionScanner stjsScanner = getSourceInclusionScanner(stale);
-		stjsScanner.addSourceMapping(stjsMapping);
-
-		final Set<File> staleFiles = new LinkedHashSet<File>();
-
-		for (File f : sourceDir.listFiles()) {
-			if (!f.isDirectory()) {
-				continue;
-			}
-
-			try {
-				staleFiles.addAll(jsScanner.getIncludedSources(f.getParentFile(), gendir.getGeneratedSourcesAbsolutePath()));
-				staleFiles.addAll(stjsScanner.getIncludedSources(f.getParentFile(), getBuildOutputDirectory()));
-			}
-			catch (InclusionScanException e) {
-				throw new MojoExecutionException(
-						"Error scanning source root: \'" + sourceDir.getPath() + "\' " + "for stale files to recompile.", e);
-			}
+	private List<File> accumulateStaleSources(GenerationDirectory gendir, File sourceDir) throws MojoExecutionException {
+		try {
+			return getSourceTree(sourceDir).getStaleSources(gendir.getGeneratedSourcesAbsolutePath(), getBuildOutputDirectory(), staleMillis);
 		}
-
-		// Trim root path from file paths
-		for (File file : staleFiles) {
-			String filePath = file.getPath();
-			String basePath = sourceDir.getAbsoluteFile().toString();
-			result.add(new File(filePath.substring(basePath.length() + 1)));
+		catch (IOException e) {
+			throw new MojoExecutionException("Error scanning source root: \'" + sourceDir.getPath() + "\' for stale files to recompile.", e);
 		}
-		return result;
 	}
 
-	protected SourceInclusionScanner getSourceInclusionScanner(int staleMillis) {
-		SourceInclusionScanner scanner;
+	/**
+	 * @return all the Java source files matching the includes and the excludes, relative to the given source directory
+	 */
+	private List<File> accumulateSources(File sourceDir) throws MojoExecutionException {
+		return getSourceTree(sourceDir).getSources();
+	}
 
-		if (includes.isEmpty() && excludes.isEmpty()) {
-			scanner = new StaleClassSourceScanner(staleMillis, getBuildOutputDirectory());
-		} else {
-			if (includes.isEmpty()) {
-				includes.add("**/*.java");
+	/**
+	 * @return the source tree of the given directory, walked only once by this execution
+	 */
+	private SourceTree getSourceTree(File sourceDir) throws MojoExecutionException {
+		File key = sourceDir.getAbsoluteFile();
+		SourceTree sourceTree = sourceTrees.get(key);
+		if (sourceTree == null) {
+			try {
+				sourceTree = SourceTree.scan(key, includes, excludes);
 			}
-			scanner = new StaleClassSourceScanner(staleMillis, includes, excludes, getBuildOutputDirectory());
+			catch (IOException e) {
+				throw new MojoExecutionException("Error scanning source root: \'" + sourceDir.getPath() + "\'", e);
+			}
+			sourceTrees.put(key, sourceTree);
 		}
-
-		return scanner;
+		return sourceTree;
 	}
 
 }
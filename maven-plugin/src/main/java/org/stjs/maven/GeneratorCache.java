@@ -0,0 +1,257 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.maven;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.stjs.generator.ClassResolver;
+import org.stjs.generator.ClassWithJavascript;
+import org.stjs.generator.DefaultClassResolver;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * This class shares the classes of the external jars, and what the generator resolved from them (their .stjs properties and whether they
+ * are bridges), between the executions of the plugin in the same JVM: the main and the test generation of each module of a reactor, and
+ * the following builds of a build daemon.<br>
+ * The external jars of a classpath are loaded by a shared class loader, found by their paths, modification times and lengths, so a
+ * rebuilt jar gets a new class loader. The folders of the classpath and the jars built by the reactor change during the build, so they
+ * are loaded by a class loader of the module, whose parent is the shared class loader.<br>
+ * The plugin's class realm is kept by Maven for the whole build, so the cache is a static field. A few shared class loaders are kept at
+ * most, and the one of a classpath whose jars were rebuilt is dropped. The class loaders are closed (releasing their open jar files) when
+ * they are dropped from the cache, so they are strongly referenced: a class loader collected by the garbage collector could not be
+ * closed. The class loader of a module is closed by the module at the end of its generation.
+ */
+public final class GeneratorCache {
+	private static final int MAX_SHARED_CLASSPATHS = 16;
+
+	private static final Cache<List<JarEntry>, SharedJars> SHARED_JARS = CacheBuilder.newBuilder().maximumSize(MAX_SHARED_CLASSPATHS)
+			.removalListener(new RemovalListener<List<JarEntry>, SharedJars>() {
+				@Override
+				public void onRemoval(RemovalNotification<List<JarEntry>, SharedJars> notification) {
+					closeQuietly(notification.getValue().classLoader);
+				}
+			}).build();
+
+	private GeneratorCache() {
+		//
+	}
+
+	/**
+	 * @param classpathElements
+	 *            the classpath of the module
+	 * @param reactorFolders
+	 *            the base folders of the projects of the reactor. The jars in these folders are built by the reactor, so they are not
+	 *            shared.
+	 * @param parent
+	 *            the parent of the class loaders
+	 */
+	public static ModuleClasspath getModuleClasspath(List<String> classpathElements, Collection<File> reactorFolders, final ClassLoader parent)
+			throws IOException {
+		final List<JarEntry> jars = new ArrayList<JarEntry>();
+		List<URL> moduleUrls = new ArrayList<URL>();
+		for (String element : classpathElements) {
+			File file = new File(element).getAbsoluteFile();
+			if (file.isFile() && !isInFolders(file, reactorFolders)) {
+				jars.add(new JarEntry(file));
+			} else {
+				moduleUrls.add(file.toURI().toURL());
+			}
+		}
+
+		if (SHARED_JARS.getIfPresent(jars) == null) {
+			invalidateReplacedJars(jars);
+		}
+		SharedJars sharedJars;
+		try {
+			sharedJars = SHARED_JARS.get(jars, new Callable<SharedJars>() {
+				@Override
+				public SharedJars call() throws IOException {
+					return new SharedJars(jars, parent);
+				}
+			});
+		}
+		catch (ExecutionException e) {
+			Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+			throw Throwables.propagate(e.getCause());
+		}
+		return new ModuleClasspath(new URLClassLoader(moduleUrls.toArray(new URL[moduleUrls.size()]), sharedJars.classLoader), sharedJars);
+	}
+
+	/**
+	 * drops the class loaders of the same jars, but with other modification times or lengths: the jars were rebuilt since
+	 */
+	private static void invalidateReplacedJars(List<JarEntry> jars) {
+		for (List<JarEntry> cachedJars : SHARED_JARS.asMap().keySet()) {
+			if (isSameFiles(cachedJars, jars)) {
+				SHARED_JARS.invalidate(cachedJars);
+			}
+		}
+	}
+
+	private static boolean isSameFiles(List<JarEntry> jars1, List<JarEntry> jars2) {
+		if (jars1.size() != jars2.size()) {
+			return false;
+		}
+		for (int i = 0; i < jars1.size(); ++i) {
+			if (!jars1.get(i).file.equals(jars2.get(i).file)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void closeQuietly(URLClassLoader classLoader) {
+		try {
+			classLoader.close();
+		}
+		catch (IOException e) {
+			// the classes already loaded are still usable, only the jar files may stay open
+		}
+	}
+
+	private static boolean isInFolders(File file, Collection<File> folders) {
+		for (File folder : folders) {
+			if (file.getPath().startsWith(folder.getAbsolutePath() + File.separator)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * the class loader of a module and the class resolver using it. It must be closed once the module is generated.
+	 */
+	public static final class ModuleClasspath implements Closeable {
+		private final URLClassLoader classLoader;
+		private final ClassResolver classResolver;
+
+		ModuleClasspath(URLClassLoader classLoader, SharedJars sharedJars) {
+			this.classLoader = classLoader;
+			this.classResolver = new ModuleClassResolver(classLoader, sharedJars.classResolver);
+		}
+
+		public ClassLoader getClassLoader() {
+			return classLoader;
+		}
+
+		public ClassResolver getClassResolver() {
+			return classResolver;
+		}
+
+		/**
+		 * closes the class loader of the module. The shared class loader is closed by the cache.
+		 */
+		@Override
+		public void close() throws IOException {
+			classLoader.close();
+		}
+	}
+
+	/**
+	 * the key of a jar in the cache
+	 */
+	private static final class JarEntry {
+		private final File file;
+		private final long lastModified;
+		private final long length;
+
+		JarEntry(File file) {
+			this.file = file;
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof JarEntry)) {
+				return false;
+			}
+			JarEntry other = (JarEntry) obj;
+			return file.equals(other.file) && lastModified == other.lastModified && length == other.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(file, lastModified, length);
+		}
+	}
+
+	private static final class SharedJars {
+		private final URLClassLoader classLoader;
+		private final ClassResolver classResolver;
+
+		SharedJars(List<JarEntry> jars, ClassLoader parent) throws IOException {
+			URL[] urls = new URL[jars.size()];
+			for (int i = 0; i < urls.length; ++i) {
+				urls[i] = jars.get(i).file.toURI().toURL();
+			}
+			this.classLoader = new URLClassLoader(urls, parent);
+			this.classResolver = new SharedClassResolver(classLoader);
+		}
+	}
+
+	/**
+	 * the resolver of the classes of the shared jars, used by the modules built in parallel
+	 */
+	private static final class SharedClassResolver extends DefaultClassResolver {
+		SharedClassResolver(ClassLoader classLoader) {
+			super(classLoader);
+		}
+
+		@Override
+		public synchronized ClassWithJavascript resolve(String className) {
+			return super.resolve(className);
+		}
+	}
+
+	/**
+	 * resolves the classes of the module, and delegates the classes of the shared jars to their shared resolver
+	 */
+	private static final class ModuleClassResolver extends DefaultClassResolver {
+		private final ClassLoader classLoader;
+		private final ClassResolver sharedResolver;
+
+		ModuleClassResolver(ClassLoader classLoader, ClassResolver sharedResolver) {
+			super(classLoader);
+			this.classLoader = classLoader;
+			this.sharedResolver = sharedResolver;
+		}
+
+		@Override
+		protected ClassWithJavascript doResolve(String className) {
+			Class<?> clazz = resolveJavaClass(getParentClassName(className));
+			if (clazz.getClassLoader() != classLoader) {
+				return sharedResolver.resolve(className);
+			}
+			return super.doResolve(className);
+		}
+	}
+}
@@ -0,0 +1,483 @@
+/**
+ * Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.stjs.maven;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * This class produces the variants of the generated files that web servers need to serve them efficiently: a gzip
+ * compressed copy (file.js.gz) and a copy whose name contains the hash of its content (file.[hash].js), that can be
+ * cached forever. The variants are produced while the file is written, so the file is not read again. The hashed copies
+ * of the previous contents of the files are removed. The JSON manifest maps the name of each file to the name of its
+ * variants.<br>
+ * The hashed copy of a JavaScript file refers to the hashed copy of its source map, so a cached file never loads a newer
+ * map. The source maps must be written or added before their JavaScript files.
+ */
+public class PackAssets {
+	private static final int HASH_LENGTH = 10;
+	private static final String GZIP_SUFFIX = ".gz";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final Pattern SOURCE_MAPPING_URL = Pattern.compile("//# sourceMappingURL=([^\\s/]+)\\s*$");
+
+	private final File baseDirectory;
+	private final boolean gzip;
+	private final int gzipLevel;
+	private final boolean contentHash;
+
+	private final Map<String, Asset> assets = new TreeMap<String, Asset>();
+	/**
+	 * the files of each folder before this build wrote its hashed copies, where the obsolete ones are searched
+	 */
+	private final Map<File, String[]> previousFiles = new HashMap<File, String[]>();
+
+	private static final class Asset {
+		private final String file;
+		private final String hash;
+		private final long size;
+		private final long gzipSize;
+
+		public Asset(String file, String hash, long size, long gzipSize) {
+			this.file = file;
+			this.hash = hash;
+			this.size = size;
+			this.gzipSize = gzipSize;
+		}
+	}
+
+	/**
+	 * @param baseDirectory
+	 *            the names in the manifest are relative to this directory
+	 * @param gzipLevel
+	 *            the compression level, from 1 (fastest) to 9 (smallest)
+	 */
+	public PackAssets(File baseDirectory, boolean gzip, int gzipLevel, boolean contentHash) {
+		if (gzipLevel < 1 || gzipLevel > 9) {
+			throw new IllegalArgumentException("The gzip level must be between 1 and 9, not " + gzipLevel);
+		}
+		this.baseDirectory = baseDirectory;
+		this.gzip = gzip;
+		this.gzipLevel = gzipLevel;
+		this.contentHash = contentHash;
+	}
+
+	public boolean isEnabled() {
+		return gzip || contentHash;
+	}
+
+	/**
+	 * @return a stream writing the given file, and its variants when the stream is closed. The content must already refer to the
+	 *         variants of the other files (see {@link #getFileName(String)}), as the hashed copy is the same as the file.
+	 */
+	public OutputStream open(File file) throws IOException {
+		if (!isEnabled()) {
+			return new FileOutputStream(file);
+		}
+		return new AssetOutputStream(file);
+	}
+
+	/**
+	 * produces the variants of an existing file. The gzip variant is written only if it's older than the file. If the file ends with
+	 * the URL of a source map that was added before, its hashed copy refers to the hashed copy of the map instead.
+	 */
+	public void add(File file) throws IOException {
+		String name = getName(file);
+		byte[] content = Files.toByteArray(file);
+		File gzipFile = new File(file.getPath() + GZIP_SUFFIX);
+		if (gzip && !(gzipFile.exists() && gzipFile.lastModified() >= file.lastModified())) {
+			Files.write(compress(content), gzipFile);
+		}
+		if (!contentHash) {
+			assets.put(name, new Asset(name, toHex(sha256().digest(content)), content.length, gzip ? gzipFile.length() : -1));
+			return;
+		}
+
+		byte[] hashedContent = linkHashedSourceMap(name, content);
+		String hash = toHex(sha256().digest(hashedContent));
+		String assetName = hashedName(name, hash);
+		File hashedFile = new File(baseDirectory, assetName);
+		File hashedGzipFile = new File(hashedFile.getPath() + GZIP_SUFFIX);
+		listPreviousFiles(hashedFile.getParentFile());
+		if (!hashedFile.exists()) {
+			Files.write(hashedContent, hashedFile);
+		}
+		if (gzip && !hashedGzipFile.exists()) {
+			if (hashedContent == content) {
+				Files.copy(gzipFile, hashedGzipFile);
+			} else {
+				Files.write(compress(hashedContent), hashedGzipFile);
+			}
+		}
+		removeObsoleteCopies(name, assetName);
+		assets.put(name, new Asset(assetName, hash, hashedContent.length, gzip ? hashedGzipFile.length() : -1));
+	}
+
+	/**
+	 * @return the name to use for the given file (relative to the base directory), i.e. the name containing the hash if contentHash is
+	 *         true
+	 */
+	public String getFileName(String name) {
+		Asset asset = assets.get(name);
+		return asset == null ? name : asset.file;
+	}
+
+	private String getName(File file) {
+		return baseDirectory.toURI().relativize(file.toURI()).getPath();
+	}
+
+	/**
+	 * @return the content with the URL of the hashed copy of its source map, or the same content if it has no source map added before
+	 */
+	private byte[] linkHashedSourceMap(String name, byte[] content) {
+		// the URL is on the last line, that is short
+		int tailStart = Math.max(0, content.length - 1024);
+		String tail = new String(content, tailStart, content.length - tailStart, StandardCharsets.ISO_8859_1);
+		Matcher matcher = SOURCE_MAPPING_URL.matcher(tail);
+		if (!matcher.find()) {
+			return content;
+		}
+		String folder = name.substring(0, name.lastIndexOf('/') + 1);
+		Asset map = assets.get(folder + matcher.group(1));
+		if (map == null) {
+			return content;
+		}
+		String hashedUrl = map.file.substring(map.file.lastIndexOf('/') + 1);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length);
+		out.write(content, 0, tailStart + matcher.start(1));
+		byte[] url = hashedUrl.getBytes(StandardCharsets.ISO_8859_1);
+		out.write(url, 0, url.length);
+		out.write(content, tailStart + matcher.end(1), content.length - tailStart - matcher.end(1));
+		return out.toByteArray();
+	}
+
+	private byte[] compress(byte[] content) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputStream out = new LevelGZIPOutputStream(bytes, gzipLevel);
+		try {
+			out.write(content);
+		}
+		finally {
+			out.close();
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * the folder is listed once, before any hashed copy is written in it, so the files found there are the ones of the previous builds
+	 */
+	private void listPreviousFiles(File folder) {
+		if (!previousFiles.containsKey(folder)) {
+			String[] files = folder.list();
+			previousFiles.put(folder, files == null ? new String[0] : files);
+		}
+	}
+
+	/**
+	 * removes the hashed copies of the previous contents of the file
+	 */
+	private void removeObsoleteCopies(String name, String assetName) throws IOException {
+		File folder = new File(baseDirectory, assetName).getParentFile();
+		String currentCopy = assetName.substring(assetName.lastIndexOf('/') + 1);
+		Pattern copyPattern = hashedNamePattern(name.substring(name.lastIndexOf('/') + 1));
+		for (String file : previousFiles.get(folder)) {
+			if (!file.equals(currentCopy) && !file.equals(currentCopy + GZIP_SUFFIX) && copyPattern.matcher(file).matches()) {
+				File copy = new File(folder, file);
+				if (copy.exists() && !copy.delete()) {
+					throw new IOException("Cannot remove the obsolete copy " + copy);
+				}
+			}
+		}
+	}
+
+	/**
+	 * dir/file.js -> dir/file.[hash].js
+	 */
+	private static String hashedName(String name, String hash) {
+		String shortHash = hash.substring(0, HASH_LENGTH);
+		int slash = name.lastIndexOf('/');
+		int dot = name.lastIndexOf('.');
+		if (dot <= slash) {
+			return name + "." + shortHash;
+		}
+		return name.substring(0, dot) + "." + shortHash + name.substring(dot);
+	}
+
+	/**
+	 * file.js -> the pattern of file.[any hash].js and of its gzip variant
+	 */
+	private static Pattern hashedNamePattern(String fileName) {
+		String hashPattern = "\\.[0-9a-f]{" + HASH_LENGTH + "}";
+		int dot = fileName.lastIndexOf('.');
+		String pattern = dot < 0 ? Pattern.quote(fileName) + hashPattern : Pattern.quote(fileName.substring(0, dot)) + hashPattern
+				+ Pattern.quote(fileName.substring(dot));
+		return Pattern.compile(pattern + "(" + Pattern.quote(GZIP_SUFFIX) + ")?");
+	}
+
+	/**
+	 * writes the JSON manifest: for each file, the name of its variants, its size and the size of its gzip variant, and the hash of its
+	 * content. The sizes and the hash are the ones of the hashed copy if contentHash is true.
+	 */
+	public void writeManifest(File manifestFile) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(manifestFile), StandardCharsets.UTF_8));
+		try {
+			writer.write("{");
+			String separator = "\n";
+			for (Map.Entry<String, Asset> entry : assets.entrySet()) {
+				Asset asset = entry.getValue();
+				writer.write(separator + "  " + quote(entry.getKey()) + ": {\"file\": " + quote(asset.file));
+				if (gzip) {
+					writer.write(", \"gzip\": " + quote(asset.file + GZIP_SUFFIX));
+				}
+				writer.write(", \"size\": " + asset.size);
+				if (gzip) {
+					writer.write(", \"gzipSize\": " + asset.gzipSize);
+				}
+				writer.write(", \"sha256\": " + quote(asset.hash) + "}");
+				separator = ",\n";
+			}
+			writer.write("\n}\n");
+		}
+		finally {
+			Closeables.close(writer, true);
+		}
+	}
+
+	/**
+	 * @return the JSON string of the given value
+	 */
+	private static String quote(String s) {
+		StringBuilder quoted = new StringBuilder(s.length() + 2).append('"');
+		for (int i = 0; i < s.length(); ++i) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < ' ') {
+				quoted.append(String.format("\\u%04x", (int) c));
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder s = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			s.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+		}
+		return s.toString();
+	}
+
+	private static class LevelGZIPOutputStream extends GZIPOutputStream {
+		public LevelGZIPOutputStream(OutputStream out, int level) throws IOException {
+			super(out);
+			def.setLevel(level);
+		}
+	}
+
+	/**
+	 * writes the same bytes in several streams
+	 */
+	private static final class TeeOutputStream extends OutputStream {
+		private final List<OutputStream> outs;
+
+		public TeeOutputStream(List<OutputStream> outs) {
+			this.outs = outs;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			for (OutputStream out : outs) {
+				out.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			for (OutputStream out : outs) {
+				out.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			for (OutputStream out : outs) {
+				out.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			IOException error = null;
+			for (OutputStream out : outs) {
+				try {
+					out.close();
+				}
+				catch (IOException e) {
+					error = e;
+				}
+			}
+			if (error != null) {
+				throw error;
+			}
+		}
+	}
+
+	/**
+	 * writes the same bytes in the file, in its gzip variant and in temporary hashed copies of both, computing the hash of the content at
+	 * the same time. The content is compressed once for both gzip files. When the stream is closed, the temporary copies are renamed with
+	 * the hash, unless copies with this hash already exist.
+	 */
+	private final class AssetOutputStream extends OutputStream {
+		private final File file;
+		private final File tempCopy;
+		private final File tempGzipCopy;
+		private final OutputStream plain;
+		private final OutputStream compressed;
+		private final MessageDigest digest = sha256();
+		private long size;
+		private boolean closed;
+
+		public AssetOutputStream(File file) throws IOException {
+			this.file = file;
+			File folder = file.getAbsoluteFile().getParentFile();
+			this.tempCopy = contentHash ? File.createTempFile(file.getName(), TEMP_SUFFIX, folder) : null;
+			this.tempGzipCopy = contentHash && gzip ? File.createTempFile(file.getName() + GZIP_SUFFIX, TEMP_SUFFIX, folder) : null;
+
+			List<OutputStream> plainOuts = new ArrayList<OutputStream>();
+			plainOuts.add(new FileOutputStream(file));
+			if (tempCopy != null) {
+				plainOuts.add(new FileOutputStream(tempCopy));
+			}
+			this.plain = new TeeOutputStream(plainOuts);
+
+			if (gzip) {
+				List<OutputStream> gzipOuts = new ArrayList<OutputStream>();
+				gzipOuts.add(new FileOutputStream(file.getPath() + GZIP_SUFFIX));
+				if (tempGzipCopy != null) {
+					gzipOuts.add(new FileOutputStream(tempGzipCopy));
+				}
+				this.compressed = new LevelGZIPOutputStream(new TeeOutputStream(gzipOuts), gzipLevel);
+			} else {
+				this.compressed = null;
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			plain.write(b, off, len);
+			if (compressed != null) {
+				compressed.write(b, off, len);
+			}
+			digest.update(b, off, len);
+			size += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			plain.flush();
+			if (compressed != null) {
+				compressed.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				try {
+					plain.close();
+				}
+				finally {
+					if (compressed != null) {
+						compressed.close();
+					}
+				}
+				register();
+			}
+			finally {
+				deleteIfExists(tempCopy);
+				deleteIfExists(tempGzipCopy);
+			}
+		}
+
+		private void register() throws IOException {
+			String name = getName(file);
+			String hash = toHex(digest.digest());
+			String assetName = name;
+			File gzipFile = new File(file.getPath() + GZIP_SUFFIX);
+			if (contentHash) {
+				assetName = hashedName(name, hash);
+				File hashedFile = new File(baseDirectory, assetName);
+				listPreviousFiles(hashedFile.getParentFile());
+				// the content of the file is given by its name, so an existing copy is already right
+				moveIfMissing(tempCopy, hashedFile);
+				if (gzip) {
+					moveIfMissing(tempGzipCopy, new File(hashedFile.getPath() + GZIP_SUFFIX));
+				}
+				removeObsoleteCopies(name, assetName);
+			}
+			assets.put(name, new Asset(assetName, hash, size, gzip ? gzipFile.length() : -1));
+		}
+	}
+
+	private static void moveIfMissing(File from, File to) throws IOException {
+		if (!to.exists()) {
+			Files.move(from, to);
+		}
+	}
+
+	private static void deleteIfExists(File file) throws IOException {
+		if (file != null && file.exists() && !file.delete()) {
+			throw new IOException("Cannot remove the temporary file " + file);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.stjs.maven;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.alg.StrongConnectivityInspector;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.traverse.TopologicalOrderIterator;
+import org.stjs.generator.name.DependencyType;
+
+/**
+ * This class splits the packed classes in several chunks that can be loaded separately by the browser. Without split
+ * points, there is a chunk for each package. Each split point is a package name (the classes of the package and of its
+ * sub-packages) or a class name; a class goes in the chunk of the longest split point matching it, or in the "main"
+ * chunk if no split point matches it.<br>
+ * A chunk depends on the chunks containing the EXTENDS and STATIC dependencies of its classes, as these dependencies are
+ * needed to load the classes. The chunks forming a cycle are merged in a single chunk.<br>
+ * The classes need at run time the chunks reached through their dependencies of any type (including the OTHER ones, like
+ * the types used by stjs.typefy), directly or through other chunks. These run-time dependencies may form cycles, so they
+ * are listed apart and loaded after the chunk.
+ */
+public class PackChunker {
+	private static final String MAIN_CHUNK = "main";
+	private static final String DEFAULT_PACKAGE_CHUNK = "default";
+
+	private final Map<String, Map<String, DependencyType>> dependencies;
+	private final Collection<String> splitPoints;
+
+	private final Map<String, String> classChunks = new HashMap<String, String>();
+	private final Map<String, List<String>> chunkClasses = new LinkedHashMap<String, List<String>>();
+	private final Map<String, Set<String>> chunkDependencies = new HashMap<String, Set<String>>();
+	private final Map<String, Set<String>> chunkRuntimeDependencies = new HashMap<String, Set<String>>();
+
+	/**
+	 * @param dependencies
+	 *            the direct dependencies of each class of the project
+	 * @param splitPoints
+	 *            the package or class names starting a new chunk. If empty, there is a chunk for each package
+	 */
+	public PackChunker(Map<String, Map<String, DependencyType>> dependencies, Collection<String> splitPoints) {
+		this.dependencies = dependencies;
+		this.splitPoints = splitPoints;
+	}
+
+	/**
+	 * splits the given classes in chunks
+	 *
+	 * @param orderedClasses
+	 *            the classes to pack, in the order they must be loaded
+	 */
+	public void split(List<String> orderedClasses) {
+		for (String className : orderedClasses) {
+			classChunks.put(className, getInitialChunk(className));
+		}
+		mergeCycles(buildChunkGraph());
+
+		DirectedGraph<String, DefaultEdge> chunkGraph = buildChunkGraph();
+		for (Iterator<String> it = new TopologicalOrderIterator<String, DefaultEdge>(chunkGraph); it.hasNext();) {
+			String chunk = it.next();
+			chunkClasses.put(chunk, new ArrayList<String>());
+			Set<String> chunkDeps = new TreeSet<String>();
+			for (DefaultEdge edge : chunkGraph.incomingEdgesOf(chunk)) {
+				chunkDeps.add(chunkGraph.getEdgeSource(edge));
+			}
+			chunkDependencies.put(chunk, chunkDeps);
+		}
+		for (String className : orderedClasses) {
+			chunkClasses.get(classChunks.get(className)).add(className);
+		}
+		computeRuntimeDependencies();
+	}
+
+	private String getInitialChunk(String className) {
+		int pos = className.lastIndexOf('.');
+		String packageName = pos < 0 ? "" : className.substring(0, pos);
+		if (splitPoints.isEmpty()) {
+			return packageName.isEmpty() ? DEFAULT_PACKAGE_CHUNK : packageName;
+		}
+		String chunk = MAIN_CHUNK;
+		int matchLength = -1;
+		for (String splitPoint : splitPoints) {
+			boolean matches = splitPoint.equals(className) || (packageName + ".").startsWith(splitPoint + ".");
+			if (matches && splitPoint.length() > matchLength) {
+				chunk = splitPoint;
+				matchLength = splitPoint.length();
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * the edges go from a chunk to the chunks needing it
+	 */
+	private DirectedGraph<String, DefaultEdge> buildChunkGraph() {
+		DirectedGraph<String, DefaultEdge> graph = new DefaultDirectedGraph<String, DefaultEdge>(DefaultEdge.class);
+		for (String chunk : new TreeSet<String>(classChunks.values())) {
+			graph.addVertex(chunk);
+		}
+		for (Map.Entry<String, String> entry : classChunks.entrySet()) {
+			for (Map.Entry<String, DependencyType> dep : dependencies.get(entry.getKey()).entrySet()) {
+				String depChunk = classChunks.get(dep.getKey());
+				if (depChunk != null && !depChunk.equals(entry.getValue()) && dep.getValue() != DependencyType.OTHER) {
+					graph.addEdge(depChunk, entry.getValue());
+				}
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * the run-time dependencies of a chunk are the chunks reached from it through the dependencies of any type, except the ones
+	 * reached through its load dependencies, that are loaded before it anyway
+	 */
+	private void computeRuntimeDependencies() {
+		Map<String, Set<String>> directDependencies = new HashMap<String, Set<String>>();
+		for (String chunk : chunkClasses.keySet()) {
+			directDependencies.put(chunk, new HashSet<String>());
+		}
+		for (Map.Entry<String, String> entry : classChunks.entrySet()) {
+			for (String dep : dependencies.get(entry.getKey()).keySet()) {
+				String depChunk = classChunks.get(dep);
+				if (depChunk != null) {
+					directDependencies.get(entry.getValue()).add(depChunk);
+				}
+			}
+		}
+
+		for (String chunk : chunkClasses.keySet()) {
+			Set<String> runtimeDeps = reach(directDependencies, chunk);
+			runtimeDeps.removeAll(reach(chunkDependencies, chunk));
+			runtimeDeps.remove(chunk);
+			chunkRuntimeDependencies.put(chunk, runtimeDeps);
+		}
+	}
+
+	/**
+	 * @return the chunks reached from the given chunk in the graph
+	 */
+	private static Set<String> reach(Map<String, Set<String>> graph, String chunk) {
+		Set<String> reached = new TreeSet<String>();
+		Deque<String> toVisit = new ArrayDeque<String>(graph.get(chunk));
+		while (!toVisit.isEmpty()) {
+			String dep = toVisit.pop();
+			if (reached.add(dep)) {
+				toVisit.addAll(graph.get(dep));
+			}
+		}
+		return reached;
+	}
+
+	private void mergeCycles(DirectedGraph<String, DefaultEdge> chunkGraph) {
+		for (Set<String> component : new StrongConnectivityInspector<String, DefaultEdge>(chunkGraph).stronglyConnectedSets()) {
+			if (component.size() > 1) {
+				String mergedChunk = new TreeSet<String>(component).first();
+				for (Map.Entry<String, String> entry : classChunks.entrySet()) {
+					if (component.contains(entry.getValue())) {
+						entry.setValue(mergedChunk);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the names of the chunks, in the order they can be loaded
+	 */
+	public Set<String> getChunks() {
+		return Collections.unmodifiableSet(chunkClasses.keySet());
+	}
+
+	/**
+	 * @return the classes of the chunk, in the order they must be loaded
+	 */
+	public List<String> getClasses(String chunk) {
+		return Collections.unmodifiableList(chunkClasses.get(chunk));
+	}
+
+	/**
+	 * @return the chunks that must be loaded before the given chunk
+	 */
+	public Set<String> getDependencies(String chunk) {
+		return Collections.unmodifiableSet(chunkDependencies.get(chunk));
+	}
+
+	/**
+	 * @return the other chunks needed to run the classes of the given chunk, that can be loaded in any order after it
+	 */
+	public Set<String> getRuntimeDependencies(String chunk) {
+		return Collections.unmodifiableSet(chunkRuntimeDependencies.get(chunk));
+	}
+
+	/**
+	 * writes the JSON manifest used by stjs.loadChunk and stjs.loadClass to load the chunks: for each chunk its file, the chunks it
+	 * depends on and its run-time dependencies, and for each class its chunk.
+	 *
+	 * @param chunkFiles
+	 *            the name of the file of each chunk
+	 */
+	public void writeManifest(Writer writer, Map<String, String> chunkFiles) throws IOException {
+		writer.write("{\n  \"chunks\": {");
+		String separator = "\n";
+		for (String chunk : chunkClasses.keySet()) {
+			writer.write(separator + "    " + quote(chunk) + ": {\"file\": " + quote(chunkFiles.get(chunk)) + ", \"dependencies\": ");
+			writeList(writer, chunkDependencies.get(chunk));
+			writer.write(", \"runtimeDependencies\": ");
+			writeList(writer, chunkRuntimeDependencies.get(chunk));
+			writer.write("}");
+			separator = ",\n";
+		}
+		writer.write("\n  },\n  \"classes\": {");
+		separator = "\n";
+		for (Map.Entry<String, List<String>> entry : chunkClasses.entrySet()) {
+			for (String className : entry.getValue()) {
+				writer.write(separator + "    " + quote(className) + ": " + quote(entry.getKey()));
+				separator = ",\n";
+			}
+		}
+		writer.write("\n  }\n}\n");
+	}
+
+	private static void writeList(Writer writer, Collection<String> values) throws IOException {
+		writer.write("[");
+		String separator = "";
+		for (String value : values) {
+			writer.write(separator + quote(value));
+			separator = ", ";
+		}
+		writer.write("]");
+	}
+
+	private static String quote(String s) {
+		return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+}
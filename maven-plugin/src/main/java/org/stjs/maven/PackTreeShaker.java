@@ -0,0 +1,129 @@
+/**
+ * Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.stjs.maven;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.stjs.generator.name.DependencyType;
+
+/**
+ * This class computes the classes of the project that are needed by a set of entry points: the entry points themselves
+ * and, transitively, all the project classes they depend on. The other classes can be left out of the pack file.<br>
+ * The EXTENDS and STATIC dependencies are always followed. The OTHER dependencies (a class used only as the type of a
+ * field or of a variable) are followed only if followTypeReferences is true, as these classes are still needed when
+ * the objects are built by stjs.typefy from JSON.
+ */
+public class PackTreeShaker {
+	private static final String ENTRY_POINT = "entry point";
+
+	private final Map<String, Map<String, DependencyType>> dependencies;
+	private final boolean followTypeReferences;
+
+	private final Map<String, String> keptClasses = new LinkedHashMap<String, String>();
+	private final Map<String, Set<String>> typeReferences = new TreeMap<String, Set<String>>();
+
+	/**
+	 * @param dependencies
+	 *            the direct dependencies of each class of the project
+	 */
+	public PackTreeShaker(Map<String, Map<String, DependencyType>> dependencies, boolean followTypeReferences) {
+		this.dependencies = dependencies;
+		this.followTypeReferences = followTypeReferences;
+	}
+
+	/**
+	 * computes the classes reachable from the given entry points
+	 */
+	public void shake(Collection<String> entryPoints) {
+		Deque<String> toVisit = new ArrayDeque<String>();
+		for (String entryPoint : new TreeSet<String>(entryPoints)) {
+			if (dependencies.containsKey(entryPoint) && !keptClasses.containsKey(entryPoint)) {
+				keptClasses.put(entryPoint, ENTRY_POINT);
+				toVisit.add(entryPoint);
+			}
+		}
+
+		while (!toVisit.isEmpty()) {
+			String className = toVisit.poll();
+			for (Map.Entry<String, DependencyType> dep : new TreeMap<String, DependencyType>(dependencies.get(className)).entrySet()) {
+				String depClassName = dep.getKey();
+				if (!dependencies.containsKey(depClassName) || keptClasses.containsKey(depClassName)) {
+					// not a class of this project or already visited
+					continue;
+				}
+				if (dep.getValue() == DependencyType.OTHER && !followTypeReferences) {
+					addTypeReference(depClassName, className);
+					continue;
+				}
+				keptClasses.put(depClassName, dep.getValue() + " dependency of " + className);
+				toVisit.add(depClassName);
+			}
+		}
+	}
+
+	private void addTypeReference(String className, String referencedBy) {
+		Set<String> references = typeReferences.get(className);
+		if (references == null) {
+			references = new TreeSet<String>();
+			typeReferences.put(className, references);
+		}
+		references.add(referencedBy);
+	}
+
+	public boolean isKept(String className) {
+		return keptClasses.containsKey(className);
+	}
+
+	/**
+	 * @return the classes of the project that are not reachable from the entry points
+	 */
+	public Set<String> getDroppedClasses() {
+		Set<String> dropped = new TreeSet<String>(dependencies.keySet());
+		dropped.removeAll(keptClasses.keySet());
+		return dropped;
+	}
+
+	/**
+	 * writes the list of the kept classes and of the dropped classes, each one with the reason why it was kept or
+	 * dropped.
+	 */
+	public void writeReport(Writer writer) throws IOException {
+		writer.write("Kept classes (" + keptClasses.size() + "):\n");
+		for (Map.Entry<String, String> entry : new TreeMap<String, String>(keptClasses).entrySet()) {
+			writer.write("  " + entry.getKey() + " - " + entry.getValue() + "\n");
+		}
+
+		Set<String> dropped = getDroppedClasses();
+		writer.write("\nDropped classes (" + dropped.size() + "):\n");
+		for (String className : dropped) {
+			writer.write("  " + className + " - " + getDropReason(className) + "\n");
+		}
+	}
+
+	private String getDropReason(String className) {
+		Set<String> references = typeReferences.get(className);
+		if (references != null) {
+			return "used only as a type (OTHER dependency) by " + references;
+		}
+		return "not reachable from any entry point";
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+
+import com.google.common.base.Throwables;
+
+/**
+ * This class walks a source folder once and keeps its Java sources matching the include and exclude patterns, and the packages of all
+ * its Java files. The patterns, including the default excludes, are matched as the plexus DirectoryScanner does. The folders whose whole
+ * content is excluded both from the sources and from the packages (the folders of the version control systems, for example) are not
+ * walked.<br>
+ * A source is stale when its JavaScript file is missing, or when its .stjs file is missing or older than its .class file. The generator
+ * leaves the unchanged JavaScript files untouched, but it always touches the .stjs file, so only this one tells when the class was last
+ * generated. Each check costs a few file system calls, so the checks of the large trees are done in parallel, as they are slow on the
+ * network file systems.
+ */
+public final class SourceTree {
+	private static final String JAVA_SUFFIX = ".java";
+	private static final int PARALLEL_CHECK_THRESHOLD = 256;
+	private static final int CHECK_THREADS = 8;
+
+	private final List<String> sources;
+	private final Set<String> packages;
+
+	private SourceTree(List<String> sources, Set<String> packages) {
+		this.sources = sources;
+		this.packages = packages;
+	}
+
+	/**
+	 * walks the given source folder. Without includes, all the Java sources are included.
+	 */
+	public static SourceTree scan(File sourceDir, Collection<String> includes, Collection<String> excludes) throws IOException {
+		final Set<String> sources = new TreeSet<String>();
+		final Set<String> packages = new HashSet<String>();
+		if (sourceDir == null || !sourceDir.exists()) {
+			return new SourceTree(new ArrayList<String>(sources), packages);
+		}
+
+		final PathFilter sourceFilter = new PathFilter(includes.isEmpty() ? Collections.singleton("**/*") : includes, excludes);
+		final PathFilter packageFilter = new PathFilter(Collections.singleton("**/*" + JAVA_SUFFIX), Collections.<String> emptySet());
+		final Path root = sourceDir.toPath();
+		Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+				if (dir.equals(root)) {
+					return FileVisitResult.CONTINUE;
+				}
+				String path = root.relativize(dir).toString();
+				return packageFilter.rejectsFolder(path) && sourceFilter.rejectsFolder(path) ? FileVisitResult.SKIP_SUBTREE
+						: FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (attrs.isRegularFile() && file.getFileName().toString().endsWith(JAVA_SUFFIX)) {
+					Path relative = root.relativize(file);
+					String path = relative.toString();
+					if (packageFilter.accepts(path)) {
+						// supports classes without packages
+						packages.add(relative.getParent() == null ? "" : relative.getParent().toString().replace(File.separatorChar, '.'));
+					}
+					if (sourceFilter.accepts(path)) {
+						sources.add(path);
+					}
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException exc) {
+				// unreadable files and symbolic link loops are skipped, as the DirectoryScanner does
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return new SourceTree(new ArrayList<String>(sources), packages);
+	}
+
+	/**
+	 * @return the packages of the Java files, whatever the include and exclude patterns
+	 */
+	public Set<String> getPackages() {
+		return Collections.unmodifiableSet(packages);
+	}
+
+	/**
+	 * @return the included sources, relative to the source folder
+	 */
+	public List<File> getSources() {
+		List<File> result = new ArrayList<File>(sources.size());
+		for (String source : sources) {
+			result.add(new File(source));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the included sources, relative to the source folder, whose JavaScript file (in jsFolder) is missing, or whose .stjs file
+	 *         (in classFolder) is missing or older than their .class file (in classFolder) by more than staleMillis
+	 */
+	public List<File> getStaleSources(File jsFolder, File classFolder, int staleMillis) throws IOException {
+		boolean[] stale = new boolean[sources.size()];
+		if (sources.size() < PARALLEL_CHECK_THRESHOLD) {
+			checkStale(stale, 0, sources.size(), jsFolder, classFolder, staleMillis);
+		} else {
+			checkStaleInParallel(stale, jsFolder, classFolder, staleMillis);
+		}
+
+		List<File> result = new ArrayList<File>();
+		for (int i = 0; i < stale.length; ++i) {
+			if (stale[i]) {
+				result.add(new File(sources.get(i)));
+			}
+		}
+		return result;
+	}
+
+	private void checkStaleInParallel(final boolean[] stale, final File jsFolder, final File classFolder, final int staleMillis)
+			throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(CHECK_THREADS);
+		try {
+			List<Future<?>> checks = new ArrayList<Future<?>>();
+			int chunk = (stale.length + CHECK_THREADS - 1) / CHECK_THREADS;
+			for (int start = 0; start < stale.length; start += chunk) {
+				final int from = start;
+				final int to = Math.min(stale.length, start + chunk);
+				checks.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						checkStale(stale, from, to, jsFolder, classFolder, staleMillis);
+					}
+				}));
+			}
+			for (Future<?> check : checks) {
+				check.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while checking the stale sources");
+		}
+		catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private void checkStale(boolean[] stale, int from, int to, File jsFolder, File classFolder, int staleMillis) {
+		for (int i = from; i < to; ++i) {
+			String source = sources.get(i);
+			String base = source.substring(0, source.length() - JAVA_SUFFIX.length());
+			File classFile = new File(classFolder, base + ".class");
+			stale[i] = !new File(jsFolder, base + ".js").exists() || isStale(new File(classFolder, base + ".stjs"), classFile, staleMillis);
+		}
+	}
+
+	private static boolean isStale(File targetFile, File classFile, int staleMillis) {
+		// lastModified returns 0 for a missing file, which saves a call to exists()
+		long targetModified = targetFile.lastModified();
+		return targetModified == 0 || targetModified + staleMillis < classFile.lastModified();
+	}
+
+	/**
+	 * the matching of the include and exclude patterns of the DirectoryScanner, without its walk of the folders
+	 */
+	private static final class PathFilter extends DirectoryScanner {
+		private static final String ANY_PATH = "**";
+
+		PathFilter(Collection<String> includes, Collection<String> excludes) {
+			setIncludes(includes.toArray(new String[includes.size()]));
+			setExcludes(excludes.toArray(new String[excludes.size()]));
+			addDefaultExcludes();
+		}
+
+		boolean accepts(String path) {
+			return isIncluded(path) && !isExcluded(path);
+		}
+
+		/**
+		 * @return true if no file of the given folder can be accepted: either no include pattern can match them, or an exclude pattern
+		 *         ending with "**" matches the folder itself, so it matches everything in it
+		 */
+		boolean rejectsFolder(String folder) {
+			if (!couldHoldIncluded(folder)) {
+				return true;
+			}
+			for (String exclude : excludes) {
+				if (exclude.equals(ANY_PATH)) {
+					return true;
+				}
+				if (exclude.endsWith(File.separator + ANY_PATH)
+						&& matchPath(exclude.substring(0, exclude.length() - ANY_PATH.length() - 1), folder, isCaseSensitive)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package org.stjs.maven;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.stjs.maven.GeneratorCache.ModuleClasspath;
+
+public class GeneratorCacheTest {
+	private static final String RESOURCE = "resource.txt";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void writeJar(File jar, String content) throws IOException {
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			out.putNextEntry(new ZipEntry(RESOURCE));
+			out.write(content.getBytes("UTF-8"));
+			out.closeEntry();
+		}
+	}
+
+	private static ModuleClasspath getModuleClasspath(File jar, File classes) throws IOException {
+		List<String> classpath = Arrays.asList(classes.getPath(), jar.getPath());
+		return GeneratorCache.getModuleClasspath(classpath, Collections.<File> emptyList(), null);
+	}
+
+	@Test
+	public void testSharedClassLoaderIsReused() throws IOException {
+		File jar = folder.newFile("lib.jar");
+		writeJar(jar, "a");
+		File classes = folder.newFolder("classes");
+
+		try (ModuleClasspath first = getModuleClasspath(jar, classes); ModuleClasspath second = getModuleClasspath(jar, classes)) {
+			assertSame(first.getClassLoader().getParent(), second.getClassLoader().getParent());
+			assertNotNull(second.getClassLoader().getResource(RESOURCE));
+		}
+	}
+
+	@Test
+	public void testSharedClassLoaderOfRebuiltJarIsClosed() throws IOException {
+		File jar = folder.newFile("lib.jar");
+		writeJar(jar, "a");
+		File classes = folder.newFolder("classes");
+		ClassLoader previous;
+		try (ModuleClasspath first = getModuleClasspath(jar, classes)) {
+			previous = first.getClassLoader().getParent();
+			assertNotNull(previous.getResource(RESOURCE));
+		}
+
+		writeJar(jar, "rebuilt");
+		assertTrue(jar.setLastModified(jar.lastModified() + 5000));
+		try (ModuleClasspath second = getModuleClasspath(jar, classes)) {
+			assertTrue(previous != second.getClassLoader().getParent());
+			assertNotNull(second.getClassLoader().getResource(RESOURCE));
+		}
+		// a closed class loader finds no resources anymore
+		assertNull(previous.getResource(RESOURCE));
+	}
+}
@@ -0,0 +1,147 @@
+package org.stjs.maven;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+public class PackAssetsTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = folder.newFolder("classes");
+	}
+
+	private PackAssets newAssets() {
+		return new PackAssets(dir, true, 1, true);
+	}
+
+	private static void write(PackAssets assets, File file, String content) throws IOException {
+		OutputStream out = assets.open(file);
+		try {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private static String read(File file) throws IOException {
+		return Files.toString(file, StandardCharsets.UTF_8);
+	}
+
+	private static String gunzip(File file) throws IOException {
+		InputStream in = new GZIPInputStream(new FileInputStream(file));
+		try {
+			return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	@Test
+	public void testVariantsOfWrittenFile() throws IOException {
+		PackAssets assets = newAssets();
+		write(assets, new File(dir, "pack.js"), "var a = 1;");
+
+		String hashedName = assets.getFileName("pack.js");
+		assertTrue(hashedName, hashedName.matches("pack\\.[0-9a-f]{10}\\.js"));
+		assertEquals("var a = 1;", read(new File(dir, "pack.js")));
+		assertEquals("var a = 1;", gunzip(new File(dir, "pack.js.gz")));
+		assertEquals("var a = 1;", read(new File(dir, hashedName)));
+		assertEquals("var a = 1;", gunzip(new File(dir, hashedName + ".gz")));
+		// no temporary file is left
+		String[] files = dir.list();
+		Arrays.sort(files);
+		assertArrayEquals(new String[] { hashedName, hashedName + ".gz", "pack.js", "pack.js.gz" }, files);
+	}
+
+	@Test
+	public void testObsoleteCopiesRemoved() throws IOException {
+		PackAssets assets = newAssets();
+		write(assets, new File(dir, "pack.js"), "var a = 1;");
+		write(assets, new File(dir, "pack-other.js"), "var b = 1;");
+		String oldName = assets.getFileName("pack.js");
+		String otherName = assets.getFileName("pack-other.js");
+
+		assets = newAssets();
+		write(assets, new File(dir, "pack.js"), "var a = 2;");
+		String newName = assets.getFileName("pack.js");
+
+		assertFalse(newName.equals(oldName));
+		assertFalse(new File(dir, oldName).exists());
+		assertFalse(new File(dir, oldName + ".gz").exists());
+		assertEquals("var a = 2;", read(new File(dir, newName)));
+		assertEquals("var a = 2;", gunzip(new File(dir, newName + ".gz")));
+		// the copies of the other files are kept
+		assertTrue(new File(dir, otherName).exists());
+	}
+
+	@Test
+	public void testUnchangedFileKeepsItsCopy() throws IOException {
+		write(newAssets(), new File(dir, "pack.js"), "var a = 1;");
+		PackAssets assets = newAssets();
+		write(assets, new File(dir, "pack.js"), "var a = 1;");
+
+		assertEquals("var a = 1;", read(new File(dir, assets.getFileName("pack.js"))));
+		assertEquals(4, dir.list().length);
+	}
+
+	@Test
+	public void testHashedCopyRefersToHashedSourceMap() throws IOException {
+		File pkg = new File(dir, "org/example");
+		assertTrue(pkg.mkdirs());
+		File map = new File(pkg, "A.map");
+		Files.write("{\"version\": 3}", map, StandardCharsets.UTF_8);
+		File js = new File(pkg, "A.js");
+		String content = "var A = function(){};\n//# sourceMappingURL=A.map\n";
+		Files.write(content, js, StandardCharsets.UTF_8);
+
+		PackAssets assets = newAssets();
+		assets.add(map);
+		assets.add(js);
+
+		String hashedMap = assets.getFileName("org/example/A.map");
+		assertTrue(hashedMap, hashedMap.matches("org/example/A\\.[0-9a-f]{10}\\.map"));
+		String hashedContent = "var A = function(){};\n//# sourceMappingURL=" + hashedMap.substring("org/example/".length()) + "\n";
+		assertEquals(hashedContent, read(new File(dir, assets.getFileName("org/example/A.js"))));
+		assertEquals(hashedContent, gunzip(new File(dir, assets.getFileName("org/example/A.js") + ".gz")));
+		// the file itself is left unchanged
+		assertEquals(content, read(js));
+		assertEquals(content, gunzip(new File(pkg, "A.js.gz")));
+	}
+
+	@Test
+	public void testManifestEscapesNames() throws IOException {
+		PackAssets assets = new PackAssets(dir, false, 1, true);
+		write(assets, new File(dir, "a\"b.js"), "var a = 1;");
+		File manifest = new File(dir, "assets.json");
+		assets.writeManifest(manifest);
+
+		String json = read(manifest);
+		assertTrue(json, json.matches("(?s)\\{\n  \"a\\\\\"b\\.js\": \\{\"file\": \"a\\\\\"b\\.[0-9a-f]{10}\\.js\", \"size\": 10, "
+				+ "\"sha256\": \"[0-9a-f]{64}\"\\}\n\\}\n"));
+	}
+}
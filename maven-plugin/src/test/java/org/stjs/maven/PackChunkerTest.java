@@ -0,0 +1,84 @@
+package org.stjs.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.stjs.generator.name.DependencyType;
+
+public class PackChunkerTest {
+	private final Map<String, Map<String, DependencyType>> dependencies = new LinkedHashMap<String, Map<String, DependencyType>>();
+
+	private void addClass(String className, Object... deps) {
+		Map<String, DependencyType> classDeps = new HashMap<String, DependencyType>();
+		for (int i = 0; i < deps.length; i += 2) {
+			classDeps.put((String) deps[i], (DependencyType) deps[i + 1]);
+		}
+		dependencies.put(className, classDeps);
+	}
+
+	private PackChunker split() {
+		PackChunker chunker = new PackChunker(dependencies, Collections.<String> emptyList());
+		chunker.split(Arrays.asList("p.model.Model", "p.util.Util", "p.dto.Dto", "p.ui.View", "p.ui.Dialog"));
+		return chunker;
+	}
+
+	private void addClasses() {
+		addClass("p.model.Model");
+		addClass("p.util.Util");
+		addClass("p.dto.Dto", "p.util.Util", DependencyType.STATIC, "p.ui.Dialog", DependencyType.OTHER);
+		// View creates a Model and declares a variable of type Dto in the body of its method
+		addClass("p.ui.View", "p.model.Model", DependencyType.STATIC, "p.dto.Dto", DependencyType.OTHER);
+		addClass("p.ui.Dialog", "p.ui.View", DependencyType.EXTENDS);
+	}
+
+	@Test
+	public void testLoadDependencies() {
+		addClasses();
+		PackChunker chunker = split();
+
+		assertEquals(new TreeSet<String>(Arrays.asList("p.model", "p.util", "p.dto", "p.ui")), new TreeSet<String>(chunker.getChunks()));
+		assertEquals(Collections.singleton("p.model"), chunker.getDependencies("p.ui"));
+		assertEquals(Collections.singleton("p.util"), chunker.getDependencies("p.dto"));
+		assertEquals(Arrays.asList("p.ui.View", "p.ui.Dialog"), chunker.getClasses("p.ui"));
+	}
+
+	@Test
+	public void testRuntimeDependencies() {
+		addClasses();
+		PackChunker chunker = split();
+
+		// the chunks needed only at run time form a cycle, that is not merged, and the ones reached through them are needed too
+		assertEquals(new TreeSet<String>(Arrays.asList("p.dto", "p.util")), chunker.getRuntimeDependencies("p.ui"));
+		assertEquals(new TreeSet<String>(Arrays.asList("p.model", "p.ui")), chunker.getRuntimeDependencies("p.dto"));
+		assertEquals(Collections.emptySet(), chunker.getRuntimeDependencies("p.model"));
+	}
+
+	@Test
+	public void testManifest() throws IOException {
+		addClasses();
+		PackChunker chunker = split();
+		Map<String, String> chunkFiles = new HashMap<String, String>();
+		for (String chunk : chunker.getChunks()) {
+			chunkFiles.put(chunk, chunk + ".js");
+		}
+
+		StringWriter writer = new StringWriter();
+		chunker.writeManifest(writer, chunkFiles);
+		String manifest = writer.toString();
+
+		assertTrue(manifest, manifest.contains("\"p.ui\": {\"file\": \"p.ui.js\", \"dependencies\": [\"p.model\"], "
+				+ "\"runtimeDependencies\": [\"p.dto\", \"p.util\"]}"));
+		assertTrue(manifest, manifest.contains("\"p.model\": {\"file\": \"p.model.js\", \"dependencies\": [], \"runtimeDependencies\": []}"));
+		assertTrue(manifest, manifest.contains("\"p.ui.Dialog\": \"p.ui\""));
+	}
+}
@@ -0,0 +1,197 @@
+package org.stjs.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+public class SourceTreeTest {
+	private static final int STALE_MILLIS = 1000;
+	private static final long NOW = System.currentTimeMillis() / 1000 * 1000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File sourceDir;
+	private File jsDir;
+	private File classDir;
+
+	@Before
+	public void setUp() throws IOException {
+		sourceDir = folder.newFolder("src");
+		jsDir = folder.newFolder("js");
+		classDir = folder.newFolder("classes");
+	}
+
+	private static File touch(File parent, String path, long lastModified) throws IOException {
+		File file = new File(parent, path);
+		Files.createParentDirs(file);
+		Files.touch(file);
+		assertTrue(file.setLastModified(lastModified));
+		return file;
+	}
+
+	private void source(String path) throws IOException {
+		touch(sourceDir, path, NOW);
+	}
+
+	/**
+	 * writes the files of a generated class: its .class, .stjs and .js files, with the given modification times. A negative time leaves the
+	 * file out.
+	 */
+	private void generated(String base, long classModified, long stjsModified, long jsModified) throws IOException {
+		if (classModified >= 0) {
+			touch(classDir, base + ".class", classModified);
+		}
+		if (stjsModified >= 0) {
+			touch(classDir, base + ".stjs", stjsModified);
+		}
+		if (jsModified >= 0) {
+			touch(jsDir, base + ".js", jsModified);
+		}
+	}
+
+	private static List<File> files(String... paths) {
+		List<File> files = new ArrayList<File>();
+		for (String path : paths) {
+			files.add(new File(path));
+		}
+		return files;
+	}
+
+	private static Collection<String> patterns(String... patterns) {
+		return Arrays.asList(patterns);
+	}
+
+	@Test
+	public void testAllJavaSourcesWithoutIncludes() throws IOException {
+		source("a/A.java");
+		source("a/b/B.java");
+		source("a/readme.txt");
+
+		SourceTree tree = SourceTree.scan(sourceDir, patterns(), patterns());
+
+		assertEquals(files("a/A.java", "a/b/B.java"), tree.getSources());
+		assertEquals(new HashSet<String>(Arrays.asList("a", "a.b")), tree.getPackages());
+	}
+
+	@Test
+	public void testIncludesAndExcludes() throws IOException {
+		source("a/A.java");
+		source("a/Skipped.java");
+		source("a/b/B.java");
+		source("c/C.java");
+
+		SourceTree tree = SourceTree.scan(sourceDir, patterns("a/**"), patterns("**/Skipped.java"));
+
+		assertEquals(files("a/A.java", "a/b/B.java"), tree.getSources());
+		// the packages do not depend on the patterns
+		assertEquals(new HashSet<String>(Arrays.asList("a", "a.b", "c")), tree.getPackages());
+	}
+
+	@Test
+	public void testDefaultExcludes() throws IOException {
+		source("a/A.java");
+		source("a/.svn/A.java");
+
+		SourceTree tree = SourceTree.scan(sourceDir, patterns(), patterns());
+
+		assertEquals(files("a/A.java"), tree.getSources());
+		assertEquals(Collections.singleton("a"), tree.getPackages());
+	}
+
+	@Test
+	public void testExcludedFolders() throws IOException {
+		source("a/A.java");
+		source("a/server/S.java");
+		source("a/server/impl/I.java");
+		source(".git/objects/G.java");
+
+		SourceTree tree = SourceTree.scan(sourceDir, patterns(), patterns("**/server/**"));
+
+		assertEquals(files("a/A.java"), tree.getSources());
+		// the folders excluded from the sources are still walked for their packages, unlike the default excludes
+		assertEquals(new HashSet<String>(Arrays.asList("a", "a.server", "a.server.impl")), tree.getPackages());
+	}
+
+	@Test
+	public void testDefaultPackage() throws IOException {
+		source("Root.java");
+		source("a/A.java");
+		generated("a/A", NOW, NOW, NOW);
+
+		SourceTree tree = SourceTree.scan(sourceDir, patterns(), patterns());
+
+		assertEquals(files("Root.java", "a/A.java"), tree.getSources());
+		assertEquals(new HashSet<String>(Arrays.asList("", "a")), tree.getPackages());
+		assertEquals(files("Root.java"), tree.getStaleSources(jsDir, classDir, STALE_MILLIS));
+
+		generated("Root", NOW, NOW, NOW);
+		assertEquals(files(), tree.getStaleSources(jsDir, classDir, STALE_MILLIS));
+	}
+
+	@Test
+	public void testMissingSourceFolder() throws IOException {
+		SourceTree tree = SourceTree.scan(new File(folder.getRoot(), "missing"), patterns(), patterns());
+
+		assertEquals(files(), tree.getSources());
+		assertEquals(Collections.emptySet(), tree.getPackages());
+	}
+
+	@Test
+	public void testStaleSources() throws IOException {
+		source("a/UpToDate.java");
+		generated("a/UpToDate", NOW, NOW, NOW);
+		// only the .stjs file tells when the class was generated, as an unchanged .js file is not rewritten
+		source("a/UnchangedJs.java");
+		generated("a/UnchangedJs", NOW, NOW, NOW - 10 * STALE_MILLIS);
+		source("a/WithinStaleMillis.java");
+		generated("a/WithinStaleMillis", NOW, NOW - STALE_MILLIS / 2, NOW);
+		source("a/Recompiled.java");
+		generated("a/Recompiled", NOW, NOW - 2 * STALE_MILLIS, NOW);
+		source("a/MissingJs.java");
+		generated("a/MissingJs", NOW, NOW, -1);
+		source("a/MissingStjs.java");
+		generated("a/MissingStjs", NOW, -1, NOW);
+		source("a/NotCompiled.java");
+
+		SourceTree tree = SourceTree.scan(sourceDir, patterns(), patterns());
+
+		assertEquals(files("a/MissingJs.java", "a/MissingStjs.java", "a/NotCompiled.java", "a/Recompiled.java"),
+				tree.getStaleSources(jsDir, classDir, STALE_MILLIS));
+	}
+
+	@Test
+	public void testStaleSourcesOfLargeTree() throws IOException {
+		List<File> expected = new ArrayList<File>();
+		for (int i = 0; i < 300; ++i) {
+			String base = String.format("p%d/C%03d", i % 7, i);
+			source(base + ".java");
+			if (i % 3 == 0) {
+				generated(base, NOW, NOW - 2 * STALE_MILLIS, NOW);
+				expected.add(new File(base + ".java"));
+			} else {
+				generated(base, NOW, NOW, NOW);
+			}
+		}
+
+		List<File> stale = SourceTree.scan(sourceDir, patterns(), patterns()).getStaleSources(jsDir, classDir, STALE_MILLIS);
+
+		assertEquals(new HashSet<File>(expected), new HashSet<File>(stale));
+		assertEquals(expected.size(), stale.size());
+	}
+}
@@ -487,7 +487,7 @@ public class Array<V> implements Iterable<String> {
 			// truncating the array
 			long newSetElements = 0;
 			if (newLength > 0) {
-				newSetElements = this.setElements - this.array.getSetElements(newLength - 1, this.length);
+				newSetElements = this.setElements - this.array.getSetElements(newLength, this.length);
 			}
 			this.switchStoreIfNeeded(newLength, newSetElements);
 			this.array.truncateFrom(newLength);
@@ -862,7 +862,7 @@ public class Array<V> implements Iterable<String> {
 
 		long newLength = this.length - actualDeleteCount + values.length;
 		long newSetElements = this.setElements + values.length
-				- this.array.getSetElements(actualStart, actualStart + deleteCount);
+				- this.array.getSetElements(actualStart, actualStart + actualDeleteCount);
 
 		this.switchStoreIfNeeded(newLength, newSetElements);
 
@@ -1849,17 +1849,12 @@ public class Array<V> implements Iterable<String> {
 		Array<E> slice(long fromIncluded, long toExcluded) {
 			Array<E> result = new Array<E>();
 
-			Long firstKey = this.elements.ceilingKey(fromIncluded);
-			Long lastKey = this.elements.lowerKey(toExcluded);
-
-			if (firstKey != null && lastKey != null) {
-				// only add stuff to the array if the selected range actually contains something
-				// if we don't have a key that is higher than fromIncluded, it means the slice is empty
-				// if we don't have a key that is smaller than toExcluded, it means the slice is empty
-				java.util.Map<Long, E> selected = this.elements.subMap(firstKey, lastKey);
+			if (fromIncluded < toExcluded) {
+				// only add stuff to the array if the selected range is not empty
+				java.util.Map<Long, E> selected = this.elements.subMap(fromIncluded, toExcluded);
 
 				for (java.util.Map.Entry<Long, E> entry : selected.entrySet()) {
-					result.$set(entry.getKey(), entry.getValue());
+					result.$set(entry.getKey() - fromIncluded, entry.getValue());
 				}
 			}
 
@@ -1970,15 +1965,11 @@ public class Array<V> implements Iterable<String> {
 
 		@Override
 		long getSetElements(long firstIncluded, long lastExcluded) {
-			Long actualFirstIncluded = this.elements.ceilingKey(firstIncluded);
-			Long actualLastExcluded = this.elements.lowerKey(lastExcluded);
-			if (actualFirstIncluded == null || actualLastExcluded == null) {
-				// there are no keys greater than first included OR
-				// there are no keys smaller than last included
-				// => the corresponding submap would be empty
+			if (firstIncluded >= lastExcluded) {
+				// the corresponding submap would be empty
 				return 0;
 			}
-			return this.elements.subMap(actualFirstIncluded, actualLastExcluded).size();
+			return this.elements.subMap(firstIncluded, lastExcluded).size();
 		}
 
 		@Override
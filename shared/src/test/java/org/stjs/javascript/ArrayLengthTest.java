@@ -3,6 +3,8 @@ package org.stjs.javascript;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class ArrayLengthTest {
@@ -39,4 +41,25 @@ public class ArrayLengthTest {
 		assertNull(x.$get(1002));
 	}
 
+	@Test
+	public void testLength03() {
+		// the truncated packed store has no hole
+		Array<Integer> x = new Array<Integer>(0, 1, 2, 3, 4, 5);
+
+		x.$length(2);
+
+		assertEquals(Arrays.asList(0, 1), x.toList());
+	}
+
+	@Test
+	public void testLength04() {
+		// the sparse store truncated to its packed elements has no hole
+		Array<Integer> x = new Array<Integer>(0, 1, 2, 3, 4, 5);
+		x.$set(1000, 1000);
+
+		x.$length(6);
+
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), x.toList());
+	}
+
 }
@@ -239,4 +239,18 @@ public class ArraySliceTest {
 		assertEquals(4, arr.$get(1).intValue());
 		assertEquals(null, arr.$get(2));
 	}
+
+	@Test
+	public void testSlice21() {
+		// slice of a sparse store
+		Array<Integer> x = $array(0, 1, 2, 3, 4);
+		x.$set(1000, 1000);
+		Array<Integer> arr = x.slice(2, 1001);
+
+		assertEquals(999, arr.$length());
+		assertEquals(2, arr.$get(0).intValue());
+		assertEquals(4, arr.$get(2).intValue());
+		assertEquals(null, arr.$get(3));
+		assertEquals(1000, arr.$get(998).intValue());
+	}
 }
@@ -1,8 +1,11 @@
 package org.stjs.javascript;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.stjs.javascript.JSCollections.$array;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 // ============================================
@@ -47,6 +50,36 @@ public class ArraySpliceTest {
 		assertArrayEquals($array(0, 4, 5), x);
 	}
 
+	@Test
+	public void testSplice23() {
+		// remove a hole of a sparse store, then insert an element in its place
+		Array<Integer> x = new Array<Integer>();
+		for (int i = 0; i < 100; i++) {
+			x.$set(i * 10, i);
+		}
+		Array<Integer> arr = x.splice(495, 1);
+		x.splice(495, 0, 1000);
+
+		assertEquals(1, arr.$length());
+		assertNull(arr.$get(0));
+		assertEquals(991, x.$length());
+		assertEquals(1000, x.$get(495).intValue());
+		assertEquals(50, x.$get(500).intValue());
+	}
+
+	@Test
+	public void testSplice24() {
+		// remove the elements of a sparse store, then insert them back
+		Array<Integer> x = $array(0, 1, 2, 3);
+		x.$set(1000, 1000);
+		Array<Integer> arr = x.splice(1, 2);
+		x.splice(1, 0, 1, 2);
+		x.$length(4);
+
+		assertArrayEquals($array(1, 2), arr);
+		assertEquals(Arrays.asList(0, 1, 2, 3), x.toList());
+	}
+
 	@Test
 	public void testSplice05() {
 		Array<Integer> x = $array(0, 1, 2, 3);
@@ -30,6 +30,7 @@ import java.util.Properties;
 import org.stjs.generator.ClassResolver;
 import org.stjs.generator.DefaultClassResolver;
 import org.stjs.generator.DependencyCollector;
+import org.stjs.generator.executor.RhinoScriptCache;
 import org.stjs.testing.driver.browser.Browser;
 import org.stjs.testing.driver.browser.ChromeBrowser;
 import org.stjs.testing.driver.browser.DesktopDefaultBrowser;
@@ -60,6 +61,14 @@ public class DriverConfiguration {
 	private static final String PROP_TEST_TIMEOUT = "stjs.test.testTimeout";
 	private static final String PROP_DEBUG = "stjs.test.debug";
 	private static final String PROP_DEBUG_JAVA_SCRIPT = "stjs.test.debugJavaScript";
+	private static final String PROP_TEST_DISTRIBUTION = "stjs.test.distribution";
+	private static final String PROP_RESOURCE_CACHE_SIZE = "stjs.test.resourceCacheSize";
+	private static final String PROP_GZIP_RESOURCES = "stjs.test.gzipResources";
+	private static final String PROP_BATCH_TESTS = "stjs.test.batch";
+	private static final String PROP_RHINO_OPTIMIZATION_LEVEL = "stjs.test.rhino.optimizationLevel";
+
+	private static final String DISTRIBUTION_ALL = "all";
+	private static final String DISTRIBUTION_SHARD = "shard";
 
 	private int port = 8055;
 	private int waitForBrowser = 10;
@@ -68,6 +77,11 @@ public class DriverConfiguration {
 	private int testTimeout = 2;
 	private boolean debugEnabled = false;
 	private boolean debugJavaScript = false;
+	private boolean shardTests = false;
+	private int resourceCacheSize = 64;
+	private boolean gzipResources = false;
+	private boolean batchTests = false;
+	private int rhinoOptimizationLevel = RhinoScriptCache.DEFAULT_OPTIMIZATION_LEVEL;
 	private List<Browser> browsers;
 
 	private final ClassLoader classLoader;
@@ -122,10 +136,32 @@ public class DriverConfiguration {
 		} else {
 			debugJavaScript = isJavaDebuggerAttached();
 		}
+		if (props.get(PROP_TEST_DISTRIBUTION) != null) {
+			String distribution = props.getProperty(PROP_TEST_DISTRIBUTION).trim();
+			if (DISTRIBUTION_SHARD.equals(distribution)) {
+				shardTests = true;
+			} else if (!DISTRIBUTION_ALL.equals(distribution)) {
+				System.out.println("Unknown value \"" + distribution + "\" for " + PROP_TEST_DISTRIBUTION + ", expected "
+						+ DISTRIBUTION_ALL + " or " + DISTRIBUTION_SHARD + ". Each test will run on all the browsers");
+			}
+		}
+
+		if (props.get(PROP_RESOURCE_CACHE_SIZE) != null) {
+			resourceCacheSize = Integer.parseInt(props.getProperty(PROP_RESOURCE_CACHE_SIZE));
+		}
+		if (props.get(PROP_GZIP_RESOURCES) != null) {
+			gzipResources = Boolean.parseBoolean(props.getProperty(PROP_GZIP_RESOURCES));
+		}
+		if (props.get(PROP_BATCH_TESTS) != null) {
+			batchTests = Boolean.parseBoolean(props.getProperty(PROP_BATCH_TESTS));
+		}
+		if (props.get(PROP_RHINO_OPTIMIZATION_LEVEL) != null) {
+			rhinoOptimizationLevel = Integer.parseInt(props.getProperty(PROP_RHINO_OPTIMIZATION_LEVEL).trim());
+		}
 
 		classLoader = new WebAppClassLoader(new URL[] {}, klass.getClassLoader(), debugEnabled);
 		stjsClassResolver = new DefaultClassResolver(classLoader);
-		resourceResolver = new TestResourceResolver(classLoader);
+		resourceResolver = new TestResourceResolver(classLoader, resourceCacheSize * 1024L * 1024L);
 		dependencyCollector = new DependencyCollector();
 
 		// load browsers last
@@ -228,6 +264,56 @@ public class DriverConfiguration {
 		this.debugJavaScript = debugJavaScript;
 	}
 
+	/**
+	 * @return true if each test must be executed by only one browser (the first idle one), false if each test must be
+	 *         executed by all the configured browsers.
+	 */
+	public boolean isShardTests() {
+		return shardTests;
+	}
+
+	public void setShardTests(boolean shardTests) {
+		this.shardTests = shardTests;
+	}
+
+	/**
+	 * @return the maximum size, in megabytes, of the static resources kept in memory by the HTTP server
+	 */
+	public int getResourceCacheSize() {
+		return resourceCacheSize;
+	}
+
+	/**
+	 * @return true if the HTTP server sends the static resources gzipped to the browsers that accept it
+	 */
+	public boolean isGzipResources() {
+		return gzipResources;
+	}
+
+	public void setGzipResources(boolean gzipResources) {
+		this.gzipResources = gzipResources;
+	}
+
+	/**
+	 * @return true if all the test methods of a class are sent to the browser in a single page, instead of one page per
+	 *         test method. Batching is not used when debugging the JavaScript code, as each test has its own start button.
+	 */
+	public boolean isBatchTests() {
+		return batchTests && !debugJavaScript;
+	}
+
+	public void setBatchTests(boolean batchTests) {
+		this.batchTests = batchTests;
+	}
+
+	/**
+	 * @return the optimization level used by the Rhino browsers to compile env.rhino.js and the test pages: -1 interprets
+	 *         the scripts, 0 to 9 compile them to bytecode.
+	 */
+	public int getRhinoOptimizationLevel() {
+		return rhinoOptimizationLevel;
+	}
+
 	public ClassLoader getClassLoader() {
 		return classLoader;
 	}
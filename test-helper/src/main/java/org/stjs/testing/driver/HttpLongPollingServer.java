@@ -9,9 +9,10 @@ import java.net.URLDecoder;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -25,6 +26,7 @@ import org.junit.runners.model.InitializationError;
 import org.stjs.testing.driver.browser.LongPollingBrowser;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -40,11 +42,20 @@ public class HttpLongPollingServer implements AsyncProcess {
 	public static final String NEXT_TEST_URI = "/getNextTest";
 	public static final String BLANK_URI = "/about:blank";
 
+	private static final ThreadLocal<DateFormat> HTTP_DATE_FORMATS = new ThreadLocal<DateFormat>() {
+		@Override
+		protected DateFormat initialValue() {
+			DateFormat df = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.ENGLISH);
+			df.setTimeZone(TimeZone.getTimeZone("GMT"));
+			return df;
+		}
+	};
+
 	private final DriverConfiguration config;
 	private final HttpServer httpServer;
 	private final Map<Long, LongPollingBrowser> browsers = new ConcurrentHashMap<Long, LongPollingBrowser>();
 	private final Map<Long, Long> selfAssignedBrowserIds = new ConcurrentHashMap<Long, Long>();
-	private final Set<String> notFound = new HashSet<String>();
+	private final Set<String> notFound = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
 	/**
 	 * Configures and starts the HTTP server
@@ -126,6 +137,10 @@ public class HttpLongPollingServer implements AsyncProcess {
 
 				// now really handle the request
 				Map<String, String> params = parseQueryString(exchange.getRequestURI().getRawQuery());
+				if (exchange.getRequestMethod().equals("POST")) {
+					// the results of the big batches are posted, as they do not fit in a URL
+					params.putAll(parseQueryString(new String(ByteStreams.toByteArray(exchange.getRequestBody()), Charsets.UTF_8)));
+				}
 				String path = exchange.getRequestURI().getPath();
 				if (NEXT_TEST_URI.equals(path)) {
 					handleNextTest(params, exchange, dryRun);
@@ -182,8 +197,16 @@ public class HttpLongPollingServer implements AsyncProcess {
 				// the MultiTestMethod, the JUnit thread will become unblocked and the test result
 				// will be reported
 				if (!dryRun) {
-					TestResult result = browser.buildResult(params, exchange);
-					completedMethod.notifyExecutionResult(result);
+					if (completedMethod.isBatch()) {
+						List<MultiTestMethod> batch = completedMethod.getBatch();
+						List<TestResult> results = browser.buildBatchResults(params, exchange, batch.size());
+						for (int i = 0; i < batch.size(); ++i) {
+							batch.get(i).notifyExecutionResult(results.get(i));
+						}
+					} else {
+						TestResult result = browser.buildResult(params, exchange);
+						completedMethod.notifyExecutionResult(result);
+					}
 				}
 			} else {
 				if (config.isDebugEnabled()) {
@@ -247,7 +270,11 @@ public class HttpLongPollingServer implements AsyncProcess {
 			throw new RuntimeException("More browser connections than configured browsers");
 		}
 
-		private synchronized void handleResource(String path, HttpExchange exchange) throws IOException, URISyntaxException {
+		/**
+		 * Serves a static resource. This method is called concurrently by all the server threads: the content of the resources is kept in
+		 * memory by the {@link TestResource} itself, so that most of the requests are served without touching the class path.
+		 */
+		private void handleResource(String path, HttpExchange exchange) throws IOException, URISyntaxException {
 			if (notFound.contains(path)) {
 				exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
 				return;
@@ -258,24 +285,66 @@ public class HttpLongPollingServer implements AsyncProcess {
 				exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
 			}
 
-			String ifModifiedSinceHeader = exchange.getRequestHeaders().getFirst("If-Modified-Since");
-			Date ifModifiedSince = parseDateHeader(ifModifiedSinceHeader);
-
 			// XXX: legacy fix
 			String cleanPath = path.replaceFirst("file:/+target", "target");
 
 			TestResource resource = config.getResource(cleanPath);
+			if (!resource.exists()) {
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+				notFound.add(path);
+				System.err.println(resource + " was not found in classpath");
+				return;
+			}
+
+			TestResource.Content content = resource.getContent();
+			if (content == null) {
+				// too large to be kept in memory
+				streamResource(resource, exchange);
+				return;
+			}
+
+			exchange.getResponseHeaders().add("Last-Modified", content.getLastModifiedHeader());
+			exchange.getResponseHeaders().add("ETag", content.getEtag());
+			if (isNotModified(exchange, content.getEtag(), content.getLastModified())) {
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+				return;
+			}
+
+			byte[] body = content.getBytes();
+			if (config.isGzipResources() && acceptsGzip(exchange)) {
+				exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+				exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+				body = content.getGzippedBytes();
+			}
+			exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.getResponseBody().flush();
+		}
+
+		private void streamResource(TestResource resource, HttpExchange exchange) throws IOException {
 			Date lastModified = resource.getModifiedDate();
 			exchange.getResponseHeaders().add("Last-Modified", formatDateHeader(lastModified));
 
-			if (ifModifiedSince != null && !lastModified.after(ifModifiedSince)) {
+			if (isNotModified(exchange, null, lastModified.getTime())) {
 				exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
 				return;
 			}
-			if (!resource.copyTo(exchange)) {
-				notFound.add(path);
-				System.err.println(resource + " was not found in classpath");
+			resource.copyTo(exchange);
+		}
+
+		private boolean isNotModified(HttpExchange exchange, String etag, long lastModified) {
+			String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+			if (ifNoneMatch != null && etag != null) {
+				return ifNoneMatch.contains(etag);
 			}
+			Date ifModifiedSince = parseDateHeader(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+			// the HTTP dates have a precision of one second
+			return ifModifiedSince != null && lastModified / 1000 <= ifModifiedSince.getTime() / 1000;
+		}
+
+		private boolean acceptsGzip(HttpExchange exchange) {
+			String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+			return acceptEncoding != null && acceptEncoding.contains("gzip");
 		}
 
 		private Map<String, String> parseQueryString(String query) {
@@ -303,9 +372,8 @@ public class HttpLongPollingServer implements AsyncProcess {
 			if (header == null) {
 				return null;
 			}
-			DateFormat df = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.ENGLISH);
 			try {
-				return df.parse(header);
+				return HTTP_DATE_FORMATS.get().parse(header);
 			}
 			catch (ParseException e) {
 				System.err.println("Cannot parse date header:" + e);
@@ -313,12 +381,6 @@ public class HttpLongPollingServer implements AsyncProcess {
 			}
 		}
 
-		private String formatDateHeader(Date date) {
-			DateFormat df = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.ENGLISH);
-			df.setTimeZone(TimeZone.getTimeZone("GMT"));
-			return df.format(date);
-		}
-
 		private long parseLong(String s, long defaultValue) {
 			if (s == null) {
 				return defaultValue;
@@ -332,6 +394,10 @@ public class HttpLongPollingServer implements AsyncProcess {
 		}
 	}
 
+	static String formatDateHeader(Date date) {
+		return HTTP_DATE_FORMATS.get().format(date);
+	}
+
 	@Override
 	public void stop() {
 		this.httpServer.stop(5);
@@ -34,6 +34,7 @@ public class JUnitSession {
 	private volatile boolean initFailed = false;
 
 	private List<Browser> browsers;
+	private ShardedTestQueue shardedTestQueue;
 	private HashMap<Class<? extends AsyncProcess>, AsyncProcess> sharedDependencies = new HashMap<Class<? extends AsyncProcess>, AsyncProcess>();
 
 	public static JUnitSession getInstance() {
@@ -98,6 +99,9 @@ public class JUnitSession {
 
 	private void initBrowsers() {
 		browsers = new ArrayList<Browser>(config.getBrowsers());
+		if (config.isShardTests()) {
+			shardedTestQueue = new ShardedTestQueue(browsers.size());
+		}
 	}
 
 	private void initBrowserDependencies() throws InitializationError {
@@ -186,6 +190,9 @@ public class JUnitSession {
 	private void reset() {
 		config = null;
 
+		if (shardedTestQueue != null) {
+			shardedTestQueue.close();
+		}
 		for (Browser browser : browsers) {
 			try {
 				browser.notifyNoMoreTests();
@@ -257,6 +264,13 @@ public class JUnitSession {
 		return this.browsers;
 	}
 
+	/**
+	 * @return the queue shared by all the browsers when the tests are sharded, null otherwise.
+	 */
+	public ShardedTestQueue getShardedTestQueue() {
+		return this.shardedTestQueue;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> T getDependency(Class<T> depencencyType) {
 		return (T) this.sharedDependencies.get(depencencyType);
@@ -1,5 +1,7 @@
 package org.stjs.testing.driver;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 import org.junit.Test;
@@ -10,7 +12,11 @@ import org.junit.runners.model.TestClass;
  * Coordinates the execution of one unit test across several browsers. The JUnit runner creates one instance of this
  * class for each unit test, specifying how many browsers are expected to execute this test. The JUnit runner then sends
  * this test to all browsers and waits for all browsers to return the execution results by calling
- * awaitExecutionresult(). When a browser has finished executing a test, notifiyExecutionResult() is called.
+ * awaitExecutionresult(). When a browser has finished executing a test, notifiyExecutionResult() is called.<br>
+ * <br>
+ * When the tests are batched, the MultiTestMethod of the first test of a batch is sent to the browsers and carries the
+ * MultiTestMethods of all the tests of the batch (including itself). The browsers execute all of them in one page and
+ * notify each one of its result.
  * 
  * @author lordofthepigs
  */
@@ -20,6 +26,7 @@ public class MultiTestMethod {
 	private final FrameworkMethod meth;
 	private final CountDownLatch latch;
 	private final TestResultCollection results;
+	private List<MultiTestMethod> batch = Collections.singletonList(this);
 
 	/**
 	 * Creates a new MultiTestMethod that reprents the specified unit test of the specified class, executed on the
@@ -56,6 +63,32 @@ public class MultiTestMethod {
 		return this.results;
 	}
 
+	/**
+	 * Called for all the browsers when a browser cannot execute this test anymore. The result is reported to all the
+	 * tests of the batch.
+	 */
+	public void notifyBatchExecutionResult(TestResult result) {
+		for (MultiTestMethod method : batch) {
+			method.notifyExecutionResult(result);
+		}
+	}
+
+	/**
+	 * @return the tests that are executed in the same page as this one, including this one. The list contains only this
+	 *         test if batching is disabled.
+	 */
+	public List<MultiTestMethod> getBatch() {
+		return batch;
+	}
+
+	public void setBatch(List<MultiTestMethod> batch) {
+		this.batch = batch;
+	}
+
+	public boolean isBatch() {
+		return batch.size() > 1;
+	}
+
 	public FrameworkMethod getMethod() {
 		return this.meth;
 	}
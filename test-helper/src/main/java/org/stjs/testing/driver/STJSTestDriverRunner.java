@@ -17,14 +17,29 @@ package org.stjs.testing.driver;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.Ignore;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
 import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
 import org.stjs.generator.GeneratorConstants;
 import org.stjs.javascript.annotation.STJSBridge;
+import org.stjs.testing.annotation.FreshPage;
 import org.stjs.testing.driver.browser.Browser;
 
 /**
@@ -36,9 +51,20 @@ import org.stjs.testing.driver.browser.Browser;
 public class STJSTestDriverRunner extends BlockJUnit4ClassRunner {
 	public final static File targetDirectory = new File("target", GeneratorConstants.STJS_TEST_TEMP_FOLDER);
 
+	private Filter filter = Filter.ALL;
+
+	// the tests that were sent to the browsers together with a previous test of this class, by method
+	private final Map<FrameworkMethod, MultiTestMethod> batchedMethods = new HashMap<FrameworkMethod, MultiTestMethod>();
+	private boolean batchDispatched = false;
+
 	public STJSTestDriverRunner(Class<?> klass) throws InitializationError, IOException {
 		super(klass);
-		JUnitSession.getInstance().runnerInstantiated(this);
+		JUnitSession session = JUnitSession.getInstance();
+		session.runnerInstantiated(this);
+		if (session.getConfig().isShardTests()) {
+			// the methods of the class are dispatched all at once, so that each browser can pick up a different one
+			setScheduler(new ShardingScheduler(session.getConfig().getBrowserCount()));
+		}
 	}
 
 	@Override
@@ -47,6 +73,13 @@ public class STJSTestDriverRunner extends BlockJUnit4ClassRunner {
 		JUnitSession.getInstance().runnerCompleted(this);
 	}
 
+	@Override
+	public void filter(Filter filter) throws NoTestsRemainException {
+		super.filter(filter);
+		// remember the filter, so that the batch contains only the tests that JUnit really runs
+		this.filter = filter;
+	}
+
 	@Override
 	protected Statement methodBlock(final FrameworkMethod method) {
 		return new Statement() {
@@ -59,11 +92,12 @@ public class STJSTestDriverRunner extends BlockJUnit4ClassRunner {
 					System.out.println("Executing Statement for " + method.getMethod().toString());
 				}
 
-				MultiTestMethod aMethod = new MultiTestMethod(getTestClass(), method, session.getConfig()
-						.getBrowserCount());
-
-				for (Browser browser : session.getBrowsers()) {
-					browser.executeTest(aMethod);
+				MultiTestMethod aMethod;
+				if (session.getConfig().isBatchTests()) {
+					aMethod = executeBatchedTest(method, session);
+				} else {
+					aMethod = newMultiTestMethod(method, session);
+					executeTest(aMethod, session);
 				}
 
 				TestResultCollection results = aMethod.awaitExecutionResult();
@@ -76,4 +110,111 @@ public class STJSTestDriverRunner extends BlockJUnit4ClassRunner {
 			}
 		};
 	}
+
+	private MultiTestMethod newMultiTestMethod(FrameworkMethod method, JUnitSession session) {
+		int nBrowsers = session.getConfig().isShardTests() ? 1 : session.getConfig().getBrowserCount();
+		return new MultiTestMethod(getTestClass(), method, nBrowsers);
+	}
+
+	private void executeTest(MultiTestMethod aMethod, JUnitSession session) {
+		if (session.getConfig().isShardTests()) {
+			session.getShardedTestQueue().executeTest(aMethod);
+		} else {
+			for (Browser browser : session.getBrowsers()) {
+				browser.executeTest(aMethod);
+			}
+		}
+	}
+
+	/**
+	 * The first time this method is called, all the test methods of the class that do not need a fresh page are sent
+	 * to the browsers in one batch. The following calls only return the MultiTestMethod that was already sent with the
+	 * batch.
+	 */
+	private synchronized MultiTestMethod executeBatchedTest(FrameworkMethod method, JUnitSession session) {
+		MultiTestMethod aMethod = batchedMethods.remove(method);
+		if (aMethod != null) {
+			return aMethod;
+		}
+
+		aMethod = newMultiTestMethod(method, session);
+		if (!batchDispatched && isBatchable(getTestClass(), method)) {
+			batchDispatched = true;
+			List<FrameworkMethod> candidates = new ArrayList<FrameworkMethod>();
+			for (FrameworkMethod other : getChildren()) {
+				if (filter.shouldRun(describeChild(other))) {
+					candidates.add(other);
+				}
+			}
+			List<MultiTestMethod> batch = new ArrayList<MultiTestMethod>();
+			batch.add(aMethod);
+			for (FrameworkMethod other : getBatchedWith(getTestClass(), method, candidates)) {
+				MultiTestMethod otherMethod = newMultiTestMethod(other, session);
+				batch.add(otherMethod);
+				batchedMethods.put(other, otherMethod);
+			}
+			aMethod.setBatch(batch);
+		}
+		executeTest(aMethod, session);
+		return aMethod;
+	}
+
+	/**
+	 * @return the methods, among the candidates, that are sent to the browsers in the same batch as the specified method. The methods
+	 *         that need a fresh page are never batched, so the list is empty if the specified method needs one.
+	 */
+	static List<FrameworkMethod> getBatchedWith(TestClass testClass, FrameworkMethod method, List<FrameworkMethod> candidates) {
+		List<FrameworkMethod> batched = new ArrayList<FrameworkMethod>();
+		if (!isBatchable(testClass, method)) {
+			return batched;
+		}
+		for (FrameworkMethod other : candidates) {
+			if (!other.equals(method) && isBatchable(testClass, other)) {
+				batched.add(other);
+			}
+		}
+		return batched;
+	}
+
+	private static boolean isBatchable(TestClass testClass, FrameworkMethod method) {
+		return method.getAnnotation(FreshPage.class) == null && method.getAnnotation(Ignore.class) == null
+				&& testClass.getJavaClass().getAnnotation(FreshPage.class) == null;
+	}
+
+	/**
+	 * Runs the test methods of a class in parallel, using as many threads as configured browsers. Each thread blocks
+	 * while its test is being executed by one of the browsers.
+	 */
+	private static class ShardingScheduler implements RunnerScheduler {
+		private final ExecutorService executor;
+
+		public ShardingScheduler(int browserCount) {
+			executor = Executors.newFixedThreadPool(browserCount, new ThreadFactory() {
+				private AtomicInteger i = new AtomicInteger(0);
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r);
+					t.setName("stjsShard-" + i.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+
+		@Override
+		public void schedule(Runnable childStatement) {
+			executor.submit(childStatement);
+		}
+
+		@Override
+		public void finished() {
+			executor.shutdown();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
 }
@@ -0,0 +1,103 @@
+/**
+ *  Copyright 2011 Alexandru Craciun, Eyal Kaspi
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.stjs.testing.driver;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Work queue shared by all the browsers when the tests are sharded (stjs.test.distribution=shard). The JUnit runner
+ * adds the tests to this queue, and each test is picked up by exactly one browser: the first one that asks for a new
+ * test. Adding more browsers therefore makes the whole test suite faster, instead of running every test once more.<br>
+ * <br>
+ * The queue keeps track of the browsers that are still alive. When the last browser dies, the pending tests and all the
+ * tests that are added afterwards are failed immediately instead of waiting forever for a browser to pick them up.
+ */
+public class ShardedTestQueue {
+	private static final long POLL_INTERVAL_MILLIS = 200;
+
+	private final BlockingQueue<MultiTestMethod> queue = new LinkedBlockingQueue<MultiTestMethod>();
+	private final AtomicInteger liveBrowsers;
+	private volatile boolean closed = false;
+
+	public ShardedTestQueue(int browserCount) {
+		this.liveBrowsers = new AtomicInteger(browserCount);
+	}
+
+	/**
+	 * Adds the test to the queue. This method is non-blocking, the caller is expected to wait for the result using
+	 * {@link MultiTestMethod#awaitExecutionResult()}.
+	 */
+	public void executeTest(MultiTestMethod method) {
+		if (liveBrowsers.get() <= 0) {
+			reportNoLiveBrowser(method);
+			return;
+		}
+		queue.add(method);
+		if (liveBrowsers.get() <= 0) {
+			// the last browser died while we were adding the test
+			failPendingTests();
+		}
+	}
+
+	/**
+	 * Blocks until a test is available for the calling browser, or until the queue is closed.
+	 *
+	 * @return The next test to execute, or null if there are no more tests
+	 */
+	public MultiTestMethod awaitNextTest() throws InterruptedException {
+		while (true) {
+			MultiTestMethod method = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+			if (method != null) {
+				return method;
+			}
+			if (closed) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Called once by each browser that is marked as dead.
+	 */
+	public void browserDied() {
+		if (liveBrowsers.decrementAndGet() <= 0) {
+			failPendingTests();
+		}
+	}
+
+	/**
+	 * Notifies the browsers that there are no more tests to execute. The browsers waiting in
+	 * {@link #awaitNextTest()} return once the queue is empty.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	private void failPendingTests() {
+		MultiTestMethod method;
+		while ((method = queue.poll()) != null) {
+			reportNoLiveBrowser(method);
+		}
+	}
+
+	private void reportNoLiveBrowser(MultiTestMethod method) {
+		method.notifyBatchExecutionResult(TestResult.deadBrowser("none",
+				"All the browsers are dead, no browser is left to execute the test " + method.getName()));
+	}
+}
@@ -1,5 +1,7 @@
 package org.stjs.testing.driver;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -13,6 +15,9 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
 
 import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
@@ -24,11 +29,106 @@ public class TestResource {
 	private final ClassLoader classLoader;
 	private final String httpPath;
 	private final URL resourceUrl;
+	private final AtomicLong cacheBudget;
+	private final File resourceFile;
+
+	private volatile Content content;
+	/**
+	 * the state of the resource when it was found too large for the cache, null if it was not
+	 */
+	private volatile FileState tooLargeForCache;
 
 	public TestResource(ClassLoader classLoader, String httpPath, URL resourceUrl) throws URISyntaxException {
+		this(classLoader, httpPath, resourceUrl, new AtomicLong(0));
+	}
+
+	/**
+	 * @param cacheBudget
+	 *            - the number of bytes that can still be kept in memory, shared by all the resources of a resolver. The
+	 *            content of this resource is cached only if it fits in the remaining budget.
+	 */
+	public TestResource(ClassLoader classLoader, String httpPath, URL resourceUrl, AtomicLong cacheBudget)
+			throws URISyntaxException {
 		this.classLoader = classLoader;
 		this.httpPath = httpPath;
 		this.resourceUrl = resourceUrl;
+		this.cacheBudget = cacheBudget;
+		this.resourceFile = resourceUrl != null && "file".equals(resourceUrl.getProtocol()) ? new File(resourceUrl.toURI()) : null;
+	}
+
+	public boolean exists() {
+		return resourceUrl != null;
+	}
+
+	/**
+	 * Returns the in-memory content of this resource, loading it the first time. The returned content is shared by all the requests and must
+	 * not be modified. Resources coming from the file system are reloaded when their modification date changes, the ones coming from jars are
+	 * loaded only once.
+	 *
+	 * @return the content, or null if the resource does not exist or does not fit in the cache. In this case the resource must be streamed
+	 *         with {@link #copyTo(HttpExchange)}.
+	 */
+	public Content getContent() throws IOException {
+		if (resourceUrl == null || isTooLargeForCache()) {
+			return null;
+		}
+		Content current = content;
+		if (current != null && (resourceFile == null || resourceFile.lastModified() == current.getLastModified())) {
+			return current;
+		}
+		return loadContent(current);
+	}
+
+	/**
+	 * a resource found too large is checked again if it comes from the file system and its size or its modification date changed since
+	 */
+	private boolean isTooLargeForCache() {
+		FileState tooLarge = tooLargeForCache;
+		if (tooLarge == null) {
+			return false;
+		}
+		if (resourceFile == null || tooLarge.equals(new FileState(resourceFile))) {
+			return true;
+		}
+		tooLargeForCache = null;
+		return false;
+	}
+
+	private synchronized Content loadContent(Content previous) throws IOException {
+		if (content != previous) {
+			// another thread has already loaded it
+			return content;
+		}
+		if (previous != null) {
+			cacheBudget.addAndGet(previous.getBytes().length);
+		}
+		content = null;
+		// taken before reading the content, so a change made while it's read is noticed
+		FileState state = resourceFile != null ? new FileState(resourceFile) : null;
+
+		Content loaded = withConnection(new ConnectionOperation<Content>() {
+			@Override
+			public Content doWithConnection(URLConnection connection) throws IOException {
+				long length = connection.getContentLengthLong();
+				if (length > cacheBudget.get()) {
+					return null;
+				}
+				try (InputStream is = connection.getInputStream()) {
+					long lastModified = resourceFile != null ? resourceFile.lastModified() : connection.getLastModified();
+					return new Content(ByteStreams.toByteArray(is), lastModified);
+				}
+			}
+		});
+
+		if (loaded == null || cacheBudget.addAndGet(-loaded.getBytes().length) < 0) {
+			if (loaded != null) {
+				cacheBudget.addAndGet(loaded.getBytes().length);
+			}
+			tooLargeForCache = state != null ? state : FileState.UNCHANGEABLE;
+			return null;
+		}
+		content = loaded;
+		return loaded;
 	}
 
 	public Date getModifiedDate() throws IOException {
@@ -112,4 +212,88 @@ public class TestResource {
 	private interface ConnectionOperation<T> {
 		T doWithConnection(URLConnection connection) throws IOException;
 	}
+
+	/**
+	 * the size and the modification date of a resource file
+	 */
+	private static final class FileState {
+		private static final FileState UNCHANGEABLE = new FileState(-1, -1);
+
+		private final long length;
+		private final long lastModified;
+
+		FileState(File file) {
+			this(file.length(), file.lastModified());
+		}
+
+		private FileState(long length, long lastModified) {
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FileState)) {
+				return false;
+			}
+			FileState other = (FileState) obj;
+			return length == other.length && lastModified == other.lastModified;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (length ^ lastModified);
+		}
+	}
+
+	/**
+	 * The content of a resource kept in memory, together with the values of the HTTP caching headers. The gzipped variant is computed the
+	 * first time it is requested.
+	 */
+	public static final class Content {
+		private final byte[] bytes;
+		private final long lastModified;
+		private final String lastModifiedHeader;
+		private final String etag;
+		private volatile byte[] gzippedBytes;
+
+		Content(byte[] bytes, long lastModified) {
+			this.bytes = bytes;
+			this.lastModified = lastModified;
+			this.lastModifiedHeader = HttpLongPollingServer.formatDateHeader(new Date(lastModified));
+
+			CRC32 crc = new CRC32();
+			crc.update(bytes);
+			this.etag = "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(bytes.length) + "\"";
+		}
+
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		public String getLastModifiedHeader() {
+			return lastModifiedHeader;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+
+		public byte[] getGzippedBytes() throws IOException {
+			byte[] gzipped = gzippedBytes;
+			if (gzipped == null) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3 + 64);
+				try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+					gzip.write(bytes);
+				}
+				gzipped = out.toByteArray();
+				gzippedBytes = gzipped;
+			}
+			return gzipped;
+		}
+	}
 }
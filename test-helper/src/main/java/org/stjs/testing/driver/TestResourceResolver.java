@@ -4,6 +4,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import org.webjars.WebJarAssetLocator;
@@ -15,9 +16,19 @@ public class TestResourceResolver {
 	private final ConcurrentHashMap<String, TestResource> cache = new ConcurrentHashMap<>();
 	private final ClassLoader classLoader;
 	private final WebJarAssetLocator webjarLocator;
+	private final AtomicLong cacheBudget;
 
 	public TestResourceResolver(ClassLoader classLoader) {
+		this(classLoader, 0);
+	}
+
+	/**
+	 * @param maxCacheSize
+	 *            - the maximum number of bytes of resource content that are kept in memory by all the resources resolved by this resolver
+	 */
+	public TestResourceResolver(ClassLoader classLoader, long maxCacheSize) {
 		this.classLoader = classLoader;
+		this.cacheBudget = new AtomicLong(maxCacheSize);
 		this.webjarLocator = new WebJarAssetLocator(WebJarAssetLocator.getFullPathIndex( //
 				Pattern.compile(".*"), //
 				classLoader //
@@ -28,7 +39,7 @@ public class TestResourceResolver {
 		TestResource resource = cache.get(httpPath);
 		if (resource == null) {
 			URL resourceUrl = resolveResourceUrl(httpPath);
-			resource = new TestResource(classLoader, httpPath, resourceUrl);
+			resource = new TestResource(classLoader, httpPath, resourceUrl, cacheBudget);
 			TestResource existing = cache.putIfAbsent(httpPath, resource);
 			if (existing != null) {
 				resource = existing;
@@ -48,6 +48,14 @@ public class TestResult {
 		return userAgent;
 	}
 
+	public String getLocation() {
+		return location;
+	}
+
+	public boolean isAssert() {
+		return isAssert;
+	}
+
 	public boolean isOk() {
 		return "OK".equals(message);
 	}
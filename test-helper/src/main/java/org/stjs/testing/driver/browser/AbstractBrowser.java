@@ -7,7 +7,9 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -109,6 +111,39 @@ public abstract class AbstractBrowser implements Browser {
 		return new TestResult(userAgent, result, location, "true".equals(isAssert));
 	}
 
+	/**
+	 * Reads the results of the last batch of unit tests from the specified HTTP request. The browser sends the number of results in the
+	 * "batchSize" parameter, and the result of the i-th test in the "result<i>", "location<i>" and "isAssert<i>" parameters, sent in the
+	 * query string or, for the big batches, in the body of a POST request.
+	 * If the browser sent a single result, it is used for all the tests of the batch.
+	 */
+	public List<TestResult> buildBatchResults(Map<String, String> queryStringParameters, HttpExchange exchange, int expectedSize) {
+		List<TestResult> results = new ArrayList<TestResult>(expectedSize);
+		if (queryStringParameters.get("batchSize") == null) {
+			TestResult result = buildResult(queryStringParameters, exchange);
+			for (int i = 0; i < expectedSize; ++i) {
+				results.add(result);
+			}
+			return results;
+		}
+
+		String userAgent = exchange.getRequestHeaders().getFirst("User-Agent");
+		for (int i = 0; i < expectedSize; ++i) {
+			String result = queryStringParameters.get("result" + i);
+			if (result == null) {
+				results.add(new TestResult(userAgent, "The browser did not report any result for this test", null, false));
+				continue;
+			}
+			String location = queryStringParameters.get("location" + i);
+			String isAssert = queryStringParameters.get("isAssert" + i);
+			if (getConfig().isDebugEnabled()) {
+				System.out.println("Result " + i + " was: " + result + ", at " + location + ", from " + userAgent);
+			}
+			results.add(new TestResult(userAgent, result, location, "true".equals(isAssert)));
+		}
+		return results;
+	}
+
 	@Override
 	public void stop() {
 		// default implementation does nothing
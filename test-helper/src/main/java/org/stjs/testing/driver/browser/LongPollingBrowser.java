@@ -19,6 +19,7 @@ import org.stjs.testing.driver.DriverConfiguration;
 import org.stjs.testing.driver.HttpLongPollingServer;
 import org.stjs.testing.driver.JUnitSession;
 import org.stjs.testing.driver.MultiTestMethod;
+import org.stjs.testing.driver.ShardedTestQueue;
 import org.stjs.testing.driver.TestClassAttributes;
 import org.stjs.testing.driver.TestClassAttributesRepository;
 import org.stjs.testing.driver.TestResult;
@@ -33,6 +34,9 @@ import com.sun.net.httpserver.HttpExchange;
  * this browser that a new test method must be executed by calling executeTest(MultiTestMethod), or that it has finished executing all the tests
  * by calling notifyNoMoreTests(). The HTTP server waits for a new test to send to the browser by calling awaitNewTestReady(). <br>
  * <br>
+ * When the tests are sharded (see DriverConfiguration.isShardTests()), the browser does not wait for the JUnit runner, but picks up the
+ * next test from the ShardedTestQueue shared by all the browsers.<br>
+ * <br>
  * On top of that, LongPollinBrowser delegates the details of starting and stopping the browser itself to its concrete subclasses.
  *
  * @author lordofthepigs
@@ -105,11 +109,17 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 				System.out.println("Browser " + this.id + " is waiting for a new test");
 			}
 
-			// We now wait for the JUnit thread to supply our thread with the next test.
-			// there is no need to put a timeout here, because if JUnit fails to deliver a new test,
-			// this means that something really bad has happened and that the JUnit JVM will probably terminate very
-			// soon, executing all cleanup actions.
-			methodUnderExecution = exchanger.exchange(null);
+			ShardedTestQueue shardedTestQueue = JUnitSession.getInstance().getShardedTestQueue();
+			if (shardedTestQueue != null) {
+				// the first idle browser picks up the next test
+				methodUnderExecution = shardedTestQueue.awaitNextTest();
+			} else {
+				// We now wait for the JUnit thread to supply our thread with the next test.
+				// there is no need to put a timeout here, because if JUnit fails to deliver a new test,
+				// this means that something really bad has happened and that the JUnit JVM will probably terminate very
+				// soon, executing all cleanup actions.
+				methodUnderExecution = exchanger.exchange(null);
+			}
 
 			if (getConfig().isDebugEnabled()) {
 				if (methodUnderExecution != null) {
@@ -161,7 +171,7 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 	 * Reports this browser as dead to the specified test method. The test will be failed.
 	 */
 	private void reportAsDead(MultiTestMethod method) {
-		method.notifyExecutionResult(TestResult.deadBrowser(this.getClass().getSimpleName(),
+		method.notifyBatchExecutionResult(TestResult.deadBrowser(this.getClass().getSimpleName(),
 				getConfig().getTestTimeout() + " seconds passed and the browser didn't contact back the ST-JS JUnit runner"));
 	}
 
@@ -172,7 +182,8 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 	 */
 	@Override
 	public void notifyNoMoreTests() {
-		if (this.isDead) {
+		if (this.isDead || getConfig().isShardTests()) {
+			// when the tests are sharded, closing the shared queue notifies all the browsers at once
 			return;
 		}
 		try {
@@ -205,7 +216,6 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 	 */
 	public void sendTestFixture(MultiTestMethod meth, HttpExchange exchange) throws Exception {
 		TestClassAttributes attr = testClasses.getAttributes(meth.getTestClass());
-		final Test test = meth.getMethod().getAnnotation(Test.class);
 
 		StringBuilder resp = new StringBuilder(8192);
 		resp.append("<html>\n");
@@ -249,6 +259,44 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 		}
 
 		resp.append("<script language='javascript'>\n");
+		if (meth.isBatch()) {
+			appendBatchScript(resp, attr, meth);
+		} else {
+			appendTestScript(resp, attr, meth);
+		}
+		resp.append("</script>\n");
+		resp.append("</head>\n");
+		resp.append("<body>\n");
+		if (getConfig().isDebugJavaScript()) {
+			resp.append("<div id='startSection'>\n");
+			resp.append("  <h2>JavaScript debugging mode</h2>\n");
+			resp.append("  <ul>\n");
+			resp.append("    <li>Open your developer tools</li>\n");
+			resp.append("    <li>Setup your breakpoints and debugging options</li>\n");
+			resp.append("    <li>Start the test</li>\n");
+			resp.append("  </ul>\n");
+			resp.append("  <button onclick='runTest()'>\n");
+			resp.append("    Start " + attr.getStjsClass().getJavaClass().getSimpleName() + "." + meth.getName() + "\n");
+			resp.append("  </button>\n");
+			resp.append("</div>\n");
+		}
+		if (attr.getHtmlFixture() != null) {
+			if (!Strings.isNullOrEmpty(attr.getHtmlFixture().value())) {
+				resp.append(attr.getHtmlFixture().value());
+
+			} else if (!Strings.isNullOrEmpty(attr.getHtmlFixture().url())) {
+				StringWriter writer = new StringWriter();
+				getConfig().getResource(attr.getHtmlFixture().url()).copyTo(writer);
+				resp.append(writer.toString());
+			}
+		}
+		resp.append("</body>\n");
+		resp.append("</html>\n");
+
+		sendResponse(resp.toString(), exchange);
+	}
+
+	private void appendTestScript(StringBuilder resp, TestClassAttributes attr, MultiTestMethod meth) {
 		if (getConfig().isDebugJavaScript()) {
 			resp.append(" function runTest() {\n");
 			resp.append("    (elem=document.getElementById('startSection')).parentNode.removeChild(elem);\n");
@@ -267,12 +315,7 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 		resp.append("        var stjsTest = new " + testedClassName + "();\n");
 		resp.append("        var stjsResult = 'OK';\n");
 
-		String expectedExceptionConstructor = "null";
-		if (test.expected() != Test.None.class) {
-			ClassWithJavascript exceptionClass = getConfig().getStjsClassResolver().resolve(test.expected().getName());
-			expectedExceptionConstructor = exceptionClass.getJavascriptClassName();
-		}
-		resp.append("        var expectedException = " + expectedExceptionConstructor + ";\n");
+		resp.append("        var expectedException = " + expectedExceptionConstructor(meth) + ";\n");
 
 		// call before methods
 		for (FrameworkMethod beforeMethod : attr.getBeforeMethods()) {
@@ -299,36 +342,74 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 		resp.append("      parent.reportResultAndRunNextTest(stjsResult, stjsResult.location);\n");
 		resp.append("     }\n");
 		resp.append("  }\n");
-		resp.append("</script>\n");
-		resp.append("</head>\n");
-		resp.append("<body>\n");
-		if (getConfig().isDebugJavaScript()) {
-			resp.append("<div id='startSection'>\n");
-			resp.append("  <h2>JavaScript debugging mode</h2>\n");
-			resp.append("  <ul>\n");
-			resp.append("    <li>Open your developer tools</li>\n");
-			resp.append("    <li>Setup your breakpoints and debugging options</li>\n");
-			resp.append("    <li>Start the test</li>\n");
-			resp.append("  </ul>\n");
-			resp.append("  <button onclick='runTest()'>\n");
-			resp.append("    Start " + attr.getStjsClass().getJavaClass().getSimpleName() + "." + meth.getName() + "\n");
-			resp.append("  </button>\n");
-			resp.append("</div>\n");
-		}
-		if (attr.getHtmlFixture() != null) {
-			if (!Strings.isNullOrEmpty(attr.getHtmlFixture().value())) {
-				resp.append(attr.getHtmlFixture().value());
+	}
 
-			} else if (!Strings.isNullOrEmpty(attr.getHtmlFixture().url())) {
-				StringWriter writer = new StringWriter();
-				getConfig().getResource(attr.getHtmlFixture().url()).copyTo(writer);
-				resp.append(writer.toString());
+	/**
+	 * Writes the script that executes all the tests of the batch one after the other, each one with a new instance of the test class, its
+	 * own before and after methods, and a fresh copy of the HTML fixture. All the results are reported at once when the last test is
+	 * finished.
+	 */
+	private void appendBatchScript(StringBuilder resp, TestClassAttributes attr, MultiTestMethod meth) {
+		String testedClassName = attr.getStjsClass().getJavascriptClassName();
+		StringBuilder methodNames = new StringBuilder();
+		StringBuilder expectedExceptions = new StringBuilder();
+		for (MultiTestMethod batched : meth.getBatch()) {
+			if (methodNames.length() > 0) {
+				methodNames.append(", ");
+				expectedExceptions.append(", ");
 			}
+			methodNames.append("'").append(batched.getName()).append("'");
+			expectedExceptions.append(expectedExceptionConstructor(batched));
 		}
-		resp.append("</body>\n");
-		resp.append("</html>\n");
 
-		sendResponse(resp.toString(), exchange);
+		resp.append("  window.onload=function(){\n");
+		resp.append("    Assert=window;\n");
+		resp.append("    var methods = [" + methodNames + "];\n");
+		resp.append("    var expectedExceptions = [" + expectedExceptions + "];\n");
+		resp.append("    var results = [];\n");
+		resp.append("    var fixture = document.body.innerHTML;\n");
+		resp.append("    for (var i = 0; i < methods.length; i++) {\n");
+		resp.append("      var stjsResult = 'OK';\n");
+		resp.append("      var stjsTest = null;\n");
+		resp.append("      document.body.innerHTML = fixture;\n");
+		resp.append("      try{\n");
+		resp.append("        stjsTest = new " + testedClassName + "();\n");
+		for (FrameworkMethod beforeMethod : attr.getBeforeMethods()) {
+			resp.append("        stjsTest." + beforeMethod.getName() + "();\n");
+		}
+		resp.append("        stjsTest[methods[i]]();\n");
+		resp.append("        if(expectedExceptions[i]){\n");
+		resp.append("          stjsResult = 'Expected an exception, but none was thrown';\n");
+		resp.append("        }\n");
+		resp.append("      }catch(ex){\n");
+		resp.append("        if(!expectedExceptions[i] || !stjs.isInstanceOf(ex.constructor,expectedExceptions[i])){\n");
+		resp.append("          stjsResult = ex;\n");
+		resp.append("        }\n");
+		resp.append("      }\n");
+		resp.append("      try{\n");
+		resp.append("        if(stjsTest){\n");
+		for (FrameworkMethod afterMethod : attr.getAfterMethods()) {
+			resp.append("          stjsTest." + afterMethod.getName() + "();\n");
+		}
+		resp.append("        }\n");
+		resp.append("      }catch(ex){\n");
+		resp.append("        if(stjsResult == 'OK'){\n");
+		resp.append("          stjsResult = ex;\n");
+		resp.append("        }\n");
+		resp.append("      }\n");
+		resp.append("      results.push(stjsResult);\n");
+		resp.append("    }\n");
+		resp.append("    parent.reportBatchResultsAndRunNextTest('" + testedClassName + "', methods, results);\n");
+		resp.append("  }\n");
+	}
+
+	private String expectedExceptionConstructor(MultiTestMethod meth) {
+		Test test = meth.getMethod().getAnnotation(Test.class);
+		if (test.expected() == Test.None.class) {
+			return "null";
+		}
+		ClassWithJavascript exceptionClass = getConfig().getStjsClassResolver().resolve(test.expected().getName());
+		return exceptionClass.getJavascriptClassName();
 	}
 
 	protected String httpPath(URI uri) {
@@ -359,13 +440,20 @@ public abstract class LongPollingBrowser extends AbstractBrowser {
 		return processSet(HttpLongPollingServer.class);
 	}
 
-	protected void markAsDead() {
+	protected synchronized void markAsDead() {
+		if (this.isDead) {
+			return;
+		}
 		this.isDead = true;
+		ShardedTestQueue shardedTestQueue = JUnitSession.getInstance().getShardedTestQueue();
+		if (shardedTestQueue != null) {
+			shardedTestQueue.browserDied();
+		}
 	}
 
 	public void markAsDead(Throwable throwable, String userAgent) {
-		this.isDead = true;
-		this.methodUnderExecution.notifyExecutionResult(TestResult.deadBrowser(userAgent, throwable.getMessage()));
+		markAsDead();
+		this.methodUnderExecution.notifyBatchExecutionResult(TestResult.deadBrowser(userAgent, throwable.getMessage()));
 	}
 
 	public long getId() {
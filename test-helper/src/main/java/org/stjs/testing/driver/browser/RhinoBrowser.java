@@ -1,20 +1,26 @@
 package org.stjs.testing.driver.browser;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.junit.runners.model.InitializationError;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.ScriptableObject;
+import org.stjs.generator.executor.RhinoScriptCache;
 import org.stjs.testing.driver.DriverConfiguration;
 
 /**
- * This browser uses Rhino Javascript engine and env.js to run a headless browser inside the virtual machine.
+ * This browser uses Rhino Javascript engine and env.js to run a headless browser inside the virtual machine.<br>
+ * env.rhino.js is compiled only once and shared by all the Rhino browsers that use the same optimization level, each
+ * browser executing it in its own scope.
  * 
  * @author acraciun
  */
 public class RhinoBrowser extends LongPollingBrowser {
+	private static final ConcurrentMap<Integer, RhinoScriptCache> SCRIPT_CACHES =
+			new ConcurrentHashMap<Integer, RhinoScriptCache>();
 
 	public RhinoBrowser(DriverConfiguration config) {
 		super(config);
@@ -32,13 +38,14 @@ public class RhinoBrowser extends LongPollingBrowser {
 				try {
 					// bootstrap Rhino with env.rhino.js so that our rhino looks like a real browser
 					final Context cx = ContextFactory.getGlobal().enterContext();
-					cx.setOptimizationLevel(-1);
+					RhinoScriptCache scriptCache = getScriptCache(getConfig().getRhinoOptimizationLevel());
+					cx.setOptimizationLevel(scriptCache.getOptimizationLevel());
 					cx.setLanguageVersion(Context.VERSION_1_5);
 					final ScriptableObject scope = cx.initStandardObjects();
 					String printFunction = "function print(message) {java.lang.System.out.println(message);}";
 					cx.evaluateString(scope, printFunction, "print", 1, null);
-					cx.evaluateReader(scope, new InputStreamReader(Thread.currentThread().getContextClassLoader()
-							.getResourceAsStream("env.rhino.js")), "env.rhino.js", 1, null);
+					scriptCache.getResourceScript(cx, Thread.currentThread().getContextClassLoader(), "env.rhino.js")
+							.exec(cx, scope);
 					cx.evaluateString(scope, "window.location='" + getStartPageUrl(getId(), false) + "';", "eval", 1,
 							null);
 				} catch (IOException e) {
@@ -50,4 +57,12 @@ public class RhinoBrowser extends LongPollingBrowser {
 		t.start();
 	}
 
+	private static RhinoScriptCache getScriptCache(int optimizationLevel) {
+		RhinoScriptCache cache = SCRIPT_CACHES.get(optimizationLevel);
+		if (cache == null) {
+			SCRIPT_CACHES.putIfAbsent(optimizationLevel, new RhinoScriptCache(optimizationLevel));
+			cache = SCRIPT_CACHES.get(optimizationLevel);
+		}
+		return cache;
+	}
 }
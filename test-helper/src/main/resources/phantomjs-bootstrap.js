@@ -3,9 +3,43 @@ var browserId = system.args[1];
 var testServer = system.args[2];
 
 var iframe = document.createElement('iframe');
+iframe.name = 'testFrame';
 document.body.appendChild(iframe);
 
 
+// the longest URL sent with the results of a batch. The results of a bigger batch are posted, as the length of the URLs is limited
+var MAX_URL_LENGTH = 2000;
+
+// same as describeResult in start.html, but using the native stack of the error, as stacktrace.js is not loaded here. The location
+// is not encoded, as it's sent by runNextTestWithResults
+function describeResult(result, stacktrace){
+	var location = stacktrace;
+	var isAssert = false;
+	if (result != "OK" && result && result.stack) {
+		var errorStack = [];
+		var lines = result.stack.split("\n");
+		for(var i = 0; i < lines.length; ++i){
+			var line = lines[i].replace(/^\s+|\s+$/g, "");
+			if (line.length > 0) {
+				errorStack.push(line);
+			}
+		}
+		console.error(errorStack.join("\n"));
+		errorStack.splice(errorStack.length - 1,1);
+		location = errorStack.join(";");
+
+		// some engines start the stack with the message of the error
+		var firstFrame = errorStack[0] == String(result) ? 1 : 0;
+		for(var j = firstFrame; j < errorStack.length; ++j){
+			if (errorStack[j].indexOf("junit.js") < 0) {
+				isAssert = (j - firstFrame > 1);
+				break;
+			}
+		}
+	}
+	return {location: location, isAssert: isAssert};
+}
+
 function reportResultAndRunNextTest(result, stacktrace){
 	console.error('reporting test result');
 	iframe.src = testServer + 'getNextTest' + 
@@ -15,6 +49,48 @@ function reportResultAndRunNextTest(result, stacktrace){
 			'&rand=' + Math.random();
 }
 
+// sends the given results in the URL loading the next test, or posts them with a form targeting the iframe if they're too long
+function runNextTestWithResults(parameters){
+	var query = '';
+	for(var name in parameters){
+		query += '&' + name + '=' + encodeURIComponent(parameters[name]);
+	}
+	var url = testServer + 'getNextTest' +
+			'?browserId=' + browserId;
+	if (url.length + query.length < MAX_URL_LENGTH) {
+		iframe.src = url + query + '&rand=' + Math.random();
+		return;
+	}
+
+	var form = document.createElement('form');
+	form.method = 'POST';
+	form.acceptCharset = 'UTF-8';
+	form.action = url + '&rand=' + Math.random();
+	form.target = iframe.name;
+	for(name in parameters){
+		var input = document.createElement('input');
+		input.type = 'hidden';
+		input.name = name;
+		input.value = parameters[name];
+		form.appendChild(input);
+	}
+	document.body.appendChild(form);
+	form.submit();
+	document.body.removeChild(form);
+}
+
+function reportBatchResultsAndRunNextTest(testedClassName, methodNames, results){
+	console.error('reporting batch results');
+	var parameters = {batchSize: results.length};
+	for(var i = 0; i < results.length; ++i){
+		var desc = describeResult(results[i], results[i].location);
+		parameters['result' + i] = String(results[i]);
+		parameters['location' + i] = desc.location;
+		parameters['isAssert' + i] = desc.isAssert;
+	}
+	runNextTestWithResults(parameters);
+}
+
 function runFirstTest(){
 	reportResultAndRunNextTest("OK");
 }
@@ -23,4 +99,4 @@ function startingTest(){
 	// empty for phantomjs
 }
 
-runFirstTest();
\ No newline at end of file
+runFirstTest();
@@ -0,0 +1,51 @@
+package org.stjs.testing.driver;
+
+import static org.stjs.testing.driver.SampleMethods.newMethod;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiTestMethodTest {
+
+	@Test
+	public void testNotBatchedByDefault() throws Exception {
+		MultiTestMethod method = newMethod("first", 1);
+		Assert.assertFalse(method.isBatch());
+		Assert.assertEquals(Arrays.asList(method), method.getBatch());
+	}
+
+	@Test
+	public void testEachTestOfTheBatchGetsItsOwnResult() throws Exception {
+		MultiTestMethod first = newMethod("first", 1);
+		MultiTestMethod second = newMethod("second", 1);
+		first.setBatch(Arrays.asList(first, second));
+		Assert.assertTrue(first.isBatch());
+
+		first.notifyExecutionResult(new TestResult("agent", "OK", null, false));
+		second.notifyExecutionResult(new TestResult("agent", "failed", "location", true));
+
+		Assert.assertTrue(first.awaitExecutionResult().isOk());
+		TestResultCollection secondResults = second.awaitExecutionResult();
+		Assert.assertFalse(secondResults.isOk());
+		Assert.assertEquals("failed", secondResults.getResult(0).getMessage());
+	}
+
+	@Test
+	public void testBatchResultIsReportedToAllTheTests() throws Exception {
+		MultiTestMethod first = newMethod("first", 2);
+		MultiTestMethod second = newMethod("second", 2);
+		first.setBatch(Arrays.asList(first, second));
+
+		first.notifyBatchExecutionResult(new TestResult("agent1", "OK", null, false));
+		first.notifyBatchExecutionResult(TestResult.deadBrowser("agent2", "dead"));
+
+		for (MultiTestMethod method : first.getBatch()) {
+			TestResultCollection results = method.awaitExecutionResult();
+			Assert.assertFalse(results.isOk());
+			Assert.assertTrue(results.getResult(0).isOk());
+			Assert.assertTrue(results.getResult(1).isDead());
+		}
+	}
+}
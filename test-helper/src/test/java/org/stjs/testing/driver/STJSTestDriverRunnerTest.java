@@ -0,0 +1,57 @@
+package org.stjs.testing.driver;
+
+import static org.stjs.testing.driver.SampleMethods.method;
+import static org.stjs.testing.driver.SampleMethods.methods;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+import org.stjs.testing.driver.SampleMethods.FreshSample;
+import org.stjs.testing.driver.SampleMethods.Sample;
+
+public class STJSTestDriverRunnerTest {
+
+	@Test
+	public void testBatchContainsTheOtherMethods() throws Exception {
+		TestClass testClass = new TestClass(Sample.class);
+		List<FrameworkMethod> candidates = methods(Sample.class, "first", "second", "third");
+
+		List<FrameworkMethod> batched = STJSTestDriverRunner.getBatchedWith(testClass, method(Sample.class, "first"), candidates);
+
+		Assert.assertEquals(methods(Sample.class, "second", "third"), batched);
+	}
+
+	@Test
+	public void testFreshPageMethodIsNotBatched() throws Exception {
+		TestClass testClass = new TestClass(Sample.class);
+		List<FrameworkMethod> candidates = methods(Sample.class, "first", "second", "third", "fresh", "ignored");
+
+		List<FrameworkMethod> batched = STJSTestDriverRunner.getBatchedWith(testClass, method(Sample.class, "first"), candidates);
+
+		Assert.assertEquals(methods(Sample.class, "second", "third"), batched);
+	}
+
+	@Test
+	public void testFreshPageMethodHasNoBatch() throws Exception {
+		TestClass testClass = new TestClass(Sample.class);
+		List<FrameworkMethod> candidates = methods(Sample.class, "first", "second", "fresh");
+
+		List<FrameworkMethod> batched = STJSTestDriverRunner.getBatchedWith(testClass, method(Sample.class, "fresh"), candidates);
+
+		Assert.assertEquals(Collections.emptyList(), batched);
+	}
+
+	@Test
+	public void testFreshPageClassIsNotBatched() throws Exception {
+		TestClass testClass = new TestClass(FreshSample.class);
+		List<FrameworkMethod> candidates = methods(FreshSample.class, "first", "second");
+
+		List<FrameworkMethod> batched = STJSTestDriverRunner.getBatchedWith(testClass, method(FreshSample.class, "first"), candidates);
+
+		Assert.assertEquals(Collections.emptyList(), batched);
+	}
+}
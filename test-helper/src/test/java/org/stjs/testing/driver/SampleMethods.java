@@ -0,0 +1,70 @@
+package org.stjs.testing.driver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Ignore;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+import org.stjs.testing.annotation.FreshPage;
+
+/**
+ * Fixtures shared by the tests of the driver: the methods of the {@link Sample} classes wrapped as the runner sees them.
+ */
+public final class SampleMethods {
+
+	private SampleMethods() {
+		//
+	}
+
+	public static FrameworkMethod method(Class<?> clazz, String name) throws NoSuchMethodException {
+		return new FrameworkMethod(clazz.getMethod(name));
+	}
+
+	public static List<FrameworkMethod> methods(Class<?> clazz, String... names) throws NoSuchMethodException {
+		FrameworkMethod[] methods = new FrameworkMethod[names.length];
+		for (int i = 0; i < names.length; ++i) {
+			methods[i] = method(clazz, names[i]);
+		}
+		return Arrays.asList(methods);
+	}
+
+	public static MultiTestMethod newMethod(String name, int nBrowsers) throws NoSuchMethodException {
+		return new MultiTestMethod(new TestClass(Sample.class), method(Sample.class, name), nBrowsers);
+	}
+
+	public static class Sample {
+		public void first() {
+			// nothing
+		}
+
+		public void second() {
+			// nothing
+		}
+
+		public void third() {
+			// nothing
+		}
+
+		@FreshPage
+		public void fresh() {
+			// nothing
+		}
+
+		@Ignore
+		public void ignored() {
+			// nothing
+		}
+	}
+
+	@FreshPage
+	public static class FreshSample {
+		public void first() {
+			// nothing
+		}
+
+		public void second() {
+			// nothing
+		}
+	}
+}
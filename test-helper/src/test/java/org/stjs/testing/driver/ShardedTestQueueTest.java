@@ -0,0 +1,46 @@
+package org.stjs.testing.driver;
+
+import static org.stjs.testing.driver.SampleMethods.newMethod;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardedTestQueueTest {
+
+	@Test
+	public void testEachTestIsPickedUpOnce() throws Exception {
+		ShardedTestQueue queue = new ShardedTestQueue(2);
+		MultiTestMethod first = newMethod("first", 1);
+		MultiTestMethod second = newMethod("second", 1);
+		queue.executeTest(first);
+		queue.executeTest(second);
+
+		Assert.assertSame(first, queue.awaitNextTest());
+		Assert.assertSame(second, queue.awaitNextTest());
+	}
+
+	@Test
+	public void testClosedQueueReturnsNull() throws Exception {
+		ShardedTestQueue queue = new ShardedTestQueue(1);
+		queue.close();
+		Assert.assertNull(queue.awaitNextTest());
+	}
+
+	@Test
+	public void testPendingTestsFailWhenAllBrowsersAreDead() throws Exception {
+		ShardedTestQueue queue = new ShardedTestQueue(2);
+		MultiTestMethod pending = newMethod("first", 1);
+		queue.executeTest(pending);
+
+		queue.browserDied();
+		queue.browserDied();
+
+		TestResultCollection results = pending.awaitExecutionResult();
+		Assert.assertFalse(results.isOk());
+		Assert.assertTrue(results.getResult(0).isDead());
+
+		MultiTestMethod late = newMethod("second", 1);
+		queue.executeTest(late);
+		Assert.assertFalse(late.awaitExecutionResult().isOk());
+	}
+}
@@ -0,0 +1,95 @@
+package org.stjs.testing.driver;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+public class TestResourceTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File newFile(String content) throws IOException {
+		File file = folder.newFile("script.js");
+		Files.write(content, file, Charsets.UTF_8);
+		return file;
+	}
+
+	@Test
+	public void testContentIsCachedWithinBudget() throws Exception {
+		File file = newFile("var a = 1;");
+		AtomicLong budget = new AtomicLong(1024);
+		TestResource resource = new TestResource(getClass().getClassLoader(), "/script.js", file.toURI().toURL(), budget);
+
+		TestResource.Content content = resource.getContent();
+		Assert.assertEquals("var a = 1;", new String(content.getBytes(), Charsets.UTF_8));
+		Assert.assertSame(content, resource.getContent());
+		Assert.assertEquals(1024 - content.getBytes().length, budget.get());
+		Assert.assertNotNull(content.getEtag());
+		Assert.assertNotNull(content.getLastModifiedHeader());
+	}
+
+	@Test
+	public void testContentIsReloadedWhenTheFileChanges() throws Exception {
+		File file = newFile("var a = 1;");
+		AtomicLong budget = new AtomicLong(1024);
+		TestResource resource = new TestResource(getClass().getClassLoader(), "/script.js", file.toURI().toURL(), budget);
+
+		TestResource.Content first = resource.getContent();
+		Files.write("var a = 22;", file, Charsets.UTF_8);
+		Assert.assertTrue(file.setLastModified(first.getLastModified() + 5000));
+
+		TestResource.Content second = resource.getContent();
+		Assert.assertEquals("var a = 22;", new String(second.getBytes(), Charsets.UTF_8));
+		Assert.assertFalse(first.getEtag().equals(second.getEtag()));
+		Assert.assertEquals(1024 - second.getBytes().length, budget.get());
+	}
+
+	@Test
+	public void testContentOverBudgetIsNotCached() throws Exception {
+		File file = newFile("var a = 1;");
+		TestResource resource = new TestResource(getClass().getClassLoader(), "/script.js", file.toURI().toURL(), new AtomicLong(4));
+
+		Assert.assertTrue(resource.exists());
+		Assert.assertNull(resource.getContent());
+	}
+
+	@Test
+	public void testContentOverBudgetIsCachedOnceTheFileShrinks() throws Exception {
+		File file = newFile("var a = 1;");
+		AtomicLong budget = new AtomicLong(8);
+		TestResource resource = new TestResource(getClass().getClassLoader(), "/script.js", file.toURI().toURL(), budget);
+		Assert.assertNull(resource.getContent());
+		long lastModified = file.lastModified();
+
+		Files.write("var b;", file, Charsets.UTF_8);
+		Assert.assertTrue(file.setLastModified(lastModified + 5000));
+
+		TestResource.Content content = resource.getContent();
+		Assert.assertEquals("var b;", new String(content.getBytes(), Charsets.UTF_8));
+		Assert.assertEquals(2, budget.get());
+	}
+
+	@Test
+	public void testGzippedContent() throws Exception {
+		File file = newFile("var a = 1;");
+		TestResource resource = new TestResource(getClass().getClassLoader(), "/script.js", file.toURI().toURL(), new AtomicLong(1024));
+
+		byte[] gzipped = resource.getContent().getGzippedBytes();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+			Assert.assertEquals("var a = 1;", new String(ByteStreams.toByteArray(in), Charsets.UTF_8));
+		}
+	}
+}
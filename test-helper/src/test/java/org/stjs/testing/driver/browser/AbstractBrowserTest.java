@@ -0,0 +1,90 @@
+package org.stjs.testing.driver.browser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.stjs.testing.driver.DriverConfiguration;
+import org.stjs.testing.driver.TestResult;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+@SuppressWarnings("restriction")
+public class AbstractBrowserTest {
+
+	private AbstractBrowser browser;
+	private HttpExchange exchange;
+
+	@Before
+	public void setUp() {
+		browser = Mockito.mock(AbstractBrowser.class, Mockito.CALLS_REAL_METHODS);
+		Mockito.doReturn(Mockito.mock(DriverConfiguration.class)).when(browser).getConfig();
+
+		Headers headers = new Headers();
+		headers.add("User-Agent", "agent");
+		exchange = Mockito.mock(HttpExchange.class);
+		Mockito.when(exchange.getRequestHeaders()).thenReturn(headers);
+	}
+
+	@Test
+	public void testBatchResultsAreSplit() {
+		Map<String, String> params = new HashMap<String, String>();
+		params.put("batchSize", "3");
+		params.put("result0", "OK");
+		params.put("location0", "undefined");
+		params.put("isAssert0", "false");
+		// the browser encodes the results, so the separators of the query string in the messages are decoded as they were sent
+		params.put("result1", "Error: expected a & b = c");
+		params.put("location1", "fail@http://localhost/junit.js:1:1;test@http://localhost/org/stjs/Test.js:3:1");
+		params.put("isAssert1", "true");
+		params.put("result2", "TypeError: x is undefined");
+		params.put("location2", "test@http://localhost/org/stjs/Test.js:5:1");
+		params.put("isAssert2", "false");
+
+		List<TestResult> results = browser.buildBatchResults(params, exchange, 3);
+
+		Assert.assertEquals(3, results.size());
+		Assert.assertTrue(results.get(0).isOk());
+
+		Assert.assertEquals("Error: expected a & b = c", results.get(1).getMessage());
+		Assert.assertEquals("fail@http://localhost/junit.js:1:1;test@http://localhost/org/stjs/Test.js:3:1", results.get(1).getLocation());
+		Assert.assertTrue(results.get(1).isAssert());
+		Assert.assertEquals("agent", results.get(1).getUserAgent());
+
+		Assert.assertEquals("TypeError: x is undefined", results.get(2).getMessage());
+		Assert.assertFalse(results.get(2).isAssert());
+	}
+
+	@Test
+	public void testMissingBatchResultFails() {
+		Map<String, String> params = new HashMap<String, String>();
+		params.put("batchSize", "1");
+		params.put("result0", "OK");
+
+		List<TestResult> results = browser.buildBatchResults(params, exchange, 2);
+
+		Assert.assertEquals(2, results.size());
+		Assert.assertTrue(results.get(0).isOk());
+		Assert.assertFalse(results.get(1).isOk());
+	}
+
+	@Test
+	public void testSingleResultIsUsedForTheWholeBatch() {
+		Map<String, String> params = new HashMap<String, String>();
+		params.put("result", "Script error");
+		params.put("location", "undefined");
+
+		List<TestResult> results = browser.buildBatchResults(params, exchange, 2);
+
+		Assert.assertEquals(2, results.size());
+		for (TestResult result : results) {
+			Assert.assertEquals("Script error", result.getMessage());
+			Assert.assertFalse(result.isAssert());
+		}
+	}
+}